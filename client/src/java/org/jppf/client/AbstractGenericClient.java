@@ -64,6 +64,10 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
    * The pool of threads used for submitting execution requests.
    */
   private ThreadPoolExecutor executor;
+  /**
+   * The pool of threads used to serialize the tasks sent to the drivers in parallel, or {@code null} if tasks are serialized sequentially.
+   */
+  private ForkJoinPool serializationPool;
   /**
    * Performs server discovery.
    */
@@ -158,6 +162,12 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
     final BlockingQueue<Runnable> queue = new SynchronousQueue<>();
     executor = new ThreadPoolExecutor(coreThreads, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, queue, new JPPFThreadFactory("JPPF Client"));
     executor.allowCoreThreadTimeOut(true);
+    final int parallelism = config.get(JPPFProperties.CLIENT_SERIALIZATION_PARALLELISM);
+    if (parallelism > 1) serializationPool = new ForkJoinPool(parallelism, fjPool -> {
+      final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(fjPool);
+      thread.setName("JPPF Client Serializer-" + thread.getPoolIndex());
+      return thread;
+    }, null, false);
     if (jobManager == null) jobManager = createJobManager();
     defaultPolicy.set(retrieveDefaultPolicy(JPPFProperties.JOB_SLA_DEFAULT_POLICY));
     defaultClientPolicy.set(retrieveDefaultPolicy(JPPFProperties.JOB_CLIENT_SLA_DEFAULT_POLICY));
@@ -319,6 +329,10 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
         executor.shutdownNow();
         executor = null;
       }
+      if (serializationPool != null) {
+        serializationPool.shutdownNow();
+        serializationPool = null;
+      }
       if (debugEnabled) log.debug("clearing registered class loaders");
       classLoaderRegistrationHandler.close();
       super.close();
@@ -376,6 +390,14 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
     return executor;
   }
 
+  /**
+   * Get the pool of threads used to serialize the tasks sent to the drivers in parallel.
+   * @return a {@link ForkJoinPool}, or {@code null} if the tasks are serialized sequentially.
+   */
+  ForkJoinPool getSerializationPool() {
+    return serializationPool;
+  }
+
   /**
    * Get the job manager for this JPPF client.
    * @return a <code>JobManager</code> instance.
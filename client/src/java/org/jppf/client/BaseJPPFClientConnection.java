@@ -22,13 +22,14 @@ import static org.jppf.client.JPPFClientConnectionStatus.NEW;
 
 import java.io.NotSerializableException;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 import java.util.concurrent.locks.*;
 
 import org.jppf.JPPFException;
 import org.jppf.client.balancer.ClientTaskBundle;
 import org.jppf.comm.socket.*;
-import org.jppf.io.IOHelper;
+import org.jppf.io.*;
 import org.jppf.node.protocol.*;
 import org.jppf.node.protocol.graph.TaskGraphInfo;
 import org.jppf.serialization.*;
@@ -166,7 +167,22 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
    * @return a list of tasks that couldn't be serialized, possibly empty.
    * @throws Exception if an error occurs while sending the request.
    */
-  private static List<Task<?>> sendTasks(final JPPFJob job, final ObjectSerializer ser, final SocketWrapper socketClient, final List<? extends PositionalElement<?>> tasks) throws Exception {
+  private List<Task<?>> sendTasks(final JPPFJob job, final ObjectSerializer ser, final SocketWrapper socketClient, final List<? extends PositionalElement<?>> tasks) throws Exception {
+    final ForkJoinPool serializationPool = pool.getClient().getSerializationPool();
+    if ((serializationPool == null) || (tasks.size() <= 1)) return sendTasksSequentially(job, ser, socketClient, tasks);
+    return sendTasksPipelined(serializationPool, job, ser, socketClient, tasks);
+  }
+
+  /**
+   * Serialize and send a set of tasks to a driver, one after the other.
+   * @param job the job towhich the tasks belong.
+   * @param ser the serializer to use.
+   * @param socketClient an abstraction of the socket connection to send the tasks through.
+   * @param tasks the tasks to send.
+   * @return a list of tasks that couldn't be serialized, possibly empty.
+   * @throws Exception if an error occurs while sending the request.
+   */
+  private static List<Task<?>> sendTasksSequentially(final JPPFJob job, final ObjectSerializer ser, final SocketWrapper socketClient, final List<? extends PositionalElement<?>> tasks) throws Exception {
     final List<Task<?>> notSerializableTasks =  new ArrayList<>(tasks.size());
     for (final PositionalElement<?> task : tasks) {
       try {
@@ -181,6 +197,53 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
     return notSerializableTasks;
   }
 
+  /**
+   * Serialize a set of tasks in parallel and send each of them, in the order of the list, as soon as it is serialized,
+   * so that the serialization of the next tasks overlaps with the network transfer. To bound the memory footprint,
+   * no more than twice the pool's parallelism tasks are serialized ahead of those being sent.
+   * @param serializationPool the pool of threads which serialize the tasks.
+   * @param job the job towhich the tasks belong.
+   * @param ser the serializer to use.
+   * @param socketClient an abstraction of the socket connection to send the tasks through.
+   * @param tasks the tasks to send.
+   * @return a list of tasks that couldn't be serialized, possibly empty.
+   * @throws Exception if an error occurs while sending the request.
+   */
+  private static List<Task<?>> sendTasksPipelined(final ForkJoinPool serializationPool, final JPPFJob job, final ObjectSerializer ser, final SocketWrapper socketClient,
+    final List<? extends PositionalElement<?>> tasks) throws Exception {
+    final List<Task<?>> notSerializableTasks =  new ArrayList<>(tasks.size());
+    final int maxPending = 2 * serializationPool.getParallelism();
+    final Deque<PositionalElement<?>> pendingTasks = new ArrayDeque<>(maxPending);
+    final Deque<ForkJoinTask<DataLocation>> pendingResults = new ArrayDeque<>(maxPending);
+    final OutputDestination dest = new SocketWrapperOutputDestination(socketClient);
+    final Iterator<? extends PositionalElement<?>> it = tasks.iterator();
+    try {
+      while (it.hasNext() || !pendingResults.isEmpty()) {
+        while (it.hasNext() && (pendingResults.size() < maxPending)) {
+          final PositionalElement<?> task = it.next();
+          pendingTasks.add(task);
+          pendingResults.add(serializationPool.submit(() -> IOHelper.serializeData(task, ser)));
+        }
+        final PositionalElement<?> task = pendingTasks.poll();
+        try {
+          final DataLocation dl = pendingResults.poll().get();
+          if (traceEnabled) log.trace("sending object with serialized size={} : {}", dl.getSize(), task);
+          IOHelper.writeData(dl, dest);
+        } catch(final ExecutionException e) {
+          final Throwable cause = e.getCause();
+          if (!(cause instanceof NotSerializableException)) throw (cause instanceof Exception) ? (Exception) cause : e;
+          log.error("error serializing task {} for {} : {}", task, job, ExceptionUtils.getStackTrace(cause));
+          ((Task<?>) task).setThrowable(cause);
+          IOHelper.sendNullData(socketClient);
+          notSerializableTasks.add((Task<?>) task);
+        }
+      }
+    } finally {
+      for (final ForkJoinTask<DataLocation> future: pendingResults) future.cancel(false);
+    }
+    return notSerializableTasks;
+  }
+
   /**
    * Prepare the job header for the remaining tasks to send in the job.
    * @param header the job header sent to the driver.
@@ -176,6 +176,16 @@ public class JPPFDriverJobPersistence {
     return persistedJobsManager.isJobComplete(uuid);
   }
 
+  /**
+   * Get a snapshot of the pending stores and of the store latency, when the driver uses an asynchronous job persistence in write-behind mode.
+   * @return a {@link WriteBehindStatistics} instance, or {@code null} if the driver's job persistence is not asynchronous or not in write-behind mode.
+   * @throws Exception if any error occurs while communicating with the driver.
+   * @since 6.3
+   */
+  public WriteBehindStatistics getWriteBehindStatistics() throws Exception {
+    return persistedJobsManager.getWriteBehindStatistics();
+  }
+
   /**
    * Load an object that is part of a job from the driver's pereistence store.
    * @param <T> the runtime tpe of the object to retrieve.
@@ -27,7 +27,7 @@ import org.jppf.client.JPPFJob;
 import org.jppf.client.event.JobEvent;
 import org.jppf.execute.ExecutorChannel;
 import org.jppf.management.JPPFSystemInformation;
-import org.jppf.node.policy.ExecutionPolicy;
+import org.jppf.node.policy.*;
 import org.jppf.node.protocol.*;
 import org.slf4j.*;
 
@@ -439,8 +439,9 @@ public abstract class AbstractClientJob {
     boolean b = true;
     if (policy != null) {
       final JPPFSystemInformation info = channel.getSystemInformation();
-      preparePolicy(policy);
-      b = policy.evaluate(info);
+      final CompiledPolicy compiled = PolicyUtils.compile(policy);
+      if (!compiled.isCompiled()) preparePolicy(policy);
+      b = compiled.evaluate(info);
       if (traceEnabled) log.trace("policy result = " + b);
     }
     return b;
@@ -361,9 +361,10 @@ public class JobScheduler extends ThreadSynchronization implements Runnable {
     if (preference == null) return idleChannels;
     final List<ChannelWrapper> result = new ArrayList<>(idleChannels.size());
     for (final ExecutionPolicy policy: preference.getChildren()) {
+      final CompiledPolicy compiled = PolicyUtils.compile(policy);
       for (final ChannelWrapper channel: idleChannels) {
-        job.preparePolicy(policy);
-        if (policy.accepts(channel.getSystemInformation())) result.add(channel);
+        if (!compiled.isCompiled()) job.preparePolicy(policy);
+        if (compiled.evaluate(channel.getSystemInformation())) result.add(channel);
       }
       if (!result.isEmpty()) break;
     }
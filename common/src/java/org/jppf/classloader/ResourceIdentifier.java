@@ -81,4 +81,17 @@ public enum ResourceIdentifier
    * Whether lookups of resource in the file system are allowed.
    */
   FILE_LOOKUP_ALLOWED,
+  /**
+   * The hash of a resource definition, computed with the {@link #CONTENT_HASH_ALGORITHM} algorithm.
+   */
+  CONTENT_HASH,
+  /**
+   * The hashes of the definitions a node already holds for the requested resource name, allowing the driver not to send a definition with the same hash.
+   */
+  KNOWN_HASHES;
+
+  /**
+   * The algorithm used to compute the hashes of resource definitions.
+   */
+  public static final String CONTENT_HASH_ALGORITHM = "SHA-256";
 }
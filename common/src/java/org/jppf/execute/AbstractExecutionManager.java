@@ -98,6 +98,10 @@ public abstract class AbstractExecutionManager implements ExecutionManager {
    * The total accumulated elapsed time of the tasks in the current bundle.
    */
   protected final AtomicLong accumulatedElapsed = new AtomicLong(0L);
+  /**
+   * The total accumulated CPU time of the tasks in the current bundle.
+   */
+  protected final AtomicLong accumulatedCpuTime = new AtomicLong(0L);
 
   /**
    * Initialize this execution manager with the specified node.
@@ -210,6 +214,7 @@ public abstract class AbstractExecutionManager implements ExecutionManager {
     final long elapsedTime = taskWrapper.getElapsedTime();
     accumulatedElapsed.addAndGet(elapsedTime);
     final ExecutionInfo info = taskWrapper.getExecutionInfo();
+    if (info != null) accumulatedCpuTime.addAndGet(info.cpuTime);
     final long cpuTime = (info == null) ? 0L : (info.cpuTime / 1000000L);
     final Task<?> task = taskWrapper.getTask();
     taskNotificationDispatcher.fireTaskEnded(task, getCurrentJobId(), getCurrentJobName(), cpuTime, elapsedTime/1000000L, task.getThrowable() != null);
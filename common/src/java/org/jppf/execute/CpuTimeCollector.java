@@ -37,7 +37,9 @@ public class CpuTimeCollector {
    * @return a <code>NodeExecutionInfo</code> instance.
    */
   public static ExecutionInfo computeExecutionInfo(final long threadID) {
-    return (!cpuTimeEnabled) ? new ExecutionInfo() : new ExecutionInfo(ManagementUtils.getThreadCpuTime(threadID), ManagementUtils.getThreadUserTime(threadID));
+    if (!cpuTimeEnabled) return new ExecutionInfo();
+    // the JVM returns -1 for the threads it cannot measure, in particular virtual threads
+    return new ExecutionInfo(Math.max(0L, ManagementUtils.getThreadCpuTime(threadID)), Math.max(0L, ManagementUtils.getThreadUserTime(threadID)));
   }
 
   /**
@@ -133,6 +133,7 @@ public class NodeTaskWrapper implements Runnable {
   public synchronized void cancel(final boolean callOnCancel) {
     this.cancelled = true;
     this.callOnCancel |= callOnCancel;
+    if (task instanceof AbstractTask) ((AbstractTask<?>) task).cancelForkedSubtasks();
     if (task instanceof Future) {
       final Future<?> future = (Future<?>) task;
       if (!future.isDone()) future.cancel(true);
@@ -152,6 +153,7 @@ public class NodeTaskWrapper implements Runnable {
   synchronized void timeout() {
     this.timeout |= !this.cancelled;
     if (!this.cancelled && !started) cancelTimeoutAction();
+    if (task instanceof AbstractTask) ((AbstractTask<?>) task).cancelForkedSubtasks();
     if (task instanceof Future) {
       final Future<?> future = (Future<?>) task;
       if (!future.isDone()) future.cancel(true);
@@ -191,6 +193,12 @@ public class NodeTaskWrapper implements Runnable {
       if (t instanceof UnsatisfiedLinkError) task.setResult(ExceptionUtils.getStackTrace(t));
       if (traceEnabled) log.trace(t.getMessage(), t);
     } finally {
+      try {
+        // the subtasks forked by the task must complete before its results are sent back
+        if (task instanceof AbstractTask) ((AbstractTask<?>) task).joinForkedSubtasks();
+      } catch(final Throwable t) {
+        if (task.getThrowable() == null) task.setThrowable(t);
+      }
       Thread.currentThread().setContextClassLoader(oldCl);
       try {
         elapsedTime = System.nanoTime() - startTime;
@@ -87,7 +87,8 @@ public interface ThreadManager {
   boolean isCpuTimeEnabled();
 
   /**
-   * Create the thread manager instance. Default is {@link ThreadManagerThreadPool}.
+   * Create the thread manager instance. Default is {@link ThreadManagerThreadPool}, while the value "forkjoin" selects a {@link ThreadManagerForkJoin}
+   * and the value "virtual" selects a {@link ThreadManagerVirtual}, provided the JVM supports virtual threads.
    * @param config the configuration to get the thread manager properties from.
    * @param nbThreadsProperty the name of the property which configures the number of threads.
    * @return an instance of {@link ThreadManager}.
@@ -95,10 +96,25 @@ public interface ThreadManager {
   static ThreadManager newInstance(final TypedProperties config, JPPFProperty<Integer> nbThreadsProperty) {
     final Logger log = LoggerFactory.getLogger(ThreadManager.class);
     ThreadManager result = null;
-    final int poolSize = computePoolSize(config, nbThreadsProperty);
-    config.set(nbThreadsProperty, poolSize);
+    int poolSize = computePoolSize(config, nbThreadsProperty);
     final String s = config.get(JPPFProperties.THREAD_MANAGER_CLASS);
-    if (!"default".equalsIgnoreCase(s) && !ThreadManagerThreadPool.class.getName().equals(s) && s != null) {
+    final boolean virtual = "virtual".equalsIgnoreCase(s);
+    if (virtual && !ThreadManagerVirtual.isSupported()) log.warn("virtual threads are not supported by this JVM, falling back to the default thread manager");
+    else if (virtual && (config.get(JPPFProperties.THREAD_MANAGER_VIRTUAL_CONCURRENCY) > 0)) poolSize = config.get(JPPFProperties.THREAD_MANAGER_VIRTUAL_CONCURRENCY);
+    config.set(nbThreadsProperty, poolSize);
+    if (virtual) {
+      if (ThreadManagerVirtual.isSupported()) {
+        try {
+          result = new ThreadManagerVirtual(poolSize);
+          log.info("Using virtual threads thread manager with a maximum concurrency of {}", poolSize);
+        } catch(final Exception e) {
+          log.error(e.getMessage(), e);
+        }
+      }
+    } else if ("forkjoin".equalsIgnoreCase(s)) {
+      result = new ThreadManagerForkJoin(poolSize);
+      log.info("Using fork/join thread manager");
+    } else if (!"default".equalsIgnoreCase(s) && !ThreadManagerThreadPool.class.getName().equals(s) && s != null) {
       try {
         final Class<?> clazz = Class.forName(s);
         final Object instance = ReflectionHelper.invokeConstructor(clazz, new Class[]{Integer.TYPE}, poolSize);
@@ -62,6 +62,15 @@ public class ThreadManagerForkJoin extends AbstractThreadManager {
         }
         return future;
       }
+
+      @Override
+      public <T> ForkJoinTask<T> submit(final Runnable task, final T result) {
+        if (!(task instanceof NodeTaskWrapper)) return super.submit(task, result);
+        // the future must be known by the wrapper before it starts, for the handling of timeouts and cancellation
+        final ForkJoinTask<T> future = ForkJoinTask.adapt(task, result);
+        ((NodeTaskWrapper) task).setFuture(future);
+        return super.submit(future);
+      }
     };
   }
 
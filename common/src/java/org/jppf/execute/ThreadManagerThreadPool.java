@@ -135,7 +135,7 @@ public class ThreadManagerThreadPool extends AbstractThreadManager {
   /**
    * Helper class that implements used class loader for thread pool thread manager.
    */
-  private static final class UsedClassLoaderThread extends UsedClassLoader {
+  static final class UsedClassLoaderThread extends UsedClassLoader {
     /**
      * An original <code>ClassLoader</code> instance.
      */
@@ -146,7 +146,7 @@ public class ThreadManagerThreadPool extends AbstractThreadManager {
      * @param classLoader a <code>ClassLoader</code> instance.
      * @param oldClassLoader an original <code>ClassLoader</code> instance that will be restored when dispose is called.
      */
-    private UsedClassLoaderThread(final ClassLoader classLoader, final ClassLoader oldClassLoader) {
+    UsedClassLoaderThread(final ClassLoader classLoader, final ClassLoader oldClassLoader) {
       super(classLoader);
       this.oldClassLoader = oldClassLoader;
     }
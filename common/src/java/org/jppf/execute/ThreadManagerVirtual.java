@@ -0,0 +1,169 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.execute;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.*;
+
+/**
+ * This thread manager executes each task on a virtual thread, which is well suited for tasks that spend most of their time blocked on I/O.
+ * The number of tasks executing concurrently is bounded, the tasks beyond this limit wait in a queue.
+ * <p>Virtual threads are only available from Java 21 and are looked up via reflection, see {@link #isSupported()}.
+ * Since the JVM does not measure the CPU time of virtual threads, the CPU time of the tasks is reported as 0.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class ThreadManagerVirtual extends AbstractThreadManager {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(ThreadManagerVirtual.class);
+  /**
+   * Instance count for this class.
+   */
+  private static final AtomicInteger instanceCount = new AtomicInteger(0);
+  /**
+   * Time in milliseconds after which an idle virtual thread terminates.
+   */
+  private static final long KEEP_ALIVE = 1000L;
+  /**
+   * Whether virtual threads are supported by the JVM.
+   */
+  private static final boolean supported = determineSupported();
+  /**
+   * The executor which bounds the number of concurrently running virtual threads.
+   */
+  private final ThreadPoolExecutor threadPool;
+
+  /**
+   * Initialize this thread manager.
+   * @param concurrency the maximum number of tasks executing concurrently.
+   * @throws Exception if virtual threads are not supported by the JVM.
+   */
+  public ThreadManagerVirtual(final int concurrency) throws Exception {
+    final ThreadFactory threadFactory = newVirtualThreadFactory(String.format("%s-%03d-virtual-", THREAD_NAME_PREFIX, instanceCount.incrementAndGet()));
+    threadPool = new ThreadPoolExecutor(concurrency, concurrency, KEEP_ALIVE, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory) {
+      @Override
+      protected <T> RunnableFuture<T> newTaskFor(final Runnable runnable, final T value) {
+        final RunnableFuture<T> future = super.newTaskFor(runnable, value);
+        if (runnable instanceof NodeTaskWrapper) ((NodeTaskWrapper) runnable).setFuture(future);
+        return future;
+      }
+    };
+    threadPool.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Determine whether virtual threads are supported by the JVM.
+   * @return {@code true} if virtual threads are supported, {@code false} otherwise.
+   */
+  public static boolean isSupported() {
+    return supported;
+  }
+
+  @Override
+  protected long[] getThreadIds() {
+    return new long[0];
+  }
+
+  @Override
+  public boolean isCpuTimeEnabled() {
+    return false;
+  }
+
+  @Override
+  public ExecutorService getExecutorService() {
+    return threadPool;
+  }
+
+  @Override
+  public void setPoolSize(final int size) {
+    if (size <= 0) {
+      log.warn("ignored attempt to set the maximum concurrency to 0 or less: " + size);
+      return;
+    }
+    if (getPoolSize() == size) return;
+    if (size > threadPool.getCorePoolSize()) {
+      threadPool.setMaximumPoolSize(size);
+      threadPool.setCorePoolSize(size);
+    } else {
+      threadPool.setCorePoolSize(size);
+      threadPool.setMaximumPoolSize(size);
+    }
+  }
+
+  @Override
+  public int getPoolSize() {
+    return threadPool.getMaximumPoolSize();
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>The priority of virtual threads is always {@link Thread#NORM_PRIORITY}.
+   */
+  @Override
+  public int getPriority() {
+    return Thread.NORM_PRIORITY;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>This method has no effect, since the priority of virtual threads cannot be changed.
+   */
+  @Override
+  public void setPriority(final int priority) {
+  }
+
+  @Override
+  public UsedClassLoader useClassLoader(final ClassLoader classLoader) {
+    final ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
+    if (classLoader != null) Thread.currentThread().setContextClassLoader(classLoader);
+    return new ThreadManagerThreadPool.UsedClassLoaderThread(classLoader, oldClassLoader);
+  }
+
+  /**
+   * Create a factory of virtual threads, via reflection to remain compatible with versions of Java older than 21.
+   * @param prefix the prefix of the names of the created threads, followed by a sequence number.
+   * @return a {@link ThreadFactory} which creates virtual threads.
+   * @throws Exception if virtual threads are not supported by the JVM.
+   */
+  private static ThreadFactory newVirtualThreadFactory(final String prefix) throws Exception {
+    final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+    Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+    builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+    return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+  }
+
+  /**
+   * Determine whether virtual threads are supported by the JVM.
+   * @return {@code true} if virtual threads are supported, {@code false} otherwise.
+   */
+  private static boolean determineSupported() {
+    try {
+      newVirtualThreadFactory("test");
+      return true;
+    } catch(final Exception e) {
+      // on Java 19 and 20, virtual threads are a preview feature which may be disabled
+      if (log.isDebugEnabled()) log.debug("virtual threads are not supported: {}", e.toString());
+      return false;
+    }
+  }
+}
@@ -245,6 +245,7 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
       final Task<?> task = taskWrapper.getTask();
 
       jobEntry.accumulatedElapsed.addAndGet(elapsedTime);
+      if (info != null) jobEntry.accumulatedCpuTime.addAndGet(info.cpuTime);
       final int n = jobEntry.resultCount.incrementAndGet();
       synchronized(jobEntry) {
         bundle = jobEntry.bundle;
@@ -252,7 +253,16 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
         if (traceEnabled) log.trace("sending task ended notification for {}, bundle={}", taskWrapper, bundle);
         taskNotificationDispatcher.fireTaskEnded(task, bundle.getUuid(), bundle.getName(), cpuTime, elapsedTime / 1_000_000L, task.getThrowable() != null);
         if (traceEnabled) log.trace("resultCount={} for {}", n, taskWrapper);
-        if (n >= submittedCount) endJob = true;
+        if (isResultStreamingEnabled()) {
+          // the count is updated in the lock, to ensure the last task is never sent ahead of the bundle
+          if (++jobEntry.endedCount >= submittedCount) endJob = true;
+          else if (isStreamable(jobEntry, task)) {
+            removeByIdentity(jobEntry.taskList, task);
+            removeByIdentity(jobEntry.taskWrapperList, taskWrapper);
+            jobEntry.streamedCount++;
+            fireTaskExecuted(bundle, task);
+          }
+        } else if (n >= submittedCount) endJob = true;
       }
       if (endJob) jobEnded(jobEntry);
     } catch (final RuntimeException e) {
@@ -260,6 +270,45 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
     }
   }
 
+  /**
+   * Determine whether the result of each task is sent as soon as the task completes, rather than with the results of the whole bundle.
+   * This implementation returns {@code false}.
+   * @return {@code true} if task results are streamed, {@code false} otherwise.
+   */
+  protected boolean isResultStreamingEnabled() {
+    return false;
+  }
+
+  /**
+   * Determine whether the result of the specified task can be sent ahead of the completion of its bundle.
+   * @param jobEntry the job the task belongs to.
+   * @param task the task to check.
+   * @return {@code true} if the task result can be sent immediately, {@code false} otherwise.
+   */
+  private static boolean isStreamable(final JobProcessingEntry jobEntry, final Task<?> task) {
+    if (jobEntry.jobCancelled.get() || (jobEntry.taskList == null)) return false;
+    final TaskBundle bundle = jobEntry.bundle;
+    if (bundle.isRequeue() || ((bundle.getSLA() != null) && bundle.getSLA().isBroadcastJob())) return false;
+    return !(task instanceof AbstractTask) || !((AbstractTask<?>) task).isResubmit();
+  }
+
+  /**
+   * Remove the specified element from a list, based on identity rather than equality.
+   * @param <E> the type of the elements in the list.
+   * @param list the list to remove from.
+   * @param element the element to remove.
+   */
+  private static <E> void removeByIdentity(final List<E> list, final E element) {
+    if (list == null) return;
+    // tasks tend to complete in the order of submission, so the search usually ends early
+    for (int i=0; i<list.size(); i++) {
+      if (list.get(i) == element) {
+        list.remove(i);
+        return;
+      }
+    }
+  }
+
   /**
    * 
    * @param jobEntry the job to process.
@@ -272,6 +321,12 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
       bundle = jobEntry.bundle;
       taskList = jobEntry.taskList;
       t = jobEntry.t;
+      if (jobEntry.streamedCount > 0) {
+        bundle.setParameter(BundleParameter.PARTIAL_RESULTS_COUNT, jobEntry.streamedCount);
+        // the header must only count the tasks actually sent with the final results
+        bundle.setParameter(BundleParameter.DISPATCHED_TASK_COUNT, bundle.getTaskCount());
+        bundle.setTaskCount(taskList.size());
+      }
       cleanup(jobEntry);
     }
     if (debugEnabled) log.debug("processing completion of {} tasks of job {}", taskList.size(), bundle);
@@ -373,6 +428,18 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
     }
   }
 
+  /**
+   * Called when the result of a task is available before the execution of its bundle has finished.
+   * @param bundle the TaskBundle which holds information on the job.
+   * @param task the task that was executed.
+   */
+  protected void fireTaskExecuted(final TaskBundle bundle, final Task<?> task) {
+    if (traceEnabled) log.trace("sending notification to listeners for early completion of {} of job {}", task, bundle);
+    for (final ExecutionManagerListener listener: listeners) {
+      if (listener != null) listener.taskExecuted(bundle, task);
+    }
+  }
+
   @Override
   public void addPendingJobEntry(final TaskBundle bundle) {
     if (debugEnabled) log.debug("adding pending entry for {}", bundle);
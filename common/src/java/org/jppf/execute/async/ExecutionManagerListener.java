@@ -34,4 +34,13 @@ public interface ExecutionManagerListener {
    * @param t a {@link Throwable} that prevented or interrupted the job processing.
    */
   void bundleExecuted(final TaskBundle bundle, final List<Task<?>> tasks, final Throwable t);
+
+  /**
+   * Called when the result of a task is available before the execution of its bundle has finished.
+   * The task will not be part of the tasks subsequently notified by {@link #bundleExecuted(TaskBundle, List, Throwable)}.
+   * @param bundle the TaskBundle which holds information on the job.
+   * @param task the task that was executed.
+   */
+  default void taskExecuted(final TaskBundle bundle, final Task<?> task) {
+  }
 }
@@ -55,6 +55,10 @@ public class JobProcessingEntry extends JobPendingEntry {
    * The total accumulated elapsed time of the tasks in the current bundle.
    */
   public final AtomicLong accumulatedElapsed = new AtomicLong(0L);
+  /**
+   * The total accumulated CPU time of the tasks in the current bundle.
+   */
+  public final AtomicLong accumulatedCpuTime = new AtomicLong(0L);
   /**
    * The execution mabager that processes the job.
    */
@@ -67,6 +71,14 @@ public class JobProcessingEntry extends JobPendingEntry {
    * The number of completed tasks.
    */
   public final AtomicInteger resultCount = new AtomicInteger(0);
+  /**
+   * The number of completed tasks, updated while holding the lock on this entry.
+   */
+  public int endedCount;
+  /**
+   * The number of tasks whose result was sent ahead of the completion of the bundle.
+   */
+  public int streamedCount;
   /**
    * A {@link Throwable} that prevented or interrupted the job processing.
    */
@@ -20,7 +20,7 @@ package org.jppf.io;
 
 import java.io.*;
 import java.nio.ByteBuffer;
-import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.*;
 
 import org.jppf.serialization.SerializationUtils;
 import org.jppf.utils.pooling.DirectBufferPool;
@@ -62,13 +62,24 @@ public class ChannelInputSource implements InputSource {
    * We read the data by small chunks of max {@link IO#TEMP_BUFFER_SIZE} bytes wrapped in a direct ByteBuffer, to work around the fact that Sun NIO implementation of SocketChannelImpl.read() attempts
    * to allocate a direct buffer of the requested data size (i.e. <code>data</code>.remaining() in our case), <i>if the destination ByteBuffer is not direct</i>.<br/>
    * This implementation can result in a &quot;OutOfMemoryError: Direct buffer space&quot; when the size of the data to read is too large.<br/>
-   * See <a href="http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4879883">Sun Bug ID: 4879883</a> for details.
+   * See <a href="http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4879883">Sun Bug ID: 4879883</a> for details.<br/>
+   * When <code>data</code> is itself a direct buffer, the data is read into it directly.
    * @param data the buffer into which to write.
    * @return the number of bytes actually read, or -1 if end of stream was reached.
    * @throws Exception if an IO error occurs.
    */
   @Override
   public int read(final ByteBuffer data) throws Exception {
+    if (data.isDirect()) {
+      int count = 0;
+      while (data.hasRemaining()) {
+        final int n = channel.read(data);
+        if (n < 0) throw new EOFException();
+        else if (n == 0) break;
+        count += n;
+      }
+      return count;
+    }
     final ByteBuffer tmpBuffer = DirectBufferPool.provideBuffer();
     try {
       final int remaining = data.remaining();
@@ -90,6 +101,19 @@ public class ChannelInputSource implements InputSource {
     }
   }
 
+  /**
+   * Transfer data from the backing channel directly to a file, without copying it through the heap when the operating system allows it.
+   * <p>Note that a return value of zero may indicate either that no data is currently available or that the end of stream was reached.
+   * @param dest the channel of the file to transfer to.
+   * @param position the position in the file where to start writing the data.
+   * @param count the maximum number of bytes to transfer.
+   * @return the number of bytes actually transferred, possibly zero.
+   * @throws IOException if an IO error occurs.
+   */
+  public long transferTo(final FileChannel dest, final long position, final long count) throws IOException {
+    return dest.transferFrom(channel, position, count);
+  }
+
   /**
    * Read an int value from this input source.
    * @return the value read, or -1 if an end of file condition was reached.
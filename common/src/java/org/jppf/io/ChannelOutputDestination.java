@@ -20,7 +20,7 @@ package org.jppf.io;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.WritableByteChannel;
+import java.nio.channels.*;
 
 import org.jppf.serialization.SerializationUtils;
 import org.jppf.utils.pooling.DirectBufferPool;
@@ -84,6 +84,18 @@ public class ChannelOutputDestination implements OutputDestination {
     return channel.write(data);
   }
 
+  /**
+   * Transfer data from a file directly to the backing channel, without copying it through the heap when the operating system allows it.
+   * @param source the channel of the file to transfer from.
+   * @param position the position in the file where to start reading the data.
+   * @param count the maximum number of bytes to transfer.
+   * @return the number of bytes actually transferred, possibly zero.
+   * @throws IOException if an IO error occurs.
+   */
+  public long transferFrom(final FileChannel source, final long position, final long count) throws IOException {
+    return source.transferTo(position, count, channel);
+  }
+
   /**
    * Write an int value to this output destination.
    * @param value the value to write.
@@ -0,0 +1,159 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A read-only data location which presents the content of other data locations, one after the other, as a single block of data.
+ * <p>The data of the other locations is referenced and never copied, which allows sending or storing it along with some additional data.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class CompositeDataLocation extends AbstractDataLocation {
+  /**
+   * The locations whose content is referenced.
+   */
+  private final DataLocation[] parts;
+  /**
+   * The location of the part involved in the current transfer.
+   */
+  private DataLocation currentPart;
+  /**
+   * Index of the part involved in the current transfer.
+   */
+  private int currentIndex;
+  /**
+   * The number of bytes transferred so far in the current transfer.
+   */
+  private int count;
+
+  /**
+   * Initialize this location with the specified parts.
+   * @param parts the locations whose content is referenced, in order.
+   */
+  public CompositeDataLocation(final DataLocation... parts) {
+    this.parts = parts;
+    int n = 0;
+    for (final DataLocation part: parts) n += part.getSize();
+    this.size = n;
+  }
+
+  /**
+   * This operation is not supported, since this location is read-only.
+   * @param source not used.
+   * @param blocking not used.
+   * @return nothing.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public int transferFrom(final InputSource source, final boolean blocking) throws Exception {
+    throw new UnsupportedOperationException("a " + getClass().getSimpleName() + " is read-only");
+  }
+
+  @Override
+  public int transferTo(final OutputDestination dest, final boolean blocking) throws Exception {
+    if (!transferring) {
+      transferring = true;
+      count = 0;
+      currentIndex = 0;
+      currentPart = (parts.length > 0) ? parts[0].copy() : null;
+    }
+    try {
+      int total = 0;
+      while (currentPart != null) {
+        if (currentPart.getSize() > 0) {
+          final int n = currentPart.transferTo(dest, blocking);
+          if (n < 0) {
+            transferring = false;
+            return (total == 0) ? -1 : total;
+          }
+          if (blocking) {
+            count += currentPart.getSize();
+          } else {
+            count += n;
+            total += n;
+            if (n == 0) break;
+            // the part is not fully transferred yet
+            if (isPartTransferring()) continue;
+          }
+        }
+        currentPart = (++currentIndex < parts.length) ? parts[currentIndex].copy() : null;
+      }
+      if (currentPart == null) transferring = false;
+      return blocking ? count : total;
+    } catch (final Exception e) {
+      transferring = false;
+      throw e;
+    }
+  }
+
+  /**
+   * Determine whether the transfer of the current part is still in progress.
+   * @return {@code true} if the current part has data left to transfer, {@code false} otherwise.
+   */
+  private boolean isPartTransferring() {
+    return (currentPart instanceof AbstractDataLocation) ? ((AbstractDataLocation) currentPart).transferring : false;
+  }
+
+  @Override
+  public InputStream getInputStream() throws Exception {
+    final List<InputStream> streams = new ArrayList<>(parts.length);
+    for (final DataLocation part: parts) streams.add(part.copy().getInputStream());
+    return new SequenceInputStream(Collections.enumeration(streams));
+  }
+
+  /**
+   * This operation is not supported, since this location is read-only.
+   * @return nothing.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public OutputStream getOutputStream() throws Exception {
+    throw new UnsupportedOperationException("a " + getClass().getSimpleName() + " is read-only");
+  }
+
+  @Override
+  public DataLocation copy() {
+    final DataLocation[] copies = new DataLocation[parts.length];
+    for (int i=0; i<parts.length; i++) copies[i] = parts[i].copy();
+    return new CompositeDataLocation(copies);
+  }
+
+  /**
+   * Get the locations whose content is referenced.
+   * @return an array of {@link DataLocation} instances.
+   */
+  public DataLocation[] getParts() {
+    return parts;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(getClass().getSimpleName()).append('[');
+    sb.append("size=").append(size);
+    sb.append(", count=").append(count);
+    sb.append(", currentIndex=").append(currentIndex);
+    sb.append(", parts=").append(Arrays.toString(parts));
+    sb.append(']');
+    return sb.toString();
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+import org.jppf.utils.pooling.DirectSlabPool;
+import org.jppf.utils.pooling.DirectSlabPool.Slabs;
+
+/**
+ * Data location backed by a set of pooled direct byte buffers.
+ * <p>The data is read from and written to the network channels directly from the direct buffers, without any intermediate copy
+ * into the Java heap. Shallow copies obtained with {@link #copy()} share the same buffers, which are returned to the pool once
+ * this location and all its copies are {@link #release() released}, or garbage collected.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class DirectBuffersLocation extends AbstractDataLocation {
+  /**
+   * The buffers holding the data.
+   */
+  private final Slabs slabs;
+  /**
+   * The number of bytes transferred so far in the current transfer.
+   */
+  private int count;
+  /**
+   * Index of the buffer involved in the current transfer.
+   */
+  private int currentIndex;
+  /**
+   * View of the buffer involved in the current transfer.
+   */
+  private ByteBuffer currentView;
+  /**
+   * Whether this location was released.
+   */
+  private boolean released;
+
+  /**
+   * Initialize this location with the specified buffers and size.
+   * @param slabs the buffers holding the data.
+   * @param size the size of the data.
+   */
+  private DirectBuffersLocation(final Slabs slabs, final int size) {
+    this.slabs = slabs;
+    this.size = size;
+  }
+
+  /**
+   * Create a data location with the specified size, with buffers obtained from the default pool.
+   * @param size the size of the data.
+   * @return a new {@link DirectBuffersLocation}, or {@code null} if the pool could not provide the buffers.
+   */
+  public static DirectBuffersLocation create(final int size) {
+    return create(DirectSlabPool.getDefault(), size);
+  }
+
+  /**
+   * Create a data location with the specified size, with buffers obtained from the specified pool.
+   * @param pool the pool which provides the buffers.
+   * @param size the size of the data.
+   * @return a new {@link DirectBuffersLocation}, or {@code null} if the pool could not provide the buffers.
+   */
+  public static DirectBuffersLocation create(final DirectSlabPool pool, final int size) {
+    final Slabs slabs = pool.allocate(size);
+    return (slabs == null) ? null : new DirectBuffersLocation(slabs, size);
+  }
+
+  /**
+   * Get a view of the buffer at the specified index, limited to the data it holds.
+   * @param index the index of the buffer.
+   * @return a {@link ByteBuffer} view.
+   */
+  private ByteBuffer viewAt(final int index) {
+    final ByteBuffer view = slabs.view(index);
+    view.limit(Math.min(DirectSlabPool.SLAB_SIZE, size - index * DirectSlabPool.SLAB_SIZE));
+    return view;
+  }
+
+  /**
+   * Start a new transfer, if none is in progress.
+   */
+  private void startTransfer() {
+    if (!transferring) {
+      if (released) throw new IllegalStateException("this location was released: " + this);
+      transferring = true;
+      count = 0;
+      currentIndex = 0;
+      currentView = viewAt(0);
+    }
+  }
+
+  @Override
+  public int transferFrom(final InputSource source, final boolean blocking) throws Exception {
+    startTransfer();
+    try {
+      int total = 0;
+      while (count < size) {
+        final int n = source.read(currentView);
+        if (n < 0) {
+          if (blocking) throw new EOFException();
+          transferring = false;
+          return (total == 0) ? -1 : total;
+        }
+        if (n == 0) {
+          if (blocking) continue;
+          break;
+        }
+        count += n;
+        total += n;
+        if (!currentView.hasRemaining() && (count < size)) currentView = viewAt(++currentIndex);
+      }
+      if (count >= size) transferring = false;
+      return blocking ? count : total;
+    } catch (final Exception e) {
+      transferring = false;
+      throw e;
+    }
+  }
+
+  @Override
+  public int transferTo(final OutputDestination dest, final boolean blocking) throws Exception {
+    startTransfer();
+    try {
+      int total = 0;
+      while (count < size) {
+        final int n = dest.write(currentView);
+        if (n < 0) {
+          transferring = false;
+          return (total == 0) ? -1 : total;
+        }
+        if (n == 0) {
+          if (blocking) continue;
+          break;
+        }
+        count += n;
+        total += n;
+        if (!currentView.hasRemaining() && (count < size)) currentView = viewAt(++currentIndex);
+      }
+      if (count >= size) transferring = false;
+      return blocking ? count : total;
+    } catch (final Exception e) {
+      transferring = false;
+      throw e;
+    }
+  }
+
+  @Override
+  public InputStream getInputStream() throws Exception {
+    return new SlabsInputStream();
+  }
+
+  @Override
+  public OutputStream getOutputStream() throws Exception {
+    return new SlabsOutputStream();
+  }
+
+  /**
+   * Make a shallow copy of this data location, which shares the same buffers.
+   * The copy must also be {@link #release() released} for the buffers to be returned to the pool.
+   * @return a new {@link DirectBuffersLocation} pointing to the same data.
+   */
+  @Override
+  public DataLocation copy() {
+    if (released) throw new IllegalStateException("this location was released: " + this);
+    return new DirectBuffersLocation(slabs.retain(), size);
+  }
+
+  /**
+   * Release this location. When this location and all its copies are released, the buffers are returned to the pool.
+   * This location must not be used after this method is called. Calling this method more than once has no effect.
+   */
+  public void release() {
+    if (released) return;
+    released = true;
+    slabs.release();
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(getClass().getSimpleName()).append('[');
+    sb.append("size=").append(size);
+    sb.append(", count=").append(count);
+    sb.append(", currentIndex=").append(currentIndex);
+    sb.append(", nbBuffers=").append(slabs.size());
+    sb.append(", transferring=").append(transferring);
+    sb.append(", released=").append(released);
+    sb.append(']');
+    return sb.toString();
+  }
+
+  /**
+   * An input stream which reads the data from the buffers of this location.
+   */
+  private class SlabsInputStream extends InputStream {
+    /**
+     * Index of the current buffer.
+     */
+    private int index;
+    /**
+     * View of the current buffer.
+     */
+    private ByteBuffer view = (size > 0) ? viewAt(0) : null;
+
+    @Override
+    public int read() throws IOException {
+      if (!nextView()) return -1;
+      return view.get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (len == 0) return 0;
+      if (!nextView()) return -1;
+      final int n = Math.min(len, view.remaining());
+      view.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (view == null) ? 0 : size - index * DirectSlabPool.SLAB_SIZE - view.position();
+    }
+
+    /**
+     * Move to the next buffer if the current one is exhausted.
+     * @return {@code true} if there is data left to read, {@code false} if the end of the data was reached.
+     */
+    private boolean nextView() {
+      if (view == null) return false;
+      if (!view.hasRemaining()) {
+        if ((index + 1) * DirectSlabPool.SLAB_SIZE >= size) return false;
+        view = viewAt(++index);
+      }
+      return true;
+    }
+  }
+
+  /**
+   * An output stream which writes the data into the buffers of this location, up to its size.
+   */
+  private class SlabsOutputStream extends OutputStream {
+    /**
+     * Index of the current buffer.
+     */
+    private int index;
+    /**
+     * View of the current buffer.
+     */
+    private ByteBuffer view = (size > 0) ? viewAt(0) : null;
+
+    @Override
+    public void write(final int b) throws IOException {
+      nextView();
+      view.put((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      int pos = off;
+      final int end = off + len;
+      while (pos < end) {
+        nextView();
+        final int n = Math.min(end - pos, view.remaining());
+        view.put(b, pos, n);
+        pos += n;
+      }
+    }
+
+    /**
+     * Move to the next buffer if the current one is full.
+     * @throws IOException if the size of this location is exceeded.
+     */
+    private void nextView() throws IOException {
+      if ((view != null) && view.hasRemaining()) return;
+      if ((view == null) || ((index + 1) * DirectSlabPool.SLAB_SIZE >= size)) throw new EOFException("cannot write more than " + size + " bytes");
+      view = viewAt(++index);
+    }
+  }
+}
@@ -59,6 +59,10 @@ public class FileDataLocation extends AbstractDataLocation {
    * The size of the block of data currently being transferred.
    */
   private int blockSize = 0;
+  /**
+   * Whether the current transfer is performed directly between the file and a channel, without copying the data through the heap.
+   */
+  private boolean zeroCopy = false;
   /**
    * Count of instances of this class which refer to the same underlying file.
    * This is a fix for bug
@@ -127,12 +131,17 @@ public class FileDataLocation extends AbstractDataLocation {
     if (!transferring) {
       transferring = true;
       fileChannel = new FileOutputStream(filePath).getChannel();
-      buffer = ByteBuffer.wrap(IO.TEMP_BUFFER_POOL.get());
-      if (size < buffer.limit()) buffer.limit(size);
+      zeroCopy = IO.ZERO_COPY_ENABLED && (source instanceof ChannelInputSource);
+      if (!zeroCopy) {
+        buffer = ByteBuffer.wrap(IO.TEMP_BUFFER_POOL.get());
+        if (size < buffer.limit()) buffer.limit(size);
+      }
       count = 0;
     }
     try {
-      final int n = blocking ? blockingTransferFrom(source) : nonBlockingTransferFrom(source);
+      final int n;
+      if (zeroCopy) n = blocking ? blockingZeroCopyFrom((ChannelInputSource) source) : nonBlockingZeroCopyFrom((ChannelInputSource) source);
+      else n = blocking ? blockingTransferFrom(source) : nonBlockingTransferFrom(source);
       if ((n < 0) || (count >= size)) transferring = false;
       return n;
     } catch(final Exception e) {
@@ -180,6 +189,53 @@ public class FileDataLocation extends AbstractDataLocation {
     return n;
   }
 
+  /**
+   * Perform a non-blocking transfer to this data location directly from the channel of the specified input source.
+   * @param source the input source to transfer from.
+   * @return the number of bytes actually transferred.
+   * @throws Exception if an IO error occurs.
+   */
+  private int nonBlockingZeroCopyFrom(final ChannelInputSource source) throws Exception {
+    final long n = source.transferTo(fileChannel, count, size - count);
+    if (n > 0L) {
+      count += (int) n;
+      if (count >= size) transferring = false;
+      return (int) n;
+    }
+    return readOrDetectEndOfStream(source);
+  }
+
+  /**
+   * Perform a blocking transfer to this data location directly from the channel of the specified input source.
+   * @param source the input source to transfer from.
+   * @return the number of bytes actually transferred.
+   * @throws Exception if an IO error occurs.
+   */
+  private int blockingZeroCopyFrom(final ChannelInputSource source) throws Exception {
+    while (count < size) {
+      final long n = source.transferTo(fileChannel, count, size - count);
+      if (n > 0L) count += (int) n;
+      else if (readOrDetectEndOfStream(source) < 0) return -1;
+    }
+    transferring = false;
+    return count;
+  }
+
+  /**
+   * Called when a direct transfer from a channel returned zero, which means that either no data is currently available,
+   * or that the end of stream was reached. A regular read tells them apart, and any data it reads is written to the file.
+   * @param source the input source to transfer from.
+   * @return the number of bytes actually transferred.
+   * @throws Exception if an IO error occurs, including when the end of stream was reached.
+   */
+  private int readOrDetectEndOfStream(final InputSource source) throws Exception {
+    if (buffer == null) buffer = ByteBuffer.wrap(IO.TEMP_BUFFER_POOL.get());
+    buffer.clear();
+    // direct transfers do not update the position of the file channel
+    fileChannel.position(count);
+    return nonBlockingTransferFrom(source);
+  }
+
   /**
    * Perform a blocking transfer to this data location from the specified input source.
    * @param source the input source to transfer from.
@@ -225,10 +281,12 @@ public class FileDataLocation extends AbstractDataLocation {
     if (!transferring) {
       transferring = true;
       fileChannel = new FileInputStream(filePath).getChannel();
-      buffer = ByteBuffer.wrap(IO.TEMP_BUFFER_POOL.get());
+      zeroCopy = IO.ZERO_COPY_ENABLED && (dest instanceof ChannelOutputDestination);
+      if (!zeroCopy) buffer = ByteBuffer.wrap(IO.TEMP_BUFFER_POOL.get());
       count = 0;
     }
     try {
+      if (zeroCopy) return zeroCopyTo((ChannelOutputDestination) dest, blocking);
       return blocking ? blockingTransferTo(dest) : nonBlockingTransferTo(dest);
     } catch(final Exception e) {
       transferring = false;
@@ -293,6 +351,29 @@ public class FileDataLocation extends AbstractDataLocation {
     return count;
   }
 
+  /**
+   * Transfer the content of this data location directly to the channel of the specified output destination.
+   * When the destination is a socket channel, the data is sent by the operating system without being copied through the heap.
+   * @param dest the output destination to transfer to.
+   * @param blocking if true, the method will block until the entire content has been transferred.
+   * @return the number of bytes actually transferred.
+   * @throws Exception if an IO error occurs.
+   */
+  private int zeroCopyTo(final ChannelOutputDestination dest, final boolean blocking) throws Exception {
+    int transferred = 0;
+    do {
+      final long n = dest.transferFrom(fileChannel, count, size - count);
+      if (n <= 0L) {
+        if (count >= fileChannel.size()) throw new EOFException("end of file " + filePath + " reached after " + count + " bytes out of " + size);
+        if (!blocking) break;
+      }
+      count += (int) n;
+      transferred += (int) n;
+    } while (blocking && (count < size));
+    if (count >= size) transferring = false;
+    return transferred;
+  }
+
   /**
    * This method deletes the underlying file.
    * @throws Throwable if an error occurs.
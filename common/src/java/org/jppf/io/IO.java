@@ -82,4 +82,8 @@ public interface IO extends Closeable {
    * Whether to check for low memory and trigger disk offloading.
    */
   boolean CHECK_LOW_MEMORY = JPPFConfiguration.get(JPPFProperties.CHECK_LOW_MEMORY);
+  /**
+   * Whether file-backed data is transferred directly between files and channels, without being copied through the heap.
+   */
+  boolean ZERO_COPY_ENABLED = JPPFConfiguration.get(JPPFProperties.ZERO_COPY_ENABLED);
 }
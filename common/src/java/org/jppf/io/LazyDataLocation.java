@@ -0,0 +1,125 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.*;
+import java.util.concurrent.Callable;
+
+/**
+ * A data location whose content is only obtained the first time it is accessed, for instance from a persistence store.
+ * All operations are then delegated to the obtained location.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class LazyDataLocation implements DataLocation {
+  /**
+   * Provides the actual location when it is first needed.
+   */
+  private final Callable<DataLocation> loader;
+  /**
+   * The actual location, {@code null} until it is loaded.
+   */
+  private volatile DataLocation delegate;
+
+  /**
+   * Initialize this location with the specified loader.
+   * @param loader provides the actual location when it is first needed.
+   */
+  public LazyDataLocation(final Callable<DataLocation> loader) {
+    if (loader == null) throw new IllegalArgumentException("loader is null");
+    this.loader = loader;
+  }
+
+  /**
+   * Get the actual location, loading it if needed.
+   * @return the actual {@link DataLocation}.
+   * @throws IllegalStateException if the location could not be loaded.
+   */
+  private DataLocation getDelegate() {
+    final DataLocation location = delegate;
+    if (location != null) return location;
+    try {
+      return load();
+    } catch (final Exception e) {
+      throw new IllegalStateException("could not load the data of " + this, e);
+    }
+  }
+
+  /**
+   * Load the actual location if it is not loaded yet. This allows loading the data ahead of its first access, and handling any load error.
+   * @return the actual {@link DataLocation}.
+   * @throws Exception if the location could not be loaded.
+   */
+  public DataLocation load() throws Exception {
+    DataLocation location = delegate;
+    if (location == null) {
+      synchronized(this) {
+        if ((location = delegate) == null) {
+          location = loader.call();
+          if (location == null) location = new MultipleBuffersLocation(0);
+          delegate = location;
+        }
+      }
+    }
+    return location;
+  }
+
+  /**
+   * Determine whether the actual location is already loaded.
+   * @return {@code true} if the location is loaded, {@code false} otherwise.
+   */
+  public boolean isLoaded() {
+    return delegate != null;
+  }
+
+  @Override
+  public int getSize() {
+    return getDelegate().getSize();
+  }
+
+  @Override
+  public int transferFrom(final InputSource source, final boolean blocking) throws Exception {
+    return getDelegate().transferFrom(source, blocking);
+  }
+
+  @Override
+  public int transferTo(final OutputDestination dest, final boolean blocking) throws Exception {
+    return getDelegate().transferTo(dest, blocking);
+  }
+
+  @Override
+  public InputStream getInputStream() throws Exception {
+    return getDelegate().getInputStream();
+  }
+
+  @Override
+  public OutputStream getOutputStream() throws Exception {
+    return getDelegate().getOutputStream();
+  }
+
+  @Override
+  public DataLocation copy() {
+    return getDelegate().copy();
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append("[loaded=").append(isLoaded()).append(", delegate=").append(delegate).append(']').toString();
+  }
+}
@@ -86,7 +86,8 @@ public class StreamInputSource implements InputSource {
   public int readInt() throws Exception {
     final byte[] data = IO.LENGTH_BUFFER_POOL.get();
     try {
-      read(data, 0, 4);
+      // the stream may return fewer bytes than requested
+      for (int count=0; count<4; ) count += read(data, count, 4 - count);
       int result = 0;
       for (int i=24, pos=0; i>=0; i-=8) result += (long) (data[pos++] & 0xFF) << i;
       return result;
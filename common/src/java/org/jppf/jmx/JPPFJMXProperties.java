@@ -74,6 +74,10 @@ public class JPPFJMXProperties {
   public static final JPPFProperty<String> TLS_KEYSTORE_TYPE = new StringProperty("jmx.remote.x.tls.keystore.type", "jks");
   /** Maximum size of pending notifications queue. */
   public static final JPPFProperty<Integer> NOTIF_QUEUE_SIZE = new IntProperty("jmx.remote.x.notifications.queue.size", JMXHelper.DEFAULT_MAX_NOTIFICATIONS_QUEUE_SIZE);
+  /** Maximum number of JMX messages sent in a single network frame, defaults to 256. */
+  public static final JPPFProperty<Integer> FRAME_MAX_MESSAGES = new IntProperty("jmx.remote.x.frame.max.messages", 256, 1, Integer.MAX_VALUE);
+  /** Size in bytes of a network frame above which no more JMX messages are added to it, defaults to 64 KB. */
+  public static final JPPFProperty<Integer> FRAME_MAX_SIZE = new IntProperty("jmx.remote.x.frame.max.size", 64 * 1024, 1, Integer.MAX_VALUE);
   /** The list of all predefined properties in this class. */
   private static List<JPPFProperty<?>> properties = allProperties();
 
@@ -110,4 +110,12 @@ public interface PersistedJobsManagerMBean {
    * @throws Exception if any error occurs.
    */
   public boolean deleteLoadRequest(final long requestId) throws Exception;
+
+  /**
+   * Get a snapshot of the pending stores and of the store latency, when the driver uses an asynchronous job persistence in write-behind mode.
+   * @return a {@link WriteBehindStatistics} instance, or {@code null} if the job persistence is not asynchronous or not in write-behind mode.
+   * @throws Exception if any error occurs.
+   * @since 6.3
+   */
+  public WriteBehindStatistics getWriteBehindStatistics() throws Exception;
 }
@@ -0,0 +1,227 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.job.persistence;
+
+import java.io.Serializable;
+
+/**
+ * A snapshot of the state and activity of the write-behind mode of the asynchronous job persistence.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class WriteBehindStatistics implements Serializable {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The number of jobs with pending operations.
+   */
+  private final int pendingJobs;
+  /**
+   * The number of job elements waiting to be stored.
+   */
+  private final int pendingElements;
+  /**
+   * The total size in bytes of the job elements waiting to be stored.
+   */
+  private final long pendingSize;
+  /**
+   * The maximum total size in bytes of the pending job elements.
+   */
+  private final long maxPendingSize;
+  /**
+   * The number of batched stores performed by the underlying persistence.
+   */
+  private final long batches;
+  /**
+   * The number of job elements actually stored.
+   */
+  private final long storedElements;
+  /**
+   * The number of job elements which could not be stored.
+   */
+  private final long failedElements;
+  /**
+   * The number of job elements replaced by a newer version before they were stored.
+   */
+  private final long coalescedElements;
+  /**
+   * The number of job elements discarded because their job was deleted before they were stored.
+   */
+  private final long discardedElements;
+  /**
+   * The number of store requests that had to wait for pending elements to be stored.
+   */
+  private final long blockedStores;
+  /**
+   * The mean time in milliseconds between the store request for an element and its actual storage.
+   */
+  private final double meanLatency;
+  /**
+   * The maximum time in milliseconds between the store request for an element and its actual storage.
+   */
+  private final double maxLatency;
+
+  /**
+   * Initialize this snapshot.
+   * @param pendingJobs the number of jobs with pending operations.
+   * @param pendingElements the number of job elements waiting to be stored.
+   * @param pendingSize the total size in bytes of the job elements waiting to be stored.
+   * @param maxPendingSize the maximum total size in bytes of the pending job elements.
+   * @param batches the number of batched stores performed by the underlying persistence.
+   * @param storedElements the number of job elements actually stored.
+   * @param failedElements the number of job elements which could not be stored.
+   * @param coalescedElements the number of job elements replaced by a newer version before they were stored.
+   * @param discardedElements the number of job elements discarded because their job was deleted before they were stored.
+   * @param blockedStores the number of store requests that had to wait for pending elements to be stored.
+   * @param meanLatency the mean time in milliseconds between the store request for an element and its actual storage.
+   * @param maxLatency the maximum time in milliseconds between the store request for an element and its actual storage.
+   * @exclude
+   */
+  public WriteBehindStatistics(final int pendingJobs, final int pendingElements, final long pendingSize, final long maxPendingSize, final long batches, final long storedElements,
+    final long failedElements, final long coalescedElements, final long discardedElements, final long blockedStores, final double meanLatency, final double maxLatency) {
+    this.pendingJobs = pendingJobs;
+    this.pendingElements = pendingElements;
+    this.pendingSize = pendingSize;
+    this.maxPendingSize = maxPendingSize;
+    this.batches = batches;
+    this.storedElements = storedElements;
+    this.failedElements = failedElements;
+    this.coalescedElements = coalescedElements;
+    this.discardedElements = discardedElements;
+    this.blockedStores = blockedStores;
+    this.meanLatency = meanLatency;
+    this.maxLatency = maxLatency;
+  }
+
+  /**
+   * Get the number of jobs with pending operations.
+   * @return the number of jobs.
+   */
+  public int getPendingJobs() {
+    return pendingJobs;
+  }
+
+  /**
+   * Get the number of job elements waiting to be stored, that is, the depth of the write-behind queue.
+   * @return the number of pending elements.
+   */
+  public int getPendingElements() {
+    return pendingElements;
+  }
+
+  /**
+   * Get the total size in bytes of the job elements waiting to be stored.
+   * @return the pending size in bytes.
+   */
+  public long getPendingSize() {
+    return pendingSize;
+  }
+
+  /**
+   * Get the maximum total size in bytes of the pending job elements, above which store requests wait.
+   * @return the maximum pending size in bytes.
+   */
+  public long getMaxPendingSize() {
+    return maxPendingSize;
+  }
+
+  /**
+   * Get the number of batched stores performed by the underlying persistence.
+   * @return the number of batches.
+   */
+  public long getBatches() {
+    return batches;
+  }
+
+  /**
+   * Get the number of job elements actually stored.
+   * @return the number of stored elements.
+   */
+  public long getStoredElements() {
+    return storedElements;
+  }
+
+  /**
+   * Get the number of job elements which could not be stored, after all the attempts to store them failed.
+   * @return the number of failed elements.
+   */
+  public long getFailedElements() {
+    return failedElements;
+  }
+
+  /**
+   * Get the number of job elements replaced by a newer version before they were stored.
+   * @return the number of coalesced elements.
+   */
+  public long getCoalescedElements() {
+    return coalescedElements;
+  }
+
+  /**
+   * Get the number of job elements discarded because their job was deleted before they were stored.
+   * @return the number of discarded elements.
+   */
+  public long getDiscardedElements() {
+    return discardedElements;
+  }
+
+  /**
+   * Get the number of store requests that had to wait for pending elements to be stored.
+   * @return the number of blocked store requests.
+   */
+  public long getBlockedStores() {
+    return blockedStores;
+  }
+
+  /**
+   * Get the mean time between the store request for an element and its actual storage.
+   * @return the mean latency in milliseconds.
+   */
+  public double getMeanLatency() {
+    return meanLatency;
+  }
+
+  /**
+   * Get the maximum time between the store request for an element and its actual storage.
+   * @return the maximum latency in milliseconds.
+   */
+  public double getMaxLatency() {
+    return maxLatency;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("pendingJobs=").append(pendingJobs)
+      .append(", pendingElements=").append(pendingElements)
+      .append(", pendingSize=").append(pendingSize)
+      .append(", maxPendingSize=").append(maxPendingSize)
+      .append(", batches=").append(batches)
+      .append(", storedElements=").append(storedElements)
+      .append(", failedElements=").append(failedElements)
+      .append(", coalescedElements=").append(coalescedElements)
+      .append(", discardedElements=").append(discardedElements)
+      .append(", blockedStores=").append(blockedStores)
+      .append(", meanLatency=").append(meanLatency)
+      .append(", maxLatency=").append(maxLatency)
+      .append(']').toString();
+  }
+}
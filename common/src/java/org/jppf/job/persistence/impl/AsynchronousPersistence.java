@@ -46,6 +46,13 @@ import org.slf4j.*;
  * <span style="color: green"># asynchronous database persistence with pool of 4 threads,</span>
  * <span style="color: green"># a table named 'JPPF_TEST' and datasource named 'JobDS'</span>
  * jppf.job.persistence = ${pkg}.AsynchronousPersistence 4 ${pkg}.DefaultDatabasePersistence JPPF_TEST JobDS</pre>
+ * <p>When {@code jppf.job.persistence.write.behind = true}, the stores are not delegated one by one. Instead, the elements waiting to be stored
+ * are coalesced per job: a newer version of an element replaces the pending one, and all the pending elements of a job are written with a single
+ * call to the delegate's {@link JobPersistence#store(Collection) store()} method. Deleting a job discards its pending elements.
+ * The total size of the pending elements is bounded by {@code jppf.job.persistence.write.behind.max.size}: above this size, store requests wait
+ * until enough pending elements are written. The methods which read from the persistence first wait until the pending operations
+ * on the jobs they read are performed. When the delegate fails to store a batch, its elements are retried a few times, then they are
+ * dropped and the error is thrown by the next method which waits for the pending operations of the job.
  * @author Laurent Cohen
  */
 public class AsynchronousPersistence implements JobPersistence {
@@ -74,6 +81,66 @@ public class AsynchronousPersistence implements JobPersistence {
    * When the used heap passes below this threshold, the asynchronous mode resumes.
    */
   private static final double MEMORY_THRESHOLD = JPPFConfiguration.get(JPPFProperties.JOB_PERSISTENCE_MEMORY_THRESHOLD);
+  /**
+   * Maximum number of times the store of an element is retried in write-behind mode, after the delegate failed to store it.
+   */
+  private static final int MAX_STORE_RETRIES = 3;
+  /**
+   * Delay in milliseconds before the first retry of a failed store in write-behind mode, doubled for each subsequent retry.
+   */
+  private static final long STORE_RETRY_DELAY = 100L;
+  /**
+   * Whether the stores are coalesced per job and written behind.
+   */
+  private final boolean writeBehind = JPPFConfiguration.get(JPPFProperties.JOB_PERSISTENCE_WRITE_BEHIND);
+  /**
+   * Maximum total size in bytes of the pending elements in write-behind mode.
+   */
+  private final long maxPendingSize = JPPFConfiguration.get(JPPFProperties.JOB_PERSISTENCE_WRITE_BEHIND_MAX_SIZE);
+  /**
+   * The pending operations of each job in write-behind mode. Also used to synchronize the access to the write-behind state and statistics.
+   */
+  private final Map<String, JobQueue> queues = new HashMap<>();
+  /**
+   * Total size in bytes of the pending elements, including those being written.
+   */
+  private long pendingSize;
+  /**
+   * Number of pending elements, including those being written.
+   */
+  private int pendingCount;
+  /**
+   * Number of calls to the delegate's {@code store()} method in write-behind mode.
+   */
+  private long batchCount;
+  /**
+   * Number of elements stored in write-behind mode.
+   */
+  private long storedCount;
+  /**
+   * Number of elements which could not be stored in write-behind mode, after all retries failed.
+   */
+  private long failedCount;
+  /**
+   * The latest store error of each job in write-behind mode, not yet reported to a caller.
+   */
+  private final Map<String, JobPersistenceException> storeErrors = new HashMap<>();
+  /**
+   * Number of elements replaced with a newer version before they were stored.
+   */
+  private long coalescedCount;
+  /**
+   * Number of elements discarded because their job was deleted before they were stored.
+   */
+  private long discardedCount;
+  /**
+   * Number of store requests that had to wait for pending elements to be stored.
+   */
+  private long blockedCount;
+  /**
+   * Total and maximum time in nanoseconds between the store request for an element and its actual storage.
+   */
+  private long totalLatency, maxLatency;
 
   /**
    * Initialize this persistence with the specified parameters.
@@ -101,7 +168,8 @@ public class AsynchronousPersistence implements JobPersistence {
   @Override
   public void store(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
     if (debugEnabled) log.debug("storing {}", infos);
-    if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) delegate.store(infos);
+    if (writeBehind) enqueue(infos, null);
+    else if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) delegate.store(infos);
     else {
       execute(new PersistenceTask<Void>(false) {
         @Override
@@ -115,6 +183,11 @@ public class AsynchronousPersistence implements JobPersistence {
 
   @Override
   public List<InputStream> load(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+    if (writeBehind) {
+      final Set<String> uuids = new HashSet<>();
+      for (final PersistenceInfo info: infos) uuids.add(info.getJobUuid());
+      for (final String uuid: uuids) awaitWritten(uuid);
+    }
     if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) return delegate.load(infos);
     return submit(new PersistenceTask<List<InputStream>>(true) {
       @Override
@@ -126,6 +199,7 @@ public class AsynchronousPersistence implements JobPersistence {
 
   @Override
   public List<String> getPersistedJobUuids() throws JobPersistenceException {
+    if (writeBehind) awaitWritten(null);
     if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) return delegate.getPersistedJobUuids();
     return submit(new PersistenceTask<List<String>>(true) {
       @Override
@@ -153,6 +227,7 @@ public class AsynchronousPersistence implements JobPersistence {
    * @throws JobPersistenceException if any error occurs.
    */
   private int[] getPositions(final String jobUuid, final PersistenceObjectType type) throws JobPersistenceException {
+    if (writeBehind) awaitWritten(jobUuid);
     if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) return (type == PersistenceObjectType.TASK) ? delegate.getTaskPositions(jobUuid) : delegate.getTaskResultPositions(jobUuid);
     return submit(new PersistenceTask<int[]>(true) {
       @Override
@@ -164,7 +239,8 @@ public class AsynchronousPersistence implements JobPersistence {
 
   @Override
   public void deleteJob(final String jobUuid) throws JobPersistenceException {
-    if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) delegate.deleteJob(jobUuid);
+    if (writeBehind) enqueue(null, jobUuid);
+    else if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) delegate.deleteJob(jobUuid);
     else execute(new PersistenceTask<Void>(false) {
       @Override
       public Void execute() throws JobPersistenceException {
@@ -176,6 +252,7 @@ public class AsynchronousPersistence implements JobPersistence {
 
   @Override
   public boolean isJobPersisted(final String jobUuid) throws JobPersistenceException {
+    if (writeBehind) awaitWritten(jobUuid);
     if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) return delegate.isJobPersisted(jobUuid);
     return submit(new PersistenceTask<Boolean>(true) {
       @Override
@@ -185,6 +262,233 @@ public class AsynchronousPersistence implements JobPersistence {
     });
   }
 
+  /**
+   * Get a snapshot of the state and activity of the write-behind mode.
+   * @return a {@link WriteBehindStatistics} instance, or {@code null} if the write-behind mode is not enabled.
+   * @since 6.3
+   */
+  public WriteBehindStatistics getWriteBehindStatistics() {
+    if (!writeBehind) return null;
+    synchronized(queues) {
+      final double mean = (storedCount == 0L) ? 0d : totalLatency / 1e6d / storedCount;
+      return new WriteBehindStatistics(queues.size(), pendingCount, pendingSize, maxPendingSize, batchCount, storedCount, failedCount, coalescedCount, discardedCount, blockedCount,
+        mean, maxLatency / 1e6d);
+    }
+  }
+
+  /**
+   * Add the specified elements to store, or the deletion of the specified job, to the pending operations in write-behind mode.
+   * If the used heap is above the memory threshold, this method waits until the operation is performed.
+   * @param infos the elements to store, or {@code null} if {@code deletedUuid} is specified.
+   * @param deletedUuid the uuid of the job to delete, or {@code null} if {@code infos} is specified.
+   * @throws JobPersistenceException if the calling thread is interrupted while waiting.
+   */
+  private void enqueue(final Collection<PersistenceInfo> infos, final String deletedUuid) throws JobPersistenceException {
+    final Set<String> uuids = new HashSet<>();
+    try {
+      synchronized(queues) {
+        if (infos != null) {
+          long size = 0L;
+          for (final PersistenceInfo info: infos) size += sizeOf(info);
+          // always admit a batch when nothing is pending, even if it is larger than the maximum
+          if ((pendingSize > 0L) && (pendingSize + size > maxPendingSize)) {
+            blockedCount++;
+            while ((pendingSize > 0L) && (pendingSize + size > maxPendingSize)) queues.wait();
+          }
+          final long now = System.nanoTime();
+          for (final PersistenceInfo info: infos) {
+            final JobQueue queue = getQueue(info.getJobUuid());
+            final PendingElement old = queue.elements.put(new PersistenceInfoKey(info), new PendingElement(info, now, 0));
+            if (old != null) {
+              coalescedCount++;
+              release(old);
+            }
+            pendingSize += sizeOf(info);
+            pendingCount++;
+            if (uuids.add(queue.uuid)) schedule(queue);
+          }
+        } else {
+          final JobQueue queue = getQueue(deletedUuid);
+          for (final PendingElement element: queue.elements.values()) release(element);
+          discardedCount += queue.elements.size();
+          queue.elements.clear();
+          queue.deleted = true;
+          storeErrors.remove(deletedUuid);
+          uuids.add(deletedUuid);
+          schedule(queue);
+          queues.notifyAll();
+        }
+      }
+      if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) {
+        for (final String uuid: uuids) awaitWritten(uuid);
+      }
+    } catch (final InterruptedException e) {
+      throw new JobPersistenceException(e);
+    }
+  }
+
+  /**
+   * Get the queue of pending operations for the specified job, creating it if needed.
+   * Must be called while holding the lock on {@link #queues}.
+   * @param uuid the uuid of the job.
+   * @return a {@link JobQueue} instance.
+   */
+  private JobQueue getQueue(final String uuid) {
+    JobQueue queue = queues.get(uuid);
+    if (queue == null) queues.put(uuid, queue = new JobQueue(uuid));
+    return queue;
+  }
+
+  /**
+   * Record a new operation for the specified job and submit a task to perform it, unless such a task is already queued or running.
+   * Must be called while holding the lock on {@link #queues}.
+   * @param queue the queue of pending operations for the job.
+   */
+  private void schedule(final JobQueue queue) {
+    queue.sequence++;
+    if (!queue.scheduled) {
+      queue.scheduled = true;
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          flush(queue);
+        }
+      });
+    }
+  }
+
+  /**
+   * Perform the pending operations of a job, until there is none left. Operations added while a batch is being written are performed in the next batch,
+   * such that the operations of a job are performed in sequence, and never concurrently.
+   * @param queue the queue of pending operations for the job.
+   */
+  private void flush(final JobQueue queue) {
+    while (true) {
+      final Map<PersistenceInfoKey, PendingElement> batch;
+      final boolean delete;
+      final long sequence;
+      synchronized(queues) {
+        if (queue.elements.isEmpty() && !queue.deleted) {
+          queue.scheduled = false;
+          if (queues.get(queue.uuid) == queue) queues.remove(queue.uuid);
+          queues.notifyAll();
+          return;
+        }
+        batch = queue.elements;
+        queue.elements = new LinkedHashMap<>();
+        delete = queue.deleted;
+        queue.deleted = false;
+        sequence = queue.sequence;
+      }
+      if (delete) {
+        try {
+          delegate.deleteJob(queue.uuid);
+        } catch (final Exception e) {
+          log.error(e.getMessage(), e);
+        }
+      }
+      JobPersistenceException error = null;
+      if (!batch.isEmpty()) {
+        final List<PersistenceInfo> infos = new ArrayList<>(batch.size());
+        for (final PendingElement element: batch.values()) infos.add(element.info);
+        if (traceEnabled) log.trace("storing {} coalesced elements of job uuid={}", infos.size(), queue.uuid);
+        try {
+          delegate.store(infos);
+        } catch (final Exception e) {
+          error = (e instanceof JobPersistenceException) ? (JobPersistenceException) e : new JobPersistenceException(e);
+        }
+      }
+      int retryAttempt = 0;
+      synchronized(queues) {
+        final long now = System.nanoTime();
+        if (!batch.isEmpty()) batchCount++;
+        for (final Map.Entry<PersistenceInfoKey, PendingElement> entry: batch.entrySet()) {
+          final PendingElement element = entry.getValue();
+          if (error == null) {
+            final long latency = now - element.timestamp;
+            totalLatency += latency;
+            if (latency > maxLatency) maxLatency = latency;
+            storedCount++;
+          } else if (queue.deleted) {
+            discardedCount++;
+          } else if (queue.elements.containsKey(entry.getKey())) {
+            // a newer version of the element was requested in the meantime
+            coalescedCount++;
+          } else if (element.attempts < MAX_STORE_RETRIES) {
+            queue.elements.put(entry.getKey(), new PendingElement(element.info, element.timestamp, element.attempts + 1));
+            retryAttempt = Math.max(retryAttempt, element.attempts + 1);
+            continue;
+          } else {
+            failedCount++;
+            storeErrors.put(queue.uuid, error);
+          }
+          release(element);
+        }
+        // the waiting threads are only released once the retries are performed
+        if (retryAttempt == 0) queue.written = sequence;
+        queues.notifyAll();
+      }
+      if (retryAttempt > 0) {
+        log.warn("error storing {} elements of job uuid={}, retry #{} in {} ms: {}", batch.size(), queue.uuid, retryAttempt,
+          STORE_RETRY_DELAY << (retryAttempt - 1), ExceptionUtils.getMessage(error));
+        try {
+          Thread.sleep(STORE_RETRY_DELAY << (retryAttempt - 1));
+        } catch (@SuppressWarnings("unused") final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      } else if (error != null) log.error("could not store the elements of job uuid={}: {}", queue.uuid, ExceptionUtils.getStackTrace(error));
+    }
+  }
+
+  /**
+   * Wait until the operations pending at the time of the call are performed.
+   * @param uuid the uuid of the job whose operations to wait for, or {@code null} to wait for the operations of all jobs.
+   * @throws JobPersistenceException if the calling thread is interrupted while waiting, or if some elements of the job could not be stored.
+   */
+  private void awaitWritten(final String uuid) throws JobPersistenceException {
+    try {
+      synchronized(queues) {
+        final Map<JobQueue, Long> targets = new HashMap<>();
+        if (uuid == null) {
+          for (final JobQueue queue: queues.values()) targets.put(queue, queue.sequence);
+        } else {
+          final JobQueue queue = queues.get(uuid);
+          if (queue != null) targets.put(queue, queue.sequence);
+        }
+        for (final Map.Entry<JobQueue, Long> entry: targets.entrySet()) {
+          while (entry.getKey().written < entry.getValue()) queues.wait();
+        }
+        JobPersistenceException error = null;
+        if (uuid != null) error = storeErrors.remove(uuid);
+        else if (!storeErrors.isEmpty()) {
+          error = storeErrors.values().iterator().next();
+          storeErrors.clear();
+        }
+        if (error != null) throw error;
+      }
+    } catch (final InterruptedException e) {
+      throw new JobPersistenceException(e);
+    }
+  }
+
+  /**
+   * Remove the specified element from the pending size and count. Must be called while holding the lock on {@link #queues}.
+   * @param element the element to release.
+   */
+  private void release(final PendingElement element) {
+    pendingSize -= sizeOf(element.info);
+    pendingCount--;
+  }
+
+  /**
+   * Get the size of the specified element, counting 0 if it is unknown.
+   * @param info the element to measure.
+   * @return the size in bytes.
+   */
+  private static long sizeOf(final PersistenceInfo info) {
+    return Math.max(0, info.getSize());
+  }
+
   /**
    * @param max the maximum thread pool size.
    * @return an {@link ExecutorService}.
@@ -275,4 +579,70 @@ public class AsynchronousPersistence implements JobPersistence {
      */
     abstract T execute() throws JobPersistenceException;
   }
+
+  /**
+   * The pending operations for a job in write-behind mode. All fields are accessed while holding the lock on {@link AsynchronousPersistence#queues}.
+   */
+  private static class JobQueue {
+    /**
+     * The uuid of the job.
+     */
+    private final String uuid;
+    /**
+     * The elements waiting to be stored, with at most one version of each element.
+     */
+    private Map<PersistenceInfoKey, PendingElement> elements = new LinkedHashMap<>();
+    /**
+     * Whether the job is to be deleted before the pending elements are stored.
+     */
+    private boolean deleted;
+    /**
+     * Whether a task which performs the pending operations is queued or running.
+     */
+    private boolean scheduled;
+    /**
+     * Sequence number of the latest requested operation.
+     */
+    private long sequence;
+    /**
+     * Sequence number of the latest performed operation.
+     */
+    private long written;
+
+    /**
+     * @param uuid the uuid of the job.
+     */
+    private JobQueue(final String uuid) {
+      this.uuid = uuid;
+    }
+  }
+
+  /**
+   * An element waiting to be stored in write-behind mode.
+   */
+  private static class PendingElement {
+    /**
+     * The element to store.
+     */
+    private final PersistenceInfo info;
+    /**
+     * The time at which the store was requested, in nanoseconds.
+     */
+    private final long timestamp;
+    /**
+     * The number of failed attempts to store the element.
+     */
+    private final int attempts;
+
+    /**
+     * @param info the element to store.
+     * @param timestamp the time at which the store was requested, in nanoseconds.
+     * @param attempts the number of failed attempts to store the element.
+     */
+    private PendingElement(final PersistenceInfo info, final long timestamp, final int attempts) {
+      this.info = info;
+      this.timestamp = timestamp;
+      this.attempts = attempts;
+    }
+  }
 }
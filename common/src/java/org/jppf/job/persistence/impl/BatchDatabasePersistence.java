@@ -0,0 +1,367 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.job.persistence.impl;
+
+import java.io.InputStream;
+import java.sql.*;
+import java.util.*;
+
+import org.jppf.io.IO;
+import org.jppf.job.persistence.*;
+import org.jppf.utils.*;
+import org.jppf.utils.streams.MultipleBuffersInputStream;
+import org.slf4j.*;
+
+/**
+ * A database job persistence which uses the same table structure as {@link DefaultDatabasePersistence}, but stores and loads
+ * the elements of a job in bulk rather than one at a time:
+ * <ul style="margin-top: 0px">
+ *   <li>stores are performed with JDBC batch updates, using a single insert-or-update statement when the database supports it,
+ *   otherwise with one batch of inserts and one batch of updates, after the existing positions are fetched with a single query</li>
+ *   <li>the tasks or results of a job are loaded with multi-row queries of up to {@code batch_size} elements rather than one query per element.
+ *   Each query selects either a range of contiguous positions, or a list of positions, so that no unrequested element is read</li>
+ *   <li>the content of each element is streamed to and from the database, and never held in a single byte array</li>
+ * </ul>
+ *
+ * <p>This implementation is configured like {@link DefaultDatabasePersistence}, with an optional batch size as third parameter:<br>
+ * {@code jppf.job.persistence = org.jppf.job.persistence.impl.BatchDatabasePersistence <table_name> <datasource_name> <batch_size>}<br>
+ * The batch size is the maximum number of statements sent to the database in a single batch, as well as the maximum number of elements
+ * loaded with a single query, and defaults to 1000.
+ *
+ * <p>The databases for which an insert-or-update statement is available are listed in the {@code store.upsert.sql.*} entries
+ * of the {@code sql_statements.properties} file in this package. When the database rejects this statement with a syntax or
+ * unsupported feature error, separate inserts and updates are used from then on. Any other failure of a batch only applies to the
+ * current store, whose elements are then stored one at a time.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class BatchDatabasePersistence extends DefaultDatabasePersistence {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(BatchDatabasePersistence.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The default maximum number of statements in a batch.
+   */
+  protected static final int DEFAULT_BATCH_SIZE = 1000;
+  /**
+   * The maximum number of statements in a batch.
+   */
+  private final int batchSize;
+  /**
+   * The insert-or-update statement for the database, an empty string if there is none, or {@code null} if it has not yet been looked up.
+   */
+  private volatile String upsertSQL;
+
+  /**
+   * Intialize this persistence with the {@linkplain #DEFAULT_TABLE default table name}.
+   * @throws Exception if any error occurs.
+   */
+  public BatchDatabasePersistence() throws Exception {
+    this(DEFAULT_TABLE, DEFAULT_DATASOURCE);
+  }
+
+  /**
+   * Intialize this persistence with a table name specified in the first string parmater.
+   * @param params if parameters are provided, they have this meaning:
+   * <ul style="margin-top: 0px">
+   * <li>params[0] is the table name, which defaults to 'JOB_PERSISTENCE'</li>
+   * <li>params[1] is the name of a datasource defined in the configuration, and defaults to 'job_persistence'</li>
+   * <li>params[2] is the maximum number of statements in a batch, and defaults to 1000</li>
+   * </ul>
+   * @throws Exception if any error occurs.
+   */
+  public BatchDatabasePersistence(final String...params) throws Exception {
+    super(params);
+    int n = DEFAULT_BATCH_SIZE;
+    if ((params != null) && (params.length > 2) && (params[2] != null)) {
+      try {
+        n = Integer.valueOf(params[2].trim());
+      } catch (@SuppressWarnings("unused") final NumberFormatException e) {
+        log.warn("invalid batch size '{}', using the default value {}", params[2], DEFAULT_BATCH_SIZE);
+      }
+    }
+    batchSize = (n <= 0) ? DEFAULT_BATCH_SIZE : n;
+  }
+
+  @Override
+  public void store(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+    if (debugEnabled) log.debug("storing {} elements", infos.size());
+    if (infos.isEmpty()) return;
+    boolean batchFailed = false;
+    try (ConnectionWrapper wrapper = getConnection(false, Connection.TRANSACTION_READ_COMMITTED)) {
+      final Connection connection = wrapper.getConnection();
+      final String upsert = getUpsertSQL(connection);
+      try {
+        if (upsert != null) executeBatch(connection, upsert, infos, false);
+        else insertOrUpdate(connection, infos);
+        connection.commit();
+        if (debugEnabled) log.debug("commit done");
+      } catch (final SQLException e) {
+        connection.rollback();
+        if ((upsert != null) && isUnsupported(e)) {
+          log.warn("insert-or-update is not supported by the database, using separate inserts and updates from now on: {}", ExceptionUtils.getMessage(e));
+          upsertSQL = "";
+        } else if (debugEnabled) log.debug("batched store failed, storing each element separately: {}", ExceptionUtils.getMessage(e));
+        batchFailed = true;
+      } catch (final Exception e) {
+        connection.rollback();
+        throw new JobPersistenceException(e);
+      }
+    } catch (final JobPersistenceException e) {
+      throw e;
+    } catch (final Exception e) {
+      throw new JobPersistenceException(e);
+    }
+    // the batch may fail when another driver concurrently inserts the same elements: retry with row locks
+    if (batchFailed) super.store(infos);
+  }
+
+  @Override
+  public List<InputStream> load(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+    if (debugEnabled) log.debug("loading {} elements", infos.size());
+    try (ConnectionWrapper wrapper = getConnection(false, Connection.TRANSACTION_READ_COMMITTED)) {
+      final Connection connection = wrapper.getConnection();
+      try {
+        final Map<PersistenceInfoKey, InputStream> loaded = new HashMap<>(infos.size());
+        final byte[] temp = new byte[IO.TEMP_BUFFER_SIZE];
+        for (final Map.Entry<PersistenceInfoKey, Set<Integer>> entry: groupPositions(infos).entrySet()) {
+          final List<Integer> positions = new ArrayList<>(entry.getValue());
+          Collections.sort(positions);
+          for (int i=0; i<positions.size(); i+=batchSize)
+            loadPositions(connection, entry.getKey(), positions.subList(i, Math.min(i + batchSize, positions.size())), loaded, temp);
+        }
+        connection.commit();
+        final List<InputStream> result = new ArrayList<>(infos.size());
+        for (final PersistenceInfo info: infos) {
+          final InputStream is = loaded.get(new PersistenceInfoKey(info));
+          if (is != null) result.add(is);
+        }
+        return result;
+      } catch (final Exception e) {
+        connection.rollback();
+        throw e;
+      }
+    } catch (final JobPersistenceException e) {
+      throw e;
+    } catch (final Exception e) {
+      throw new JobPersistenceException(e);
+    }
+  }
+
+  /**
+   * Load the elements with the specified job uuid, type and positions with a single query. The query selects a range of positions
+   * when they are contiguous, and a list of positions otherwise, so that no element is read unless it was requested.
+   * @param connection the JDBC connection with which to create and execute the query.
+   * @param key the job uuid and type of the elements.
+   * @param positions the sorted positions of the elements to load.
+   * @param loaded a mapping of the elements keys to their content, to which the loaded elements are added.
+   * @param temp a temporary buffer used for reading.
+   * @throws Exception if any error occurs.
+   */
+  private void loadPositions(final Connection connection, final PersistenceInfoKey key, final List<Integer> positions,
+    final Map<PersistenceInfoKey, InputStream> loaded, final byte[] temp) throws Exception {
+    final int min = positions.get(0), max = positions.get(positions.size() - 1);
+    final boolean contiguous = (max - min + 1) == positions.size();
+    final String sql = contiguous ? getSQL("load.range.sql") : getSQL("load.positions.sql").replace("{positions}", parameterMarkers(positions.size()));
+    try (final PreparedStatement ps = connection.prepareStatement(sql)) {
+      ps.setString(1, key.uuid);
+      ps.setString(2, key.type.name());
+      if (contiguous) {
+        ps.setInt(3, min);
+        ps.setInt(4, max);
+      } else {
+        for (int i=0; i<positions.size(); i++) ps.setInt(i + 3, positions.get(i));
+      }
+      try (final ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) loaded.put(new PersistenceInfoKey(key.uuid, key.type, rs.getInt(1)), copy(rs.getBinaryStream(2), temp));
+      }
+    }
+  }
+
+  /**
+   * Store the specified elements with a batch of inserts for the elements that are not yet in the database,
+   * and a batch of updates for those that are.
+   * @param connection the JDBC connection with which to create and execute the statements.
+   * @param infos the elements to store.
+   * @throws Exception if any error occurs.
+   */
+  private void insertOrUpdate(final Connection connection, final Collection<PersistenceInfo> infos) throws Exception {
+    final List<PersistenceInfo> inserts = new ArrayList<>(infos.size());
+    final List<PersistenceInfo> updates = new ArrayList<>();
+    final Map<PersistenceInfoKey, Set<Integer>> existing = new HashMap<>();
+    for (final Map.Entry<PersistenceInfoKey, Set<Integer>> entry: groupPositions(infos).entrySet())
+      existing.put(entry.getKey(), getExistingPositions(connection, entry.getKey(), range(entry.getValue())));
+    for (final PersistenceInfo info: infos) {
+      // an element stored twice in the same call is inserted once, then updated
+      if (existing.get(new PersistenceInfoKey(info.getJobUuid(), info.getType(), -1)).add(info.getPosition())) inserts.add(info);
+      else updates.add(info);
+    }
+    if (debugEnabled) log.debug("{} inserts and {} updates", inserts.size(), updates.size());
+    executeBatch(connection, getSQL("store.insert.sql"), inserts, false);
+    executeBatch(connection, getSQL("store.update.sql"), updates, true);
+  }
+
+  /**
+   * Get the positions of the elements with the specified job uuid and type, within the specified range, which are already in the database.
+   * @param connection the JDBC connection with which to create and execute the query.
+   * @param key the job uuid and type of the elements.
+   * @param range the lowest and highest positions to look up.
+   * @return a set of existing positions.
+   * @throws Exception if any error occurs.
+   */
+  private Set<Integer> getExistingPositions(final Connection connection, final PersistenceInfoKey key, final int[] range) throws Exception {
+    try (final PreparedStatement ps = connection.prepareStatement(getSQL("get.positions.range.sql"))) {
+      ps.setString(1, key.uuid);
+      ps.setString(2, key.type.name());
+      ps.setInt(3, range[0]);
+      ps.setInt(4, range[1]);
+      try (final ResultSet rs = ps.executeQuery()) {
+        final Set<Integer> positions = new HashSet<>();
+        while (rs.next()) positions.add(rs.getInt(1));
+        return positions;
+      }
+    }
+  }
+
+  /**
+   * Execute an insert, update or insert-or-update statement for each of the specified elements, in batches of at most {@link #batchSize} statements.
+   * @param connection the JDBC connection with which to create and execute the statements.
+   * @param sql the statement to execute.
+   * @param infos the elements to store.
+   * @param update {@code true} if the statement is an update, whose content parameter comes first, {@code false} if the content parameter comes last.
+   * @throws Exception if any error occurs.
+   */
+  private void executeBatch(final Connection connection, final String sql, final Collection<PersistenceInfo> infos, final boolean update) throws Exception {
+    if (infos.isEmpty()) return;
+    try (final PreparedStatement ps = connection.prepareStatement(sql)) {
+      int count = 0;
+      for (final PersistenceInfo info: infos) {
+        final int keyIndex = update ? 2 : 1;
+        ps.setString(keyIndex, info.getJobUuid());
+        ps.setString(keyIndex + 1, info.getType().name());
+        ps.setInt(keyIndex + 2, info.getPosition());
+        final int contentIndex = update ? 1 : 4;
+        final InputStream is = getInputStream(info.getInputStream());
+        final int size = info.getSize();
+        if (size >= 0) ps.setBinaryStream(contentIndex, is, size);
+        else ps.setBinaryStream(contentIndex, is);
+        ps.addBatch();
+        if (++count % batchSize == 0) ps.executeBatch();
+      }
+      if (count % batchSize != 0) ps.executeBatch();
+    }
+  }
+
+  /**
+   * Get the insert-or-update statement for the database, if any.
+   * @param connection a JDBC connection to the database.
+   * @return the insert-or-update SQL, or {@code null} if the database doesn't have one.
+   * @throws Exception if any error occurs.
+   */
+  private String getUpsertSQL(final Connection connection) throws Exception {
+    if (upsertSQL == null) {
+      final String product = connection.getMetaData().getDatabaseProductName();
+      final String dialect = (product == null) ? "" : product.trim().toLowerCase(Locale.US).replace(' ', '_');
+      final String sql = getSQL("store.upsert.sql." + dialect);
+      if (debugEnabled) log.debug("insert-or-update statement for database '{}': {}", product, sql);
+      upsertSQL = (sql == null) ? "" : sql;
+    }
+    return upsertSQL.isEmpty() ? null : upsertSQL;
+  }
+
+  /**
+   * Determine whether the specified error means that the insert-or-update statement is not supported by the database,
+   * as opposed to a failure of this store only, such as a deadlock, a constraint violation or a lost connection.
+   * @param e the error to check.
+   * @return {@code true} if the statement is not supported, {@code false} otherwise.
+   */
+  private static boolean isUnsupported(final SQLException e) {
+    for (SQLException ex = e; ex != null; ex = ex.getNextException()) {
+      if ((ex instanceof SQLSyntaxErrorException) || (ex instanceof SQLFeatureNotSupportedException)) return true;
+      // SQL states of class 42 are syntax errors and class 0A is for unsupported features, for the drivers that do not raise the specific exceptions
+      final String state = ex.getSQLState();
+      if ((state != null) && (state.startsWith("42") || state.startsWith("0A"))) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Group the positions of the specified elements by job uuid and type.
+   * @param infos the elements to group.
+   * @return a mapping of job uuid and type, with a position of -1, to the set of positions for this uuid and type.
+   */
+  private static Map<PersistenceInfoKey, Set<Integer>> groupPositions(final Collection<PersistenceInfo> infos) {
+    final Map<PersistenceInfoKey, Set<Integer>> map = new LinkedHashMap<>();
+    for (final PersistenceInfo info: infos) {
+      final PersistenceInfoKey key = new PersistenceInfoKey(info.getJobUuid(), info.getType(), -1);
+      Set<Integer> positions = map.get(key);
+      if (positions == null) map.put(key, positions = new HashSet<>());
+      positions.add(info.getPosition());
+    }
+    return map;
+  }
+
+  /**
+   * Get the lowest and highest values in the specified set of positions.
+   * @param positions the positions to look at.
+   * @return an array of 2 ints holding the lowest and highest positions.
+   */
+  private static int[] range(final Set<Integer> positions) {
+    int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+    for (final int pos: positions) {
+      if (pos < min) min = pos;
+      if (pos > max) max = pos;
+    }
+    return new int[] { min, max };
+  }
+
+  /**
+   * Build a comma-separated list of the specified number of JDBC parameter markers.
+   * @param count the number of parameter markers.
+   * @return a string such as {@code "?, ?, ?"}.
+   */
+  private static String parameterMarkers(final int count) {
+    final StringBuilder sb = new StringBuilder(3 * count);
+    for (int i=0; i<count; i++) sb.append((i == 0) ? "?" : ", ?");
+    return sb.toString();
+  }
+
+  /**
+   * Copy the specified BLOB stream into a list of buffers, while the result set it belongs to is still open.
+   * Each buffer is sized to the data it holds, so that small elements do not each retain a full-size buffer.
+   * @param is the stream to copy.
+   * @param temp a temporary buffer used for reading.
+   * @return an input stream reading from the copied buffers, or {@code null} if {@code is} is {@code null}.
+   * @throws Exception if any error occurs.
+   */
+  private static InputStream copy(final InputStream is, final byte[] temp) throws Exception {
+    if (is == null) return null;
+    final List<JPPFBuffer> buffers = new ArrayList<>();
+    try (final InputStream in = is) {
+      int n;
+      while ((n = in.read(temp)) > 0) buffers.add(new JPPFBuffer(Arrays.copyOf(temp, n), n));
+    }
+    return new MultipleBuffersInputStream(buffers.toArray(new JPPFBuffer[buffers.size()]));
+  }
+}
@@ -92,6 +92,15 @@ public class CacheablePersistence implements JobPersistence {
     cache = new SoftLRUCache<>(n);
   }
 
+  /**
+   * Get the actual persistence implementation to which operations are delegated.
+   * @return a {@link JobPersistence} instance.
+   * @exclude
+   */
+  public JobPersistence getDelegate() {
+    return delegate;
+  }
+
   @Override
   public void store(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
     if (debugEnabled) log.debug("storing {}", infos);
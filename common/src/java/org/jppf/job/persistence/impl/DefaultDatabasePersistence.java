@@ -386,8 +386,9 @@ public class DefaultDatabasePersistence extends AbstractDatabasePersistence<Pers
    * @param is the stream to write.
    * @return either {@code is} if {@link #bufferStreams} is {@link false}, or a {@link BufferedInputStream} wrapping it otherwise.
    * @throws Exception if any error occurs.
+   * @exclude
    */
-  private InputStream getInputStream(final InputStream is) throws Exception {
+  protected InputStream getInputStream(final InputStream is) throws Exception {
     return !bufferStreams || (is instanceof BufferedInputStream) ? is : new BufferedInputStream(is);
   }
 }
@@ -0,0 +1,910 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.job.persistence.impl;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import org.jppf.job.persistence.*;
+import org.jppf.persistence.AbstractFilePersistence;
+import org.jppf.utils.*;
+import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.jppf.utils.streams.StreamUtils;
+import org.slf4j.*;
+
+/**
+ * A file-based persistent store for jobs, which appends all job elements to a small number of large log files, called segments,
+ * rather than storing each job element in its own file as {@link DefaultFilePersistence} does.
+ * <p>The store's structure is made of a root directory which contains files named <code>segment-<i>n</i>.log</code>. New records are only ever appended
+ * to the segment with the highest number, and a new segment is started once the current one exceeds a maximum size.
+ * The location of each job element in the segments is kept in an in-memory index, which is rebuilt by scanning the segments when the store is created.
+ * <p>Concurrent store operations share the cost of the disk synchronizations: a single {@code fsync} makes the records written by all of them durable (group commit).
+ * When jobs are deleted, or job elements are replaced, the segments which contain mostly obsolete records are compacted in the background:
+ * their remaining live records are copied to the current segment, after which the segment file is deleted.
+ * <p>This persistence can be configured as follows:
+ * <pre class="jppf_pre">
+ * <span style="color: green"># log-structured persistence with default parameters</span>
+ * jppf.job.persistence = org.jppf.job.persistence.impl.LogFilePersistence
+ * <span style="color: green"># root directory, maximum segment size in MB and group commit delay in milliseconds</span>
+ * jppf.job.persistence = org.jppf.job.persistence.impl.LogFilePersistence &lt;root_dir&gt; &lt;max_segment_size&gt; &lt;group_commit_delay&gt;</pre>
+ * <p>The root directory defaults to "persistence", the maximum segment size to 64 MB and the group commit delay to 0.
+ * A positive group commit delay makes the thread that performs a disk synchronization wait before doing it, so more concurrent operations can be included.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class LogFilePersistence extends AbstractFilePersistence<PersistenceInfo, JobPersistenceException> implements JobPersistence {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(LogFilePersistence.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The default root path if none is specified.
+   */
+  private static final String DEFAULT_ROOT = "persistence";
+  /**
+   * The default maximum size of a segment in MB.
+   */
+  private static final long DEFAULT_MAX_SEGMENT_SIZE = 64L;
+  /**
+   * Prefix for the segment file names.
+   */
+  private static final String SEGMENT_PREFIX = "segment-";
+  /**
+   * Extension of the segment file names.
+   */
+  private static final String SEGMENT_EXTENSION = ".log";
+  /**
+   * Kind of record which holds a job element.
+   */
+  private static final byte PUT = 1;
+  /**
+   * Kind of record which marks the deletion of a job.
+   */
+  private static final byte DELETE = 2;
+  /**
+   * Size of the record prefix, made of the payload length and checksum.
+   */
+  private static final int RECORD_PREFIX_SIZE = 8;
+  /**
+   * Minimum size of a record payload: kind, sequence number and length of the job uuid.
+   */
+  private static final int MIN_PAYLOAD_SIZE = 11;
+  /**
+   * Size of the buffers used for reading and writing the segments.
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
+  /**
+   * A segment is compacted when the ratio of its live bytes over its size is at or below this threshold.
+   */
+  private static final double COMPACTION_THRESHOLD = 0.5d;
+  /**
+   * The possible types of persisted objects, indexed by ordinal.
+   */
+  private static final PersistenceObjectType[] TYPES = PersistenceObjectType.values();
+  /**
+   * The maximum size of a segment in bytes.
+   */
+  private final long maxSegmentSize;
+  /**
+   * How long the thread which synchronizes the disk waits for other operations to join the group commit, in milliseconds.
+   */
+  private final long groupCommitDelay;
+  /**
+   * The write lock is held while appending to the segments or updating the index, the read lock while reading them.
+   */
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  /**
+   * Mapping of segment ids to the corresponding segments.
+   */
+  private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+  /**
+   * Mapping of job uuids to the locations of their live elements.
+   */
+  private final Map<String, Map<PersistenceInfoKey, Location>> index = new HashMap<>();
+  /**
+   * The segment to which records are appended.
+   */
+  private Segment active;
+  /**
+   * The sequence number of the next appended record.
+   */
+  private long nextSeq = 1L;
+  /**
+   * Used to synchronize the group commits.
+   */
+  private final Object syncMonitor = new Object();
+  /**
+   * The highest sequence number of the records known to be durable.
+   */
+  private long syncedSeq;
+  /**
+   * Whether a thread is currently synchronizing the disk.
+   */
+  private boolean syncInProgress;
+  /**
+   * Performs the compaction of the segments in the background.
+   */
+  private final ExecutorService compactionExecutor;
+  /**
+   * Whether a compaction is already scheduled.
+   */
+  private final AtomicBoolean compactionPending = new AtomicBoolean(false);
+
+  /**
+   * Initialize this persistence with the root path {@link #DEFAULT_ROOT} under the current user directory.
+   * @throws JobPersistenceException if the existing segments could not be read.
+   */
+  public LogFilePersistence() throws JobPersistenceException {
+    this(DEFAULT_ROOT);
+  }
+
+  /**
+   * Initialize this persistence with the specified parameters.
+   * @param params the root directory, followed by the optional maximum segment size in MB and group commit delay in milliseconds.
+   * @throws JobPersistenceException if the existing segments could not be read.
+   */
+  public LogFilePersistence(final String... params) throws JobPersistenceException {
+    super(((params != null) && (params.length > 0)) ? params : new String[] { DEFAULT_ROOT });
+    final long size = parseParam(params, 1, DEFAULT_MAX_SEGMENT_SIZE);
+    maxSegmentSize = 1024L * 1024L * ((size > 0L) ? size : DEFAULT_MAX_SEGMENT_SIZE);
+    groupCommitDelay = Math.max(0L, parseParam(params, 2, 0L));
+    recover();
+    compactionExecutor = Executors.newSingleThreadExecutor(new JPPFThreadFactory(getClass().getSimpleName()));
+    if (debugEnabled) log.debug("initialized {} with {} segments, maxSegmentSize={}, groupCommitDelay={}", this, segments.size(), maxSegmentSize, groupCommitDelay);
+    scheduleCompaction();
+  }
+
+  @Override
+  public void store(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+    if ((infos == null) || infos.isEmpty()) return;
+    if (debugEnabled) log.debug("storing {}", infos);
+    final long seq;
+    lock.writeLock().lock();
+    try {
+      for (final PersistenceInfo info: infos) {
+        final Location location;
+        try (final InputStream in = info.getInputStream()) {
+          location = append(PUT, new PersistenceInfoKey(info), in);
+        }
+        Map<PersistenceInfoKey, Location> entries = index.get(info.getJobUuid());
+        if (entries == null) index.put(info.getJobUuid(), entries = new HashMap<>());
+        final Location old = entries.put(location.key, location);
+        if (old != null) old.segment.liveBytes -= old.length;
+        location.segment.liveBytes += location.length;
+        location.segment.jobs.add(info.getJobUuid());
+      }
+      seq = nextSeq - 1L;
+    } catch (final Exception e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    awaitDurable(seq);
+  }
+
+  @Override
+  public List<InputStream> load(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+    if ((infos == null) || infos.isEmpty()) return null;
+    if (debugEnabled) log.debug("loading {}", infos);
+    lock.readLock().lock();
+    try {
+      final List<InputStream> result = new ArrayList<>(infos.size());
+      final Map<PersistenceInfoKey, Location> entries = index.get(infos.iterator().next().getJobUuid());
+      if (entries != null) {
+        for (final PersistenceInfo info: infos) {
+          final Location location = entries.get(new PersistenceInfoKey(info));
+          if (location == null) throw new JobPersistenceException("could not find persisted element " + info);
+          final byte[] data = new byte[location.length - location.dataOffset];
+          readFully(location.segment.channel, ByteBuffer.wrap(data), location.offset + location.dataOffset);
+          result.add(new ByteArrayInputStream(data));
+        }
+      }
+      return result;
+    } catch (final IOException e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<String> getPersistedJobUuids() throws JobPersistenceException {
+    lock.readLock().lock();
+    try {
+      final List<String> result = new ArrayList<>(index.keySet());
+      if (debugEnabled) log.debug("uuids of persisted jobs: {}", result);
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public int[] getTaskPositions(final String jobUuid) throws JobPersistenceException {
+    final int[] result = getPositions(jobUuid, PersistenceObjectType.TASK);
+    if (debugEnabled) log.debug("positions of tasks for job uuid={} : {}", jobUuid, StringUtils.buildString(", ", "{", "}", result));
+    return result;
+  }
+
+  @Override
+  public int[] getTaskResultPositions(final String jobUuid) throws JobPersistenceException {
+    final int[] result = getPositions(jobUuid, PersistenceObjectType.TASK_RESULT);
+    if (debugEnabled) log.debug("positions of results for job uuid={} : {}", jobUuid, StringUtils.buildString(", ", "{", "}", result));
+    return result;
+  }
+
+  @Override
+  public void deleteJob(final String jobUuid) throws JobPersistenceException {
+    if (debugEnabled) log.debug("deleting job with uuid = {}", jobUuid);
+    long seq = 0L;
+    lock.writeLock().lock();
+    try {
+      final Map<PersistenceInfoKey, Location> entries = index.remove(jobUuid);
+      if (entries != null) {
+        for (final Location location: entries.values()) location.segment.liveBytes -= location.length;
+        // the deletion must be recorded, otherwise the job would be restored from the segments that still hold its elements
+        final Location tombstone = append(DELETE, new PersistenceInfoKey(jobUuid, null, -1), null);
+        tombstone.segment.tombstones.add(tombstone);
+        seq = tombstone.seq;
+      }
+    } catch (final IOException e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (seq > 0L) {
+      awaitDurable(seq);
+      scheduleCompaction();
+    }
+  }
+
+  @Override
+  public boolean isJobPersisted(final String jobUuid) throws JobPersistenceException {
+    lock.readLock().lock();
+    try {
+      final Map<PersistenceInfoKey, Location> entries = index.get(jobUuid);
+      return (entries != null) && entries.containsKey(new PersistenceInfoKey(jobUuid, PersistenceObjectType.JOB_HEADER, -1));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get the positions of the specified type of job elements, in ascending order.
+   * @param jobUuid the job uuid for which to get the tasks positions.
+   * @param type the type of elements for which to get the tasks positions.
+   * @return the tasks positions of the elements.
+   */
+  private int[] getPositions(final String jobUuid, final PersistenceObjectType type) {
+    lock.readLock().lock();
+    try {
+      final Map<PersistenceInfoKey, Location> entries = index.get(jobUuid);
+      if (entries == null) return new int[0];
+      final int[] positions = new int[entries.size()];
+      int count = 0;
+      for (final PersistenceInfoKey key: entries.keySet()) {
+        if (key.type == type) positions[count++] = key.position;
+      }
+      final int[] result = Arrays.copyOf(positions, count);
+      Arrays.sort(result);
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Append a record to the active segment. This method must be called while holding the write lock.
+   * @param kind the kind of record, either {@link #PUT} or {@link #DELETE}.
+   * @param key the key of the job element, or a key with a {@code null} type for a job deletion.
+   * @param data the serialized job element, may be {@code null}.
+   * @return the location of the appended record.
+   * @throws IOException if any I/O error occurs.
+   */
+  private Location append(final byte kind, final PersistenceInfoKey key, final InputStream data) throws IOException {
+    final Segment segment = activeSegment();
+    final long start = segment.size;
+    final long seq = nextSeq++;
+    try {
+      final ChannelOutputStream out = new ChannelOutputStream(segment.channel, start + RECORD_PREFIX_SIZE);
+      final DataOutputStream dos = new DataOutputStream(out);
+      dos.writeByte(kind);
+      dos.writeLong(seq);
+      dos.writeUTF(key.uuid);
+      if (kind == PUT) {
+        dos.writeByte(key.type.ordinal());
+        dos.writeInt(key.position);
+      }
+      final int dataOffset = RECORD_PREFIX_SIZE + (int) out.count;
+      if (data != null) StreamUtils.copyStream(data, dos, false);
+      dos.flush();
+      if (out.count > Integer.MAX_VALUE - RECORD_PREFIX_SIZE) throw new IOException("job element too large: " + out.count + " bytes");
+      final ByteBuffer prefix = ByteBuffer.allocate(RECORD_PREFIX_SIZE);
+      prefix.putInt((int) out.count).putInt((int) out.crc.getValue()).flip();
+      writeFully(segment.channel, prefix, start);
+      final int length = RECORD_PREFIX_SIZE + (int) out.count;
+      segment.size = start + length;
+      return new Location(segment, start, length, dataOffset, seq, key);
+    } catch (final IOException|RuntimeException e) {
+      // an incomplete record would prevent the recovery of the records appended after it
+      segment.channel.truncate(start);
+      throw e;
+    }
+  }
+
+  /**
+   * Get the segment to which records are appended, starting a new one if it is full. This method must be called while holding the write lock.
+   * @return the active segment.
+   * @throws IOException if any I/O error occurs.
+   */
+  private Segment activeSegment() throws IOException {
+    if (active.size >= maxSegmentSize) {
+      // the group commits rely on the previous segments being durable
+      active.channel.force(false);
+      active = createSegment(active.id + 1L);
+      scheduleCompaction();
+    }
+    return active;
+  }
+
+  /**
+   * Create a new segment file with the specified id.
+   * @param id the id of the segment.
+   * @return the new segment.
+   * @throws IOException if any I/O error occurs.
+   */
+  private Segment createSegment(final long id) throws IOException {
+    final Segment segment = new Segment(id, rootPath.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_EXTENSION)));
+    segments.put(id, segment);
+    if (debugEnabled) log.debug("created segment {}", segment.path);
+    return segment;
+  }
+
+  /**
+   * Wait until the record with the specified sequence number is durable. The first waiting thread synchronizes the disk
+   * on behalf of all the records appended so far, while the other threads wait for the outcome.
+   * @param seq the sequence number of the record.
+   * @throws JobPersistenceException if the disk synchronization failed.
+   */
+  private void awaitDurable(final long seq) throws JobPersistenceException {
+    synchronized(syncMonitor) {
+      while (true) {
+        if (syncedSeq >= seq) return;
+        if (!syncInProgress) break;
+        try {
+          syncMonitor.wait();
+        } catch (final InterruptedException e) {
+          throw new JobPersistenceException(e);
+        }
+      }
+      syncInProgress = true;
+    }
+    long target = 0L;
+    boolean success = false;
+    try {
+      if (groupCommitDelay > 0L) Thread.sleep(groupCommitDelay);
+      final FileChannel channel;
+      lock.readLock().lock();
+      try {
+        target = nextSeq - 1L;
+        channel = active.channel;
+      } finally {
+        lock.readLock().unlock();
+      }
+      try {
+        channel.force(false);
+      } catch (@SuppressWarnings("unused") final ClosedChannelException e) {
+        // the segment was synchronized when the next one was started, then it was compacted
+      }
+      success = true;
+    } catch (final IOException|InterruptedException e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      synchronized(syncMonitor) {
+        syncInProgress = false;
+        if (success && (target > syncedSeq)) syncedSeq = target;
+        syncMonitor.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Schedule a compaction of the segments, unless one is already pending.
+   */
+  private void scheduleCompaction() {
+    if ((compactionExecutor != null) && compactionPending.compareAndSet(false, true)) {
+      compactionExecutor.execute(() -> {
+        compactionPending.set(false);
+        try {
+          Segment segment;
+          while ((segment = nextCompactionCandidate()) != null) compact(segment);
+        } catch (final Exception e) {
+          log.error("error compacting the segments of {} : {}", this, ExceptionUtils.getStackTrace(e));
+        }
+      });
+    }
+  }
+
+  /**
+   * Find a segment which has enough obsolete records to be compacted.
+   * @return a segment, or {@code null} if none needs to be compacted.
+   */
+  private Segment nextCompactionCandidate() {
+    lock.readLock().lock();
+    try {
+      for (final Segment segment: segments.values()) {
+        if ((segment != active) && (segment.liveBytes <= COMPACTION_THRESHOLD * segment.size)) return segment;
+      }
+      return null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Copy the live records of the specified segment to the active segment, then delete it.
+   * @param segment the segment to compact.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void compact(final Segment segment) throws IOException {
+    if (debugEnabled) log.debug("compacting segment {} with {} live bytes out of {}", segment.path, segment.liveBytes, segment.size);
+    final List<Location> live = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      for (final Map<PersistenceInfoKey, Location> entries: index.values()) {
+        for (final Location location: entries.values()) {
+          if (location.segment == segment) live.add(location);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    // the records are copied one at a time, to avoid blocking the store operations for too long
+    for (final Location location: live) {
+      lock.writeLock().lock();
+      try {
+        final Map<PersistenceInfoKey, Location> entries = index.get(location.key.uuid);
+        if ((entries == null) || (entries.get(location.key) != location)) continue;
+        final Location copy = copy(location);
+        entries.put(location.key, copy);
+        segment.liveBytes -= location.length;
+        copy.segment.liveBytes += copy.length;
+        copy.segment.jobs.add(location.key.uuid);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+    final FileChannel channel;
+    lock.writeLock().lock();
+    try {
+      for (final Location tombstone: segment.tombstones) {
+        if (hasRecordsOf(tombstone.key.uuid, segment)) {
+          final Location copy = copy(tombstone);
+          copy.segment.tombstones.add(copy);
+        }
+      }
+      channel = active.channel;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    // the copies must be durable before the originals are deleted
+    try {
+      channel.force(false);
+    } catch (@SuppressWarnings("unused") final ClosedChannelException e) {
+    }
+    lock.writeLock().lock();
+    try {
+      segments.remove(segment.id);
+      segment.channel.close();
+      Files.deleteIfExists(segment.path);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (debugEnabled) log.debug("deleted segment {}", segment.path);
+  }
+
+  /**
+   * Copy the specified record to the active segment, keeping its sequence number. This method must be called while holding the write lock.
+   * @param location the location of the record to copy.
+   * @return the location of the copy.
+   * @throws IOException if any I/O error occurs.
+   */
+  private Location copy(final Location location) throws IOException {
+    final Segment target = activeSegment();
+    final long start = target.size;
+    final ByteBuffer buffer = ByteBuffer.allocate(Math.min(location.length, BUFFER_SIZE));
+    long count = 0L;
+    try {
+      while (count < location.length) {
+        buffer.clear();
+        buffer.limit((int) Math.min(location.length - count, buffer.capacity()));
+        readFully(location.segment.channel, buffer, location.offset + count);
+        buffer.flip();
+        writeFully(target.channel, buffer, start + count);
+        count += buffer.limit();
+      }
+    } catch (final IOException e) {
+      target.channel.truncate(start);
+      throw e;
+    }
+    target.size = start + location.length;
+    return new Location(target, start, location.length, location.dataOffset, location.seq, location.key);
+  }
+
+  /**
+   * Determine whether any segment other than the specified one holds records of the specified job.
+   * @param uuid the uuid of the job.
+   * @param excluded the segment to exclude from the search.
+   * @return {@code true} if another segment holds records of the job, {@code false} otherwise.
+   */
+  private boolean hasRecordsOf(final String uuid, final Segment excluded) {
+    for (final Segment segment: segments.values()) {
+      if ((segment != excluded) && segment.jobs.contains(uuid)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Rebuild the index from the existing segments. Records are applied according to their sequence number,
+   * such that the result does not depend on the order in which they were appended.
+   * @throws JobPersistenceException if any error occurs.
+   */
+  private void recover() throws JobPersistenceException {
+    final Map<String, Long> deletions = new HashMap<>();
+    try {
+      try (final DirectoryStream<Path> ds = Files.newDirectoryStream(rootPath, SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION)) {
+        for (final Path path: ds) {
+          final String name = pathname(path.getFileName());
+          try {
+            final long id = Long.valueOf(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length()));
+            segments.put(id, new Segment(id, path));
+          } catch (@SuppressWarnings("unused") final NumberFormatException e) {
+            log.warn("ignoring file {} which is not a valid segment", path);
+          }
+        }
+      }
+      for (final Segment segment: segments.values()) recover(segment, deletions, segment == segments.lastEntry().getValue());
+      active = segments.isEmpty() ? createSegment(0L) : segments.lastEntry().getValue();
+    } catch (final IOException e) {
+      throw new JobPersistenceException(e);
+    }
+  }
+
+  /**
+   * Read all the records in the specified segment and apply them to the index.
+   * @param segment the segment to read.
+   * @param deletions a mapping of job uuids to the sequence number of their latest deletion.
+   * @param last whether this is the last segment.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void recover(final Segment segment, final Map<String, Long> deletions, final boolean last) throws IOException {
+    final long fileSize = segment.channel.size();
+    long offset = 0L;
+    while (offset < fileSize) {
+      final Location location = readRecord(segment, offset, fileSize);
+      if (location == null) {
+        // most likely a write interrupted by a crash, in which case it was never acknowledged as durable
+        log.warn("found an incomplete or corrupted record at offset {} of {}, {} the rest of the segment", offset, segment.path, last ? "truncating" : "ignoring");
+        if (last) segment.channel.truncate(offset);
+        break;
+      }
+      nextSeq = Math.max(nextSeq, location.seq + 1L);
+      final String uuid = location.key.uuid;
+      if (location.key.type == null) {
+        segment.tombstones.add(location);
+        final Long deleted = deletions.get(uuid);
+        if ((deleted == null) || (deleted < location.seq)) deletions.put(uuid, location.seq);
+        final Map<PersistenceInfoKey, Location> entries = index.get(uuid);
+        if (entries != null) {
+          for (final Iterator<Location> it = entries.values().iterator(); it.hasNext();) {
+            final Location entry = it.next();
+            if (entry.seq < location.seq) {
+              entry.segment.liveBytes -= entry.length;
+              it.remove();
+            }
+          }
+          if (entries.isEmpty()) index.remove(uuid);
+        }
+      } else {
+        segment.jobs.add(uuid);
+        final Long deleted = deletions.get(uuid);
+        if ((deleted == null) || (deleted < location.seq)) {
+          Map<PersistenceInfoKey, Location> entries = index.get(uuid);
+          if (entries == null) index.put(uuid, entries = new HashMap<>());
+          final Location old = entries.get(location.key);
+          if ((old == null) || (old.seq < location.seq)) {
+            if (old != null) old.segment.liveBytes -= old.length;
+            entries.put(location.key, location);
+            segment.liveBytes += location.length;
+          }
+        }
+      }
+      offset += location.length;
+    }
+    segment.size = last ? offset : fileSize;
+  }
+
+  /**
+   * Read the record at the specified offset in a segment and verify its checksum.
+   * @param segment the segment to read from.
+   * @param offset the offset of the record in the segment.
+   * @param fileSize the size of the segment file.
+   * @return the location of the record, or {@code null} if the record is incomplete or corrupted.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static Location readRecord(final Segment segment, final long offset, final long fileSize) throws IOException {
+    if (offset + RECORD_PREFIX_SIZE > fileSize) return null;
+    final ByteBuffer prefix = ByteBuffer.allocate(RECORD_PREFIX_SIZE);
+    readFully(segment.channel, prefix, offset);
+    prefix.flip();
+    final int payloadLength = prefix.getInt(), checksum = prefix.getInt();
+    if ((payloadLength < MIN_PAYLOAD_SIZE) || (offset + RECORD_PREFIX_SIZE + payloadLength > fileSize)) return null;
+    final CRC32 crc = new CRC32();
+    final ByteBuffer buffer = ByteBuffer.allocate(Math.min(payloadLength, BUFFER_SIZE));
+    byte[] head = null;
+    int count = 0;
+    while (count < payloadLength) {
+      buffer.clear();
+      buffer.limit(Math.min(payloadLength - count, buffer.capacity()));
+      readFully(segment.channel, buffer, offset + RECORD_PREFIX_SIZE + count);
+      crc.update(buffer.array(), 0, buffer.limit());
+      if (head == null) head = Arrays.copyOf(buffer.array(), buffer.limit());
+      count += buffer.limit();
+    }
+    if ((int) crc.getValue() != checksum) return null;
+    try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(head))) {
+      final byte kind = in.readByte();
+      final long seq = in.readLong();
+      final String uuid = in.readUTF();
+      PersistenceObjectType type = null;
+      int position = -1;
+      if (kind == PUT) {
+        final int ordinal = in.readByte();
+        if ((ordinal < 0) || (ordinal >= TYPES.length)) return null;
+        type = TYPES[ordinal];
+        position = in.readInt();
+      } else if (kind != DELETE) return null;
+      final int dataOffset = RECORD_PREFIX_SIZE + head.length - in.available();
+      return new Location(segment, offset, RECORD_PREFIX_SIZE + payloadLength, dataOffset, seq, new PersistenceInfoKey(uuid, type, position));
+    } catch (@SuppressWarnings("unused") final EOFException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Read from a channel at the specified position until the buffer is full.
+   * @param channel the channel to read from.
+   * @param buffer the buffer to fill.
+   * @param position the position at which to start reading.
+   * @throws IOException if any I/O error occurs or the end of the channel is reached.
+   */
+  private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    long pos = position;
+    while (buffer.hasRemaining()) {
+      final int n = channel.read(buffer, pos);
+      if (n < 0) throw new EOFException("unexpected end of file at position " + pos);
+      pos += n;
+    }
+  }
+
+  /**
+   * Write the remaining content of a buffer to a channel at the specified position.
+   * @param channel the channel to write to.
+   * @param buffer the buffer to write.
+   * @param position the position at which to start writing.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    long pos = position;
+    while (buffer.hasRemaining()) pos += channel.write(buffer, pos);
+  }
+
+  /**
+   * Parse the specified numeric parameter.
+   * @param params the parameters.
+   * @param index the index of the parameter to parse.
+   * @param defaultValue the value to use if the parameter is absent or invalid.
+   * @return the parsed value.
+   */
+  private static long parseParam(final String[] params, final int index, final long defaultValue) {
+    if ((params == null) || (params.length <= index)) return defaultValue;
+    try {
+      return Long.valueOf(params[index]);
+    } catch (@SuppressWarnings("unused") final NumberFormatException e) {
+      log.warn("invalid value '{}' for parameter {}, using the default value {}", params[index], index, defaultValue);
+      return defaultValue;
+    }
+  }
+
+  /** @exclude */
+  @Override
+  protected JobPersistenceException convertException(final Exception e) {
+    return (e instanceof JobPersistenceException) ? (JobPersistenceException) e : new JobPersistenceException(e);
+  }
+
+  /**
+   * A segment file, along with the information needed to decide when to compact it.
+   */
+  private static final class Segment {
+    /**
+     * The id of this segment, which determines its order among the segments.
+     */
+    final long id;
+    /**
+     * The path of the segment file.
+     */
+    final Path path;
+    /**
+     * The channel used to read and write the segment file.
+     */
+    final FileChannel channel;
+    /**
+     * The size of the valid content of this segment.
+     */
+    long size;
+    /**
+     * The number of bytes in the records of this segment that are referenced by the index.
+     */
+    long liveBytes;
+    /**
+     * The uuids of the jobs for which this segment holds elements, whether they are live or not.
+     */
+    final Set<String> jobs = new HashSet<>();
+    /**
+     * The job deletion records in this segment.
+     */
+    final List<Location> tombstones = new ArrayList<>();
+
+    /**
+     * Open the specified segment file, creating it if needed.
+     * @param id the id of this segment.
+     * @param path the path of the segment file.
+     * @throws IOException if any I/O error occurs.
+     */
+    Segment(final long id, final Path path) throws IOException {
+      this.id = id;
+      this.path = path;
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+  }
+
+  /**
+   * The location of a record in a segment.
+   */
+  private static final class Location {
+    /**
+     * The segment which holds the record.
+     */
+    final Segment segment;
+    /**
+     * The offset of the record in the segment.
+     */
+    final long offset;
+    /**
+     * The total length of the record, including its prefix.
+     */
+    final int length;
+    /**
+     * The offset of the job element's data relative to the start of the record.
+     */
+    final int dataOffset;
+    /**
+     * The sequence number of the record.
+     */
+    final long seq;
+    /**
+     * The key of the job element, whose type is {@code null} for a job deletion.
+     */
+    final PersistenceInfoKey key;
+
+    /**
+     * Initialize this location.
+     * @param segment the segment which holds the record.
+     * @param offset the offset of the record in the segment.
+     * @param length the total length of the record, including its prefix.
+     * @param dataOffset the offset of the job element's data relative to the start of the record.
+     * @param seq the sequence number of the record.
+     * @param key the key of the job element.
+     */
+    Location(final Segment segment, final long offset, final int length, final int dataOffset, final long seq, final PersistenceInfoKey key) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+      this.dataOffset = dataOffset;
+      this.seq = seq;
+      this.key = key;
+    }
+  }
+
+  /**
+   * An output stream which writes to a file channel at increasing positions, and computes the checksum of the written bytes.
+   */
+  private static final class ChannelOutputStream extends OutputStream {
+    /**
+     * The channel to write to.
+     */
+    private final FileChannel channel;
+    /**
+     * The position of the next write to the channel.
+     */
+    private long position;
+    /**
+     * Buffers the writes to the channel.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    /**
+     * The checksum of the written bytes.
+     */
+    final CRC32 crc = new CRC32();
+    /**
+     * The number of written bytes.
+     */
+    long count;
+
+    /**
+     * @param channel the channel to write to.
+     * @param position the position of the first write to the channel.
+     */
+    ChannelOutputStream(final FileChannel channel, final long position) {
+      this.channel = channel;
+      this.position = position;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      if (!buffer.hasRemaining()) flush();
+      buffer.put((byte) b);
+      crc.update(b);
+      count++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      crc.update(b, off, len);
+      count += len;
+      int done = 0;
+      while (done < len) {
+        if (!buffer.hasRemaining()) flush();
+        final int n = Math.min(len - done, buffer.remaining());
+        buffer.put(b, off + done, n);
+        done += n;
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      buffer.flip();
+      final int n = buffer.remaining();
+      writeFully(channel, buffer, position);
+      position += n;
+      buffer.clear();
+    }
+  }
+}
@@ -48,4 +48,20 @@ public class BundlerHelper {
   public static void updateBundler(final BundlerEx<?> bundler, final int nbTasks, final double totalTime, final double accumulatedElapsed, final double overheadTime) {
     bundler.feedback(nbTasks, totalTime, accumulatedElapsed, overheadTime);
   }
+
+  /**
+   * Provide feedback to a bundler with the result of using the bundle with the specified size, along with the cost of executing and transporting the tasks.
+   * @param bundler the load banlancer to update.
+   * @param nbTasks number of tasks that were executed.
+   * @param totalTime the total execution and transport time in nanoseconds.
+   * @param accumulatedElapsed the total accumalated elapsed time (in the node) in nanoseconds for the execution of the tasks.
+   * @param overheadTime the transport time in nanoseconds.
+   * @param cpuTime the total accumulated CPU time (in the node) in nanoseconds for the execution of the tasks, or a negative value if it is not available.
+   * @param dataSize the size in bytes of the serialized tasks sent to the node and of their results.
+   * @since 6.3
+   */
+  public static void updateBundler(final CostAwareBundler<?> bundler, final int nbTasks, final double totalTime, final double accumulatedElapsed, final double overheadTime,
+    final double cpuTime, final long dataSize) {
+    bundler.feedback(nbTasks, totalTime, accumulatedElapsed, overheadTime, cpuTime, dataSize);
+  }
 }
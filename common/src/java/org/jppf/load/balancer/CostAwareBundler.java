@@ -0,0 +1,39 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jppf.load.balancer;
+
+/**
+ * A bundler which receives the CPU time and the size of the data of the executed tasks, in addition to the performance data provided to a {@link BundlerEx}.
+ * @param <T> the type of parameters profile used by this bundler.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public interface CostAwareBundler<T extends LoadBalancingProfile> extends BundlerEx<T> {
+  /**
+   * Feedback the bundler with the result of using the bundle with the specified size.
+   * @param nbTasks number of tasks that were executed.
+   * @param totalTime the total execution and transport time in nanoseconds.
+   * @param accumulatedElapsed the total accumalated elapsed time (in the node) in nanoseconds for the execution of the tasks.
+   * @param overheadTime the transport time in nanoseconds.
+   * @param cpuTime the total accumulated CPU time (in the node) in nanoseconds for the execution of the tasks, or a negative value if it is not available.
+   * @param dataSize the size in bytes of the serialized tasks sent to the node and of their results.
+   */
+  void feedback(final int nbTasks, final double totalTime, final double accumulatedElapsed, final double overheadTime, final double cpuTime, final long dataSize);
+}
@@ -73,12 +73,7 @@ public class AutoTunedBundler extends AbstractAdaptiveBundler<AnnealingTuneProfi
 
   @Override
   public int getBundleSize() {
-    lock.lock();
-    try {
-      return state.bundleSize;
-    } finally {
-      lock.unlock();
-    }
+    return state.bundleSize;
   }
 
   @Override
@@ -145,9 +140,11 @@ public class AutoTunedBundler extends AbstractAdaptiveBundler<AnnealingTuneProfi
         // the second part is there to ensure the size is > 0
         if (rnd.nextBoolean()) diff = -diff;
       }
-      state.bundleSize = bestSize + diff;
-      if (state.samplesMap.get(state.bundleSize) == null) {
-        if (traceEnabled) log.trace("Bundler#" + bundlerNumber + ": The next bundle size that will be used is " + state.bundleSize);
+      // only publish the chosen size, since the bundle size is read without locking
+      final int size = bestSize + diff;
+      if (state.samplesMap.get(size) == null) {
+        state.bundleSize = size;
+        if (traceEnabled) log.trace("Bundler#" + bundlerNumber + ": The next bundle size that will be used is " + size);
         return;
       }
       counter++;
@@ -217,9 +214,9 @@ public class AutoTunedBundler extends AbstractAdaptiveBundler<AnnealingTuneProfi
      */
     private static final long serialVersionUID = 1L;
     /**
-     * The current bundle size.
+     * The current bundle size, read without locking.
      */
-    private int bundleSize = 1;
+    private volatile int bundleSize = 1;
     /**
      * A map of performance samples, sorted by increasing bundle size.
      */
@@ -0,0 +1,381 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jppf.load.balancer.impl;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.*;
+
+import org.jppf.load.balancer.*;
+import org.jppf.load.balancer.persistence.PersistentState;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * This bundler implementation learns, for each node, a model of the round-trip time of a bundle as a linear function of the number of tasks,
+ * the size of the serialized tasks and results, and the CPU time of the tasks measured by the node. The model is fitted with a recursive least squares
+ * estimator, with a forgetting factor which lets older samples fade out as the performance of the node changes.
+ * <p>From the models of all the nodes, it computes the bundle sizes such that all the nodes are predicted to complete their part of a job at the same time:
+ * if node i processes n tasks in a<sub>i</sub> + b<sub>i</sub>&times;n, where b<sub>i</sub> is derived from the recent data size and CPU time per task,
+ * then for a job of N tasks, all nodes complete at t = (N + &Sigma;a<sub>i</sub>/b<sub>i</sub>) / &Sigma;1/b<sub>i</sub>, and node i is sent (t - a<sub>i</sub>) / b<sub>i</sub> tasks.
+ * <p>The sums over all the nodes are recomputed in the background, at the interval specified with the {@code jppf.load.balancing.refresh.interval} property.
+ * Until the model of a node is trained, the bundle size specified in the profile is used.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class CostModelBundler extends AbstractAdaptiveBundler<CostModelProfile> implements CostAwareBundler<CostModelProfile>, PersistentState {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(CostModelBundler.class);
+  /**
+   * Determines whether debugging level is set for logging.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Number of coefficients in the model: fixed time, time per task, time per MB of data and time per ms of CPU time.
+   */
+  private static final int NB_COEFFS = 4;
+  /**
+   * Initial variance of the coefficients, which makes the initial estimates adapt quickly to the first samples.
+   */
+  private static final double INITIAL_VARIANCE = 1e6d;
+  /**
+   * Bound on the trace of the covariance matrix, to prevent it from growing without limit when the samples do not vary.
+   */
+  private static final double MAX_COVARIANCE_TRACE = 1e9d;
+  /**
+   * Minimum predicted time per task, in milliseconds.
+   */
+  private static final double MIN_TIME_PER_TASK = 1e-3d;
+  /**
+   * Interval in milliseconds between two recomputations of the sums over all the nodes, 0 if they are recomputed upon each feedback.
+   */
+  private static final long REFRESH_INTERVAL = JPPFConfiguration.get(JPPFProperties.LOAD_BALANCING_REFRESH_INTERVAL);
+  /**
+   * The set of all active cost model bundlers.
+   */
+  private static final Set<CostModelBundler> bundlers = ConcurrentHashMap.newKeySet();
+  /**
+   * Whether the model of a bundler, or the set of bundlers, has changed since the last recomputation.
+   */
+  private static final AtomicBoolean dirty = new AtomicBoolean(false);
+  /**
+   * Periodically recomputes the sums over all the nodes, lazily created.
+   */
+  private static ScheduledExecutorService refresher;
+  /**
+   * The sums of 1/b<sub>i</sub> and a<sub>i</sub>/b<sub>i</sub> over all the nodes with a trained model.
+   */
+  private static volatile double[] sums = { 0d, 0d };
+  /**
+   * The state of this bundler, encapsulated in a separate class for persistence.
+   */
+  private final ModelState state = new ModelState();
+  /**
+   * Lock used to synchronize access to the load-balancer state.
+   */
+  private final Lock lock = new ReentrantLock();
+  /**
+   * The latest prediction computed from the model, or {@code null} if the model is not trained yet.
+   */
+  private volatile Prediction prediction;
+
+  /**
+   * Creates a new instance with the specified parameters.
+   * @param profile the parameters of the algorithm.
+   */
+  public CostModelBundler(final CostModelProfile profile) {
+    super(profile);
+    if (debugEnabled) log.debug("Bundler#{}: using cost model algorithm, profile: {}", bundlerNumber, profile);
+  }
+
+  @Override
+  public int getBundleSize() {
+    final Prediction p = prediction;
+    final int max = maxSize();
+    if (p == null) return Math.max(1, Math.min(max, profile.getInitialSize()));
+    final double[] s = sums;
+    double s1 = s[0], s2 = s[1];
+    if (s1 <= 0d) {
+      // the sums do not include this node yet
+      s1 = 1d / p.timePerTask;
+      s2 = p.fixedTime / p.timePerTask;
+    }
+    final double completionTime = (max + s2) / s1;
+    final long size = Math.round((completionTime - p.fixedTime) / p.timePerTask);
+    return (int) Math.max(1L, Math.min(max, size));
+  }
+
+  @Override
+  public void feedback(final int size, final double totalTime) {
+    feedback(size, totalTime, -1d, -1d, -1d, 0L);
+  }
+
+  @Override
+  public void feedback(final int size, final double totalTime, final double accumulatedElapsed, final double overheadTime) {
+    feedback(size, totalTime, accumulatedElapsed, overheadTime, -1d, 0L);
+  }
+
+  @Override
+  public void feedback(final int nbTasks, final double totalTime, final double accumulatedElapsed, final double overheadTime, final double cpuTime, final long dataSize) {
+    if ((nbTasks <= 0) || (totalTime <= 0d)) return;
+    // times in milliseconds and sizes in MB keep the coefficients within a reasonable range
+    final double[] x = { 1d, nbTasks, Math.max(0L, dataSize) / 1e6d, (cpuTime > 0d) ? cpuTime / 1e6d : 0d };
+    final double y = totalTime / 1e6d;
+    final Prediction p;
+    lock.lock();
+    try {
+      state.update(x, y, profile.getForgettingFactor());
+      p = state.predict(profile.getMinSamples());
+    } finally {
+      lock.unlock();
+    }
+    prediction = p;
+    if (debugEnabled) log.debug("Bundler#{}: feedback(nbTasks={}, time={} ms, data={} MB, cpu={} ms) --> {}", bundlerNumber, nbTasks, y, x[2], x[3], p);
+    modelChanged();
+  }
+
+  @Override
+  public void setup() {
+    bundlers.add(this);
+    if (REFRESH_INTERVAL > 0L) startRefresher();
+    modelChanged();
+  }
+
+  @Override
+  public void dispose() {
+    super.dispose();
+    bundlers.remove(this);
+    modelChanged();
+    if (REFRESH_INTERVAL > 0L) stopRefresher();
+  }
+
+  /**
+   * Called when the model of a bundler or the set of bundlers has changed.
+   */
+  private static void modelChanged() {
+    if (REFRESH_INTERVAL <= 0L) {
+      synchronized(bundlers) {
+        computeSums();
+      }
+    } else dirty.set(true);
+  }
+
+  /**
+   * Start the periodic recomputation of the sums over all the nodes, if it is not already started.
+   */
+  private static synchronized void startRefresher() {
+    if (refresher != null) return;
+    refresher = Executors.newSingleThreadScheduledExecutor(new JPPFThreadFactory("CostModelBundlerRefresher"));
+    refresher.scheduleWithFixedDelay(() -> {
+      try {
+        if (dirty.compareAndSet(true, false)) computeSums();
+      } catch (final Exception e) {
+        log.error("error computing the cost model sums", e);
+      }
+    }, REFRESH_INTERVAL, REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stop the periodic recomputation of the sums over all the nodes, if there is no more active bundler.
+   */
+  private static synchronized void stopRefresher() {
+    if ((refresher == null) || !bundlers.isEmpty()) return;
+    refresher.shutdownNow();
+    refresher = null;
+    if (debugEnabled) log.debug("stopped the recomputation of the cost model sums, since there is no more active bundler");
+  }
+
+  /**
+   * Recompute the sums of 1/b<sub>i</sub> and a<sub>i</sub>/b<sub>i</sub> over all the nodes with a trained model.
+   */
+  private static void computeSums() {
+    double s1 = 0d, s2 = 0d;
+    for (final CostModelBundler bundler: bundlers) {
+      final Prediction p = bundler.prediction;
+      if (p == null) continue;
+      s1 += 1d / p.timePerTask;
+      s2 += p.fixedTime / p.timePerTask;
+    }
+    sums = new double[] { s1, s2 };
+  }
+
+  @Override
+  public Object getState() {
+    lock.lock();
+    try {
+      return state;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void setState(final Object persistedState) {
+    final ModelState other = (ModelState) persistedState;
+    lock.lock();
+    try {
+      // copy the arrays, since the model is updated in place
+      state.coeffs = other.coeffs.clone();
+      state.covariance = new double[other.covariance.length][];
+      for (int i=0; i<other.covariance.length; i++) state.covariance[i] = other.covariance[i].clone();
+      state.nbSamples = other.nbSamples;
+      state.dataPerTask = other.dataPerTask;
+      state.cpuPerTask = other.cpuPerTask;
+      state.timePerTask = other.timePerTask;
+      prediction = state.predict(profile.getMinSamples());
+    } finally {
+      lock.unlock();
+    }
+    modelChanged();
+  }
+
+  @Override
+  public Lock getStateLock() {
+    return lock;
+  }
+
+  /**
+   * The time to process a bundle predicted by the model of a node.
+   */
+  private static final class Prediction {
+    /**
+     * The fixed time, in milliseconds, independent of the number of tasks.
+     */
+    private final double fixedTime;
+    /**
+     * The time per task, in milliseconds.
+     */
+    private final double timePerTask;
+
+    /**
+     * @param fixedTime the fixed time.
+     * @param timePerTask the time per task.
+     */
+    private Prediction(final double fixedTime, final double timePerTask) {
+      this.fixedTime = fixedTime;
+      this.timePerTask = timePerTask;
+    }
+
+    @Override
+    public String toString() {
+      return "Prediction[fixedTime=" + fixedTime + ", timePerTask=" + timePerTask + ']';
+    }
+  }
+
+  /**
+   * Holds the model of a node for persistence.
+   */
+  private static class ModelState implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The estimated coefficients of the model.
+     */
+    private double[] coeffs = new double[NB_COEFFS];
+    /**
+     * The covariance matrix of the estimated coefficients.
+     */
+    private double[][] covariance = new double[NB_COEFFS][NB_COEFFS];
+    /**
+     * Number of samples fed to the model.
+     */
+    private long nbSamples;
+    /**
+     * Moving average of the data size per task, in MB.
+     */
+    private double dataPerTask;
+    /**
+     * Moving average of the CPU time per task, in milliseconds.
+     */
+    private double cpuPerTask;
+    /**
+     * Moving average of the round-trip time per task, in milliseconds.
+     */
+    private double timePerTask;
+
+    /**
+     * Initialize the covariance matrix.
+     */
+    private ModelState() {
+      for (int i=0; i<NB_COEFFS; i++) covariance[i][i] = INITIAL_VARIANCE;
+    }
+
+    /**
+     * Update the model with the specified sample.
+     * @param x the values of the variables.
+     * @param y the measured time.
+     * @param lambda the forgetting factor.
+     */
+    private void update(final double[] x, final double y, final double lambda) {
+      final double[] px = new double[NB_COEFFS];
+      double denominator = lambda, error = y;
+      for (int i=0; i<NB_COEFFS; i++) {
+        for (int j=0; j<NB_COEFFS; j++) px[i] += covariance[i][j] * x[j];
+        denominator += x[i] * px[i];
+        error -= coeffs[i] * x[i];
+      }
+      double trace = 0d;
+      for (int i=0; i<NB_COEFFS; i++) {
+        coeffs[i] += px[i] * error / denominator;
+        for (int j=0; j<NB_COEFFS; j++) covariance[i][j] -= px[i] * px[j] / denominator;
+        trace += covariance[i][i];
+      }
+      // only forget the past while the covariance remains bounded
+      if (trace * (1d / lambda) < MAX_COVARIANCE_TRACE) {
+        for (int i=0; i<NB_COEFFS; i++) {
+          for (int j=0; j<NB_COEFFS; j++) covariance[i][j] /= lambda;
+        }
+      }
+      final double n = x[1];
+      if (nbSamples == 0L) {
+        dataPerTask = x[2] / n;
+        cpuPerTask = x[3] / n;
+        timePerTask = y / n;
+      } else {
+        dataPerTask = lambda * dataPerTask + (1d - lambda) * x[2] / n;
+        cpuPerTask = lambda * cpuPerTask + (1d - lambda) * x[3] / n;
+        timePerTask = lambda * timePerTask + (1d - lambda) * y / n;
+      }
+      nbSamples++;
+    }
+
+    /**
+     * Compute a prediction from the current model.
+     * @param minSamples the number of samples required for the model to be considered trained.
+     * @return a {@link Prediction}, or {@code null} if the model is not trained yet.
+     */
+    private Prediction predict(final int minSamples) {
+      if (nbSamples < minSamples) return null;
+      double perTask = coeffs[1] + coeffs[2] * dataPerTask + coeffs[3] * cpuPerTask;
+      // fall back to the observed average if the model is not consistent
+      if (!(perTask >= MIN_TIME_PER_TASK)) perTask = Math.max(MIN_TIME_PER_TASK, timePerTask);
+      final double fixed = Double.isNaN(coeffs[0]) ? 0d : Math.max(0d, coeffs[0]);
+      return new Prediction(fixed, perTask);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jppf.load.balancer.impl;
+
+import org.jppf.load.balancer.AbstractLoadBalancingProfile;
+import org.jppf.utils.TypedProperties;
+
+/**
+ * Parameters profile for the "costmodel" algorithm.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class CostModelProfile extends AbstractLoadBalancingProfile {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The bundle size used until the model of a node is trained.
+   */
+  private final int initialSize;
+  /**
+   * The number of feedbacks after which the model of a node is considered trained.
+   */
+  private final int minSamples;
+  /**
+   * The weight of the past samples in the model, in the range ]0.0, 1.0]. Lower values adapt faster to changes in the nodes' performance.
+   */
+  private final double forgettingFactor;
+
+  /**
+   * Initialize this profile with values read from the specified configuration.
+   * @param config contains a mapping of the profile parameters to their value.
+   */
+  public CostModelProfile(final TypedProperties config) {
+    final int intValue = config.getInt("initialSize", 10);
+    initialSize = (intValue <= 0) ? 10 : intValue;
+    minSamples = Math.max(1, config.getInt("minSamples", 3));
+    final double doubleValue = config.getDouble("forgettingFactor", 0.95d);
+    forgettingFactor = ((doubleValue <= 0d) || (doubleValue > 1d)) ? 0.95d : doubleValue;
+  }
+
+  /**
+   * Get the bundle size used until the model of a node is trained.
+   * @return the initial bundle size as an {@code int}.
+   */
+  public int getInitialSize() {
+    return initialSize;
+  }
+
+  /**
+   * Get the number of feedbacks after which the model of a node is considered trained.
+   * @return the number of samples as an {@code int}.
+   */
+  public int getMinSamples() {
+    return minSamples;
+  }
+
+  /**
+   * Get the weight of the past samples in the model.
+   * @return the forgetting factor as a {@code double} value in the range ]0.0, 1.0].
+   */
+  public double getForgettingFactor() {
+    return forgettingFactor;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s[initialSize=%d, minSamples=%d, forgettingFactor=%f]", getClass().getSimpleName(), initialSize, minSamples, forgettingFactor);
+  }
+}
@@ -20,10 +20,15 @@ package org.jppf.load.balancer.impl;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.*;
 
 import org.jppf.load.balancer.*;
 import org.jppf.load.balancer.persistence.PersistentState;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
@@ -32,9 +37,11 @@ import org.slf4j.*;
  * The scope of this bundler is all nodes, which means that it computes the size for all nodes.<br>
  * The mean execution time is computed as a moving average over a number of tasks, specified in the bundling
  * algorithm profile configuration as &quot;minSamplesToAnalyse&quot;<br>
- * This algorithm is well suited for relatively small networks (a few dozen nodes at most). It generates an overhead
- * every time the performance data for a node is updated. In the case of a small network, this overhead is not
- * large enough to impact the overall performance significantly.
+ * Each feedback only updates the performance data of the corresponding node and publishes its new mean time. The proportions
+ * of all the nodes are recomputed periodically by a background thread, at the interval specified with the {@code jppf.load.balancing.refresh.interval}
+ * property, and the bundle size of each node is derived from its proportion when it is requested. Thus neither the feedback
+ * nor the bundle size computation contend on a global lock, even with a large number of nodes. Until the first feedback for a node,
+ * its bundle size is the initial size specified in the profile.
  * @author Laurent Cohen
  */
 public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalProfile> implements PersistentState {
@@ -51,9 +58,21 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
    */
   private static boolean traceEnabled = log.isTraceEnabled();
   /**
-   * Mapping of individual bundler to corresponding performance data - global.
+   * Interval in milliseconds between two recomputations of the proportions, 0 if they are recomputed upon each feedback.
    */
-  private static final Set<ProportionalBundler> bundlers = new HashSet<>();
+  private static final long REFRESH_INTERVAL = JPPFConfiguration.get(JPPFProperties.LOAD_BALANCING_REFRESH_INTERVAL);
+  /**
+   * The set of all active proportional bundlers.
+   */
+  private static final Set<ProportionalBundler> bundlers = ConcurrentHashMap.newKeySet();
+  /**
+   * Whether the performance data of a bundler, or the set of bundlers, has changed since the last recomputation.
+   */
+  private static final AtomicBoolean dirty = new AtomicBoolean(false);
+  /**
+   * Periodically recomputes the proportions, lazily created.
+   */
+  private static ScheduledExecutorService refresher;
   /**
    * The state of this bundler.
    */
@@ -62,6 +81,22 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
    * Lock used to synchronize access to the load-balancer state.
    */
   private final Lock lock = new ReentrantLock();
+  /**
+   * The latest mean execution time, published for the recomputation of the proportions.
+   */
+  private volatile double mean;
+  /**
+   * The fraction of the tasks of a job that should be sent to the node, or a negative value if it was not yet computed.
+   */
+  private volatile double proportion = -1d;
+  /**
+   * Whether this bundler has the lowest mean time, in which case it also gets the tasks left over by the rounding of the bundle sizes.
+   */
+  private volatile boolean fastest;
+  /**
+   * Whether this bundler has received performance data, either from a feedback or from a persisted state.
+   */
+  private volatile boolean sampled;
 
   /**
    * Creates a new instance with the initial size of bundle as the start size.
@@ -73,17 +108,19 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
     state.performanceCache = new PerformanceCache(profile.getPerformanceCacheSize(), profile.getInitialMeanTime());
     state.bundleSize = profile.getInitialSize();
     if (state.bundleSize < 1) state.bundleSize = 1;
+    mean = state.performanceCache.getMean();
     if (debugEnabled) log.debug("Bundler#" + bundlerNumber + ": Using proportional bundle size - the initial size is " + state.bundleSize + ", profile: " + profile);
   }
 
   @Override
   public int getBundleSize() {
-    lock.lock();
-    try {
-      return state.bundleSize;
-    } finally {
-      lock.unlock();
+    final double p = proportion;
+    if (sampled && (p >= 0d)) {
+      final int max = maxSize();
+      final int size = fastest ? max - (int) ((1d - p) * max) : Math.min(max - 1, (int) (p * max));
+      state.bundleSize = Math.max(1, size);
     }
+    return state.bundleSize;
   }
 
   /**
@@ -91,16 +128,12 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
    * @param size the bundle size as an int value.
    */
   public void setBundleSize(final int size) {
-    lock.lock();
-    try {
-      state.bundleSize = size <= 0 ? 1 : size;
-    } finally {
-      lock.unlock();
-    }
+    state.bundleSize = size <= 0 ? 1 : size;
   }
 
   /**
-   * This method delegates the bundle size calculation to the singleton instance of <code>SimpleBundler</code>.
+   * Add a performance sample to the performance data of this bundler.
+   * The proportions of all bundlers are recomputed later on, unless the refresh interval is set to 0.
    * @param size the number of tasks executed.
    * @param time the time in nanoseconds it took to execute the tasks.
    */
@@ -109,15 +142,16 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
     if (traceEnabled) log.trace("Bundler#" + bundlerNumber + ": new performance sample [size=" + size + ", time=" + (long) time + ']');
     if (size <= 0) return;
     final PerformanceSample sample = new PerformanceSample(time / size, size);
-    synchronized (bundlers) {
-      lock.lock();
-      try {
-        state.performanceCache.addSample(sample);
-      } finally {
-        lock.unlock();
-      }
-      computeBundleSizes();
+    // only contended by the persistence of this bundler's state
+    lock.lock();
+    try {
+      state.performanceCache.addSample(sample);
+      mean = state.performanceCache.getMean();
+    } finally {
+      lock.unlock();
     }
+    sampled = true;
+    performanceChanged();
   }
 
   /**
@@ -125,9 +159,9 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
    */
   @Override
   public void setup() {
-    synchronized (bundlers) {
-      bundlers.add(this);
-    }
+    bundlers.add(this);
+    if (REFRESH_INTERVAL > 0L) startRefresher();
+    performanceChanged();
   }
 
   /**
@@ -136,80 +170,85 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
   @Override
   public void dispose() {
     super.dispose();
-    synchronized (bundlers) {
-      bundlers.remove(this);
-    }
+    bundlers.remove(this);
     lock.lock();
     try {
       state.performanceCache.clear();
     } finally {
       lock.unlock();
     }
+    performanceChanged();
+    if (REFRESH_INTERVAL > 0L) stopRefresher();
   }
 
   /**
-   * Update the bundler sizes.
+   * Called when the performance data of a bundler or the set of bundlers has changed.
    */
-  private void computeBundleSizes() {
-    synchronized (bundlers) {
-      double maxMean = Double.NEGATIVE_INFINITY;
-      double minMean = Double.POSITIVE_INFINITY;
-      ProportionalBundler minBundler = null;
-      double meanSum = 0d;
-      double m;
-      for (ProportionalBundler b : bundlers) {
-        b.getStateLock().lock();
-        try {
-          m = b.state.performanceCache.getMean();
-        } finally {
-          b.getStateLock().unlock();
-        }
-        if (m > maxMean) maxMean = m;
-        if (m < minMean) {
-          minMean = m;
-          minBundler = b;
-        }
-        meanSum += normalize(m);
-      }
-      final int max = maxSize();
-      int sum = 0;
-      double p;
-      for (final ProportionalBundler b : bundlers) {
-        b.getStateLock().lock();
-        try {
-          p = normalize(b.state.performanceCache.getMean()) / meanSum;
-        } finally {
-          b.getStateLock().unlock();
-        }
-        int size = Math.max(1, (int) (p * max));
-        if (size >= max) size = max - 1;
-        b.setBundleSize(size);
-        sum += size;
+  private static void performanceChanged() {
+    if (REFRESH_INTERVAL <= 0L) {
+      synchronized(bundlers) {
+        computeProportions();
       }
-      if ((sum < max) && (minBundler != null)) {
-        final int size = minBundler.getBundleSize();
-        minBundler.setBundleSize(size + (max - sum));
+    } else dirty.set(true);
+  }
+
+  /**
+   * Start the periodic recomputation of the proportions, if it is not already started.
+   */
+  private static synchronized void startRefresher() {
+    if (refresher != null) return;
+    refresher = Executors.newSingleThreadScheduledExecutor(new JPPFThreadFactory("ProportionalBundlerRefresher"));
+    refresher.scheduleWithFixedDelay(() -> {
+      try {
+        if (dirty.compareAndSet(true, false)) computeProportions();
+      } catch (final Exception e) {
+        log.error("error computing the proportions of the bundlers", e);
       }
-      if (traceEnabled) {
-        final StringBuilder sb = new StringBuilder();
-        sb.append("bundler info:\n");
-        getStateLock().lock();
-        try {
-        sb.append("  minMean=").append(minMean).append(", maxMean=").append(maxMean).append(", maxSize=").append(max).append('\n');
-        } finally {
-          getStateLock().unlock();
-        }
-        for (ProportionalBundler b : bundlers) {
-          b.getStateLock().lock();
-          try {
-            sb.append("  bundler #").append(b.getBundlerNumber()).append(" : bundleSize=").append(b.getBundleSize()).append(", ");
-            sb.append(b.state.performanceCache).append('\n');
-          } finally {
-            b.getStateLock().unlock();
-          }
-        }
-        log.trace(sb.toString());
+    }, REFRESH_INTERVAL, REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stop the periodic recomputation of the proportions, if there is no more active bundler.
+   */
+  private static synchronized void stopRefresher() {
+    if ((refresher == null) || !bundlers.isEmpty()) return;
+    refresher.shutdownNow();
+    refresher = null;
+    if (debugEnabled) log.debug("stopped the recomputation of the proportions, since there is no more active bundler");
+  }
+
+  /**
+   * Update the proportions of all bundlers, based on the latest published mean times.
+   */
+  private static void computeProportions() {
+    final List<ProportionalBundler> list = new ArrayList<>(bundlers);
+    final int n = list.size();
+    if (n == 0) return;
+    final double[] normalized = new double[n];
+    double minMean = Double.POSITIVE_INFINITY;
+    ProportionalBundler minBundler = null;
+    double meanSum = 0d;
+    for (int i=0; i<n; i++) {
+      final ProportionalBundler b = list.get(i);
+      final double m = b.mean;
+      if (m < minMean) {
+        minMean = m;
+        minBundler = b;
       }
+      normalized[i] = b.normalize(m);
+      meanSum += normalized[i];
+    }
+    for (int i=0; i<n; i++) {
+      final ProportionalBundler b = list.get(i);
+      b.fastest = (b == minBundler);
+      b.proportion = normalized[i] / meanSum;
+    }
+    if (traceEnabled) {
+      final StringBuilder sb = new StringBuilder();
+      sb.append("bundler info:\n");
+      sb.append("  minMean=").append(minMean).append('\n');
+      for (final ProportionalBundler b : list) sb.append("  bundler #").append(b.getBundlerNumber()).append(" : proportion=").append(b.proportion).append(", mean=").append(b.mean).append('\n');
+      log.trace(sb.toString());
     }
   }
 
@@ -241,10 +280,12 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
     try {
       state.bundleSize = other.bundleSize;
       state.performanceCache = other.performanceCache;
-      computeBundleSizes();
+      mean = state.performanceCache.getMean();
+      sampled = state.performanceCache.getNbSamples() > 0L;
     } finally {
       lock.unlock();
     }
+    performanceChanged();
   }
 
   @Override
@@ -263,7 +304,7 @@ public class ProportionalBundler extends AbstractAdaptiveBundler<ProportionalPro
     /**
      * The current bundle size.
      */
-    private int bundleSize = 1;
+    private volatile int bundleSize = 1;
     /**
      * Bounded memory of the past performance updates.
      */
@@ -80,12 +80,7 @@ public class RL2Bundler extends AbstractAdaptiveBundler<RL2Profile> implements P
 
   @Override
   public int getBundleSize() {
-    lock.lock();
-    try {
-      return rl2State.bundleSize;
-    } finally {
-      lock.unlock();
-    }
+    return rl2State.bundleSize;
   }
 
   @Override
@@ -291,9 +286,9 @@ public class RL2Bundler extends AbstractAdaptiveBundler<RL2Profile> implements P
      */
     private static final long serialVersionUID = 1L;
     /**
-     * The current bundle size.
+     * The current bundle size, read without locking.
      */
-    private int bundleSize = 1;
+    private volatile int bundleSize = 1;
     /**
      * Bounded memory of the past performance updates.
      */
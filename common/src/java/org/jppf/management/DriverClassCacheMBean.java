@@ -0,0 +1,110 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.management;
+
+import org.jppf.management.doc.MBeanDescription;
+
+/**
+ * Management interface for the cache of classes and resources which the driver loads from the clients or from its own classpath.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+@MBeanDescription("management and monitoring of the driver's cache of classes and resources")
+public interface DriverClassCacheMBean {
+  /**
+   * The name under which this MBean is registered with the MBean server.
+   */
+  String MBEAN_NAME = "org.jppf:name=classCache,type=driver";
+
+  /**
+   * Get the maximum size of the cache.
+   * @return the maximum total size of the cached resources, in bytes.
+   */
+  @MBeanDescription("the maximum total size of the cached resources, in bytes")
+  long getMaxSize();
+
+  /**
+   * Get the current size of the cache.
+   * @return the total size of the cached resources, in bytes.
+   */
+  @MBeanDescription("the total size of the cached resources, in bytes")
+  long getSize();
+
+  /**
+   * Get the number of cached resources.
+   * @return the number of entries in the cache.
+   */
+  @MBeanDescription("the number of entries in the cache")
+  int getEntryCount();
+
+  /**
+   * Get the number of distinct contents in the cache. Resources with identical content share a single copy.
+   * @return the number of distinct contents.
+   */
+  @MBeanDescription("the number of distinct contents in the cache, resources with identical content sharing a single copy")
+  int getDistinctContentCount();
+
+  /**
+   * Determine whether the content of the cached resources is stored outside of the Java heap.
+   * @return {@code true} if the content is stored off-heap, {@code false} otherwise.
+   */
+  @MBeanDescription("whether the content of the cached resources is stored outside of the Java heap")
+  boolean isOffHeap();
+
+  /**
+   * Get the number of lookups that found the requested resource in the cache.
+   * @return the number of cache hits.
+   */
+  @MBeanDescription("the number of lookups that found the requested resource in the cache")
+  long getHits();
+
+  /**
+   * Get the number of lookups that did not find the requested resource in the cache.
+   * @return the number of cache misses.
+   */
+  @MBeanDescription("the number of lookups that did not find the requested resource in the cache")
+  long getMisses();
+
+  /**
+   * Get the number of resources removed from the cache to keep its size below the maximum.
+   * @return the number of evictions.
+   */
+  @MBeanDescription("the number of resources removed from the cache to keep its size below the maximum")
+  long getEvictions();
+
+  /**
+   * Get the ratio of cache hits over the total number of lookups.
+   * @return the hit ratio, in the range [0, 1].
+   */
+  @MBeanDescription("the ratio of cache hits over the total number of lookups")
+  double getHitRatio();
+
+  /**
+   * Get the number of bytes of resource definitions which were not sent to the nodes because they already had the same content.
+   * @return the number of deduplicated bytes.
+   */
+  @MBeanDescription("the number of bytes of resource definitions not sent to the nodes because they already had the same content")
+  long getDeduplicatedBytes();
+
+  /**
+   * Remove all the entries from the cache.
+   */
+  @MBeanDescription("remove all the entries from the cache")
+  void clear();
+}
@@ -484,6 +484,17 @@ public class JMXDriverConnectionWrapper extends JMXConnectionWrapper implements
     return getProxy(JobDependencyManagerMBean.MBEAN_NAME, JobDependencyManagerMBean.class);
   }
 
+  /**
+   * Get a proxy to the class cache MBean in the driver.
+   * This is a shortcut method for {@link JMXConnectionWrapper#getProxy(String, Class) getProxy(DriverClassCacheMBean.MBEAN_NAME, DriverClassCacheMBean.class)}.
+   * @return an instance of an implementation of the {@link DriverClassCacheMBean} interface.
+   * @throws Exception if any error occurs.
+   * @since 6.3
+   */
+  public DriverClassCacheMBean getClassCache() throws Exception {
+    return getProxy(DriverClassCacheMBean.MBEAN_NAME, DriverClassCacheMBean.class);
+  }
+
   /**
    * Create a forwarding proxy for the specified node MBean.
    * @param <E> the type of mbean interface.
@@ -18,10 +18,12 @@
 
 package org.jppf.management;
 
+import java.io.*;
 import java.util.*;
 
 import org.jppf.utils.*;
 import org.jppf.utils.concurrent.ThreadUtils;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.jppf.utils.stats.*;
 
 /**
@@ -43,6 +45,13 @@ public class JPPFSystemInformation implements PropertiesCollection<String> {
    * Explicit serialVersionUID.
    */
   private static final long serialVersionUID = 1L;
+  /**
+   * Names of the properties which reflect the current state of the JPPF component rather than its configuration, and whose changes
+   * are not reflected in the {@link #getVersion() version}. For instance, the driver flips {@code jppf.node.idle} each time a job is dispatched to a node.
+   * @since 6.3
+   * @exclude
+   */
+  public static final Set<String> UNVERSIONED_PROPERTIES = Collections.singleton(JPPFProperties.NODE_IDLE.getName());
   /**
    * Mapping of all properties containers.
    */
@@ -67,6 +76,10 @@ public class JPPFSystemInformation implements PropertiesCollection<String> {
    * The JPPF configuration.
    */
   private transient TypedProperties jppfConfig;
+  /**
+   * Incremented each time a set of properties is added or replaced, so that {@link #getVersion()} never decreases.
+   */
+  private transient long structuralVersion;
 
   /**
    * Initialize this system information object with the specified uuid.
@@ -257,7 +270,9 @@ public class JPPFSystemInformation implements PropertiesCollection<String> {
   @Override
   public void addProperties(final String key, final TypedProperties properties) {
     synchronized(map) {
-      map.put(key, properties);
+      if (properties != null) properties.setUncountedKeys(UNVERSIONED_PROPERTIES);
+      final TypedProperties old = map.put(key, properties);
+      structuralVersion += ((old == null) ? 0L : old.getModificationCount()) + 1L;
       propertiesArray = map.values().toArray(new TypedProperties[map.size()]);
     }
   }
@@ -269,6 +284,24 @@ public class JPPFSystemInformation implements PropertiesCollection<String> {
     }
   }
 
+  /**
+   * Get the current version of this system information. The version changes whenever a property is added, replaced or removed
+   * in any of the sets of properties, or whenever a set of properties is added or replaced. It can thus be used to determine
+   * whether the result of evaluating an execution policy against this system information may have changed,
+   * provided the policy does not reference any of the {@link #UNVERSIONED_PROPERTIES}, whose changes do not affect the version.
+   * @return the current version as a {@code long} value.
+   * @since 6.3
+   */
+  public long getVersion() {
+    synchronized(map) {
+      long version = structuralVersion;
+      for (final TypedProperties props: map.values()) {
+        if (props != null) version += props.getModificationCount();
+      }
+      return version;
+    }
+  }
+
   /**
    * Populate this system information object.
    * @return this {@code JPPFSystemInformation} object.
@@ -347,4 +380,17 @@ public class JPPFSystemInformation implements PropertiesCollection<String> {
     }
     return false;
   }
+
+  /**
+   * Reconstitute this object from a stream (i.e., deserialize it).
+   * @param in the input stream from which to read the state.
+   * @throws IOException if any I/O error occurs.
+   * @throws ClassNotFoundException if the class of an object in the object graph can not be found.
+   */
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    for (final TypedProperties props: map.values()) {
+      if (props != null) props.setUncountedKeys(UNVERSIONED_PROPERTIES);
+    }
+  }
 }
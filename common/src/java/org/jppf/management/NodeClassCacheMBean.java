@@ -0,0 +1,112 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.management;
+
+import org.jppf.management.doc.MBeanDescription;
+
+/**
+ * Management interface for the cache of class definitions which a node keeps by hash of their content,
+ * in memory and optionally on the file system.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+@MBeanDescription("monitoring of the node's cache of class definitions")
+public interface NodeClassCacheMBean {
+  /**
+   * The name under which this MBean is registered with the MBean server.
+   */
+  String MBEAN_NAME = "org.jppf:name=classCache,type=node";
+
+  /**
+   * Get the maximum size of the in-memory cache.
+   * @return the maximum total size of the definitions held in memory, in bytes.
+   */
+  @MBeanDescription("the maximum total size of the definitions held in memory, in bytes")
+  long getMaxSize();
+
+  /**
+   * Get the current size of the in-memory cache.
+   * @return the total size of the definitions held in memory, in bytes.
+   */
+  @MBeanDescription("the total size of the definitions held in memory, in bytes")
+  long getSize();
+
+  /**
+   * Determine whether the definitions are also stored on the file system, such that they survive node restarts.
+   * @return {@code true} if the cache is persistent, {@code false} otherwise.
+   */
+  @MBeanDescription("whether the definitions are also stored on the file system, such that they survive node restarts")
+  boolean isPersistent();
+
+  /**
+   * Get the maximum size of the persistent store.
+   * @return the maximum total size of the definitions stored on the file system, in bytes, or 0 if the cache is not persistent.
+   */
+  @MBeanDescription("the maximum total size of the definitions stored on the file system, in bytes")
+  long getPersistentMaxSize();
+
+  /**
+   * Get the current size of the persistent store.
+   * @return the total size of the definitions stored on the file system, in bytes, or 0 if the cache is not persistent.
+   */
+  @MBeanDescription("the total size of the definitions stored on the file system, in bytes")
+  long getPersistentSize();
+
+  /**
+   * Get the number of class definitions which were found in the cache instead of being downloaded.
+   * @return the number of cache hits.
+   */
+  @MBeanDescription("the number of class definitions which were found in the cache instead of being downloaded")
+  long getHits();
+
+  /**
+   * Get the number of class definitions which were found in the persistent store.
+   * @return the number of cache hits which were read from the file system.
+   */
+  @MBeanDescription("the number of class definitions which were found in the persistent store")
+  long getPersistentHits();
+
+  /**
+   * Get the number of class definitions which were downloaded.
+   * @return the number of cache misses.
+   */
+  @MBeanDescription("the number of class definitions which were downloaded")
+  long getMisses();
+
+  /**
+   * Get the ratio of cache hits over the total number of class definitions obtained from the server.
+   * @return the hit ratio, in the range [0, 1].
+   */
+  @MBeanDescription("the ratio of cache hits over the total number of class definitions obtained from the server")
+  double getHitRatio();
+
+  /**
+   * Get the number of bytes which were not downloaded thanks to the cache.
+   * @return the number of saved bytes.
+   */
+  @MBeanDescription("the number of bytes which were not downloaded thanks to the cache")
+  long getSavedBytes();
+
+  /**
+   * Get the number of definitions removed from the cache to keep its size below the maximum.
+   * @return the number of evictions from memory and from the persistent store.
+   */
+  @MBeanDescription("the number of definitions removed from memory and from the persistent store to keep their size below the maximum")
+  long getEvictions();
+}
@@ -24,9 +24,11 @@ import java.util.List;
 
 import org.jppf.JPPFException;
 import org.jppf.management.diagnostics.provider.MonitoringConstants;
+import org.jppf.serialization.ZLIBDictionarySerialization;
 import org.jppf.utils.*;
 import org.jppf.utils.concurrent.ThreadUtils;
 import org.jppf.utils.configuration.JPPFProperty;
+import org.jppf.utils.stats.JPPFStatistics;
 import org.slf4j.*;
 
 /**
@@ -163,4 +165,9 @@ public class Diagnostics implements DiagnosticsMBean, Closeable {
   public List<JPPFProperty<?>> getMonitoringDataProperties() {
     return MonitoringDataProviderHandler.getAllProperties();
   }
+
+  @Override
+  public JPPFStatistics compressionStatistics() throws Exception {
+    return ZLIBDictionarySerialization.getStatistics().copy();
+  }
 }
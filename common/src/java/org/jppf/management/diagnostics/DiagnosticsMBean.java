@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.jppf.management.doc.*;
 import org.jppf.utils.configuration.JPPFProperty;
+import org.jppf.utils.stats.JPPFStatistics;
 
 /**
  * Interface for the diagnostics MBean.
@@ -124,4 +125,13 @@ public interface DiagnosticsMBean {
   @MBeanDescription("The list of monitoring data properties available in the snapshots")
   @MBeanElementType(type = List.class, parameters = { "org.jppf.utils.configuration.JPPFProperty<?>" })
   List<JPPFProperty<?>> getMonitoringDataProperties();
+
+  /**
+   * Get the statistics of the payloads compressed by the {@link org.jppf.serialization.ZLIBDictionarySerialization ZLIB_DICT} serialization scheme in the JVM.
+   * @return a copy of the compression statistics, which holds no value if the scheme is not used.
+   * @throws Exception if any error occurs.
+   * @since 6.3
+   */
+  @MBeanDescription("get the statistics of the payloads compressed by the ZLIB_DICT serialization scheme")
+  JPPFStatistics compressionStatistics() throws Exception;
 }
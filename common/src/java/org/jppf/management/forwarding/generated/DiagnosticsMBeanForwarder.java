@@ -28,6 +28,7 @@ import org.jppf.management.diagnostics.ThreadDump;
 import org.jppf.management.forwarding.AbstractMBeanForwarder;
 import org.jppf.utils.ResultsMap;
 import org.jppf.utils.configuration.JPPFProperty;
+import org.jppf.utils.stats.JPPFStatistics;
 
 /**
  * Forwarding proxy for the {@link DiagnosticsMBean} MBean.
@@ -143,4 +144,14 @@ public class DiagnosticsMBeanForwarder extends AbstractMBeanForwarder {
   public ResultsMap<String, MemoryInformation> memoryInformation(final NodeSelector selector) throws Exception {
     return invoke(selector, "memoryInformation");
   }
+
+  /**
+   * Invoke the {@code compressionStatistics} operation for all selected nodes (get the statistics of the payloads compressed by the ZLIB_DICT serialization scheme).
+   * @param selector a {@link NodeSelector} instance.
+   * @return a mapping of node uuids to objects that wrap either a [@link JPPFStatistics} or an exeption.
+   * @throws Exception if any error occurs.
+   */
+  public ResultsMap<String, JPPFStatistics> compressionStatistics(final NodeSelector selector) throws Exception {
+    return invoke(selector, "compressionStatistics");
+  }
 }
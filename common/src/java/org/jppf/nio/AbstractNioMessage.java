@@ -23,6 +23,8 @@ import java.util.*;
 
 import org.jppf.io.*;
 import org.jppf.serialization.SerializationUtils;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
 
 /**
  * Common abstract superclass representing a message sent or received by a channel.
@@ -30,6 +32,10 @@ import org.jppf.serialization.SerializationUtils;
  * @author Laurent Cohen
  */
 public abstract class AbstractNioMessage extends AbstractNioMessageBase {
+  /**
+   * Whether the data read from non-SSL channels is stored in pooled direct buffers.
+   */
+  private static final boolean DIRECT_BUFFERS_ENABLED = JPPFConfiguration.get(JPPFProperties.NIO_DIRECT_BUFFERS_ENABLED);
   /**
    * The data location objects abstracting the data to send or receive.
    */
@@ -107,7 +113,7 @@ public abstract class AbstractNioMessage extends AbstractNioMessageBase {
     }
     if (currentLength > 0) {
       if (currentObject == null) {
-        final DataLocation location = IOHelper.createDataLocationMemorySensitive(currentLength);
+        final DataLocation location = createDataLocation(currentLength);
         currentObject = ssl ? new SSLNioObject(location, sslHandler) : new PlainNioObject(channel.getSocketChannel(), location);
       }
       try {
@@ -162,7 +168,10 @@ public abstract class AbstractNioMessage extends AbstractNioMessageBase {
       throw e;
     }
     count += currentLength;
-    if (currentObject != null) updateCounts(currentObject.getChannelCount(), WRITE);
+    if (currentObject != null) {
+      updateCounts(currentObject.getChannelCount(), WRITE);
+      if (currentObject.getData() instanceof DirectBuffersLocation) ((DirectBuffersLocation) currentObject.getData()).release();
+    }
     position++;
     currentObject = null;
     currentLength = -1;
@@ -171,6 +180,21 @@ public abstract class AbstractNioMessage extends AbstractNioMessageBase {
     return true;
   }
 
+  /**
+   * Create a data location for an object to read.
+   * When enabled and SSL is not used, the data is stored in pooled direct buffers, unless the pool is exhausted.
+   * @param size the size of the object.
+   * @return a {@link DataLocation} instance.
+   * @throws Exception if any error occurs.
+   */
+  private DataLocation createDataLocation(final int size) throws Exception {
+    if (DIRECT_BUFFERS_ENABLED && !ssl) {
+      final DataLocation location = DirectBuffersLocation.create(size);
+      if (location != null) return location;
+    }
+    return IOHelper.createDataLocationMemorySensitive(size);
+  }
+
   /**
    * Get the data location objects abstracting the data to send or receive.
    * @return a list of <code>DataLocation</code> objects.
@@ -184,4 +184,12 @@ public abstract class AbstractIsInIPSubnet<P extends AbstractIPAddressPattern> e
     final String message = String.format("the execution policy rule '%s' must have at least one non-null subnet", getClass().getSimpleName());
     throw new JPPFRuntimeException(message);
   }
+
+  @Override
+  boolean isCacheable() {
+    for (final Expression<String> subnet: subnets) {
+      if (!subnet.isLiteral()) return false;
+    }
+    return super.isCacheable();
+  }
 }
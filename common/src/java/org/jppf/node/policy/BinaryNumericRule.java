@@ -86,4 +86,9 @@ abstract class BinaryNumericRule extends LeftOperandRule {
       .append(indent(n + 1)).append("<Value>").append(expression.getExpression()).append("</Value>\n")
       .append(indent(n)).append("</").append(getTag()).append(">\n").toString();
   }
+
+  @Override
+  boolean isCacheable() {
+    return expression.isLiteral() && super.isCacheable();
+  }
 }
@@ -0,0 +1,873 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.node.policy;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.utils.PropertiesCollection;
+
+/**
+ * A pre-processed form of an execution policy, which evaluates faster than the original policy tree and memoizes its results.
+ * <p>When a policy only depends on the properties it is evaluated against (see {@link PolicyUtils#isCacheable(ExecutionPolicy)}),
+ * it is compiled into a tree of specialized nodes where:
+ * <ul>
+ * <li>the names of all referenced properties are resolved to slots, such that each property is looked up only once per evaluation</li>
+ * <li>the numeric values of the properties are parsed at most once per evaluation, and the literal operands are extracted once at compile time</li>
+ * <li>the results are memoized for each {@link JPPFSystemInformation} instance, until its {@link JPPFSystemInformation#getVersion() version} changes.
+ * Policies which reference any of the {@link JPPFSystemInformation#UNVERSIONED_PROPERTIES} are not memoized</li>
+ * </ul>
+ * <p>Any other policy, or any rule for which there is no specialized node, is evaluated by delegating to the original policy,
+ * so the results are always the same as those of {@link ExecutionPolicy#evaluate(PropertiesCollection)}.
+ * <p>Instances of this class are thread-safe.
+ * @author Laurent Cohen
+ * @since 6.3
+ * @exclude
+ */
+public final class CompiledPolicy {
+  /**
+   * The policy this compiled policy was created from.
+   */
+  private final ExecutionPolicy policy;
+  /**
+   * The root of the compiled tree, or {@code null} if the policy could not be compiled.
+   */
+  private final Node root;
+  /**
+   * The names of the properties referenced by the policy, indexed by slot.
+   */
+  private final String[] slots;
+  /**
+   * The memoized results, keyed by system information instance. Weak keys ensure that the system information of disconnected nodes is not retained.
+   * This is {@code null} if the policy is not compiled or references a property whose changes do not affect the version of the system information.
+   */
+  private final Map<JPPFSystemInformation, Memo> memos;
+  /**
+   * The holder of the property values, reused by all the evaluations performed in the same thread.
+   */
+  private final ThreadLocal<Values> values;
+
+  /**
+   * Compile the specified policy.
+   * @param policy the policy to compile.
+   * @param enabled whether compilation is enabled. If {@code false}, this compiled policy always delegates to the original policy.
+   */
+  CompiledPolicy(final ExecutionPolicy policy, final boolean enabled) {
+    this.policy = policy;
+    if (enabled && PolicyUtils.isCacheable(policy)) {
+      final Map<String, Integer> slotMap = new LinkedHashMap<>();
+      this.root = compile(policy, slotMap);
+      this.slots = slotMap.keySet().toArray(new String[slotMap.size()]);
+      this.memos = Collections.disjoint(slotMap.keySet(), JPPFSystemInformation.UNVERSIONED_PROPERTIES) ? new WeakHashMap<>() : null;
+      final String[] names = slots;
+      this.values = ThreadLocal.withInitial(() -> new Values(names));
+    } else {
+      this.root = null;
+      this.slots = null;
+      this.memos = null;
+      this.values = null;
+    }
+  }
+
+  /**
+   * Evaluate this compiled policy against the specified set of properties.
+   * For policies which could not be compiled, the {@link PolicyContext context} must have been set on the original policy beforehand.
+   * @param info the properties to evaluate against.
+   * @return {@code true} if the properties are accepted, {@code false} otherwise.
+   */
+  public boolean evaluate(final PropertiesCollection<String> info) {
+    if (root == null) return policy.evaluate(info);
+    if ((memos == null) || !(info instanceof JPPFSystemInformation)) return evaluateRoot(info);
+    final JPPFSystemInformation sysInfo = (JPPFSystemInformation) info;
+    final long version = sysInfo.getVersion();
+    synchronized(memos) {
+      final Memo memo = memos.get(sysInfo);
+      if ((memo != null) && (memo.version == version)) return memo.result;
+    }
+    final boolean result = evaluateRoot(info);
+    synchronized(memos) {
+      memos.put(sysInfo, new Memo(version, result));
+    }
+    return result;
+  }
+
+  /**
+   * Evaluate the compiled tree against the specified set of properties, with the values holder of the current thread.
+   * @param info the properties to evaluate against.
+   * @return {@code true} if the properties are accepted, {@code false} otherwise.
+   */
+  private boolean evaluateRoot(final PropertiesCollection<String> info) {
+    final Values v = values.get();
+    v.reset(info);
+    try {
+      return root.evaluate(v);
+    } finally {
+      v.release();
+    }
+  }
+
+  /**
+   * Determine whether the original policy was compiled. If {@code false}, this compiled policy delegates all evaluations to the original policy.
+   * @return {@code true} if the policy was compiled, {@code false} otherwise.
+   */
+  public boolean isCompiled() {
+    return root != null;
+  }
+
+  /**
+   * @return the policy this compiled policy was created from.
+   */
+  public ExecutionPolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * Compile the specified policy into a tree of nodes.
+   * @param policy the policy to compile.
+   * @param slotMap mapping of the referenced property names to their slot.
+   * @return the root of the compiled tree.
+   */
+  private static Node compile(final ExecutionPolicy policy, final Map<String, Integer> slotMap) {
+    final Class<?> c = policy.getClass();
+    if ((c == ExecutionPolicy.AndRule.class) || (c == ExecutionPolicy.OrRule.class) || (c == ExecutionPolicy.XorRule.class)) {
+      final ExecutionPolicy[] children = policy.children;
+      final Node[] nodes = new Node[children.length];
+      for (int i=0; i<children.length; i++) nodes[i] = compile(children[i], slotMap);
+      if (c == ExecutionPolicy.AndRule.class) return new AndNode(nodes);
+      return (c == ExecutionPolicy.OrRule.class) ? new OrNode(nodes) : new XorNode(nodes);
+    }
+    if (c == ExecutionPolicy.NotRule.class) return (policy.children.length > 0) ? new NotNode(compile(policy.children[0], slotMap)) : new ConstantNode(false);
+    if ((c == AcceptAll.class) || (c == Preference.class)) return new ConstantNode(true);
+    if (c == RejectAll.class) return new ConstantNode(false);
+    if (policy instanceof NoArgRule) {
+      final NoArgRule rule = (NoArgRule) policy;
+      return new NoArgNode(slot(rule.propertyName, slotMap), rule.defaultValue);
+    }
+    if (policy instanceof LeftOperandRule) {
+      final LeftOperandRule rule = (LeftOperandRule) policy;
+      if (rule.leftOperand instanceof PropertyNameExpression) {
+        final Node node = compileLeftOperandRule(rule, slot(rule.leftOperand.getExpression(), slotMap));
+        if (node != null) return node;
+      }
+    }
+    return new DelegateNode(policy);
+  }
+
+  /**
+   * Compile the specified rule, whose left operand is a property name.
+   * @param rule the rule to compile.
+   * @param slot the slot of the property.
+   * @return the compiled rule, or {@code null} if it has no specialized node.
+   */
+  private static Node compileLeftOperandRule(final LeftOperandRule rule, final int slot) {
+    final Class<?> c = rule.getClass();
+    if ((c == Equal.class) || (c == NotEqual.class)) {
+      final Equal equal = (Equal) rule;
+      final boolean negate = c == NotEqual.class;
+      if (equal.numberValue != null) return new NumericEqualNode(slot, equal.numberValue.evaluate(null), negate);
+      if (equal.stringValue != null) return new StringEqualNode(slot, equal.stringValue.evaluate(null), equal.ignoreCase, negate);
+      if (equal.booleanValue != null) return new BooleanEqualNode(slot, equal.booleanValue.evaluate(null), negate);
+      return null;
+    }
+    if (rule instanceof BinaryNumericRule) {
+      final BinaryNumericRule binary = (BinaryNumericRule) rule;
+      return new BinaryNumericNode(slot, binary, binary.expression.evaluate(null));
+    }
+    if (rule instanceof TrinaryNumericRule) {
+      final TrinaryNumericRule trinary = (TrinaryNumericRule) rule;
+      return new TrinaryNumericNode(slot, trinary, trinary.a.evaluate(null), trinary.b.evaluate(null));
+    }
+    if (c == Contains.class) {
+      final Contains contains = (Contains) rule;
+      return new ContainsNode(slot, contains.value.evaluate(null), contains.ignoreCase);
+    }
+    if (c == OneOf.class) {
+      final OneOf oneOf = (OneOf) rule;
+      if (oneOf.numbers != null) {
+        final double[] values = new double[oneOf.numbers.size()];
+        for (int i=0; i<values.length; i++) values[i] = oneOf.numbers.get(i).evaluate(null);
+        return new NumericOneOfNode(slot, values);
+      }
+      if (oneOf.strings != null) {
+        final String[] values = new String[oneOf.strings.size()];
+        for (int i=0; i<values.length; i++) values[i] = oneOf.strings.get(i).evaluate(null);
+        return new StringOneOfNode(slot, values, oneOf.ignoreCase);
+      }
+      return null;
+    }
+    if (c == RegExp.class) {
+      final RegExp regExp = (RegExp) rule;
+      return (regExp.regExp == null) ? new ConstantNode(false) : new RegExpNode(slot, regExp.pattern);
+    }
+    return null;
+  }
+
+  /**
+   * Get the slot of the specified property, allocating it if needed.
+   * @param name the name of the property.
+   * @param slotMap mapping of the referenced property names to their slot.
+   * @return the slot index.
+   */
+  private static int slot(final String name, final Map<String, Integer> slotMap) {
+    Integer slot = slotMap.get(name);
+    if (slot == null) {
+      slot = slotMap.size();
+      slotMap.put(name, slot);
+    }
+    return slot;
+  }
+
+  /**
+   * A memoized evaluation result.
+   */
+  private static final class Memo {
+    /**
+     * The version of the system information the policy was evaluated against.
+     */
+    final long version;
+    /**
+     * The result of the evaluation.
+     */
+    final boolean result;
+
+    /**
+     * @param version the version of the system information the policy was evaluated against.
+     * @param result the result of the evaluation.
+     */
+    Memo(final long version, final boolean result) {
+      this.version = version;
+      this.result = result;
+    }
+  }
+
+  /**
+   * The property values resolved during an evaluation. Each property is looked up and parsed at most once per evaluation.
+   * An instance is reused by the successive evaluations in the same thread, so that evaluating does not allocate.
+   */
+  private static final class Values {
+    /**
+     * Numeric state of a slot whose value was not parsed yet.
+     */
+    private static final byte UNPARSED = 0;
+    /**
+     * Numeric state of a slot whose value is a valid number.
+     */
+    private static final byte VALID = 1;
+    /**
+     * Numeric state of a slot whose value is {@code null} or not a number.
+     */
+    private static final byte INVALID = 2;
+    /**
+     * The properties to evaluate against.
+     */
+    PropertiesCollection<String> info;
+    /**
+     * The names of the properties, indexed by slot.
+     */
+    final String[] names;
+    /**
+     * The resolved string values.
+     */
+    final String[] strings;
+    /**
+     * Whether each slot was resolved.
+     */
+    final boolean[] resolved;
+    /**
+     * The parsed numeric values.
+     */
+    final double[] numbers;
+    /**
+     * The numeric state of each slot.
+     */
+    final byte[] numberStates;
+
+    /**
+     * @param names the names of the properties, indexed by slot.
+     */
+    Values(final String[] names) {
+      this.names = names;
+      this.strings = new String[names.length];
+      this.resolved = new boolean[names.length];
+      this.numbers = new double[names.length];
+      this.numberStates = new byte[names.length];
+    }
+
+    /**
+     * Prepare this holder for an evaluation against the specified properties.
+     * @param info the properties to evaluate against.
+     */
+    void reset(final PropertiesCollection<String> info) {
+      this.info = info;
+      Arrays.fill(resolved, false);
+      Arrays.fill(numberStates, UNPARSED);
+    }
+
+    /**
+     * Release the references to the properties of the last evaluation, so they are not retained by the thread.
+     */
+    void release() {
+      info = null;
+      Arrays.fill(strings, null);
+    }
+
+    /**
+     * @param slot the slot of the property.
+     * @return the string value of the property, or {@code null} if it is not defined.
+     */
+    String string(final int slot) {
+      if (!resolved[slot]) {
+        strings[slot] = info.getProperty(names[slot]);
+        resolved[slot] = true;
+      }
+      return strings[slot];
+    }
+
+    /**
+     * Parse the numeric value of a property.
+     * @param slot the slot of the property.
+     * @return {@code true} if the value is a valid number, which can then be obtained with {@code numbers[slot]}, {@code false} otherwise.
+     */
+    boolean isNumber(final int slot) {
+      if (numberStates[slot] == UNPARSED) {
+        final String s = string(slot);
+        byte state = INVALID;
+        if (s != null) {
+          try {
+            numbers[slot] = Double.parseDouble(s);
+            state = VALID;
+          } catch (@SuppressWarnings("unused") final NumberFormatException e) {
+          }
+        }
+        numberStates[slot] = state;
+      }
+      return numberStates[slot] == VALID;
+    }
+  }
+
+  /**
+   * A node in the compiled tree. Evaluating a node yields the same result as calling {@link ExecutionPolicy#evaluate(PropertiesCollection)}
+   * on the corresponding rule, in particular a rule that would raise an exception evaluates to {@code false}.
+   */
+  private abstract static class Node {
+    /**
+     * @param values the values of the properties.
+     * @return the result of the evaluation.
+     */
+    abstract boolean evaluate(Values values);
+  }
+
+  /**
+   * A node which always evaluates to the same value.
+   */
+  private static final class ConstantNode extends Node {
+    /**
+     * The value of this node.
+     */
+    private final boolean value;
+
+    /**
+     * @param value the value of this node.
+     */
+    ConstantNode(final boolean value) {
+      this.value = value;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      return value;
+    }
+  }
+
+  /**
+   * A node which delegates to a policy that has no specialized node.
+   */
+  private static final class DelegateNode extends Node {
+    /**
+     * The policy to delegate to.
+     */
+    private final ExecutionPolicy policy;
+
+    /**
+     * @param policy the policy to delegate to.
+     */
+    DelegateNode(final ExecutionPolicy policy) {
+      this.policy = policy;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      return policy.evaluate(values.info);
+    }
+  }
+
+  /**
+   * Compiled form of a logical AND.
+   */
+  private static final class AndNode extends Node {
+    /**
+     * The operands.
+     */
+    private final Node[] nodes;
+
+    /**
+     * @param nodes the operands.
+     */
+    AndNode(final Node[] nodes) {
+      this.nodes = nodes;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      for (final Node node: nodes) {
+        if (!node.evaluate(values)) return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Compiled form of a logical OR.
+   */
+  private static final class OrNode extends Node {
+    /**
+     * The operands.
+     */
+    private final Node[] nodes;
+
+    /**
+     * @param nodes the operands.
+     */
+    OrNode(final Node[] nodes) {
+      this.nodes = nodes;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      if (nodes.length == 0) return true;
+      for (final Node node: nodes) {
+        if (node.evaluate(values)) return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Compiled form of a logical XOR.
+   */
+  private static final class XorNode extends Node {
+    /**
+     * The operands.
+     */
+    private final Node[] nodes;
+
+    /**
+     * @param nodes the operands.
+     */
+    XorNode(final Node[] nodes) {
+      this.nodes = nodes;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      if (nodes.length == 0) return true;
+      boolean b = nodes[0].evaluate(values);
+      for (int i=1; i<nodes.length; i++) b = (b != nodes[i].evaluate(values));
+      return b;
+    }
+  }
+
+  /**
+   * Compiled form of a logical NOT.
+   */
+  private static final class NotNode extends Node {
+    /**
+     * The operand.
+     */
+    private final Node node;
+
+    /**
+     * @param node the operand.
+     */
+    NotNode(final Node node) {
+      this.node = node;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      return !node.evaluate(values);
+    }
+  }
+
+  /**
+   * Compiled form of the rules which check a boolean property with a default value, such as {@link IsMasterNode}.
+   */
+  private static final class NoArgNode extends Node {
+    /**
+     * The slot of the property.
+     */
+    private final int slot;
+    /**
+     * The value to use when the property is not defined.
+     */
+    private final boolean defaultValue;
+
+    /**
+     * @param slot the slot of the property.
+     * @param defaultValue the value to use when the property is not defined.
+     */
+    NoArgNode(final int slot, final boolean defaultValue) {
+      this.slot = slot;
+      this.defaultValue = defaultValue;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      if (!(values.info instanceof JPPFSystemInformation)) return false;
+      final String s = values.string(slot);
+      return (s == null) ? defaultValue : Boolean.valueOf(s);
+    }
+  }
+
+  /**
+   * Compiled form of a numeric {@link Equal} or {@link NotEqual} rule.
+   */
+  private static final class NumericEqualNode extends Node {
+    /**
+     * The slot of the property.
+     */
+    private final int slot;
+    /**
+     * The value to compare with, may be {@code null}.
+     */
+    private final Double value;
+    /**
+     * Whether this is a {@link NotEqual} rule.
+     */
+    private final boolean negate;
+
+    /**
+     * @param slot the slot of the property.
+     * @param value the value to compare with.
+     * @param negate whether this is a {@link NotEqual} rule.
+     */
+    NumericEqualNode(final int slot, final Double value, final boolean negate) {
+      this.slot = slot;
+      this.value = value;
+      this.negate = negate;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      if (!values.isNumber(slot)) return false;
+      final boolean b = (value != null) && (Double.compare(values.numbers[slot], value) == 0);
+      return negate ? !b : b;
+    }
+  }
+
+  /**
+   * Compiled form of a string {@link Equal} or {@link NotEqual} rule.
+   */
+  private static final class StringEqualNode extends Node {
+    /**
+     * The slot of the property.
+     */
+    private final int slot;
+    /**
+     * The value to compare with, may be {@code null}.
+     */
+    private final String value;
+    /**
+     * Whether the comparison ignores case.
+     */
+    private final boolean ignoreCase;
+    /**
+     * Whether this is a {@link NotEqual} rule.
+     */
+    private final boolean negate;
+
+    /**
+     * @param slot the slot of the property.
+     * @param value the value to compare with.
+     * @param ignoreCase whether the comparison ignores case.
+     * @param negate whether this is a {@link NotEqual} rule.
+     */
+    StringEqualNode(final int slot, final String value, final boolean ignoreCase, final boolean negate) {
+      this.slot = slot;
+      this.value = value;
+      this.ignoreCase = ignoreCase;
+      this.negate = negate;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      if (value == null) return false;
+      final String s = values.string(slot);
+      final boolean b = ignoreCase ? value.equalsIgnoreCase(s) : value.equals(s);
+      return negate ? !b : b;
+    }
+  }
+
+  /**
+   * Compiled form of a boolean {@link Equal} or {@link NotEqual} rule.
+   */
+  private static final class BooleanEqualNode extends Node {
+    /**
+     * The slot of the property.
+     */
+    private final int slot;
+    /**
+     * The value to compare with, may be {@code null}.
+     */
+    private final Boolean value;
+    /**
+     * Whether this is a {@link NotEqual} rule.
+     */
+    private final boolean negate;
+
+    /**
+     * @param slot the slot of the property.
+     * @param value the value to compare with.
+     * @param negate whether this is a {@link NotEqual} rule.
+     */
+    BooleanEqualNode(final int slot, final Boolean value, final boolean negate) {
+      this.slot = slot;
+      this.value = value;
+      this.negate = negate;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      final boolean b = Boolean.valueOf(values.string(slot)).equals(value);
+      return negate ? !b : b;
+    }
+  }
+
+  /**
+   * Compiled form of the comparisons with a number, such as {@link AtLeast} or {@link LessThan}.
+   */
+  private static final class BinaryNumericNode extends Node {
+    /**
+     * The slot of the property.
+     */
+    private final int slot;
+    /**
+     * The original rule, which performs the comparison.
+     */
+    private final BinaryNumericRule rule;
+    /**
+     * The value to compare with, may be {@code null}.
+     */
+    private final Double value;
+
+    /**
+     * @param slot the slot of the property.
+     * @param rule the original rule, which performs the comparison.
+     * @param value the value to compare with.
+     */
+    BinaryNumericNode(final int slot, final BinaryNumericRule rule, final Double value) {
+      this.slot = slot;
+      this.rule = rule;
+      this.value = value;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      if ((value == null) || !values.isNumber(slot)) return false;
+      return rule.accepts(values.numbers[slot], value);
+    }
+  }
+
+  /**
+   * Compiled form of the range checks, such as {@link BetweenII}.
+   */
+  private static final class TrinaryNumericNode extends Node {
+    /**
+     * The slot of the property.
+     */
+    private final int slot;
+    /**
+     * The original rule, which performs the comparison.
+     */
+    private final TrinaryNumericRule rule;
+    /**
+     * The bounds of the range, may be {@code null}.
+     */
+    private final Double a, b;
+
+    /**
+     * @param slot the slot of the property.
+     * @param rule the original rule, which performs the comparison.
+     * @param a the lower bound.
+     * @param b the upper bound.
+     */
+    TrinaryNumericNode(final int slot, final TrinaryNumericRule rule, final Double a, final Double b) {
+      this.slot = slot;
+      this.rule = rule;
+      this.a = a;
+      this.b = b;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      if ((a == null) || (b == null) || !values.isNumber(slot)) return false;
+      return rule.accepts(values.numbers[slot], a, b);
+    }
+  }
+
+  /**
+   * Compiled form of a {@link Contains} rule.
+   */
+  private static final class ContainsNode extends Node {
+    /**
+     * The slot of the property.
+     */
+    private final int slot;
+    /**
+     * The substring to look for, lower-cased if the rule ignores case.
+     */
+    private final String value;
+    /**
+     * Whether the rule ignores case.
+     */
+    private final boolean ignoreCase;
+
+    /**
+     * @param slot the slot of the property.
+     * @param value the substring to look for.
+     * @param ignoreCase whether the rule ignores case.
+     */
+    ContainsNode(final int slot, final String value, final boolean ignoreCase) {
+      this.slot = slot;
+      this.value = ((value != null) && ignoreCase) ? value.toLowerCase() : value;
+      this.ignoreCase = ignoreCase;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      if (value == null) return false;
+      final String s = values.string(slot);
+      if (s == null) return false;
+      return ignoreCase ? s.toLowerCase().contains(value) : s.contains(value);
+    }
+  }
+
+  /**
+   * Compiled form of a numeric {@link OneOf} rule.
+   */
+  private static final class NumericOneOfNode extends Node {
+    /**
+     * The slot of the property.
+     */
+    private final int slot;
+    /**
+     * The values to compare with.
+     */
+    private final double[] values;
+
+    /**
+     * @param slot the slot of the property.
+     * @param values the values to compare with.
+     */
+    NumericOneOfNode(final int slot, final double[] values) {
+      this.slot = slot;
+      this.values = values;
+    }
+
+    @Override
+    boolean evaluate(final Values v) {
+      if (!v.isNumber(slot)) return false;
+      final double d = v.numbers[slot];
+      for (final double value: values) {
+        if (Double.compare(d, value) == 0) return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Compiled form of a string {@link OneOf} rule.
+   */
+  private static final class StringOneOfNode extends Node {
+    /**
+     * The slot of the property.
+     */
+    private final int slot;
+    /**
+     * The values to compare with, some of which may be {@code null}.
+     */
+    private final String[] values;
+    /**
+     * Whether the comparison ignores case.
+     */
+    private final boolean ignoreCase;
+
+    /**
+     * @param slot the slot of the property.
+     * @param values the values to compare with.
+     * @param ignoreCase whether the comparison ignores case.
+     */
+    StringOneOfNode(final int slot, final String[] values, final boolean ignoreCase) {
+      this.slot = slot;
+      this.values = values;
+      this.ignoreCase = ignoreCase;
+    }
+
+    @Override
+    boolean evaluate(final Values v) {
+      final String s = v.string(slot);
+      for (final String value: values) {
+        if (value == null) {
+          if (s == null) return true;
+        } else if ((s != null) && (ignoreCase ? s.equalsIgnoreCase(value) : s.equals(value))) return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Compiled form of a {@link RegExp} rule.
+   */
+  private static final class RegExpNode extends Node {
+    /**
+     * The slot of the property.
+     */
+    private final int slot;
+    /**
+     * The compiled regular expression.
+     */
+    private final Pattern pattern;
+
+    /**
+     * @param slot the slot of the property.
+     * @param pattern the compiled regular expression.
+     */
+    RegExpNode(final int slot, final Pattern pattern) {
+      this.slot = slot;
+      this.pattern = pattern;
+    }
+
+    @Override
+    boolean evaluate(final Values values) {
+      final String s = values.string(slot);
+      return (s != null) && pattern.matcher(s).matches();
+    }
+  }
+}
@@ -138,4 +138,12 @@ public class Equal extends LeftOperandRule {
     sb.append(indent(n)).append("</").append(xmlTag).append(">\n");
     return sb.toString();
   }
+
+  @Override
+  boolean isCacheable() {
+    if ((numberValue != null) && !numberValue.isLiteral()) return false;
+    if ((stringValue != null) && !stringValue.isLiteral()) return false;
+    if ((booleanValue != null) && !booleanValue.isLiteral()) return false;
+    return super.isCacheable();
+  }
 }
@@ -63,6 +63,10 @@ public abstract class ExecutionPolicy implements Serializable {
    * Whether an exception was already raised when evaluating this policy.
    */
   transient boolean hadException;
+  /**
+   * The compiled form of this policy, lazily created.
+   */
+  transient CompiledPolicy compiled;
 
   /**
    * Initialize this policy with the specified children.
@@ -569,4 +573,20 @@ public abstract class ExecutionPolicy implements Serializable {
   protected ExecutionPolicy[] checkRules(final ExecutionPolicy...rules) throws JPPFRuntimeException {
     return rules;
   }
+
+  /**
+   * Determine whether the result of evaluating this policy only depends on the properties it is evaluated against,
+   * in which case it can be cached for as long as these properties do not change.
+   * This is only the case for the built-in policies which do not use the policy context, scripts or property substitutions.
+   * @return {@code true} if the evaluation results can be cached, {@code false} otherwise.
+   */
+  boolean isCacheable() {
+    final String name = getClass().getName();
+    final String packageName = ExecutionPolicy.class.getPackage().getName();
+    if (!name.startsWith(packageName) || (name.lastIndexOf('.') != packageName.length())) return false;
+    for (final ExecutionPolicy child: children) {
+      if (!child.isCacheable()) return false;
+    }
+    return true;
+  }
 }
@@ -88,4 +88,9 @@ abstract class LeftOperandRule extends ExecutionPolicy {
     }
     return null;
   }
+
+  @Override
+  boolean isCacheable() {
+    return leftOperand.isLiteral() && super.isCacheable();
+  }
 }
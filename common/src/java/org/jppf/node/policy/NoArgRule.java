@@ -30,11 +30,11 @@ class NoArgRule extends ExecutionPolicy {
   /**
    * The name of the property to lookup in {@link #accepts(PropertiesCollection)}.
    */
-  private final String propertyName;
+  final String propertyName;
   /**
    * The property's default value.
    */
-  private final boolean defaultValue;
+  final boolean defaultValue;
 
   /**
    * Construct this policy rule from the name of a property.
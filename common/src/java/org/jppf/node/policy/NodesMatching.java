@@ -137,4 +137,9 @@ public class NodesMatching extends ExecutionPolicy {
     super.initializeRoot(root);
     if (nodePolicy != null) nodePolicy.setContext(getContext());
   }
+
+  @Override
+  boolean isCacheable() {
+    return false;
+  }
 }
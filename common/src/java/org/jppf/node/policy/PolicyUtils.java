@@ -20,9 +20,11 @@ package org.jppf.node.policy;
 
 import java.io.*;
 import java.net.URL;
+import java.util.*;
 
 import org.jppf.JPPFException;
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
@@ -95,4 +97,63 @@ public class PolicyUtils {
     }
     return reader;
   }
+
+  /**
+   * Whether execution policies are compiled before being evaluated.
+   */
+  private static final boolean COMPILATION_ENABLED = JPPFConfiguration.get(JPPFProperties.POLICY_COMPILATION_ENABLED);
+
+  /**
+   * Get the compiled form of the specified policy, creating it if needed. The compiled policy is created once and retained by the policy,
+   * such that its memoized results are shared by all callers.
+   * @param policy the policy to compile.
+   * @return a {@link CompiledPolicy} which evaluates to the same results as the specified policy.
+   * @since 6.3
+   */
+  public static CompiledPolicy compile(final ExecutionPolicy policy) {
+    synchronized(policy) {
+      if (policy.compiled == null) policy.compiled = new CompiledPolicy(policy, COMPILATION_ENABLED);
+      return policy.compiled;
+    }
+  }
+
+  /**
+   * Determine whether the results of evaluating the specified policy can be cached for as long as the properties it is evaluated against do not change.
+   * This is the case when the policy and all its descendants are built-in policies which do not use the policy context, scripts or property substitutions.
+   * @param policy the policy to check.
+   * @return {@code true} if the evaluation results of the policy can be cached, {@code false} otherwise.
+   */
+  public static boolean isCacheable(final ExecutionPolicy policy) {
+    return (policy != null) && policy.isCacheable();
+  }
+
+  /**
+   * Get the string equality constraints that any set of properties must satisfy to be accepted by the specified policy.
+   * Only the {@link Equal} rules of type string found at the root of the policy, or as operands of a top-level chain of
+   * {@code AND} rules, are considered. This makes each returned constraint a necessary condition for the policy to match.
+   * @param policy the policy from which to extract the constraints.
+   * @return a mapping of property names to the lower-case value they must have, ignoring case. Possibly empty, but never {@code null}.
+   */
+  public static Map<String, String> getStringEqualities(final ExecutionPolicy policy) {
+    final Map<String, String> result = new HashMap<>();
+    if (policy != null) collectStringEqualities(policy, result);
+    return result;
+  }
+
+  /**
+   * Recursively collect the string equality constraints of the specified policy.
+   * @param policy the policy from which to collect the constraints.
+   * @param result the map to which constraints are added.
+   */
+  private static void collectStringEqualities(final ExecutionPolicy policy, final Map<String, String> result) {
+    if (policy instanceof ExecutionPolicy.AndRule) {
+      for (final ExecutionPolicy child: policy.getChildren()) collectStringEqualities(child, result);
+    } else if (policy instanceof Equal) {
+      final Equal equal = (Equal) policy;
+      if ((equal.stringValue != null) && equal.stringValue.isLiteral() && (equal.leftOperand instanceof PropertyNameExpression)) {
+        final String value = equal.stringValue.evaluate(null);
+        if (value != null) result.put(equal.leftOperand.getExpression(), value.toLowerCase());
+      }
+    }
+  }
 }
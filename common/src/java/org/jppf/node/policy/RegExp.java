@@ -37,11 +37,11 @@ public class RegExp extends LeftOperandRule {
   /**
    * A regular expression to match the property value against.
    */
-  private String regExp;
+  String regExp;
   /**
    * The pattern object to compile from the regular expression.
    */
-  private transient Pattern pattern;
+  transient Pattern pattern;
 
   /**
    * Define an equality comparison between the string value of a property and another string value.
@@ -108,4 +108,9 @@ public class ScriptedPolicy extends ExecutionPolicy {
     sb.append(spec.getScript()).append('\n');
     return sb.append(indent(n)).append("]]></Script>\n").toString();
   }
+
+  @Override
+  boolean isCacheable() {
+    return false;
+  }
 }
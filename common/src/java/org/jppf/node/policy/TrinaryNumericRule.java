@@ -146,4 +146,9 @@ abstract class TrinaryNumericRule extends LeftOperandRule {
     sb.append(indent(n)).append("</").append(name).append(">\n");
     return sb.toString();
   }
+
+  @Override
+  boolean isCacheable() {
+    return a.isLiteral() && b.isLiteral() && super.isCacheable();
+  }
 }
@@ -19,6 +19,8 @@
 package org.jppf.node.protocol;
 
 import java.lang.reflect.*;
+import java.util.Queue;
+import java.util.concurrent.*;
 
 import org.jppf.JPPFException;
 import org.jppf.node.Node;
@@ -98,6 +100,10 @@ public class AbstractTask<T> implements Task<T> {
    * The job this task is a part of.
    */
   private transient JPPFDistributedJob  job;
+  /**
+   * The subtasks forked by this task that were not yet joined.
+   */
+  private transient Queue<ForkJoinTask<?>> forkedSubtasks;
 
   /**
    *
@@ -330,4 +336,52 @@ public class AbstractTask<T> implements Task<T> {
     this.job = job;
     return this;
   }
+
+  /**
+   * Fork the specified subtask. When this task is executed by a node configured with the fork/join thread manager
+   * ({@code jppf.thread.manager.class = forkjoin}), the subtask is pushed onto the work queue of the current processing thread,
+   * from where it can be stolen by the idle processing threads of the node. Otherwise, it is executed in the {@link ForkJoinPool#commonPool() common pool}.
+   * <p>The subtasks forked with this method and not explicitly joined by this task are joined as soon as its {@code run()} method returns,
+   * such that they are all completed by the time this task is sent back with its results.
+   * @param <V> the type of result of the subtask.
+   * @param subtask the subtask to fork.
+   * @return the forked subtask, which can be used to join it and get its result.
+   * @since 6.3
+   */
+  public <V> ForkJoinTask<V> fork(final ForkJoinTask<V> subtask) {
+    synchronized(this) {
+      if (forkedSubtasks == null) forkedSubtasks = new ConcurrentLinkedQueue<>();
+    }
+    forkedSubtasks.offer(subtask);
+    return subtask.fork();
+  }
+
+  /**
+   * Wait for all the subtasks forked by this task to complete. If this task has no throwable,
+   * the exception raised by the first subtask that completed abnormally, if any, is set as its throwable.
+   * @exclude
+   */
+  public void joinForkedSubtasks() {
+    final Queue<ForkJoinTask<?>> subtasks;
+    synchronized(this) {
+      if ((subtasks = forkedSubtasks) == null) return;
+    }
+    ForkJoinTask<?> subtask;
+    while ((subtask = subtasks.poll()) != null) {
+      subtask.quietlyJoin();
+      if ((throwable == null) && subtask.isCompletedAbnormally() && !subtask.isCancelled()) throwable = subtask.getException();
+    }
+  }
+
+  /**
+   * Cancel all the subtasks forked by this task that have not yet completed.
+   * @exclude
+   */
+  public void cancelForkedSubtasks() {
+    final Queue<ForkJoinTask<?>> subtasks;
+    synchronized(this) {
+      if ((subtasks = forkedSubtasks) == null) return;
+    }
+    for (final ForkJoinTask<?> subtask: subtasks) subtask.cancel(false);
+  }
 }
@@ -171,5 +171,21 @@ public enum BundleParameter {
   /**
    * Whether a job graph is already being handled by a driver.
    */
-  JOB_GRAPH_ALREADY_HANDLED
+  JOB_GRAPH_ALREADY_HANDLED,
+  /**
+   * Whether a message from a node holds the results of tasks sent ahead of the completion of their bundle.
+   */
+  PARTIAL_RESULTS,
+  /**
+   * The number of partial results messages sent by a node ahead of the completion of a bundle.
+   */
+  PARTIAL_RESULTS_COUNT,
+  /**
+   * The number of tasks dispatched to a node in a bundle, when some of their results were sent ahead of the final results.
+   */
+  DISPATCHED_TASK_COUNT,
+  /**
+   * The total accumulated CPU time in nanoseconds of the tasks in a bundle, as measured by the node.
+   */
+  NODE_BUNDLE_CPU_TIME_PARAM
 }
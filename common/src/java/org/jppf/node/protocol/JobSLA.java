@@ -102,6 +102,14 @@ public class JobSLA extends JobCommonSLA<JobSLA> {
    * The specification of dependencies for the job.
    */
   private JobDependencySpec dependencySpec = new JobDependencySpec();
+  /**
+   * Whether idle nodes can be sent copies of the tasks still executing on other nodes, once the job has no more pending task.
+   */
+  private boolean speculativeDispatch;
+  /**
+   * How long in milliseconds a dispatch must have been executing before its tasks can be sent to another node.
+   */
+  private long speculativeDispatchDelay;
 
   /**
    * Default constructor.
@@ -445,6 +453,8 @@ public class JobSLA extends JobCommonSLA<JobSLA> {
     sla.setSuspended(suspended);
     sla.setMaxDriverDepth(maxDriverDepth);
     sla.dependencySpec = dependencySpec;
+    sla.setSpeculativeDispatch(speculativeDispatch);
+    sla.setSpeculativeDispatchDelay(speculativeDispatchDelay);
     return sla;
   }
 
@@ -478,4 +488,47 @@ public class JobSLA extends JobCommonSLA<JobSLA> {
   public JobDependencySpec getDependencySpec() {
     return dependencySpec;
   }
+
+  /**
+   * Determine whether speculative dispatch is enabled for the job.
+   * When enabled and the job has no more pending task, the server sends copies of the tasks still executing on other nodes to idle nodes.
+   * The first results received for a dispatch are kept and the other dispatch is cancelled.
+   * @return {@code true} if speculative dispatch is enabled, {@code false} otherwise.
+   * @since 6.3
+   */
+  public boolean isSpeculativeDispatch() {
+    return speculativeDispatch;
+  }
+
+  /**
+   * Specify whether speculative dispatch is enabled for the job. This is disabled by default.
+   * <p>Speculative dispatch does not apply to broadcast jobs, nor to jobs with dependencies between their tasks.
+   * @param speculativeDispatch {@code true} to enable speculative dispatch, {@code false} otherwise.
+   * @return this SLA, for method call chaining.
+   * @since 6.3
+   */
+  public JobSLA setSpeculativeDispatch(final boolean speculativeDispatch) {
+    this.speculativeDispatch = speculativeDispatch;
+    return this;
+  }
+
+  /**
+   * Get how long a dispatch must have been executing before its tasks can be sent to another node.
+   * @return the delay in milliseconds.
+   * @since 6.3
+   */
+  public long getSpeculativeDispatchDelay() {
+    return speculativeDispatchDelay;
+  }
+
+  /**
+   * Set how long a dispatch must have been executing before its tasks can be sent to another node. Defaults to 0.
+   * @param speculativeDispatchDelay the delay in milliseconds. Negative values are ignored.
+   * @return this SLA, for method call chaining.
+   * @since 6.3
+   */
+  public JobSLA setSpeculativeDispatchDelay(final long speculativeDispatchDelay) {
+    if (speculativeDispatchDelay >= 0L) this.speculativeDispatchDelay = speculativeDispatchDelay;
+    return this;
+  }
 }
@@ -19,6 +19,7 @@
 package org.jppf.queue;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.*;
 
@@ -56,11 +57,34 @@ public abstract class AbstractJPPFQueue<T, U, V> implements JPPFQueue<T, U, V> {
   /**
    * A map of task bundles, ordered by descending priority.
    */
-  protected final LinkedListSortedMap<Integer, T> priorityMap = new LinkedListSortedMap<>(PRIORITY_COMPARATOR);
+  protected final LinkedListSortedMap<Integer, T> priorityMap;
   /**
    * Contains the ids of all queued jobs.
    */
-  protected final Map<String, T> jobMap = new HashMap<>();
+  protected final Map<String, T> jobMap;
+  /**
+   * Whether the priority map and job map are concurrent data structures which can be read without holding the lock.
+   */
+  protected final boolean concurrent;
+
+  /**
+   * Initialize this queue with non-concurrent maps, where all accesses are guarded by the queue lock.
+   */
+  protected AbstractJPPFQueue() {
+    this(false);
+  }
+
+  /**
+   * Initialize this queue.
+   * @param concurrent whether to use a concurrent priority map and job map, allowing lock-free read operations.
+   * Modifications of the queue are still performed while holding the lock.
+   * @since 6.3
+   */
+  protected AbstractJPPFQueue(final boolean concurrent) {
+    this.concurrent = concurrent;
+    this.priorityMap = concurrent ? new ConcurrentLinkedListSortedMap<>(PRIORITY_COMPARATOR) : new LinkedListSortedMap<>(PRIORITY_COMPARATOR);
+    this.jobMap = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+  }
 
   /**
    * Add a listener to the list of listeners.
@@ -132,11 +156,12 @@ public abstract class AbstractJPPFQueue<T, U, V> implements JPPFQueue<T, U, V> {
 
   @Override
   public Iterator<T> iterator() {
-    return priorityMap.iterator(lock);
+    return concurrent ? priorityMap.iterator() : priorityMap.iterator(lock);
   }
 
   @Override
   public boolean isEmpty() {
+    if (concurrent) return priorityMap.isEmpty();
     lock.lock();
     try {
       return priorityMap.isEmpty();
@@ -145,6 +170,15 @@ public abstract class AbstractJPPFQueue<T, U, V> implements JPPFQueue<T, U, V> {
     }
   }
 
+  /**
+   * Determine whether this queue uses concurrent data structures allowing lock-free reads.
+   * @return {@code true} if this queue is concurrent, {@code false} otherwise.
+   * @since 6.3
+   */
+  public boolean isConcurrent() {
+    return concurrent;
+  }
+
   /**
    * Get the size of this job queue.
    * <p>This method should be used with caution, as its cost is in O(n),
@@ -153,6 +187,7 @@ public abstract class AbstractJPPFQueue<T, U, V> implements JPPFQueue<T, U, V> {
    * @since 4.1
    */
   public int getQueueSize() {
+    if (concurrent) return priorityMap.size();
     lock.lock();
     try {
       return priorityMap.size();
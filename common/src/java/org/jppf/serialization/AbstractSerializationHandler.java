@@ -36,8 +36,8 @@ public abstract class AbstractSerializationHandler implements SerializationHandl
     if (src.getClass() != dest.getClass())
       throw new IllegalArgumentException(String.format("source and destination object classes are different: src class = %s, dest class = %s", src.getClass(), dest.getClass()));
     for (final FieldDescriptor fd: cd.fields) {
-      final Object val = fd.field.get(src);
-      fd.field.set(dest, val);
+      final Object val = fd.accessor.get(src);
+      fd.accessor.set(dest, val);
     }
   }
 }
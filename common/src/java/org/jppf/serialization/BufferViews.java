@@ -0,0 +1,69 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.nio.*;
+
+/**
+ * Typed views of a temporary byte buffer, used to copy arrays of primitive values in bulk to or from the buffer,
+ * instead of converting each element separately. The views use the big endian byte order of the serialized stream.
+ * @author Laurent Cohen
+ * @since 6.3
+ * @exclude
+ */
+class BufferViews {
+  /**
+   * View of the buffer as chars.
+   */
+  final CharBuffer charView;
+  /**
+   * View of the buffer as shorts.
+   */
+  final ShortBuffer shortView;
+  /**
+   * View of the buffer as ints.
+   */
+  final IntBuffer intView;
+  /**
+   * View of the buffer as longs.
+   */
+  final LongBuffer longView;
+  /**
+   * View of the buffer as floats.
+   */
+  final FloatBuffer floatView;
+  /**
+   * View of the buffer as doubles.
+   */
+  final DoubleBuffer doubleView;
+
+  /**
+   * Create the views of the specified buffer.
+   * @param buf the buffer to view.
+   */
+  BufferViews(final byte[] buf) {
+    final ByteBuffer bb = ByteBuffer.wrap(buf).order(ByteOrder.BIG_ENDIAN);
+    charView = bb.asCharBuffer();
+    shortView = bb.asShortBuffer();
+    intView = bb.asIntBuffer();
+    longView = bb.asLongBuffer();
+    floatView = bb.asFloatBuffer();
+    doubleView = bb.asDoubleBuffer();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.nio.*;
+
+/**
+ * A specific serialization handler for {@link ByteBuffer}s, whether heap or direct.
+ * Only the remaining bytes of a buffer are serialized, as a single block, along with its byte order and whether it is direct or read-only.
+ * A deserialized buffer has its position set to 0 and its limit set to the number of remaining bytes in the original buffer.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class ByteBufferHandler implements SerializationHandler {
+  /**
+   * Flag set for a direct buffer.
+   */
+  private static final int DIRECT = 1;
+  /**
+   * Flag set for a buffer in little endian byte order.
+   */
+  private static final int LITTLE_ENDIAN = 2;
+  /**
+   * Flag set for a read-only buffer.
+   */
+  private static final int READ_ONLY = 4;
+
+  @Override
+  public void writeObject(final Object obj, final Serializer serializer, final ClassDescriptor cd) throws Exception {
+    final ByteBuffer buffer = (ByteBuffer) obj;
+    int flags = 0;
+    if (buffer.isDirect()) flags |= DIRECT;
+    if (buffer.order() == ByteOrder.LITTLE_ENDIAN) flags |= LITTLE_ENDIAN;
+    if (buffer.isReadOnly()) flags |= READ_ONLY;
+    serializer.out.writeByte(flags);
+    final int len = buffer.remaining();
+    serializer.writeInt(len);
+    if (buffer.hasArray()) serializer.out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), len);
+    else {
+      final ByteBuffer tmp = buffer.duplicate();
+      final byte[] buf = serializer.buf;
+      while (tmp.hasRemaining()) {
+        final int n = Math.min(buf.length, tmp.remaining());
+        tmp.get(buf, 0, n);
+        serializer.out.write(buf, 0, n);
+      }
+    }
+  }
+
+  @Override
+  public Object readDObject(final Deserializer deserializer, final ClassDescriptor cd) throws Exception {
+    final int flags = deserializer.in.readByte();
+    final int len = deserializer.readInt();
+    ByteBuffer buffer = null;
+    if ((flags & DIRECT) == 0) buffer = ByteBuffer.wrap(deserializer.readByteArray(len));
+    else {
+      buffer = ByteBuffer.allocateDirect(len);
+      final byte[] buf = deserializer.buf;
+      while (buffer.hasRemaining()) {
+        final int n = Math.min(buf.length, buffer.remaining());
+        deserializer.readToBuf(0, n);
+        buffer.put(buf, 0, n);
+      }
+      buffer.flip();
+    }
+    buffer.order(((flags & LITTLE_ENDIAN) != 0) ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+    return ((flags & READ_ONLY) != 0) ? buffer.asReadOnlyBuffer() : buffer;
+  }
+}
@@ -20,6 +20,7 @@ package org.jppf.serialization;
 
 import java.io.Externalizable;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 
 /**
  * Instances of this class describe a Java class with all its non-transient fields
@@ -116,7 +117,8 @@ class ClassDescriptor {
       //hasReadWriteObject = handleReadOrWriteObjectMethod(true) && handleReadOrWriteObjectMethod(false);
       hasReadWriteObject = handleReadOrWriteObjectMethod(serializing);
       array = clazz.isArray();
-      if (!array) fields = SerializationReflectionHelper.getPersistentDeclaredFields(clazz);
+      // the fields of byte buffers are never used, since they are processed by a ByteBufferHandler
+      if (!array && !ByteBuffer.class.isAssignableFrom(clazz)) fields = SerializationReflectionHelper.getPersistentDeclaredFields(clazz);
     }
     if (signature == null) signature = SerializationReflectionHelper.getSignatureFromType(clazz);
   }
@@ -0,0 +1,281 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jppf.serialization;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+
+import org.jppf.utils.FileUtils;
+import org.jppf.utils.streams.*;
+
+/**
+ * A preset dictionary for the {@link ZLIBDictionarySerialization} scheme, trained from sample serialized payloads.
+ * <p>A dictionary is identified by the Adler-32 checksum of its content, which zlib writes in the header of each compressed stream.
+ * This allows the receiving side to pick the matching dictionary among all the registered ones.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class CompressionDictionary {
+  /**
+   * Maximum size of a dictionary, which is the size of the deflate sliding window.
+   */
+  public static final int MAX_SIZE = 32 * 1024;
+  /**
+   * Length of the byte sequences counted when training a dictionary.
+   */
+  private static final int GRAM_LENGTH = 8;
+  /**
+   * Length of the segments of the samples which are copied into a dictionary.
+   */
+  private static final int SEGMENT_LENGTH = 32;
+  /**
+   * The registered dictionaries, mapped to their id.
+   */
+  private static final Map<Integer, CompressionDictionary> dictionaries = new ConcurrentHashMap<>();
+  /**
+   * The content of this dictionary.
+   */
+  private final byte[] data;
+  /**
+   * The identifier of this dictionary.
+   */
+  private final int id;
+
+  /**
+   * Initialize this dictionary with the specified content.
+   * @param data the content of the dictionary, at most {@link #MAX_SIZE} bytes long.
+   */
+  public CompressionDictionary(final byte[] data) {
+    if (data == null) throw new IllegalArgumentException("the dictionary content cannot be null");
+    if (data.length > MAX_SIZE) throw new IllegalArgumentException("the dictionary size must not exceed " + MAX_SIZE + " bytes, but got " + data.length);
+    this.data = data;
+    final Adler32 adler = new Adler32();
+    adler.update(data, 0, data.length);
+    this.id = (int) adler.getValue();
+  }
+
+  /**
+   * Get the content of this dictionary.
+   * @return an array of bytes.
+   */
+  public byte[] getData() {
+    return data;
+  }
+
+  /**
+   * Get the identifier of this dictionary.
+   * @return the Adler-32 checksum of the dictionary content.
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Save this dictionary to the specified file.
+   * @param file the file to write to.
+   * @throws IOException if any I/O error occurs.
+   */
+  public void save(final File file) throws IOException {
+    try (OutputStream os = FileUtils.getFileOutputStream(file)) {
+      os.write(data);
+    }
+  }
+
+  /**
+   * Load a dictionary from the specified path, first looked up in the file system, then in the classpath.
+   * @param path the path of the dictionary file.
+   * @return a {@link CompressionDictionary} instance.
+   * @throws IOException if the dictionary could not be found or read.
+   */
+  public static CompressionDictionary load(final String path) throws IOException {
+    final InputStream is = FileUtils.getFileInputStream(path);
+    if (is == null) throw new FileNotFoundException("could not find the dictionary file '" + path + "'");
+    return new CompressionDictionary(StreamUtils.getInputStreamAsByte(is));
+  }
+
+  /**
+   * Register the specified dictionary, so it can be used to decompress the data compressed with it.
+   * @param dictionary the dictionary to register.
+   */
+  public static void register(final CompressionDictionary dictionary) {
+    dictionaries.put(dictionary.getId(), dictionary);
+  }
+
+  /**
+   * Get the registered dictionary with the specified id.
+   * @param id the identifier of the dictionary.
+   * @return a {@link CompressionDictionary} instance, or {@code null} if there is no such registered dictionary.
+   */
+  public static CompressionDictionary get(final int id) {
+    return dictionaries.get(id);
+  }
+
+  /**
+   * Train a dictionary from sample objects serialized with the specified serialization scheme.
+   * @param serialization the serialization with which the samples are serialized. It should be the scheme that the {@link ZLIBDictionarySerialization} delegates to.
+   * @param samples the objects to serialize as samples.
+   * @param maxSize the maximum size of the dictionary.
+   * @return a new {@link CompressionDictionary}.
+   * @throws Exception if any error occurs while serializing the samples.
+   */
+  public static CompressionDictionary train(final JPPFSerialization serialization, final Collection<?> samples, final int maxSize) throws Exception {
+    final List<byte[]> list = new ArrayList<>(samples.size());
+    for (final Object o: samples) {
+      final JPPFByteArrayOutputStream baos = new JPPFByteArrayOutputStream();
+      serialization.serialize(o, baos);
+      list.add(baos.toByteArray());
+    }
+    return train(list, maxSize);
+  }
+
+  /**
+   * Train a dictionary from the specified sample payloads.
+   * <p>The dictionary is made of the segments of the samples which cover the byte sequences found in the largest number of samples.
+   * Segments are selected greedily, such that the sequences they contain are not counted again for the following segments.
+   * The best segments are placed at the end of the dictionary, since the deflate algorithm encodes shorter distances more efficiently.
+   * @param samples the sample payloads.
+   * @param maxSize the maximum size of the dictionary.
+   * @return a new {@link CompressionDictionary}.
+   */
+  public static CompressionDictionary train(final Collection<byte[]> samples, final int maxSize) {
+    final int size = Math.min(maxSize, MAX_SIZE);
+    // number of samples in which each sequence appears
+    final Map<Long, int[]> frequencies = new HashMap<>();
+    int sampleIndex = 0;
+    for (final byte[] sample: samples) {
+      sampleIndex++;
+      for (int i=0; i<=sample.length - GRAM_LENGTH; i++) {
+        final int[] freq = frequencies.computeIfAbsent(gram(sample, i), k -> new int[2]);
+        if (freq[1] != sampleIndex) {
+          freq[0]++;
+          freq[1] = sampleIndex;
+        }
+      }
+    }
+    final PriorityQueue<Segment> queue = new PriorityQueue<>();
+    for (final byte[] sample: samples) {
+      for (int i=0; i<sample.length; i+=SEGMENT_LENGTH / 2) {
+        final Segment segment = new Segment(sample, i, Math.min(SEGMENT_LENGTH, sample.length - i));
+        segment.score = segment.computeScore(frequencies);
+        if (segment.score > 0) queue.offer(segment);
+      }
+    }
+    final LinkedList<Segment> selected = new LinkedList<>();
+    int total = 0;
+    // since scores can only decrease as sequences are covered, a segment whose updated score is still the best can be selected right away
+    while ((total < size) && !queue.isEmpty()) {
+      final Segment segment = queue.poll();
+      final long score = segment.computeScore(frequencies);
+      if (score <= 0) continue;
+      if ((score < segment.score) && !queue.isEmpty() && (score < queue.peek().score)) {
+        segment.score = score;
+        queue.offer(segment);
+        continue;
+      }
+      for (int i=segment.offset; i<=segment.offset + segment.length - GRAM_LENGTH; i++) {
+        final int[] freq = frequencies.get(gram(segment.sample, i));
+        if (freq != null) freq[0] = 0;
+      }
+      final int length = Math.min(segment.length, size - total);
+      selected.addFirst(new Segment(segment.sample, segment.offset + segment.length - length, length));
+      total += length;
+    }
+    final byte[] data = new byte[total];
+    int pos = 0;
+    for (final Segment segment: selected) {
+      System.arraycopy(segment.sample, segment.offset, data, pos, segment.length);
+      pos += segment.length;
+    }
+    return new CompressionDictionary(data);
+  }
+
+  /**
+   * Get the sequence of bytes at the specified position as a long value.
+   * @param data the bytes to read from.
+   * @param offset the position of the sequence.
+   * @return the sequence packed into a {@code long}.
+   */
+  private static long gram(final byte[] data, final int offset) {
+    long result = 0L;
+    for (int i=offset; i<offset + GRAM_LENGTH; i++) result = (result << 8) | (data[i] & 0xFF);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[id=" + id + ", size=" + data.length + ']';
+  }
+
+  /**
+   * A candidate segment of a sample payload.
+   */
+  private static final class Segment implements Comparable<Segment> {
+    /**
+     * The sample which contains the segment.
+     */
+    private final byte[] sample;
+    /**
+     * The segment's start position.
+     */
+    private final int offset;
+    /**
+     * The segment's length.
+     */
+    private final int length;
+    /**
+     * The last computed score.
+     */
+    private long score;
+
+    /**
+     * Initialize this segment.
+     * @param sample the sample which contains the segment.
+     * @param offset the segment's start position.
+     * @param length the segment's length.
+     */
+    private Segment(final byte[] sample, final int offset, final int length) {
+      this.sample = sample;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    /**
+     * Compute the score of this segment as the sum of the frequencies of the sequences it contains.
+     * @param frequencies the current sequence frequencies.
+     * @return the score of this segment.
+     */
+    private long computeScore(final Map<Long, int[]> frequencies) {
+      long result = 0L;
+      for (int i=offset; i<=offset + length - GRAM_LENGTH; i++) {
+        final int[] freq = frequencies.get(gram(sample, i));
+        // sequences which appear in a single sample are not worth keeping
+        if ((freq != null) && (freq[0] > 1)) result += freq[0];
+      }
+      return result;
+    }
+
+    @Override
+    public int compareTo(final Segment other) {
+      return Long.compare(other.score, score);
+    }
+  }
+}
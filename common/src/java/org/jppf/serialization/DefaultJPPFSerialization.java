@@ -96,6 +96,7 @@ public class DefaultJPPFSerialization implements JPPFSerialization {
     @Override
     public void put(final Serializer serializer) {
       serializer.caches.objectHandleMap.clear();
+      serializer.caches.classRefMap.clear();
       super.put(serializer);
     }
   };
@@ -113,6 +114,7 @@ public class DefaultJPPFSerialization implements JPPFSerialization {
     @Override
     public void put(final Deserializer deserializer) {
       deserializer.caches.handleToObjectMap.clear();
+      deserializer.caches.classRefs.clear();
       super.put(deserializer);
     }
   };
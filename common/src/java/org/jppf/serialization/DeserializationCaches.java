@@ -38,6 +38,10 @@ class DeserializationCaches {
    * Mapping of handles to corresponding objects.
    */
   final Map<Integer, Object> handleToObjectMap = new HashMap<>();
+  /**
+   * The class descriptors read from the stream, in the order of their references.
+   */
+  final List<ClassDescriptor> classRefs = new ArrayList<>();
 
   /**
    * Default constructor.
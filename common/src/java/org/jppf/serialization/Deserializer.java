@@ -78,6 +78,10 @@ class Deserializer {
    * Temporary buffer used to read arrays of primitive values from the stream.
    */
   byte[] buf = new byte[SerializationUtils.TEMP_BUFFER_SIZE];
+  /**
+   * Views of the temporary buffer used to bulk-copy arrays of primitive values from it.
+   */
+  private final BufferViews views = new BufferViews(buf);
 
   /**
    * Initialize this deserializer with the specified input stream.
@@ -123,8 +127,7 @@ class Deserializer {
   @SuppressWarnings("unchecked")
   private void readObject(final int handle) throws Exception {
     if (traceEnabled) log.trace("reading object with handle = {}", handle);
-    final String sig = readString();
-    final ClassDescriptor cd = caches.getDescriptor(sig, classloader);
+    final ClassDescriptor cd = readClassDescriptor();
     if (cd.array) readArray(handle, cd);
     else if (cd.enumType) {
       final String name = readString();
@@ -150,8 +153,23 @@ class Deserializer {
    * @throws Exception if any error occurs.
    */
   private Object readClassObject(final byte header) throws Exception {
-    final String handle = readString();
-    return caches.getClassFromHandle(handle, classloader);
+    return readClassDescriptor().clazz;
+  }
+
+  /**
+   * Read a reference to a class descriptor, along with the class signature if it is the first time the class is encountered in the stream.
+   * @return the class descriptor that was read.
+   * @throws Exception if any error occurs.
+   */
+  private ClassDescriptor readClassDescriptor() throws Exception {
+    final int ref = readInt();
+    if (ref == 0) {
+      final ClassDescriptor cd = caches.getDescriptor(readString(), classloader);
+      caches.classRefs.add(cd);
+      return cd;
+    }
+    if ((ref < 0) || (ref > caches.classRefs.size())) throw new StreamCorruptedException("invalid class descriptor reference: " + ref);
+    return caches.classRefs.get(ref - 1);
   }
 
   /**
@@ -199,28 +217,31 @@ class Deserializer {
     for (FieldDescriptor fd: cd.fields) {
       //if (traceEnabled) try { log.trace("reading field '{}' of object {}", fd, obj); } catch(@SuppressWarnings("unused") Exception e) {}
       final ClassDescriptor typeDesc = fd.type;
-      if (fd.field == null) fd.field = cd.clazz.getDeclaredField(fd.name);
-      final Field field = fd.field;
+      if (fd.field == null) {
+        fd.field = cd.clazz.getDeclaredField(fd.name);
+        fd.accessor = FieldDescriptor.createAccessor(fd.field);
+      }
+      final FieldAccessor accessor = fd.accessor;
       if (typeDesc.primitive) {
         switch(typeDesc.signature.charAt(0)) {
-          case 'B': field.setByte(obj, (byte) in.read()); break;
-          case 'S': field.setShort(obj, in.readShort()); break;
-          case 'I': field.setInt(obj, readInt()); break;
-          case 'J': field.setLong(obj, readLong()); break;
-          case 'F': field.setFloat(obj, readFloat()); break;
-          case 'D': field.setDouble(obj, readDouble()); break;
-          case 'C': field.setChar(obj, in.readChar()); break;
-          case 'Z': field.setBoolean(obj, in.readBoolean()); break;
+          case 'B': accessor.setByte(obj, (byte) in.read()); break;
+          case 'S': accessor.setShort(obj, in.readShort()); break;
+          case 'I': accessor.setInt(obj, readInt()); break;
+          case 'J': accessor.setLong(obj, readLong()); break;
+          case 'F': accessor.setFloat(obj, readFloat()); break;
+          case 'D': accessor.setDouble(obj, readDouble()); break;
+          case 'C': accessor.setChar(obj, in.readChar()); break;
+          case 'Z': accessor.setBoolean(obj, in.readBoolean()); break;
         }
       } else if (typeDesc.enumType) {
         final String name = (String) readObject();
         if (traceEnabled) try { log.trace("reading enum[" + typeDesc.signature + "] : " + name); } catch(@SuppressWarnings("unused") final Exception e) {}
         @SuppressWarnings("rawtypes")
-        final Object val = (name == null) ? null : Enum.valueOf((Class<? extends Enum>) field.getType(), name);
-        field.set(obj, val);
+        final Object val = (name == null) ? null : Enum.valueOf((Class<? extends Enum>) fd.field.getType(), name);
+        accessor.set(obj, val);
       } else {
         final Object val = readObject();
-        field.set(obj, val);
+        accessor.set(obj, val);
       }
     }
   }
@@ -339,7 +360,9 @@ class Deserializer {
     for (int count=0; count<len;) {
       final int n = Math.min(buf.length/2, len-count);
       readToBuf(0, 2*n);
-      for (int i=0; i<2*n; i+=2) array[count++] = SerializationUtils.readChar(buf, i);
+      views.charView.clear();
+      views.charView.get(array, count, n);
+      count += n;
     }
     return array;
   }
@@ -355,7 +378,9 @@ class Deserializer {
     for (int count=0; count<len;) {
       final int n = Math.min(buf.length/2, len-count);
       readToBuf(0, 2*n);
-      for (int i=0; i<2*n; i+=2) array[count++] = SerializationUtils.readShort(buf, i);
+      views.shortView.clear();
+      views.shortView.get(array, count, n);
+      count += n;
     }
     return array;
   }
@@ -371,7 +396,9 @@ class Deserializer {
     for (int count=0; count<len;) {
       final int n = Math.min(buf.length/4, len-count);
       readToBuf(0, 4*n);
-      for (int i=0; i<4*n; i+=4) array[count++] = SerializationUtils.readInt(buf, i);
+      views.intView.clear();
+      views.intView.get(array, count, n);
+      count += n;
     }
     return array;
   }
@@ -387,7 +414,9 @@ class Deserializer {
     for (int count=0; count<len;) {
       final int n = Math.min(buf.length/8, len-count);
       readToBuf(0, 8*n);
-      for (int i=0; i<8*n; i+=8) array[count++] = SerializationUtils.readLong(buf, i);
+      views.longView.clear();
+      views.longView.get(array, count, n);
+      count += n;
     }
     return array;
   }
@@ -403,7 +432,9 @@ class Deserializer {
     for (int count=0; count<len;) {
       final int n = Math.min(buf.length/4, len-count);
       readToBuf(0, 4*n);
-      for (int i=0; i<4*n; i+=4) array[count++] = Float.intBitsToFloat(SerializationUtils.readInt(buf, i));
+      views.floatView.clear();
+      views.floatView.get(array, count, n);
+      count += n;
     }
     return array;
   }
@@ -419,7 +450,9 @@ class Deserializer {
     for (int count=0; count<len;) {
       final int n = Math.min(buf.length/8, len-count);
       readToBuf(0, 8*n);
-      for (int i=0; i<8*n; i+=8) array[count++] = Double.longBitsToDouble(SerializationUtils.readLong(buf, i));
+      views.doubleView.clear();
+      views.doubleView.get(array, count, n);
+      count += n;
     }
     return array;
   }
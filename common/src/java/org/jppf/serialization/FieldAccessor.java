@@ -0,0 +1,172 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+/**
+ * Reads and writes the value of a field in an object, in order to serialize or deserialize this field.
+ * The methods dedicated to primitive types avoid the boxing and unboxing of the values.
+ * @author Laurent Cohen
+ * @since 6.3
+ * @exclude
+ */
+interface FieldAccessor {
+  /**
+   * Get the value of the field.
+   * @param obj the object holding the field.
+   * @return the field value.
+   * @throws Exception if any error occurs.
+   */
+  Object get(Object obj) throws Exception;
+
+  /**
+   * Set the value of the field.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws Exception if any error occurs.
+   */
+  void set(Object obj, Object value) throws Exception;
+
+  /**
+   * Get the value of a {@code byte} field.
+   * @param obj the object holding the field.
+   * @return the field value.
+   * @throws Exception if any error occurs.
+   */
+  byte getByte(Object obj) throws Exception;
+
+  /**
+   * Set the value of a {@code byte} field.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws Exception if any error occurs.
+   */
+  void setByte(Object obj, byte value) throws Exception;
+
+  /**
+   * Get the value of a {@code short} field.
+   * @param obj the object holding the field.
+   * @return the field value.
+   * @throws Exception if any error occurs.
+   */
+  short getShort(Object obj) throws Exception;
+
+  /**
+   * Set the value of a {@code short} field.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws Exception if any error occurs.
+   */
+  void setShort(Object obj, short value) throws Exception;
+
+  /**
+   * Get the value of an {@code int} field.
+   * @param obj the object holding the field.
+   * @return the field value.
+   * @throws Exception if any error occurs.
+   */
+  int getInt(Object obj) throws Exception;
+
+  /**
+   * Set the value of an {@code int} field.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws Exception if any error occurs.
+   */
+  void setInt(Object obj, int value) throws Exception;
+
+  /**
+   * Get the value of a {@code long} field.
+   * @param obj the object holding the field.
+   * @return the field value.
+   * @throws Exception if any error occurs.
+   */
+  long getLong(Object obj) throws Exception;
+
+  /**
+   * Set the value of a {@code long} field.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws Exception if any error occurs.
+   */
+  void setLong(Object obj, long value) throws Exception;
+
+  /**
+   * Get the value of a {@code float} field.
+   * @param obj the object holding the field.
+   * @return the field value.
+   * @throws Exception if any error occurs.
+   */
+  float getFloat(Object obj) throws Exception;
+
+  /**
+   * Set the value of a {@code float} field.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws Exception if any error occurs.
+   */
+  void setFloat(Object obj, float value) throws Exception;
+
+  /**
+   * Get the value of a {@code double} field.
+   * @param obj the object holding the field.
+   * @return the field value.
+   * @throws Exception if any error occurs.
+   */
+  double getDouble(Object obj) throws Exception;
+
+  /**
+   * Set the value of a {@code double} field.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws Exception if any error occurs.
+   */
+  void setDouble(Object obj, double value) throws Exception;
+
+  /**
+   * Get the value of a {@code char} field.
+   * @param obj the object holding the field.
+   * @return the field value.
+   * @throws Exception if any error occurs.
+   */
+  char getChar(Object obj) throws Exception;
+
+  /**
+   * Set the value of a {@code char} field.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws Exception if any error occurs.
+   */
+  void setChar(Object obj, char value) throws Exception;
+
+  /**
+   * Get the value of a {@code boolean} field.
+   * @param obj the object holding the field.
+   * @return the field value.
+   * @throws Exception if any error occurs.
+   */
+  boolean getBoolean(Object obj) throws Exception;
+
+  /**
+   * Set the value of a {@code boolean} field.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws Exception if any error occurs.
+   */
+  void setBoolean(Object obj, boolean value) throws Exception;
+}
@@ -20,12 +20,28 @@ package org.jppf.serialization;
 
 import java.lang.reflect.Field;
 
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
 /**
  * Instances of this class describe a non-transient field of a Java class with in order ot enable serialization and deserialization of this field.
  * @author Laurent Cohen
  * @exclude
  */
 class FieldDescriptor {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(FieldDescriptor.class);
+  /**
+   * Determines whether the debug level is enabled in the logging configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Whether to access the fields with {@code sun.misc.Unsafe} rather than with the reflection API.
+   */
+  private static volatile boolean unsafeAccessors = isUnsafeConfigured();
   /**
    * The name of this field.
    */
@@ -34,6 +50,10 @@ class FieldDescriptor {
    * The corresponding field object.
    */
   Field field;
+  /**
+   * Reads and writes the value of the field.
+   */
+  FieldAccessor accessor;
   /**
    * Descriptor for the type of this field.
    */
@@ -53,6 +73,39 @@ class FieldDescriptor {
   FieldDescriptor(final Field field) throws Exception {
     this.field = field;
     name = field.getName();
+    accessor = createAccessor(field);
+  }
+
+  /**
+   * Create an accessor for the specified field, according to the configuration.
+   * @param field the field to access.
+   * @return a {@link FieldAccessor} instance.
+   */
+  static FieldAccessor createAccessor(final Field field) {
+    if (unsafeAccessors) {
+      try {
+        return new UnsafeFieldAccessor(field);
+      } catch (final Exception e) {
+        // for instance, the fields of records and hidden classes have no offset
+        if (debugEnabled) log.debug("falling back to reflection to access field {}: {}", field, e.toString());
+      }
+    }
+    return new ReflectionFieldAccessor(field);
+  }
+
+  /**
+   * Read the field accessor type from the configuration again. This only applies to the fields described afterwards.
+   */
+  static void resetAccessors() {
+    unsafeAccessors = isUnsafeConfigured();
+  }
+
+  /**
+   * Determine whether the configuration requires {@code Unsafe} field accessors and whether they are available.
+   * @return {@code true} if {@code Unsafe} accessors are to be used, {@code false} otherwise.
+   */
+  private static boolean isUnsafeConfigured() {
+    return "unsafe".equalsIgnoreCase(JPPFConfiguration.get(JPPFProperties.SERIALIZATION_FIELD_ACCESSOR)) && UnsafeFieldAccessor.isAvailable();
   }
 
   @Override
@@ -168,6 +168,7 @@ public interface JPPFSerialization {
     public static void reset() {
       serializationClass = null;
       compositeClasses.clear();
+      SerializationReflectionHelper.resetFieldAccessors();
       configure();
       if (debugEnabled) log.debug("serialization = {}, composite = {}", serializationClass, compositeClasses);
     }
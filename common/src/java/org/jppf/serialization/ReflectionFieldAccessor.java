@@ -0,0 +1,132 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.lang.reflect.Field;
+
+/**
+ * A field accessor which uses the {@code java.lang.reflect} API.
+ * @author Laurent Cohen
+ * @since 6.3
+ * @exclude
+ */
+class ReflectionFieldAccessor implements FieldAccessor {
+  /**
+   * The field to access, already made accessible.
+   */
+  private final Field field;
+
+  /**
+   * Initialize this accessor with the specified field.
+   * @param field the field to access.
+   */
+  ReflectionFieldAccessor(final Field field) {
+    this.field = field;
+  }
+
+  @Override
+  public Object get(final Object obj) throws Exception {
+    return field.get(obj);
+  }
+
+  @Override
+  public void set(final Object obj, final Object value) throws Exception {
+    field.set(obj, value);
+  }
+
+  @Override
+  public byte getByte(final Object obj) throws Exception {
+    return field.getByte(obj);
+  }
+
+  @Override
+  public void setByte(final Object obj, final byte value) throws Exception {
+    field.setByte(obj, value);
+  }
+
+  @Override
+  public short getShort(final Object obj) throws Exception {
+    return field.getShort(obj);
+  }
+
+  @Override
+  public void setShort(final Object obj, final short value) throws Exception {
+    field.setShort(obj, value);
+  }
+
+  @Override
+  public int getInt(final Object obj) throws Exception {
+    return field.getInt(obj);
+  }
+
+  @Override
+  public void setInt(final Object obj, final int value) throws Exception {
+    field.setInt(obj, value);
+  }
+
+  @Override
+  public long getLong(final Object obj) throws Exception {
+    return field.getLong(obj);
+  }
+
+  @Override
+  public void setLong(final Object obj, final long value) throws Exception {
+    field.setLong(obj, value);
+  }
+
+  @Override
+  public float getFloat(final Object obj) throws Exception {
+    return field.getFloat(obj);
+  }
+
+  @Override
+  public void setFloat(final Object obj, final float value) throws Exception {
+    field.setFloat(obj, value);
+  }
+
+  @Override
+  public double getDouble(final Object obj) throws Exception {
+    return field.getDouble(obj);
+  }
+
+  @Override
+  public void setDouble(final Object obj, final double value) throws Exception {
+    field.setDouble(obj, value);
+  }
+
+  @Override
+  public char getChar(final Object obj) throws Exception {
+    return field.getChar(obj);
+  }
+
+  @Override
+  public void setChar(final Object obj, final char value) throws Exception {
+    field.setChar(obj, value);
+  }
+
+  @Override
+  public boolean getBoolean(final Object obj) throws Exception {
+    return field.getBoolean(obj);
+  }
+
+  @Override
+  public void setBoolean(final Object obj, final boolean value) throws Exception {
+    field.setBoolean(obj, value);
+  }
+}
@@ -57,6 +57,10 @@ class SerializationCaches {
    * Mapping of objects to their handle.
    */
   final Map<Object, Integer> objectHandleMap = new IdentityHashMap<>(256);
+  /**
+   * Mapping of the class descriptors already written to the stream to their reference.
+   */
+  final Map<ClassDescriptor, Integer> classRefMap = new IdentityHashMap<>();
   /**
    * Counter for the class handles.
    */
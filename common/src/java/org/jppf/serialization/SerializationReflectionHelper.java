@@ -20,6 +20,7 @@ package org.jppf.serialization;
 
 import java.io.*;
 import java.lang.reflect.*;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -102,6 +103,10 @@ public final class SerializationReflectionHelper {
    * Handler for java.time.* classes.
    */
   static final SerializationHandler javaTimeHandler = new JavaTimeSerializationHandler();
+  /**
+   * Handler for heap and direct byte buffers.
+   */
+  static final SerializationHandler byteBufferHandler = new ByteBufferHandler();
   /**
    * Map of classes to their assigned {@link SerializationHandler}, if any.
    */
@@ -168,6 +173,14 @@ public final class SerializationReflectionHelper {
     return result;
   }
 
+  /**
+   * Read the field accessor type from the configuration again and discard the cached field descriptors, so they use the new accessor type.
+   */
+  static void resetFieldAccessors() {
+    FieldDescriptor.resetAccessors();
+    FIELDS_MAP.clear();
+  }
+
   /**
    * Get a unique string representation for the specified type.
    * @param clazz the type from which to get the signature.
@@ -499,6 +512,7 @@ public final class SerializationReflectionHelper {
     SerializationHandler handler = handlerMap.get(clazz);
     if (handler == null) {
       if (clazz.getName().startsWith("java.time.")) handler = javaTimeHandler;
+      else if (ByteBuffer.class.isAssignableFrom(clazz)) handler = byteBufferHandler;
     }
     return handler;
   }
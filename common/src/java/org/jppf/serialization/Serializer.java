@@ -92,7 +92,11 @@ class Serializer {
   /**
    * Temporary buffer used to write arrays of primitive values to the stream.
    */
-  private final byte[] buf = new byte[SerializationUtils.TEMP_BUFFER_SIZE];
+  final byte[] buf = new byte[SerializationUtils.TEMP_BUFFER_SIZE];
+  /**
+   * Views of the temporary buffer used to bulk-copy arrays of primitive values into it.
+   */
+  private final BufferViews views = new BufferViews(buf);
 
   /**
    * Initialize this serializer with the specified output stream, and write the header.
@@ -138,7 +142,7 @@ class Serializer {
     currentObject = obj;
     currentClassDescriptor = cd;
     writeHeaderAndHandle(OBJECT_HEADER, handle);
-    writeString(cd.signature);
+    writeClassDescriptor(cd);
     //if (traceEnabled) try { log.trace("writing object " + obj + ", handle=" + handle + ", class=" + obj.getClass() + ", cd=" + cd); } catch(Exception e) {}
     if (cd.array) writeArray(obj, cd);
     else if (cd.enumType) writeString(((Enum<?>) obj).name());
@@ -161,7 +165,22 @@ class Serializer {
     currentObject = obj;
     currentClassDescriptor = cd;
     out.writeByte(CLASS_OBJECT_HEADER);
-    writeString(cd.signature);
+    writeClassDescriptor(cd);
+  }
+
+  /**
+   * Write a reference to the specified class descriptor. The class signature is only written the first time
+   * the class is encountered in the stream, after which only its reference is written.
+   * @param cd the class descriptor to write.
+   * @throws Exception if any error occurs.
+   */
+  private void writeClassDescriptor(final ClassDescriptor cd) throws Exception {
+    final Integer ref = caches.classRefMap.get(cd);
+    if (ref == null) {
+      caches.classRefMap.put(cd, caches.classRefMap.size() + 1);
+      writeInt(0);
+      writeString(cd.signature);
+    } else writeInt(ref);
   }
 
   /**
@@ -205,21 +224,23 @@ class Serializer {
   void writeDeclaredFields(final Object obj, final ClassDescriptor cd) throws Exception {
     for (FieldDescriptor fd: cd.fields) {
       //if (traceEnabled) try { log.trace("writing field '" + fd.name + "' of object " + obj); } catch(Exception e) {}
-      final Object val = fd.field.get(obj);
+      final FieldAccessor accessor = fd.accessor;
       if (fd.type.primitive) {
         switch(fd.type.signature.charAt(0)) {
-          case 'B': out.write(((Byte) val).intValue()); break;
-          case 'S': out.writeShort((Short) val); break;
-          case 'I': writeInt((Integer) val); break;
-          case 'J': writeLong((Long) val); break;
-          case 'F': writeFloat((Float) val); break;
-          case 'D': writeDouble((Double) val); break;
-          case 'C': out.writeChar((Character) val); break;
-          case 'Z': out.writeBoolean((Boolean) val); break;
+          case 'B': out.write(accessor.getByte(obj)); break;
+          case 'S': out.writeShort(accessor.getShort(obj)); break;
+          case 'I': writeInt(accessor.getInt(obj)); break;
+          case 'J': writeLong(accessor.getLong(obj)); break;
+          case 'F': writeFloat(accessor.getFloat(obj)); break;
+          case 'D': writeDouble(accessor.getDouble(obj)); break;
+          case 'C': out.writeChar(accessor.getChar(obj)); break;
+          case 'Z': out.writeBoolean(accessor.getBoolean(obj)); break;
         }
+      } else {
+        final Object val = accessor.get(obj);
+        if (fd.type.enumType) writeObject(val == null ? null : ((Enum<?>) val).name());
+        else writeObject(val);
       }
-      else if (fd.type.enumType) writeObject(val == null ? null : ((Enum<?>) val).name());
-      else writeObject(val);
     }
   }
 
@@ -279,7 +300,9 @@ class Serializer {
   void writeCharArray(final char[] array) throws Exception {
     for (int count=0; count<array.length;) {
       final int n = Math.min(buf.length / 2, array.length - count);
-      for (int i=0; i<2*n; i+=2) SerializationUtils.writeChar(array[count++], buf, i);
+      views.charView.clear();
+      views.charView.put(array, count, n);
+      count += n;
       out.write(buf, 0, 2*n);
     }
   }
@@ -292,7 +315,9 @@ class Serializer {
   void writeShortArray(final short[] array) throws Exception {
     for (int count=0; count < array.length;) {
       final int n = Math.min(buf.length / 2, array.length - count);
-      for (int i=0; i<2*n; i+=2) SerializationUtils.writeShort(array[count++], buf, i);
+      views.shortView.clear();
+      views.shortView.put(array, count, n);
+      count += n;
       out.write(buf, 0, 2*n);
     }
   }
@@ -305,7 +330,9 @@ class Serializer {
   void writeIntArray(final int[] array) throws Exception {
     for (int count=0; count < array.length;) {
       final int n = Math.min(buf.length / 4, array.length - count);
-      for (int i=0; i<4*n; i+=4) SerializationUtils.writeInt(array[count++], buf, i);
+      views.intView.clear();
+      views.intView.put(array, count, n);
+      count += n;
       out.write(buf, 0, 4*n);
     }
   }
@@ -318,7 +345,9 @@ class Serializer {
   void writeLongArray(final long[] array) throws Exception {
     for (int count=0; count < array.length;) {
       final int n = Math.min(buf.length / 8, array.length - count);
-      for (int i=0; i<8*n; i+=8) SerializationUtils.writeLong(array[count++], buf, i);
+      views.longView.clear();
+      views.longView.put(array, count, n);
+      count += n;
       out.write(buf, 0, 8*n);
     }
   }
@@ -331,7 +360,9 @@ class Serializer {
   void writeFloatArray(final float[] array) throws Exception {
     for (int count=0; count < array.length;) {
       final int n = Math.min(buf.length / 4, array.length - count);
-      for (int i=0; i<4*n; i+=4) SerializationUtils.writeInt(Float.floatToIntBits(array[count++]), buf, i);
+      views.floatView.clear();
+      views.floatView.put(array, count, n);
+      count += n;
       out.write(buf, 0, 4*n);
     }
   }
@@ -344,7 +375,9 @@ class Serializer {
   void writeDoubleArray(final double[] array) throws Exception {
     for (int count=0; count < array.length;) {
       final int n = Math.min(buf.length / 8, array.length - count);
-      for (int i=0; i<8*n; i+=8) SerializationUtils.writeLong(Double.doubleToLongBits(array[count++]), buf, i);
+      views.doubleView.clear();
+      views.doubleView.put(array, count, n);
+      count += n;
       out.write(buf, 0, 8*n);
     }
   }
@@ -0,0 +1,453 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jppf.serialization;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Field;
+
+import org.slf4j.*;
+
+/**
+ * A field accessor which reads and writes the field directly at its offset in the object's memory layout, using {@code sun.misc.Unsafe}.
+ * This bypasses the access checks and the boxing of primitive values performed by the reflection API.
+ * <p>{@code sun.misc.Unsafe} is only referenced reflectively, through method handles bound to its instance. Since the handles are held
+ * in static final fields, the JIT compiler inlines them as if the {@code Unsafe} methods were called directly.
+ * @author Laurent Cohen
+ * @since 6.3
+ * @exclude
+ */
+class UnsafeFieldAccessor implements FieldAccessor {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(UnsafeFieldAccessor.class);
+  /**
+   * The {@code sun.misc.Unsafe} instance, or {@code null} if it is not available in the current JVM.
+   */
+  private static final Object UNSAFE = initUnsafe();
+  /**
+   * Handle for {@code Unsafe.objectFieldOffset(Field)}.
+   */
+  private static final MethodHandle OBJECT_FIELD_OFFSET = findHandle("objectFieldOffset", long.class, Field.class);
+  /**
+   * Handle for {@code Unsafe.getObject(Object, long)}.
+   */
+  private static final MethodHandle GET_OBJECT = findGetter(Object.class);
+  /**
+   * Handle for {@code Unsafe.putObject(Object, long, Object)}.
+   */
+  private static final MethodHandle PUT_OBJECT = findSetter(Object.class);
+  /**
+   * Handle for {@code Unsafe.getByte(Object, long)}.
+   */
+  private static final MethodHandle GET_BYTE = findGetter(byte.class);
+  /**
+   * Handle for {@code Unsafe.putByte(Object, long, byte)}.
+   */
+  private static final MethodHandle PUT_BYTE = findSetter(byte.class);
+  /**
+   * Handle for {@code Unsafe.getShort(Object, long)}.
+   */
+  private static final MethodHandle GET_SHORT = findGetter(short.class);
+  /**
+   * Handle for {@code Unsafe.putShort(Object, long, short)}.
+   */
+  private static final MethodHandle PUT_SHORT = findSetter(short.class);
+  /**
+   * Handle for {@code Unsafe.getInt(Object, long)}.
+   */
+  private static final MethodHandle GET_INT = findGetter(int.class);
+  /**
+   * Handle for {@code Unsafe.putInt(Object, long, int)}.
+   */
+  private static final MethodHandle PUT_INT = findSetter(int.class);
+  /**
+   * Handle for {@code Unsafe.getLong(Object, long)}.
+   */
+  private static final MethodHandle GET_LONG = findGetter(long.class);
+  /**
+   * Handle for {@code Unsafe.putLong(Object, long, long)}.
+   */
+  private static final MethodHandle PUT_LONG = findSetter(long.class);
+  /**
+   * Handle for {@code Unsafe.getFloat(Object, long)}.
+   */
+  private static final MethodHandle GET_FLOAT = findGetter(float.class);
+  /**
+   * Handle for {@code Unsafe.putFloat(Object, long, float)}.
+   */
+  private static final MethodHandle PUT_FLOAT = findSetter(float.class);
+  /**
+   * Handle for {@code Unsafe.getDouble(Object, long)}.
+   */
+  private static final MethodHandle GET_DOUBLE = findGetter(double.class);
+  /**
+   * Handle for {@code Unsafe.putDouble(Object, long, double)}.
+   */
+  private static final MethodHandle PUT_DOUBLE = findSetter(double.class);
+  /**
+   * Handle for {@code Unsafe.getChar(Object, long)}.
+   */
+  private static final MethodHandle GET_CHAR = findGetter(char.class);
+  /**
+   * Handle for {@code Unsafe.putChar(Object, long, char)}.
+   */
+  private static final MethodHandle PUT_CHAR = findSetter(char.class);
+  /**
+   * Handle for {@code Unsafe.getBoolean(Object, long)}.
+   */
+  private static final MethodHandle GET_BOOLEAN = findGetter(boolean.class);
+  /**
+   * Handle for {@code Unsafe.putBoolean(Object, long, boolean)}.
+   */
+  private static final MethodHandle PUT_BOOLEAN = findSetter(boolean.class);
+  /**
+   * Whether all the {@code Unsafe} methods used by this class were found.
+   */
+  private static final boolean AVAILABLE = (UNSAFE != null) && (OBJECT_FIELD_OFFSET != null) && (GET_OBJECT != null) && (PUT_OBJECT != null)
+    && (GET_BYTE != null) && (PUT_BYTE != null) && (GET_SHORT != null) && (PUT_SHORT != null) && (GET_INT != null) && (PUT_INT != null)
+    && (GET_LONG != null) && (PUT_LONG != null) && (GET_FLOAT != null) && (PUT_FLOAT != null) && (GET_DOUBLE != null) && (PUT_DOUBLE != null)
+    && (GET_CHAR != null) && (PUT_CHAR != null) && (GET_BOOLEAN != null) && (PUT_BOOLEAN != null);
+  /**
+   * The field to access.
+   */
+  private final Field field;
+  /**
+   * The declared type of the field.
+   */
+  private final Class<?> type;
+  /**
+   * The offset of the field.
+   */
+  private final long offset;
+
+  /**
+   * Initialize this accessor with the specified field.
+   * @param field the field to access.
+   * @throws Exception if the offset of the field cannot be obtained, for instance for the fields of records and hidden classes.
+   */
+  UnsafeFieldAccessor(final Field field) throws Exception {
+    this.field = field;
+    this.type = field.getType();
+    try {
+      this.offset = (long) OBJECT_FIELD_OFFSET.invokeExact(field);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public Object get(final Object obj) throws Exception {
+    if (type.isPrimitive()) return getPrimitive(obj);
+    try {
+      return GET_OBJECT.invokeExact(obj, offset);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  /**
+   * Set the value of the field. Unlike with the other {@code Unsafe} operations, the type of the value is checked,
+   * since writing a reference of the wrong type into a typed field would silently corrupt the heap.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws IllegalArgumentException if the value is not assignable to the field.
+   * @throws Exception if any other error occurs.
+   */
+  @Override
+  public void set(final Object obj, final Object value) throws Exception {
+    if (type.isPrimitive()) {
+      setPrimitive(obj, value);
+      return;
+    }
+    if ((value != null) && !type.isInstance(value)) throw newTypeMismatch(value);
+    try {
+      PUT_OBJECT.invokeExact(obj, offset, value);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public byte getByte(final Object obj) throws Exception {
+    try {
+      return (byte) GET_BYTE.invokeExact(obj, offset);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public void setByte(final Object obj, final byte value) throws Exception {
+    try {
+      PUT_BYTE.invokeExact(obj, offset, value);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public short getShort(final Object obj) throws Exception {
+    try {
+      return (short) GET_SHORT.invokeExact(obj, offset);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public void setShort(final Object obj, final short value) throws Exception {
+    try {
+      PUT_SHORT.invokeExact(obj, offset, value);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public int getInt(final Object obj) throws Exception {
+    try {
+      return (int) GET_INT.invokeExact(obj, offset);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public void setInt(final Object obj, final int value) throws Exception {
+    try {
+      PUT_INT.invokeExact(obj, offset, value);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public long getLong(final Object obj) throws Exception {
+    try {
+      return (long) GET_LONG.invokeExact(obj, offset);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public void setLong(final Object obj, final long value) throws Exception {
+    try {
+      PUT_LONG.invokeExact(obj, offset, value);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public float getFloat(final Object obj) throws Exception {
+    try {
+      return (float) GET_FLOAT.invokeExact(obj, offset);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public void setFloat(final Object obj, final float value) throws Exception {
+    try {
+      PUT_FLOAT.invokeExact(obj, offset, value);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public double getDouble(final Object obj) throws Exception {
+    try {
+      return (double) GET_DOUBLE.invokeExact(obj, offset);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public void setDouble(final Object obj, final double value) throws Exception {
+    try {
+      PUT_DOUBLE.invokeExact(obj, offset, value);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public char getChar(final Object obj) throws Exception {
+    try {
+      return (char) GET_CHAR.invokeExact(obj, offset);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public void setChar(final Object obj, final char value) throws Exception {
+    try {
+      PUT_CHAR.invokeExact(obj, offset, value);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public boolean getBoolean(final Object obj) throws Exception {
+    try {
+      return (boolean) GET_BOOLEAN.invokeExact(obj, offset);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  @Override
+  public void setBoolean(final Object obj, final boolean value) throws Exception {
+    try {
+      PUT_BOOLEAN.invokeExact(obj, offset, value);
+    } catch (final Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  /**
+   * Get the boxed value of a primitive field, as {@code Field.get()} does.
+   * @param obj the object holding the field.
+   * @return the field value, wrapped in the corresponding wrapper type.
+   * @throws Exception if any error occurs.
+   */
+  private Object getPrimitive(final Object obj) throws Exception {
+    if (type == int.class) return getInt(obj);
+    else if (type == long.class) return getLong(obj);
+    else if (type == boolean.class) return getBoolean(obj);
+    else if (type == double.class) return getDouble(obj);
+    else if (type == float.class) return getFloat(obj);
+    else if (type == byte.class) return getByte(obj);
+    else if (type == short.class) return getShort(obj);
+    return getChar(obj);
+  }
+
+  /**
+   * Set the value of a primitive field from a boxed value, which must be of the corresponding wrapper type.
+   * @param obj the object holding the field.
+   * @param value the value to set.
+   * @throws IllegalArgumentException if the value is not of the wrapper type of the field.
+   * @throws Exception if any other error occurs.
+   */
+  private void setPrimitive(final Object obj, final Object value) throws Exception {
+    if ((type == int.class) && (value instanceof Integer)) setInt(obj, (Integer) value);
+    else if ((type == long.class) && (value instanceof Long)) setLong(obj, (Long) value);
+    else if ((type == boolean.class) && (value instanceof Boolean)) setBoolean(obj, (Boolean) value);
+    else if ((type == double.class) && (value instanceof Double)) setDouble(obj, (Double) value);
+    else if ((type == float.class) && (value instanceof Float)) setFloat(obj, (Float) value);
+    else if ((type == byte.class) && (value instanceof Byte)) setByte(obj, (Byte) value);
+    else if ((type == short.class) && (value instanceof Short)) setShort(obj, (Short) value);
+    else if ((type == char.class) && (value instanceof Character)) setChar(obj, (Character) value);
+    else throw newTypeMismatch(value);
+  }
+
+  /**
+   * Create the exception thrown when a value cannot be assigned to the field, with the same message as {@code Field.set()}.
+   * @param value the value that cannot be assigned.
+   * @return an {@link IllegalArgumentException}.
+   */
+  private IllegalArgumentException newTypeMismatch(final Object value) {
+    return new IllegalArgumentException(String.format("Can not set %s field %s.%s to %s",
+      type.getName(), field.getDeclaringClass().getName(), field.getName(), (value == null) ? "null value" : value.getClass().getName()));
+  }
+
+  /**
+   * Determine whether {@code Unsafe} field accessors can be used in the current JVM.
+   * @return {@code true} if {@code Unsafe} is available, {@code false} otherwise.
+   */
+  static boolean isAvailable() {
+    return AVAILABLE;
+  }
+
+  /**
+   * Convert a throwable raised by a method handle into an exception that can be thrown by the accessor methods.
+   * @param t the throwable to convert.
+   * @return an {@link Exception}.
+   */
+  private static Exception rethrow(final Throwable t) {
+    if (t instanceof Error) throw (Error) t;
+    return (t instanceof Exception) ? (Exception) t : new IllegalStateException(t);
+  }
+
+  /**
+   * Lookup the {@code Unsafe} instance.
+   * @return the {@code sun.misc.Unsafe} instance, or {@code null} if it could not be obtained.
+   */
+  private static Object initUnsafe() {
+    try {
+      final Field f = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+      f.setAccessible(true);
+      return f.get(null);
+    } catch (final Throwable t) {
+      log.warn("sun.misc.Unsafe is not available, falling back to reflection for field access: {}", t.toString());
+      return null;
+    }
+  }
+
+  /**
+   * Find the {@code Unsafe} method that reads a field of the specified type.
+   * @param fieldType the type of the field, either a primitive type or {@code Object}.
+   * @return a method handle bound to the {@code Unsafe} instance, or {@code null} if it cannot be found.
+   */
+  private static MethodHandle findGetter(final Class<?> fieldType) {
+    return findHandle("get" + getMethodSuffix(fieldType), fieldType, Object.class, long.class);
+  }
+
+  /**
+   * Find the {@code Unsafe} method that writes a field of the specified type.
+   * @param fieldType the type of the field, either a primitive type or {@code Object}.
+   * @return a method handle bound to the {@code Unsafe} instance, or {@code null} if it cannot be found.
+   */
+  private static MethodHandle findSetter(final Class<?> fieldType) {
+    return findHandle("put" + getMethodSuffix(fieldType), void.class, Object.class, long.class, fieldType);
+  }
+
+  /**
+   * Get the suffix of the names of the {@code Unsafe} methods that access a field of the specified type.
+   * @param fieldType the type of the field, either a primitive type or {@code Object}.
+   * @return the method name suffix, for instance "Int" for {@code int} fields.
+   */
+  private static String getMethodSuffix(final Class<?> fieldType) {
+    final String name = fieldType.getSimpleName();
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  /**
+   * Find a method of {@code Unsafe} and bind it to the {@code Unsafe} instance.
+   * @param name the name of the method.
+   * @param returnType the return type of the method.
+   * @param paramTypes the types of the method parameters.
+   * @return the bound method handle, or {@code null} if {@code Unsafe} or the method is not available.
+   */
+  private static MethodHandle findHandle(final String name, final Class<?> returnType, final Class<?>...paramTypes) {
+    if (UNSAFE == null) return null;
+    try {
+      return MethodHandles.lookup().findVirtual(UNSAFE.getClass(), name, MethodType.methodType(returnType, paramTypes)).bindTo(UNSAFE);
+    } catch (final Exception e) {
+      log.warn("could not find the method sun.misc.Unsafe.{}(), falling back to reflection for field access: {}", name, e.toString());
+      return null;
+    }
+  }
+}
@@ -0,0 +1,333 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jppf.serialization;
+
+import static org.jppf.utils.stats.JPPFStatisticsHelper.*;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.*;
+
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.jppf.utils.stats.*;
+import org.jppf.utils.streams.JPPFByteArrayOutputStream;
+import org.slf4j.*;
+
+/**
+ * A composite serialization scheme which applies a ZLIB compression/decompression with a preset dictionary to a concrete {@link JPPFSerialization} implementation.
+ * <p>Small payloads which look alike, such as the tasks of a job, compress poorly on their own. A dictionary trained from sample payloads
+ * with {@link CompressionDictionary#train(JPPFSerialization, java.util.Collection, int) CompressionDictionary.train()} provides the common content upfront.
+ * The dictionary is loaded from the path specified with the {@code jppf.serialization.dictionary} property, and the same dictionary must be available to all the JPPF processes.
+ * Without a dictionary, payloads are compressed with plain ZLIB.
+ * <p>In adaptive mode, payloads are sent as is when they are smaller than {@code jppf.serialization.compression.min.size}, when their compressed
+ * size exceeds {@code jppf.serialization.compression.max.ratio} times their raw size, or when compressing them takes longer than sending the bytes saved
+ * at {@code jppf.serialization.compression.bandwidth} MB/s. When recent payloads were not worth compressing, compression is only attempted periodically.
+ * These measures are kept by each instance of this class, so that the payloads of one stream or connection do not disable the compression of the others.
+ * <p>The compression ratio and time are reported in the statistics returned by {@link #getStatistics()}, and in the statistics registered
+ * with {@link #registerStatistics(JPPFStatistics)}, such as those of the driver. They are also available remotely in the drivers and nodes
+ * with {@link org.jppf.management.diagnostics.DiagnosticsMBean#compressionStatistics() DiagnosticsMBean.compressionStatistics()}.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public class ZLIBDictionarySerialization extends JPPFCompositeSerialization {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(ZLIBDictionarySerialization.class);
+  /**
+   * Header of a payload sent as is.
+   */
+  private static final byte STORED = 0;
+  /**
+   * Header of a compressed payload.
+   */
+  private static final byte DEFLATED = 1;
+  /**
+   * When compression is not worth it, it is attempted once every {@code PROBE_INTERVAL} payloads, to detect changes in the payloads.
+   */
+  private static final int PROBE_INTERVAL = 32;
+  /**
+   * Weight of the latest measure in the moving averages of the compression ratio and cost.
+   */
+  private static final double ALPHA = 0.1d;
+  /**
+   * The dictionary used for compression, if any.
+   */
+  private static volatile CompressionDictionary dictionary = loadDictionary();
+  /**
+   * Whether the adaptive mode is enabled.
+   */
+  private static final boolean adaptive = JPPFConfiguration.get(JPPFProperties.SERIALIZATION_COMPRESSION_ADAPTIVE);
+  /**
+   * Minimum size of a compressed payload in adaptive mode.
+   */
+  private static final int minSize = JPPFConfiguration.get(JPPFProperties.SERIALIZATION_COMPRESSION_MIN_SIZE);
+  /**
+   * Maximum ratio of compressed over raw size in adaptive mode.
+   */
+  private static final double maxRatio = JPPFConfiguration.get(JPPFProperties.SERIALIZATION_COMPRESSION_MAX_RATIO);
+  /**
+   * Network bandwidth in bytes per nanosecond, or 0 if the cost of compression is not considered.
+   */
+  private static final double bandwidth = JPPFConfiguration.get(JPPFProperties.SERIALIZATION_COMPRESSION_BANDWIDTH) * 1024d * 1024d / 1e9d;
+  /**
+   * The compression statistics for this JVM.
+   */
+  private static final JPPFStatistics statistics = createCompressionStatistics();
+  /**
+   * Other statistics which also receive the compression values.
+   */
+  private static final List<JPPFStatistics> registeredStatistics = new CopyOnWriteArrayList<>();
+  /**
+   * Incremented each time the dictionary changes, so that each instance resets its measures of the adaptive mode.
+   */
+  private static final AtomicLong dictionaryVersion = new AtomicLong(0L);
+  /**
+   * Moving average of the compression ratio.
+   */
+  private double avgRatio;
+  /**
+   * Moving average of the compression time in nanoseconds per raw byte.
+   */
+  private double avgCost;
+  /**
+   * The dictionary version for which the moving averages were computed.
+   */
+  private long measuredVersion = dictionaryVersion.get();
+  /**
+   * Number of payloads sent without attempting to compress them, because compression was found not to be worth it.
+   */
+  private final AtomicLong skipCount = new AtomicLong(0L);
+
+  @Override
+  public void serialize(final Object o, final OutputStream os) throws Exception {
+    final JPPFByteArrayOutputStream raw = new JPPFByteArrayOutputStream();
+    getDelegate().serialize(o, raw);
+    final int rawSize = raw.size();
+    addValue(COMPRESSION_IN_BYTES, rawSize);
+    byte[] compressed = null;
+    int compressedSize = 0;
+    if (shouldCompress(rawSize)) {
+      final long start = System.nanoTime();
+      final Deflater deflater = new Deflater();
+      try {
+        final CompressionDictionary dict = dictionary;
+        if (dict != null) deflater.setDictionary(dict.getData());
+        deflater.setInput(raw.getBuf(), 0, rawSize);
+        deflater.finish();
+        compressed = new byte[Math.max(64, rawSize / 2)];
+        while (!deflater.finished()) {
+          if (compressedSize == compressed.length) {
+            final byte[] tmp = new byte[2 * compressed.length];
+            System.arraycopy(compressed, 0, tmp, 0, compressedSize);
+            compressed = tmp;
+          }
+          compressedSize += deflater.deflate(compressed, compressedSize, compressed.length - compressedSize);
+        }
+      } finally {
+        deflater.end(); // required to clear the native/JNI buffers
+      }
+      final long elapsed = System.nanoTime() - start;
+      final double ratio = (double) compressedSize / (double) Math.max(1, rawSize);
+      update(ratio, (double) elapsed / (double) Math.max(1, rawSize));
+      addValue(COMPRESSION_TIME, elapsed / 1e6d);
+      addValue(COMPRESSION_RATIO, 100d * ratio);
+      if (adaptive && (ratio > maxRatio)) compressed = null;
+    }
+    if (compressed == null) {
+      addValue(COMPRESSION_SKIPPED, 1);
+      addValue(COMPRESSION_OUT_BYTES, rawSize + 1);
+      os.write(STORED);
+      os.write(raw.getBuf(), 0, rawSize);
+    } else {
+      addValue(COMPRESSION_OUT_BYTES, compressedSize + 9);
+      os.write(DEFLATED);
+      SerializationUtils.writeInt(rawSize, os);
+      SerializationUtils.writeInt(compressedSize, os);
+      os.write(compressed, 0, compressedSize);
+    }
+  }
+
+  @Override
+  public Object deserialize(final InputStream is) throws Exception {
+    final int header = is.read();
+    if (header == STORED) return getDelegate().deserialize(is);
+    else if (header != DEFLATED) throw new StreamCorruptedException("invalid compression header: " + header);
+    final int rawSize = SerializationUtils.readInt(is);
+    final int compressedSize = SerializationUtils.readInt(is);
+    final byte[] compressed = new byte[compressedSize];
+    SerializationUtils.readToBuf(is, compressed, 0, compressedSize);
+    final long start = System.nanoTime();
+    final byte[] raw = new byte[rawSize];
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(compressed);
+      int count = 0;
+      while (count < rawSize) {
+        final int n = inflater.inflate(raw, count, rawSize - count);
+        count += n;
+        if (n > 0) continue;
+        if (inflater.needsDictionary()) {
+          final CompressionDictionary dict = CompressionDictionary.get(inflater.getAdler());
+          if (dict == null) throw new StreamCorruptedException(String.format("the payload was compressed with an unknown dictionary (id = %d)", inflater.getAdler()));
+          inflater.setDictionary(dict.getData());
+        } else {
+          throw new EOFException("could only decompress " + count + " bytes out of " + rawSize);
+        }
+      }
+    } finally {
+      inflater.end(); // required to clear the native/JNI buffers
+    }
+    addValue(DECOMPRESSION_TIME, (System.nanoTime() - start) / 1e6d);
+    return getDelegate().deserialize(new ByteArrayInputStream(raw));
+  }
+
+  /**
+   * Determine whether a payload of the specified size should be compressed.
+   * @param size the raw size of the payload.
+   * @return {@code true} if the payload should be compressed, {@code false} otherwise.
+   */
+  private boolean shouldCompress(final int size) {
+    if (!adaptive) return true;
+    if (size < minSize) return false;
+    if (isWorthCompressing()) return true;
+    return skipCount.incrementAndGet() % PROBE_INTERVAL == 0L;
+  }
+
+  /**
+   * Determine whether recent payloads were worth compressing, based on the moving averages of the compression ratio and cost.
+   * @return {@code true} if the recent payloads were worth compressing, {@code false} otherwise.
+   */
+  private synchronized boolean isWorthCompressing() {
+    checkDictionaryVersion();
+    if (avgRatio > maxRatio) return false;
+    // the time to compress a byte must be less than the time to send the fraction of a byte saved by the compression
+    return (bandwidth <= 0d) || (avgCost < (1d - avgRatio) / bandwidth);
+  }
+
+  /**
+   * Update the moving averages of the compression ratio and cost.
+   * @param ratio the ratio of compressed over raw size for the latest payload.
+   * @param cost the compression time in nanoseconds per raw byte for the latest payload.
+   */
+  private synchronized void update(final double ratio, final double cost) {
+    checkDictionaryVersion();
+    avgRatio = (avgRatio == 0d) ? ratio : ALPHA * ratio + (1d - ALPHA) * avgRatio;
+    avgCost = (avgCost == 0d) ? cost : ALPHA * cost + (1d - ALPHA) * avgCost;
+  }
+
+  /**
+   * Reset the measures of the adaptive mode if the dictionary has changed since they were computed.
+   * This method must be called while holding the lock on this instance.
+   */
+  private void checkDictionaryVersion() {
+    final long version = dictionaryVersion.get();
+    if (version == measuredVersion) return;
+    measuredVersion = version;
+    avgRatio = 0d;
+    avgCost = 0d;
+    skipCount.set(0L);
+  }
+
+  /**
+   * Load the dictionary specified in the configuration, and register it for decompression.
+   * @return the loaded dictionary, or {@code null} if no dictionary is configured or it could not be loaded.
+   */
+  private static CompressionDictionary loadDictionary() {
+    final String path = JPPFConfiguration.get(JPPFProperties.SERIALIZATION_DICTIONARY);
+    if ((path == null) || path.trim().isEmpty()) return null;
+    try {
+      final CompressionDictionary dict = CompressionDictionary.load(path.trim());
+      CompressionDictionary.register(dict);
+      log.info("loaded compression dictionary {} from '{}'", dict, path);
+      return dict;
+    } catch (final Exception e) {
+      log.error("could not load the compression dictionary from '{}', payloads will be compressed without dictionary: {}", path, ExceptionUtils.getStackTrace(e));
+      return null;
+    }
+  }
+
+  /**
+   * Get the dictionary used for compression.
+   * @return a {@link CompressionDictionary}, or {@code null} if payloads are compressed without dictionary.
+   */
+  public static CompressionDictionary getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Set the dictionary used for compression, for instance after training it from sample payloads in this JVM.
+   * The dictionary is also registered for decompression. The other JPPF processes must register it as well before they receive payloads compressed with it.
+   * <p>Since the new dictionary changes the compression ratio, the measures of the adaptive mode are reset in all the instances of this class.
+   * @param dictionary the dictionary to use, or {@code null} to compress without dictionary.
+   */
+  public static void setDictionary(final CompressionDictionary dictionary) {
+    if (dictionary != null) CompressionDictionary.register(dictionary);
+    ZLIBDictionarySerialization.dictionary = dictionary;
+    dictionaryVersion.incrementAndGet();
+  }
+
+  /**
+   * Get the compression statistics for this JVM.
+   * @return a {@link JPPFStatistics} object with the snapshots for the compression ratio and time, the number of payloads sent without compression,
+   * and the number of bytes before and after compression.
+   */
+  public static JPPFStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Register the specified statistics so they also receive the compression values, from now on.
+   * The compression snapshots are created in the specified statistics if they do not already exist.
+   * @param stats the statistics to register.
+   */
+  public static void registerStatistics(final JPPFStatistics stats) {
+    if ((stats == null) || (stats == statistics) || registeredStatistics.contains(stats)) return;
+    registeredStatistics.add(createCompressionSnapshots(stats));
+  }
+
+  /**
+   * Unregister the specified statistics, so they no longer receive the compression values.
+   * @param stats the statistics to unregister.
+   */
+  public static void unregisterStatistics(final JPPFStatistics stats) {
+    if (stats != null) registeredStatistics.remove(stats);
+  }
+
+  /**
+   * Add a value to the compression statistics of this JVM and to the registered statistics.
+   * @param label the label of the snapshot to update.
+   * @param value the value to add.
+   */
+  private static void addValue(final String label, final double value) {
+    statistics.addValue(label, value);
+    for (final JPPFStatistics stats: registeredStatistics) {
+      if (stats.getSnapshot(label) != null) stats.addValue(label, value);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "ZLIB_DICT";
+  }
+}
@@ -20,6 +20,8 @@ package org.jppf.utils;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.*;
 
 import org.jppf.JPPFRuntimeException;
 import org.jppf.utils.configuration.*;
@@ -34,10 +36,22 @@ public abstract class AbstractTypedProperties extends Properties {
    * Explicit serialVersionUID.
    */
   private static final long serialVersionUID = 1L;
+  /**
+   * Atomically updates the modification count, without holding the monitor of this object.
+   */
+  private static final AtomicLongFieldUpdater<AbstractTypedProperties> MODIFICATION_COUNT = AtomicLongFieldUpdater.newUpdater(AbstractTypedProperties.class, "modificationCount");
   /**
    * The default (initial) properties, if any.
    */
   private AbstractTypedProperties initialProps;
+  /**
+   * Incremented each time a property is added, replaced or removed.
+   */
+  private transient volatile long modificationCount;
+  /**
+   * Names of the properties whose changes are not counted in the modification count, or {@code null} to count the changes of all properties.
+   */
+  private transient volatile Set<String> uncountedKeys;
 
   /**
    * Default constructor.
@@ -155,6 +169,141 @@ public abstract class AbstractTypedProperties extends Properties {
     }
   }
 
+  @Override
+  public Object put(final Object key, final Object value) {
+    final Object result = super.put(key, value);
+    modified(key);
+    return result;
+  }
+
+  @Override
+  public void putAll(final Map<?, ?> map) {
+    super.putAll(map);
+    modified();
+  }
+
+  @Override
+  public Object putIfAbsent(final Object key, final Object value) {
+    final Object result = super.putIfAbsent(key, value);
+    if (result == null) modified(key);
+    return result;
+  }
+
+  @Override
+  public Object remove(final Object key) {
+    final Object result = super.remove(key);
+    if (result != null) modified(key);
+    return result;
+  }
+
+  @Override
+  public boolean remove(final Object key, final Object value) {
+    final boolean result = super.remove(key, value);
+    if (result) modified(key);
+    return result;
+  }
+
+  @Override
+  public Object replace(final Object key, final Object value) {
+    final Object result = super.replace(key, value);
+    if (result != null) modified(key);
+    return result;
+  }
+
+  @Override
+  public boolean replace(final Object key, final Object oldValue, final Object newValue) {
+    final boolean result = super.replace(key, oldValue, newValue);
+    if (result) modified(key);
+    return result;
+  }
+
+  @Override
+  public void replaceAll(final BiFunction<? super Object, ? super Object, ?> function) {
+    super.replaceAll(function);
+    modified();
+  }
+
+  @Override
+  public Object computeIfAbsent(final Object key, final Function<? super Object, ?> mappingFunction) {
+    final boolean[] called = { false };
+    final Object result = super.computeIfAbsent(key, k -> {
+      called[0] = true;
+      return mappingFunction.apply(k);
+    });
+    if (called[0]) modified(key);
+    return result;
+  }
+
+  @Override
+  public Object computeIfPresent(final Object key, final BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    final boolean[] called = { false };
+    final Object result = super.computeIfPresent(key, (k, v) -> {
+      called[0] = true;
+      return remappingFunction.apply(k, v);
+    });
+    if (called[0]) modified(key);
+    return result;
+  }
+
+  @Override
+  public Object compute(final Object key, final BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    final Object result = super.compute(key, remappingFunction);
+    modified(key);
+    return result;
+  }
+
+  @Override
+  public Object merge(final Object key, final Object value, final BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    final Object result = super.merge(key, value, remappingFunction);
+    modified(key);
+    return result;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    modified();
+  }
+
+  /**
+   * Increment the modification count after a change to this set of properties.
+   */
+  private void modified() {
+    MODIFICATION_COUNT.incrementAndGet(this);
+  }
+
+  /**
+   * Increment the modification count after a change to the specified property, unless its changes are not counted.
+   * @param key the name of the changed property.
+   */
+  private void modified(final Object key) {
+    final Set<String> uncounted = uncountedKeys;
+    if ((uncounted == null) || !uncounted.contains(key)) modified();
+  }
+
+  /**
+   * Get the number of modifications made to this set of properties since it was created or deserialized.
+   * This can be used as a cheap way to determine whether the properties have changed. All the {@code Map} mutators are counted,
+   * except for changes made through the {@link #keySet()}, {@link #values()} and {@link #entrySet()} views,
+   * and for changes to the properties specified with {@link #setUncountedKeys(Set)}.
+   * @return the number of times a property was added, replaced or removed.
+   * @since 6.3
+   */
+  public long getModificationCount() {
+    return modificationCount;
+  }
+
+  /**
+   * Specify the properties whose changes are not counted in the {@link #getModificationCount() modification count},
+   * for instance because they reflect a frequently changing state rather than a configuration.
+   * @param keys the names of the properties, or {@code null} to count the changes of all properties.
+   * @since 6.3
+   * @exclude
+   */
+  public void setUncountedKeys(final Set<String> keys) {
+    this.uncountedKeys = keys;
+  }
+
   @Override
   public synchronized String toString() {
     final Set<String> set = new TreeSet<>();
@@ -53,4 +53,24 @@ public class CryptoUtils {
     }
     return hash;
   }
+
+  /**
+   * Compute a hash string from an array of bytes.
+   * @param source the bytes from which to compute a hash.
+   * @param algorithm the name of the hash algorithm to use, e.g. "SHA-256".
+   * @return the computed hash as a string of hexadecimal digits, or null if any of the arguments is null or if the hash algorithm is unknown.
+   * @since 6.3
+   */
+  public static String computeHash(final byte[] source, final String algorithm) {
+    String hash = null;
+    if ((source != null) && (algorithm != null)) {
+      try {
+        final MessageDigest digest = MessageDigest.getInstance(algorithm);
+        hash = StringUtils.toHexString(digest.digest(source));
+      } catch (final Exception e) {
+        log.error("error computing {} hash for {} bytes : {}", algorithm, source.length, ExceptionUtils.getStackTrace(e));
+      }
+    }
+    return hash;
+  }
 }
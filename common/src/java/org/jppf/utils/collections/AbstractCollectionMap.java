@@ -194,7 +194,6 @@ public abstract class AbstractCollectionMap<K, V> implements CollectionMap<K, V>
       lock();
       try {
         entryIterator = map.entrySet().iterator();
-        if (entryIterator.hasNext()) listIterator = entryIterator.next().getValue().iterator();
       } finally {
         unlock();
       }
@@ -208,7 +207,7 @@ public abstract class AbstractCollectionMap<K, V> implements CollectionMap<K, V>
     public boolean hasNext() {
       lock();
       try {
-        return entryIterator.hasNext() || ((listIterator != null) && listIterator.hasNext());
+        return advance();
       } finally {
         unlock();
       }
@@ -222,19 +221,26 @@ public abstract class AbstractCollectionMap<K, V> implements CollectionMap<K, V>
     public V next() {
       lock();
       try {
-        if (listIterator != null) {
-          if (listIterator.hasNext()) return listIterator.next();
-          if (entryIterator.hasNext()) {
-            listIterator = entryIterator.next().getValue().iterator();
-            if (listIterator.hasNext()) return listIterator.next();
-          }
-        }
+        if (advance()) return listIterator.next();
         throw new NoSuchElementException("no more element for this iterator");
       } finally {
         unlock();
       }
     }
 
+    /**
+     * Move to the next collection that has an element to visit, skipping the empty collections. Without a lock, a collection
+     * may be found empty before its key is removed from the map, for instance with a {@link ConcurrentLinkedListSortedMap}.
+     * @return {@code true} if there is an element to visit, {@code false} otherwise.
+     */
+    private boolean advance() {
+      while ((listIterator == null) || !listIterator.hasNext()) {
+        if (!entryIterator.hasNext()) return false;
+        listIterator = entryIterator.next().getValue().iterator();
+      }
+      return true;
+    }
+
     /**
      * This operation is not supported and throws an <code>UnsupportedOperationException</code>.
      * @throws UnsupportedOperationException as this operation is not supported.
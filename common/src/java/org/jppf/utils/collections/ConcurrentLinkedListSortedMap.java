@@ -0,0 +1,101 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.utils.collections;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A sorted map whose keys are held in a {@link ConcurrentSkipListMap} and whose values are {@link ConcurrentLinkedDeque} instances.
+ * <p>All read operations, including iteration and {@link #allValues()}, are lock-free and weakly consistent.
+ * Structural modifications which remove an emptied collection from the map are safe as long as the modifications
+ * for the same key are serialized by the caller, which is the case for the driver's job queue.
+ * @param <K> the type of keys in the map.
+ * @param <V> the type of values in the collections mapped to the keys.
+ * @author Laurent Cohen
+ */
+public class ConcurrentLinkedListSortedMap<K, V> extends LinkedListSortedMap<K, V> {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Default constructor.
+   */
+  public ConcurrentLinkedListSortedMap() {
+    super();
+  }
+
+  /**
+   * Initialize this collection sorted map with the specified comparator.
+   * @param comparator comparator used to sort the keys.
+   */
+  public ConcurrentLinkedListSortedMap(final Comparator<K> comparator) {
+    super(comparator);
+  }
+
+  @Override
+  protected Map<K, Collection<V>> createMap() {
+    return comparator == null ? new ConcurrentSkipListMap<>() : new ConcurrentSkipListMap<>(comparator);
+  }
+
+  @Override
+  protected Collection<V> newCollection() {
+    return new ConcurrentLinkedDeque<>();
+  }
+
+  @Override
+  protected Collection<V> createOrGetCollection(final K key) {
+    return ((ConcurrentMap<K, Collection<V>>) map).computeIfAbsent(key, k -> newCollection());
+  }
+
+  @Override
+  public boolean removeValue(final K key, final V value) {
+    final Collection<V> coll = map.get(key);
+    if (coll != null) {
+      final boolean b = coll.remove(value);
+      if (coll.isEmpty()) ((ConcurrentMap<K, Collection<V>>) map).remove(key, coll);
+      return b;
+    }
+    return false;
+  }
+
+  @Override
+  public int size() {
+    int result = 0;
+    for (final Collection<V> coll: map.values()) result += coll.size();
+    return result;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    for (final Collection<V> coll: map.values()) {
+      if (!coll.isEmpty()) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public List<V> allValues() {
+    final List<V> list = new ArrayList<>();
+    for (final Collection<V> coll: map.values()) list.addAll(coll);
+    return list;
+  }
+}
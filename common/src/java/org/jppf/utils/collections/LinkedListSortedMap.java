@@ -58,8 +58,8 @@ public class LinkedListSortedMap<K, V> extends AbstractCollectionSortedMap<K, V>
    * @param value the value to look up.
    */
   public void moveToEndOfList(final K key, final V value) {
-    final LinkedList<V> list = (LinkedList<V>) map.get(key);
-    if ((list == null) || list.isEmpty() || list.getLast().equals(value)) return;
+    final Deque<V> list = (Deque<V>) map.get(key);
+    if ((list == null) || list.isEmpty() || value.equals(list.peekLast())) return;
     list.remove(value);
     list.add(value);
   }
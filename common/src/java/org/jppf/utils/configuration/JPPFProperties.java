@@ -394,7 +394,7 @@ public class JPPFProperties {
   public static final JPPFProperty<String> NOTIFICATION_OFFLOAD_MEMORY_THRESHOLD = new StringProperty("jppf.notification.offload.memory.threshold", "" + (long) (0.8d * Runtime.getRuntime().maxMemory()) + "b" );
   /** Determines the frequency at which the JVM's cpu load is recomputed, in ms. */
   public static final JPPFProperty<Long> CPU_LOAD_COMPUTATION_INTERVAL = new LongProperty("jppf.cpu.load.computation.interval", 1000L);
-  /** Type of thread pool to use in the node: either 'default' or 'org.jppf.server.node.fj.ThreadManagerForkJoin'. */
+  /** Type of thread pool to use in the node: either 'default', 'forkjoin' or 'virtual'. */
   public static final JPPFProperty<String> THREAD_MANAGER_CLASS = new StringProperty("jppf.thread.manager.class", "default");
   /** Internal use. The class of node to instantiate upon node startup. For instance Java and Android nodes use a different class. */
   public static final JPPFProperty<String> NODE_CLASS = new StringProperty("jppf.node.class", "org.jppf.server.node.remote.JPPFRemoteNode");
@@ -458,6 +458,58 @@ public class JPPFProperties {
   public static final JPPFProperty<Integer> JMX_NOTIF_QUEUE_SIZE = new IntProperty("jppf.jmx.notifications.queue.size", JMXHelper.DEFAULT_MAX_NOTIFICATIONS_QUEUE_SIZE);
   /** Whether the client should print connection events to stdout. */
   public static final JPPFProperty<Boolean> CLIENT_SYSOUT_ENABLED = new BooleanProperty("jppf.client.sysout.enabled", true);
+  /** Whether the driver's job queue uses concurrent data structures, allowing lock-free lookups of the queued jobs. */
+  public static final JPPFProperty<Boolean> JOB_QUEUE_CONCURRENT = new BooleanProperty("jppf.job.queue.concurrent", false);
+  /** Whether the driver indexes idle nodes by the values of the properties referenced in the jobs' execution policies. */
+  public static final JPPFProperty<Boolean> NODE_MATCHING_INDEXED = new BooleanProperty("jppf.node.matching.indexed", true);
+  /** Whether execution policies are compiled into a faster form which memoizes their results for each node. */
+  public static final JPPFProperty<Boolean> POLICY_COMPILATION_ENABLED = new BooleanProperty("jppf.policy.compilation.enabled", true);
+  /** Maximum total size in bytes of the resources held in the driver's class cache. */
+  public static final JPPFProperty<Long> CLASS_CACHE_MAX_SIZE = new LongProperty("jppf.class.cache.max.size", 128L * 1024L * 1024L, 0L, Long.MAX_VALUE);
+  /** Whether the content of the resources held in the driver's class cache is stored outside of the heap. */
+  public static final JPPFProperty<Boolean> CLASS_CACHE_OFFHEAP = new BooleanProperty("jppf.class.cache.offheap", false);
+  /** Maximum total size in bytes of the class definitions a node keeps by hash, to avoid downloading identical content loaded by different clients. 0 disables this cache. */
+  public static final JPPFProperty<Long> CLASSLOADER_DEDUP_CACHE_SIZE = new LongProperty("jppf.classloader.dedup.cache.size", 32L * 1024L * 1024L, 0L, Long.MAX_VALUE);
+  /** Whether the class definitions a node keeps by hash are also stored on the file system, such that they survive node restarts. */
+  public static final JPPFProperty<Boolean> CLASSLOADER_PERSISTENT_CACHE_ENABLED = new BooleanProperty("jppf.classloader.persistent.cache.enabled", false);
+  /** Directory where the class definitions are persisted, defaults to 'class-store' under the JPPF temp directory. */
+  public static final JPPFProperty<String> CLASSLOADER_PERSISTENT_CACHE_DIR = new StringProperty("jppf.classloader.persistent.cache.dir", null);
+  /** Maximum total size in bytes of the persisted class definitions. */
+  public static final JPPFProperty<Long> CLASSLOADER_PERSISTENT_CACHE_SIZE = new LongProperty("jppf.classloader.persistent.cache.size", 256L * 1024L * 1024L, 0L, Long.MAX_VALUE);
+  /** Whether file-backed data is transferred directly between files and sockets with {@code FileChannel.transferTo()/transferFrom()}, without being copied through the heap. */
+  public static final JPPFProperty<Boolean> ZERO_COPY_ENABLED = new BooleanProperty("jppf.zero.copy.enabled", true);
+  /** Whether the data received by the NIO servers is stored in pooled direct buffers rather than in the heap. */
+  public static final JPPFProperty<Boolean> NIO_DIRECT_BUFFERS_ENABLED = new BooleanProperty("jppf.nio.direct.buffers.enabled", false);
+  /** Maximum total size in bytes of the pooled direct buffers used by the NIO servers. */
+  public static final JPPFProperty<Long> NIO_DIRECT_BUFFERS_MAX_SIZE = new LongProperty("jppf.nio.direct.buffers.max.size", 256L * 1024L * 1024L, 0L, Long.MAX_VALUE);
+  /** Whether a node sends the result of each task as soon as it completes, rather than with the results of the whole bundle. */
+  public static final JPPFProperty<Boolean> NODE_RESULTS_STREAMING_ENABLED = new BooleanProperty("jppf.node.results.streaming.enabled", false);
+  /** How the JPPF serialization reads and writes the fields of serialized objects, either 'reflection' or 'unsafe'. */
+  public static final JPPFProperty<String> SERIALIZATION_FIELD_ACCESSOR = new StringProperty("jppf.serialization.field.accessor", "reflection").setPossibleValues("reflection", "unsafe");
+  /** Number of threads used by the client to serialize the tasks of a job in parallel, while they are sent to the driver. 1 means sequential serialization. */
+  public static final JPPFProperty<Integer> CLIENT_SERIALIZATION_PARALLELISM = new IntProperty("jppf.client.serialization.parallelism", 1, 1, 1024);
+  /** Path to the preset dictionary used by the 'ZLIB_DICT' composite serialization, looked up in the file system then in the classpath. */
+  public static final JPPFProperty<String> SERIALIZATION_DICTIONARY = new StringProperty("jppf.serialization.dictionary", null);
+  /** Whether the 'ZLIB_DICT' composite serialization skips the compression of payloads that are too small, do not compress well or are too costly to compress. */
+  public static final JPPFProperty<Boolean> SERIALIZATION_COMPRESSION_ADAPTIVE = new BooleanProperty("jppf.serialization.compression.adaptive", true);
+  /** Minimum size in bytes of a payload compressed in adaptive mode. */
+  public static final JPPFProperty<Integer> SERIALIZATION_COMPRESSION_MIN_SIZE = new IntProperty("jppf.serialization.compression.min.size", 64, 0, Integer.MAX_VALUE);
+  /** Maximum ratio of compressed size over raw size for which the compressed form of a payload is used in adaptive mode. */
+  public static final JPPFProperty<Double> SERIALIZATION_COMPRESSION_MAX_RATIO = new DoubleProperty("jppf.serialization.compression.max.ratio", 0.9d, 0d, 1d);
+  /** Network bandwidth in MB/s against which the CPU cost of compression is weighed in adaptive mode. 0 means the CPU cost is not considered. */
+  public static final JPPFProperty<Double> SERIALIZATION_COMPRESSION_BANDWIDTH = new DoubleProperty("jppf.serialization.compression.bandwidth", 0d, 0d, Double.MAX_VALUE);
+  /** Interval in milliseconds at which the proportional and cost model load-balancers recompute their global state in the background. 0 means it is recomputed upon each feedback. */
+  public static final JPPFProperty<Long> LOAD_BALANCING_REFRESH_INTERVAL = new LongProperty("jppf.load.balancing.refresh.interval", 50L, 0L, Long.MAX_VALUE);
+  /** Maximum number of tasks executing concurrently with the 'virtual' thread manager. 0 or less means the number of processing threads is used. */
+  public static final JPPFProperty<Integer> THREAD_MANAGER_VIRTUAL_CONCURRENCY = new IntProperty("jppf.thread.manager.virtual.concurrency", 0);
+  /** Whether the asynchronous job persistence coalesces the pending stores of each job into a single store, and discards them when the job is deleted. */
+  public static final JPPFProperty<Boolean> JOB_PERSISTENCE_WRITE_BEHIND = new BooleanProperty("jppf.job.persistence.write.behind", false);
+  /** Maximum total size in bytes of the job elements pending in write-behind mode, above which store requests wait for pending elements to be written. */
+  public static final JPPFProperty<Long> JOB_PERSISTENCE_WRITE_BEHIND_MAX_SIZE = new LongProperty("jppf.job.persistence.write.behind.max.size", 64L * 1024L * 1024L, 0L, Long.MAX_VALUE);
+  /** Whether the tasks of the jobs recovered from the persistence store at driver startup are only loaded when they are dispatched to a node. */
+  public static final JPPFProperty<Boolean> JOB_PERSISTENCE_LAZY_LOAD = new BooleanProperty("jppf.job.persistence.lazy.load", false);
+  /** Maximum number of tasks of a recovered job loaded at once from the persistence store, when the tasks are loaded lazily. */
+  public static final JPPFProperty<Integer> JOB_PERSISTENCE_LAZY_LOAD_BATCH_SIZE = new IntProperty("jppf.job.persistence.lazy.load.batch.size", 100, 1, Integer.MAX_VALUE);
   /** The list of all predefined properties. */
   private static List<JPPFProperty<?>> properties;
 
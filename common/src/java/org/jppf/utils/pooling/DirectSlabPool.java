@@ -0,0 +1,272 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.utils.pooling;
+
+import java.lang.ref.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * A pool of fixed-size direct byte buffers, or slabs, which are handed out in sets holding a block of data of arbitrary size.
+ * <p>Each set of slabs is reference counted: it is returned to the pool when its count reaches zero. A set which becomes
+ * unreachable without having been fully released is also returned to the pool, once it has been garbage collected.
+ * <p>The total size of the slabs created by this pool is bounded by the {@code jppf.nio.direct.buffers.max.size} configuration property.
+ * @author Laurent Cohen
+ * @since 6.3
+ * @exclude
+ */
+public final class DirectSlabPool {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(DirectSlabPool.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The size of each slab.
+   */
+  public static final int SLAB_SIZE = 64 * 1024;
+  /**
+   * The default pool, configured from the JPPF configuration.
+   */
+  private static final DirectSlabPool DEFAULT = new DirectSlabPool(JPPFConfiguration.get(JPPFProperties.NIO_DIRECT_BUFFERS_MAX_SIZE));
+  /**
+   * The slabs available for reuse.
+   */
+  private final Queue<ByteBuffer> available = new ConcurrentLinkedQueue<>();
+  /**
+   * The maximum total size of the slabs created by this pool.
+   */
+  private final long maxSize;
+  /**
+   * The total size of the slabs created by this pool.
+   */
+  private final AtomicLong allocatedSize = new AtomicLong(0L);
+  /**
+   * Queue of the sets of slabs which were garbage collected.
+   */
+  private final ReferenceQueue<Slabs> reclaimQueue = new ReferenceQueue<>();
+  /**
+   * Keeps the reclaimers reachable until they are processed.
+   */
+  private final Set<Reclaimer> reclaimers = ConcurrentHashMap.newKeySet();
+  /**
+   * The number of sets of slabs returned to the pool after being garbage collected.
+   */
+  private final AtomicLong gcReclaimed = new AtomicLong(0L);
+
+  /**
+   * Initialize this pool with the specified maximum size.
+   * @param maxSize the maximum total size of the slabs created by this pool.
+   */
+  public DirectSlabPool(final long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Get the default pool.
+   * @return a {@link DirectSlabPool} instance.
+   */
+  public static DirectSlabPool getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Obtain a set of slabs large enough to hold the specified number of bytes.
+   * @param size the number of bytes to hold.
+   * @return a set of slabs, or {@code null} if it would exceed the maximum size of the pool.
+   */
+  public Slabs allocate(final int size) {
+    reclaimCollected();
+    final int nbSlabs = Math.max(1, (size + SLAB_SIZE - 1) / SLAB_SIZE);
+    final ByteBuffer[] buffers = new ByteBuffer[nbSlabs];
+    int i = 0;
+    while (i < nbSlabs) {
+      ByteBuffer buffer = available.poll();
+      if (buffer == null) {
+        if (allocatedSize.addAndGet(SLAB_SIZE) > maxSize) {
+          allocatedSize.addAndGet(-SLAB_SIZE);
+          if (debugEnabled) log.debug("could not allocate {} bytes, maximum size of {} bytes reached", size, maxSize);
+          for (int j=0; j<i; j++) release(buffers[j]);
+          return null;
+        }
+        try {
+          buffer = ByteBuffer.allocateDirect(SLAB_SIZE);
+        } catch (final OutOfMemoryError e) {
+          allocatedSize.addAndGet(-SLAB_SIZE);
+          if (debugEnabled) log.debug("could not allocate direct buffer", e);
+          for (int j=0; j<i; j++) release(buffers[j]);
+          return null;
+        }
+      }
+      buffers[i++] = buffer;
+    }
+    return new Slabs(this, buffers);
+  }
+
+  /**
+   * Return a slab to the pool.
+   * @param buffer the slab to return.
+   */
+  private void release(final ByteBuffer buffer) {
+    buffer.clear();
+    available.offer(buffer);
+  }
+
+  /**
+   * Return the slabs of the sets which were garbage collected without being fully released.
+   */
+  private void reclaimCollected() {
+    Reference<? extends Slabs> ref;
+    while ((ref = reclaimQueue.poll()) != null) {
+      final Reclaimer reclaimer = (Reclaimer) ref;
+      if (reclaimer.reclaim()) gcReclaimed.incrementAndGet();
+    }
+  }
+
+  /**
+   * Get the total size of the slabs created by this pool.
+   * @return the size in bytes.
+   */
+  public long getAllocatedSize() {
+    return allocatedSize.get();
+  }
+
+  /**
+   * Get the total size of the slabs available for reuse.
+   * @return the size in bytes.
+   */
+  public long getAvailableSize() {
+    return (long) available.size() * SLAB_SIZE;
+  }
+
+  /**
+   * Get the number of sets of slabs that were returned to the pool after being garbage collected, rather than explicitly released.
+   * @return the number of reclaimed sets.
+   */
+  public long getGcReclaimedCount() {
+    return gcReclaimed.get();
+  }
+
+  /**
+   * A reference-counted set of slabs.
+   */
+  public static final class Slabs {
+    /**
+     * The slabs in this set.
+     */
+    private final ByteBuffer[] buffers;
+    /**
+     * The reference count.
+     */
+    private final AtomicInteger refCount = new AtomicInteger(1);
+    /**
+     * Returns the slabs to the pool.
+     */
+    private final Reclaimer reclaimer;
+
+    /**
+     * @param pool the pool which provides the slabs.
+     * @param buffers the slabs in this set.
+     */
+    private Slabs(final DirectSlabPool pool, final ByteBuffer[] buffers) {
+      this.buffers = buffers;
+      this.reclaimer = new Reclaimer(this, pool, buffers);
+    }
+
+    /**
+     * Get a view of the slab at the specified index. The view has its own position and limit, initially set to 0 and the capacity of the slab.
+     * @param index the index of the slab.
+     * @return a view of the slab as a {@link ByteBuffer}.
+     */
+    public ByteBuffer view(final int index) {
+      return buffers[index].duplicate();
+    }
+
+    /**
+     * Get the number of slabs in this set.
+     * @return the number of slabs.
+     */
+    public int size() {
+      return buffers.length;
+    }
+
+    /**
+     * Increment the reference count.
+     * @return this set of slabs.
+     */
+    public Slabs retain() {
+      refCount.incrementAndGet();
+      return this;
+    }
+
+    /**
+     * Decrement the reference count, and return the slabs to the pool when it reaches zero.
+     */
+    public void release() {
+      if (refCount.decrementAndGet() == 0) reclaimer.reclaim();
+    }
+  }
+
+  /**
+   * Returns the slabs of a set to the pool, either when the set is released or when it is garbage collected.
+   */
+  private static final class Reclaimer extends PhantomReference<Slabs> {
+    /**
+     * The pool to which to return the slabs.
+     */
+    private final DirectSlabPool pool;
+    /**
+     * The slabs to return, set to {@code null} once they are returned.
+     */
+    private final AtomicReference<ByteBuffer[]> buffers;
+
+    /**
+     * @param slabs the set of slabs.
+     * @param pool the pool to which to return the slabs.
+     * @param buffers the slabs to return.
+     */
+    private Reclaimer(final Slabs slabs, final DirectSlabPool pool, final ByteBuffer[] buffers) {
+      super(slabs, pool.reclaimQueue);
+      this.pool = pool;
+      this.buffers = new AtomicReference<>(buffers);
+      pool.reclaimers.add(this);
+    }
+
+    /**
+     * Return the slabs to the pool, unless they were already returned.
+     * @return {@code true} if the slabs were returned, {@code false} if they had already been returned.
+     */
+    private boolean reclaim() {
+      pool.reclaimers.remove(this);
+      final ByteBuffer[] array = buffers.getAndSet(null);
+      if (array == null) return false;
+      for (final ByteBuffer buffer: array) pool.release(buffer);
+      return true;
+    }
+  }
+}
@@ -157,6 +157,61 @@ public final class JPPFStatisticsHelper {
    * Bytes sent to unidentified remote peers.
    */
   public static final String UNKNOWN_OUT_TRAFFIC = "unknwon.traffic.out";
+  /**
+   * Number of lookups which found the requested resource in the driver's class cache.
+   * @since 6.3
+   */
+  public static final String CLASS_CACHE_HITS = "class.cache.hits";
+  /**
+   * Number of lookups which did not find the requested resource in the driver's class cache.
+   * @since 6.3
+   */
+  public static final String CLASS_CACHE_MISSES = "class.cache.misses";
+  /**
+   * Number of resources evicted from the driver's class cache.
+   * @since 6.3
+   */
+  public static final String CLASS_CACHE_EVICTIONS = "class.cache.evictions";
+  /**
+   * Total size in bytes of the resources held in the driver's class cache.
+   * @since 6.3
+   */
+  public static final String CLASS_CACHE_BYTES = "class.cache.bytes";
+  /**
+   * Number of dispatches of copies of tasks still executing on other nodes.
+   * @since 6.3
+   */
+  public static final String SPECULATIVE_DISPATCHES = "speculative.dispatches";
+  /**
+   * Size of the compressed payloads as a percentage of their raw size.
+   * @since 6.3
+   */
+  public static final String COMPRESSION_RATIO = "compression.ratio";
+  /**
+   * Time in milliseconds spent compressing payloads.
+   * @since 6.3
+   */
+  public static final String COMPRESSION_TIME = "compression.time";
+  /**
+   * Time in milliseconds spent decompressing payloads.
+   * @since 6.3
+   */
+  public static final String DECOMPRESSION_TIME = "decompression.time";
+  /**
+   * Number of payloads sent without compression.
+   * @since 6.3
+   */
+  public static final String COMPRESSION_SKIPPED = "compression.skipped";
+  /**
+   * Raw size in bytes of the payloads submitted for compression.
+   * @since 6.3
+   */
+  public static final String COMPRESSION_IN_BYTES = "compression.bytes.in";
+  /**
+   * Size in bytes of the payloads after compression, including those sent without compression.
+   * @since 6.3
+   */
+  public static final String COMPRESSION_OUT_BYTES = "compression.bytes.out";
 
   /**
    * Determine wether the specified snapshot is a single value snapshot.
@@ -233,9 +288,31 @@ public final class JPPFStatisticsHelper {
       .forEach(listener -> statistics.addListener(listener, listener.getFilter()));
     statistics.createSnapshots(false, EXECUTION, NODE_EXECUTION, TRANSPORT_TIME, TASK_QUEUE_TIME, JOB_TIME, JOB_TASKS, JOB_DISPATCH_TIME, JOB_DISPATCH_TASKS, DISPATCH_PER_JOB_COUNT, TASK_DISPATCH,
         NODE_CLASS_REQUESTS_TIME, CLIENT_CLASS_REQUESTS_TIME);
-    statistics.createSnapshots(true, TASK_QUEUE_COUNT, JOB_COUNT, JOB_DISPATCH_COUNT, NODES, IDLE_NODES, CLIENTS);
+    statistics.createSnapshots(true, TASK_QUEUE_COUNT, JOB_COUNT, JOB_DISPATCH_COUNT, NODES, IDLE_NODES, CLIENTS, CLASS_CACHE_BYTES);
     statistics.createSingleValueSnapshots(TASK_QUEUE_TOTAL, JOB_TOTAL, JOB_DISPATCH_TOTAL, NODE_IN_TRAFFIC, NODE_OUT_TRAFFIC, CLIENT_IN_TRAFFIC, CLIENT_OUT_TRAFFIC,
-        PEER_IN_TRAFFIC, PEER_OUT_TRAFFIC, JMX_IN_TRAFFIC, JMX_OUT_TRAFFIC, UNKNOWN_IN_TRAFFIC, UNKNOWN_OUT_TRAFFIC);
+        PEER_IN_TRAFFIC, PEER_OUT_TRAFFIC, JMX_IN_TRAFFIC, JMX_OUT_TRAFFIC, UNKNOWN_IN_TRAFFIC, UNKNOWN_OUT_TRAFFIC,
+        CLASS_CACHE_HITS, CLASS_CACHE_MISSES, CLASS_CACHE_EVICTIONS, SPECULATIVE_DISPATCHES);
+    return statistics;
+  }
+
+  /**
+   * Create a statistics object initialized with all the compression snapshots.
+   * @return a {@link JPPFStatistics} instance.
+   * @exclude
+   */
+  public static JPPFStatistics createCompressionStatistics() {
+    return createCompressionSnapshots(new JPPFStatistics());
+  }
+
+  /**
+   * Create the compression snapshots in the specified statistics object, if they don't exist.
+   * @param statistics the statistics in which to create the snapshots.
+   * @return the specified statistics.
+   * @exclude
+   */
+  public static JPPFStatistics createCompressionSnapshots(final JPPFStatistics statistics) {
+    statistics.createSnapshots(false, COMPRESSION_RATIO, COMPRESSION_TIME, DECOMPRESSION_TIME);
+    statistics.createSingleValueSnapshots(COMPRESSION_SKIPPED, COMPRESSION_IN_BYTES, COMPRESSION_OUT_BYTES);
     return statistics;
   }
 }
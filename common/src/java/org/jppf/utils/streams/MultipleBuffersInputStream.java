@@ -69,12 +69,14 @@ public class MultipleBuffersInputStream extends InputStream {
    */
   @Override
   public int read() throws IOException {
-    if (eofReached) return -1;
-    if ((currentBuffer == null) || (currentBuffer.length - currentBuffer.pos < 1)) nextBuffer();
+    while ((currentBuffer == null) || (currentBuffer.length - currentBuffer.pos < 1)) {
+      if (eofReached) return -1;
+      nextBuffer();
+    }
     final byte b = currentBuffer.buffer[currentBuffer.pos];
     currentBuffer.pos++;
     if (traceEnabled) log.trace("read one byte '" + b + "' from " + this);
-    return b;
+    return b & 0xFF;
   }
 
   /**
@@ -101,7 +103,7 @@ public class MultipleBuffersInputStream extends InputStream {
         currentBuffer.pos += n;
       }
     }
-    return count;
+    return ((count == 0) && (len > 0) && eofReached) ? -1 : count;
   }
 
   /**
@@ -22,7 +22,8 @@ import static org.jppf.jmx.JMXHelper.*;
 
 import java.io.*;
 import java.nio.channels.*;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import javax.management.*;
 
@@ -32,6 +33,10 @@ import org.slf4j.*;
 
 /**
  * Implementation of the {@link MBeanServerConnection} interface for JPPF JMX remote connectors.
+ * <p>The asynchronous methods, such as {@link #getAttributeAsync(ObjectName, String)} or {@link #invokeAsync(ObjectName, String, Object[], String[])},
+ * give no guarantee on the order in which the remote MBean server executes the requests, even for requests sent from the same thread or in the same call:
+ * the requests received on a connection are executed concurrently. When a request depends on the outcome of another, for instance an operation
+ * which must see the value of a previously set attribute, it must only be sent once the future of the other request is complete.
  * @author Laurent Cohen
  */
 public class JPPFMBeanServerConnection implements MBeanServerConnection, Closeable {
@@ -377,6 +382,69 @@ public class JPPFMBeanServerConnection implements MBeanServerConnection, Closeab
     }
   }
 
+  /**
+   * Get the value of an MBean attribute without waiting for the response.
+   * <br>The requests sent asynchronously may be executed in any order, see the {@link JPPFMBeanServerConnection class description}.
+   * @param name the name of the MBean.
+   * @param attribute the name of the attribute to retrieve.
+   * @return a {@link CompletableFuture} completed with the value of the attribute, or exceptionally with the exception raised by the request.
+   * @since 6.3
+   */
+  public CompletableFuture<Object> getAttributeAsync(final ObjectName name, final String attribute) {
+    return messageHandler.sendRequestAsync(GET_ATTRIBUTE, name, attribute);
+  }
+
+  /**
+   * Get the value of the same attribute for multiple MBeans, with all the requests sent at once and without waiting for the responses.
+   * <br>The requests are not necessarily executed in the order of the names, see the {@link JPPFMBeanServerConnection class description}.
+   * @param names the names of the MBeans.
+   * @param attribute the name of the attribute to retrieve.
+   * @return a list of {@link CompletableFuture}s completed with the value of the attribute for each MBean, in the same order as the names.
+   * @since 6.3
+   */
+  public List<CompletableFuture<Object>> getAttributeAsync(final List<ObjectName> names, final String attribute) {
+    final List<Object[]> paramsList = new ArrayList<>(names.size());
+    for (final ObjectName name: names) paramsList.add(new Object[] { name, attribute });
+    return messageHandler.sendRequestsAsync(GET_ATTRIBUTE, paramsList);
+  }
+
+  /**
+   * Set the value of an MBean attribute without waiting for the response.
+   * <br>A request sent after this one without waiting for the returned future may be executed before the attribute is set,
+   * see the {@link JPPFMBeanServerConnection class description}.
+   * @param name the name of the MBean.
+   * @param attribute the identification of the attribute to set and the value it is to be set to.
+   * @return a {@link CompletableFuture} completed when the attribute is set, or exceptionally with the exception raised by the request.
+   * @since 6.3
+   */
+  public CompletableFuture<Void> setAttributeAsync(final ObjectName name, final Attribute attribute) {
+    return messageHandler.sendRequestAsync(SET_ATTRIBUTE, name, attribute).thenApply(result -> null);
+  }
+
+  /**
+   * Invoke an operation on an MBean without waiting for the response.
+   * <br>The requests sent asynchronously may be executed in any order, see the {@link JPPFMBeanServerConnection class description}.
+   * @param name the name of the MBean.
+   * @param operationName the name of the operation to invoke.
+   * @param params the parameters of the operation.
+   * @param signature the signature of the operation.
+   * @return a {@link CompletableFuture} completed with the result of the operation, or exceptionally with the exception raised by the request.
+   * @since 6.3
+   */
+  public CompletableFuture<Object> invokeAsync(final ObjectName name, final String operationName, final Object[] params, final String[] signature) {
+    return messageHandler.sendRequestAsync(INVOKE, name, operationName, params, signature);
+  }
+
+  /**
+   * Determine whether an MBean is registered, without waiting for the response.
+   * @param name the name of the MBean.
+   * @return a {@link CompletableFuture} completed with {@code true} if the MBean is registered, {@code false} otherwise.
+   * @since 6.3
+   */
+  public CompletableFuture<Boolean> isRegisteredAsync(final ObjectName name) {
+    return messageHandler.sendRequestAsync(IS_REGISTERED, name).thenApply(result -> (Boolean) result);
+  }
+
   /**
    * @return the message handler.
    */
@@ -0,0 +1,466 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.jmxremote.message;
+
+import static org.jppf.jmx.JMXHelper.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import javax.management.*;
+
+import org.jppf.io.*;
+import org.jppf.management.ObjectNameCache;
+import org.jppf.serialization.ObjectSerializer;
+import org.jppf.utils.JPPFBuffer;
+import org.jppf.utils.streams.JPPFByteArrayOutputStream;
+
+/**
+ * Encodes and decodes the JMX messages exchanged by the jmxremote-nio connector.
+ * <p>A frame sent over the network is made of the number of messages it holds, followed by each message. The most frequent requests, that is
+ * {@code getAttribute()}, {@code setAttribute()}, {@code invoke()} and {@code isRegistered()}, along with all the responses, are written in a compact
+ * binary form, where only the attribute values, operation parameters and results that are neither {@code null}, a primitive wrapper,
+ * a {@code String}, a {@code String[]} nor an {@code ObjectName} are serialized. All other messages are serialized as a whole.
+ * @author Laurent Cohen
+ * @since 6.3
+ * @exclude
+ */
+public final class JMXMessageCodec {
+  /**
+   * Format of a message serialized as a whole.
+   */
+  private static final byte SERIALIZED = 0;
+  /**
+   * Format of a request written in binary form.
+   */
+  private static final byte BINARY_REQUEST = 1;
+  /**
+   * Format of a response written in binary form.
+   */
+  private static final byte BINARY_RESPONSE = 2;
+  /**
+   * Type tag for a {@code null} value.
+   */
+  private static final byte NULL = 0;
+  /**
+   * Type tag for a {@code String} value.
+   */
+  private static final byte STRING = 1;
+  /**
+   * Type tag for an {@code Integer} value.
+   */
+  private static final byte INT = 2;
+  /**
+   * Type tag for a {@code Long} value.
+   */
+  private static final byte LONG = 3;
+  /**
+   * Type tag for a {@code Boolean} value.
+   */
+  private static final byte BOOLEAN = 4;
+  /**
+   * Type tag for a {@code Double} value.
+   */
+  private static final byte DOUBLE = 5;
+  /**
+   * Type tag for a {@code Float} value.
+   */
+  private static final byte FLOAT = 6;
+  /**
+   * Type tag for a {@code Short} value.
+   */
+  private static final byte SHORT = 7;
+  /**
+   * Type tag for a {@code Byte} value.
+   */
+  private static final byte BYTE = 8;
+  /**
+   * Type tag for a {@code Character} value.
+   */
+  private static final byte CHAR = 9;
+  /**
+   * Type tag for an {@code ObjectName} value.
+   */
+  private static final byte OBJECT_NAME = 10;
+  /**
+   * Type tag for a {@code String[]} value.
+   */
+  private static final byte STRING_ARRAY = 11;
+  /**
+   * Type tag for a value serialized with the default serializer.
+   */
+  private static final byte OBJECT = 12;
+
+  /**
+   * Instantiation of this class is not permitted.
+   */
+  private JMXMessageCodec() {
+  }
+
+  /**
+   * Encode the specified message.
+   * @param message the message to encode.
+   * @return a {@link JPPFBuffer} holding the encoded message.
+   * @throws Exception if any error occurs.
+   */
+  public static JPPFBuffer encode(final JMXMessage message) throws Exception {
+    final JPPFByteArrayOutputStream baos = new JPPFByteArrayOutputStream(256);
+    try (final DataOutputStream out = new DataOutputStream(baos)) {
+      if ((message instanceof JMXRequest) && isBinaryRequest(message.getMessageType())) writeRequest(out, (JMXRequest) message);
+      else if ((message instanceof JMXResponse) && (message.getMessageType() != CONNECT)) writeResponse(out, (JMXResponse) message);
+      else {
+        out.writeByte(SERIALIZED);
+        writeSerialized(out, message);
+      }
+    }
+    return new JPPFBuffer(baos.getBuf(), baos.size());
+  }
+
+  /**
+   * Create a frame made of the specified encoded messages.
+   * @param messages the encoded messages to put in the frame.
+   * @return a {@link DataLocation} holding the frame.
+   */
+  public static DataLocation frame(final List<JPPFBuffer> messages) {
+    final byte[] header = new byte[4];
+    final int n = messages.size();
+    header[0] = (byte) (n >>> 24);
+    header[1] = (byte) (n >>> 16);
+    header[2] = (byte) (n >>> 8);
+    header[3] = (byte) n;
+    final List<JPPFBuffer> buffers = new ArrayList<>();
+    buffers.add(new JPPFBuffer(header));
+    int size = header.length;
+    for (final JPPFBuffer buffer: messages) {
+      buffers.add(buffer);
+      size += buffer.length;
+    }
+    return new MultipleBuffersLocation(buffers, size);
+  }
+
+  /**
+   * Decode all the messages in the specified frame.
+   * @param frame the frame to decode.
+   * @return a list of {@link JMXMessage} objects, in the order in which they were written.
+   * @throws Exception if any error occurs.
+   */
+  public static List<JMXMessage> decode(final DataLocation frame) throws Exception {
+    try (final DataInputStream in = new DataInputStream(frame.getInputStream())) {
+      final int n = in.readInt();
+      final List<JMXMessage> messages = new ArrayList<>(n);
+      for (int i=0; i<n; i++) {
+        final byte format = in.readByte();
+        switch(format) {
+          case SERIALIZED: messages.add((JMXMessage) readSerialized(in));
+            break;
+          case BINARY_REQUEST: messages.add(readRequest(in));
+            break;
+          case BINARY_RESPONSE: messages.add(readResponse(in));
+            break;
+          default: throw new StreamCorruptedException("unknown message format " + format);
+        }
+      }
+      return messages;
+    }
+  }
+
+  /**
+   * Determine whether the requests of the specified type are written in binary form.
+   * @param type the type of request.
+   * @return {@code true} if the requests are written in binary form, {@code false} otherwise.
+   */
+  private static boolean isBinaryRequest(final byte type) {
+    return (type == GET_ATTRIBUTE) || (type == SET_ATTRIBUTE) || (type == INVOKE) || (type == IS_REGISTERED);
+  }
+
+  /**
+   * Write a request in binary form.
+   * @param out the stream to write to.
+   * @param request the request to write.
+   * @throws Exception if any error occurs.
+   */
+  private static void writeRequest(final DataOutputStream out, final JMXRequest request) throws Exception {
+    final Object[] p = request.getParams();
+    out.writeByte(BINARY_REQUEST);
+    out.writeLong(request.getMessageID());
+    out.writeByte(request.getMessageType());
+    writeObjectName(out, (ObjectName) p[0]);
+    switch(request.getMessageType()) {
+      case GET_ATTRIBUTE: writeString(out, (String) p[1]);
+        break;
+      case SET_ATTRIBUTE:
+        final Attribute attribute = (Attribute) p[1];
+        if (attribute == null) out.writeBoolean(false);
+        else {
+          out.writeBoolean(true);
+          writeString(out, attribute.getName());
+          writeValue(out, attribute.getValue());
+        }
+        break;
+      case INVOKE:
+        writeString(out, (String) p[1]);
+        final Object[] params = (Object[]) p[2];
+        out.writeInt((params == null) ? -1 : params.length);
+        if (params != null) {
+          for (final Object o: params) writeValue(out, o);
+        }
+        writeStrings(out, (String[]) p[3]);
+        break;
+    }
+  }
+
+  /**
+   * Read a request written in binary form.
+   * @param in the stream to read from.
+   * @return the request that was read.
+   * @throws Exception if any error occurs.
+   */
+  private static JMXRequest readRequest(final DataInputStream in) throws Exception {
+    final long messageID = in.readLong();
+    final byte type = in.readByte();
+    final ObjectName name = readObjectName(in);
+    switch(type) {
+      case GET_ATTRIBUTE: return new JMXRequest(messageID, type, name, readString(in));
+      case SET_ATTRIBUTE:
+        final Attribute attribute = in.readBoolean() ? new Attribute(readString(in), readValue(in)) : null;
+        return new JMXRequest(messageID, type, name, attribute);
+      case INVOKE:
+        final String operation = readString(in);
+        final int n = in.readInt();
+        Object[] params = null;
+        if (n >= 0) {
+          params = new Object[n];
+          for (int i=0; i<n; i++) params[i] = readValue(in);
+        }
+        return new JMXRequest(messageID, type, name, operation, params, readStrings(in));
+      case IS_REGISTERED: return new JMXRequest(messageID, type, name);
+    }
+    throw new StreamCorruptedException("unexpected binary request type " + name(type));
+  }
+
+  /**
+   * Write a response in binary form.
+   * @param out the stream to write to.
+   * @param response the response to write.
+   * @throws Exception if any error occurs.
+   */
+  private static void writeResponse(final DataOutputStream out, final JMXResponse response) throws Exception {
+    out.writeByte(BINARY_RESPONSE);
+    out.writeLong(response.getMessageID());
+    out.writeByte(response.getMessageType());
+    final Exception e = response.getException();
+    out.writeBoolean(e != null);
+    writeValue(out, (e != null) ? e : response.getResult());
+  }
+
+  /**
+   * Read a response written in binary form.
+   * @param in the stream to read from.
+   * @return the response that was read.
+   * @throws Exception if any error occurs.
+   */
+  private static JMXResponse readResponse(final DataInputStream in) throws Exception {
+    final long messageID = in.readLong();
+    final byte type = in.readByte();
+    final boolean isException = in.readBoolean();
+    return new JMXResponse(messageID, type, readValue(in), isException);
+  }
+
+  /**
+   * Write a value prefixed with its type tag.
+   * @param out the stream to write to.
+   * @param value the value to write.
+   * @throws Exception if any error occurs.
+   */
+  private static void writeValue(final DataOutputStream out, final Object value) throws Exception {
+    if (value == null) out.writeByte(NULL);
+    else if (value instanceof String) {
+      out.writeByte(STRING);
+      writeString(out, (String) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INT);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Short) {
+      out.writeByte(SHORT);
+      out.writeShort((Short) value);
+    } else if (value instanceof Byte) {
+      out.writeByte(BYTE);
+      out.writeByte((Byte) value);
+    } else if (value instanceof Character) {
+      out.writeByte(CHAR);
+      out.writeChar((Character) value);
+    } else if (value instanceof ObjectName) {
+      out.writeByte(OBJECT_NAME);
+      writeObjectName(out, (ObjectName) value);
+    } else if (value.getClass() == String[].class) {
+      out.writeByte(STRING_ARRAY);
+      writeStrings(out, (String[]) value);
+    } else {
+      out.writeByte(OBJECT);
+      writeSerialized(out, value);
+    }
+  }
+
+  /**
+   * Read a value prefixed with its type tag.
+   * @param in the stream to read from.
+   * @return the value that was read.
+   * @throws Exception if any error occurs.
+   */
+  private static Object readValue(final DataInputStream in) throws Exception {
+    final byte tag = in.readByte();
+    switch(tag) {
+      case NULL: return null;
+      case STRING: return readString(in);
+      case INT: return in.readInt();
+      case LONG: return in.readLong();
+      case BOOLEAN: return in.readBoolean();
+      case DOUBLE: return in.readDouble();
+      case FLOAT: return in.readFloat();
+      case SHORT: return in.readShort();
+      case BYTE: return in.readByte();
+      case CHAR: return in.readChar();
+      case OBJECT_NAME: return readObjectName(in);
+      case STRING_ARRAY: return readStrings(in);
+      case OBJECT: return readSerialized(in);
+    }
+    throw new StreamCorruptedException("unknown value type " + tag);
+  }
+
+  /**
+   * Write a string as its length in bytes followed by its UTF-8 encoded bytes.
+   * @param out the stream to write to.
+   * @param s the string to write, may be {@code null}.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static void writeString(final DataOutputStream out, final String s) throws IOException {
+    if (s == null) out.writeInt(-1);
+    else {
+      final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  /**
+   * Read a string written with {@link #writeString(DataOutputStream, String)}.
+   * @param in the stream to read from.
+   * @return the string that was read, possibly {@code null}.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static String readString(final DataInputStream in) throws IOException {
+    final int n = in.readInt();
+    if (n < 0) return null;
+    final byte[] bytes = new byte[n];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Write an array of strings.
+   * @param out the stream to write to.
+   * @param array the array to write, may be {@code null}.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static void writeStrings(final DataOutputStream out, final String[] array) throws IOException {
+    out.writeInt((array == null) ? -1 : array.length);
+    if (array != null) {
+      for (final String s: array) writeString(out, s);
+    }
+  }
+
+  /**
+   * Read an array of strings.
+   * @param in the stream to read from.
+   * @return the array that was read, possibly {@code null}.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static String[] readStrings(final DataInputStream in) throws IOException {
+    final int n = in.readInt();
+    if (n < 0) return null;
+    final String[] array = new String[n];
+    for (int i=0; i<n; i++) array[i] = readString(in);
+    return array;
+  }
+
+  /**
+   * Write an object name as its canonical name.
+   * @param out the stream to write to.
+   * @param name the object name to write, may be {@code null}.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static void writeObjectName(final DataOutputStream out, final ObjectName name) throws IOException {
+    writeString(out, (name == null) ? null : name.getCanonicalName());
+  }
+
+  /**
+   * Read an object name.
+   * @param in the stream to read from.
+   * @return the object name that was read, possibly {@code null}.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static ObjectName readObjectName(final DataInputStream in) throws IOException {
+    final String name = readString(in);
+    if (name == null) return null;
+    try {
+      return ObjectNameCache.getObjectName(name);
+    } catch (final MalformedObjectNameException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Write an object serialized with the default serializer, prefixed with its serialized length.
+   * @param out the stream to write to.
+   * @param o the object to write.
+   * @throws Exception if any error occurs.
+   */
+  private static void writeSerialized(final DataOutputStream out, final Object o) throws Exception {
+    final JPPFBuffer buffer = IOHelper.getDefaultserializer().serialize(o, true);
+    out.writeInt(buffer.length);
+    out.write(buffer.buffer, 0, buffer.length);
+  }
+
+  /**
+   * Read an object written with {@link #writeSerialized(DataOutputStream, Object)}.
+   * @param in the stream to read from.
+   * @return the object that was read.
+   * @throws Exception if any error occurs.
+   */
+  private static Object readSerialized(final DataInputStream in) throws Exception {
+    final int n = in.readInt();
+    final byte[] bytes = new byte[n];
+    in.readFully(bytes);
+    final ObjectSerializer serializer = IOHelper.getDefaultserializer();
+    return serializer.deserialize(bytes);
+  }
+}
@@ -21,6 +21,7 @@ package org.jppf.jmxremote.message;
 import java.io.IOException;
 import java.nio.channels.SelectionKey;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 
 import org.jppf.JPPFTimeoutException;
@@ -94,31 +95,108 @@ public class JMXMessageHandler {
    * @throws Exception if any error occurs.
    */
   public Object sendRequestWithResponse(final byte type, final Object...params) throws Exception {
-    return receiveResponse(new JMXRequest((type == JMXHelper.CONNECT) ? CONNECTION_MESSAGE_ID: messageSequence.incrementAndGet(), type, params), true);
+    final JMXRequest request = newRequest(type, params);
+    if (closed.get()) return null;
+    return receiveResponse(request, sendRequest(request));
   }
 
   /**
-   * Wait for a response message form the server.
-   * @param request the request to wat a response for.
-   * @param doSendMessage whether to actually send the message.
-   * @return the result of the request.
+   * Send a request without waiting for its response.
+   * The requests sent in quick succession, for instance from multiple threads or from a single thread that does not wait for the results,
+   * are pipelined over the connection and are grouped into as few network frames as possible.
+   * The remote side executes the requests concurrently, so they may be executed in a different order than they were sent.
+   * @param type the type of request to send.
+   * @param params the request's parameters.
+   * @return a {@link CompletableFuture} which is completed with the result of the request, or exceptionally with the exception it raised.
+   * @since 6.3
+   */
+  public CompletableFuture<Object> sendRequestAsync(final byte type, final Object...params) {
+    try {
+      if (closed.get()) return CompletableFuture.completedFuture(null);
+      return sendRequest(newRequest(type, params));
+    } catch (final Exception e) {
+      final CompletableFuture<Object> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+  }
+
+  /**
+   * Send multiple requests of the same type at once, without waiting for their responses. The requests are queued together and the connection
+   * is only notified that it has data to send once they are all queued, or when the queue is full, so that they are written in as few network
+   * frames as possible. The requests are not necessarily executed in the order of the parameters, since the remote side executes them concurrently.
+   * @param type the type of the requests to send.
+   * @param paramsList the parameters of each request.
+   * @return a list of {@link CompletableFuture}s completed with the result of each request, in the same order as the parameters.
+   * @since 6.3
+   */
+  public List<CompletableFuture<Object>> sendRequestsAsync(final byte type, final List<Object[]> paramsList) {
+    final List<CompletableFuture<Object>> futures = new ArrayList<>(paramsList.size());
+    if (closed.get()) {
+      for (int i=0; i<paramsList.size(); i++) futures.add(CompletableFuture.completedFuture(null));
+      return futures;
+    }
+    final List<JMXRequest> requests = new ArrayList<>(paramsList.size());
+    for (final Object[] params: paramsList) {
+      final JMXRequest request = newRequest(type, params);
+      final CompletableFuture<Object> future = new CompletableFuture<>();
+      request.setFuture(future);
+      futures.add(future);
+      requests.add(request);
+      putRequest(request);
+    }
+    if (debugEnabled) log.debug("sending {} requests of type {}, channels={}", requests.size(), JMXHelper.name(type), channels);
+    try {
+      channels.writingContext().offerJmxMessages(requests);
+    } catch (final Exception e) {
+      for (final JMXRequest request: requests) {
+        if (removeRequest(request.getMessageID()) != null) request.getFuture().completeExceptionally(e);
+      }
+    }
+    return futures;
+  }
+
+  /**
+   * Create a new request.
+   * @param type the type of request to send.
+   * @param params the request's parameters.
+   * @return a new {@link JMXRequest}.
+   */
+  private static JMXRequest newRequest(final byte type, final Object...params) {
+    return new JMXRequest((type == JMXHelper.CONNECT) ? CONNECTION_MESSAGE_ID: messageSequence.incrementAndGet(), type, params);
+  }
+
+  /**
+   * Register the specified request as pending and send it.
+   * @param request the request to send.
+   * @return the future completed with the result of the request.
    * @throws Exception if any error occurs.
    */
-  private Object receiveResponse(final JMXRequest request, final boolean doSendMessage) throws Exception {
-    if (closed.get()) return null;
+  private CompletableFuture<Object> sendRequest(final JMXRequest request) throws Exception {
+    final CompletableFuture<Object> future = new CompletableFuture<>();
+    request.setFuture(future);
     if (debugEnabled) log.debug("sending request {}, channels={}", request, channels);
     putRequest(request);
-    synchronized(request) {
-      if (doSendMessage) sendMessage(request);
-      waitForMessage(request);
-    }
-    final JMXResponse response = request.getResponse();
-    if (response != null) {
-      if (debugEnabled) log.debug("got response {}", response);
-      if (response.getException() != null) throw response.getException();
-      return response.getResult();
+    try {
+      sendMessage(request);
+    } catch (final Exception e) {
+      removeRequest(request.getMessageID());
+      throw e;
     }
-    throw new IOException("could not obtain a response to request " + request);
+    return future;
+  }
+
+  /**
+   * Wait for a response message form the server.
+   * @param request the request to wat a response for.
+   * @param future the future completed with the result of the request.
+   * @return the result of the request.
+   * @throws Exception if any error occurs.
+   */
+  private Object receiveResponse(final JMXRequest request, final CompletableFuture<Object> future) throws Exception {
+    final Object result = waitForMessage(request, future);
+    if (debugEnabled) log.debug("got response {}", request.getResponse());
+    return result;
   }
 
   /**
@@ -130,10 +208,9 @@ public class JMXMessageHandler {
     final JMXRequest request = removeRequest(response.getMessageID());
     if (request != null) {
       if (debugEnabled) log.debug("found matching request {}", request);
-      synchronized(request) {
-        request.setResponse(response);
-        request.notify();
-      }
+      request.setResponse(response);
+      if (response.getException() != null) request.getFuture().completeExceptionally(response.getException());
+      else request.getFuture().complete(response.getResult());
     } else {
       log.warn("no matching request for {}, channels={}", response, channels);
     }
@@ -149,13 +226,8 @@ public class JMXMessageHandler {
     if (closed.get()) return;
     try {
       if (!channels.getSelectionKey().isValid()) return;
-      final JMXRequest request = new JMXRequest(messageSequence.incrementAndGet(), type, params);
-      if (debugEnabled) log.debug("sending request {}, channels={}", request, channels);
-      putRequest(request);
-      synchronized(request) {
-        sendMessage(request);
-        waitForMessage(request);
-      }
+      final JMXRequest request = newRequest(type, params);
+      waitForMessage(request, sendRequest(request));
     } catch(final JPPFTimeoutException e) {
       log.error(e.getMessage(), e);
       throw e;
@@ -171,8 +243,21 @@ public class JMXMessageHandler {
     final JMXRequest request = removeRequest(message.getMessageID());
     if (request == null) log.warn("no matching request for {}", message);
     else if (request != message) log.warn("message and request do not match, request = {}, message = {}", request, message);
-    synchronized(message) {
-      message.notify();
+    else request.getFuture().complete(null);
+  }
+
+  /**
+   * Called when a request could not be sent.
+   * @param message the request.
+   * @param error the error that occurred.
+   * @since 6.3
+   */
+  public void messageFailed(final JMXMessage message, final Exception error) {
+    if (debugEnabled) log.debug("failed to send request {}, channels={}", message, channels);
+    final JMXRequest request = removeRequest(message.getMessageID());
+    if ((request != null) && (request.getFuture() != null)) {
+      final IOException e = new IOException("could not send request " + request, error);
+      request.getFuture().completeExceptionally(e);
     }
   }
 
@@ -194,33 +279,39 @@ public class JMXMessageHandler {
    */
   public void close() {
     if (closed.compareAndSet(false, true)) {
+      final List<JMXRequest> pending;
       synchronized(requestMap) {
-        for (Map.Entry<Long, JMXRequest> entry: requestMap.entrySet()) {
-          final JMXRequest request = entry.getValue();
-          synchronized(request) {
-            request.setResponse(new JMXResponse(request, null, false));
-            request.notify();
-          }
-        }
+        pending = new ArrayList<>(requestMap.values());
         requestMap.clear();
       }
+      for (final JMXRequest request: pending) {
+        request.setResponse(new JMXResponse(request, null, false));
+        request.getFuture().complete(null);
+      }
     }
   }
 
   /**
-   * Wait for a call to {@code notify()} on the specified message, for at most the request timeout.
-   * The calling method is assumed to own the request's monitor (that is, call this method from a {@code synchronized} block).
-   * @param request the message to wait on.
-   * @throws JPPFTimeoutException if the timeout was reached before a {@code notify()} was performed.
+   * Wait for the specified request to complete, for at most the request timeout.
+   * @param request the request to wait for.
+   * @param future the future completed with the result of the request.
+   * @return the result of the request.
+   * @throws JPPFTimeoutException if the timeout was reached before the request completed.
    * @throws Exception if any other error occurs.
    */
-  private void waitForMessage(final JMXRequest request) throws JPPFTimeoutException, Exception {
-    final long start = System.nanoTime();
-    request.wait(requestTimeout);
-    if ((System.nanoTime() - start) / 1_000_000L >= requestTimeout) {
+  private Object waitForMessage(final JMXRequest request, final CompletableFuture<Object> future) throws JPPFTimeoutException, Exception {
+    try {
+      return future.get(requestTimeout, TimeUnit.MILLISECONDS);
+    } catch (@SuppressWarnings("unused") final TimeoutException e) {
+      removeRequest(request.getMessageID());
       final String text = "exceeded timeout of " + requestTimeout + " ms waiting for " + request + " on " + channels;
-      log.warn(text + ", requests map = {}");
+      log.warn(text);
       throw new JPPFTimeoutException(text);
+    } catch (final ExecutionException e) {
+      final Throwable t = e.getCause();
+      if (t instanceof Exception) throw (Exception) t;
+      if (t instanceof Error) throw (Error) t;
+      throw e;
     }
   }
 
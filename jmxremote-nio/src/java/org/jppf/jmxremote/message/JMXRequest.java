@@ -20,6 +20,7 @@ package org.jppf.jmxremote.message;
 
 import java.io.*;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 import javax.management.ObjectName;
 
@@ -46,6 +47,10 @@ public class JMXRequest extends AbstractJMXMessage {
    * The response to this reqquest.
    */
   private transient JMXResponse response;
+  /**
+   * The future completed with the result of this request, only set on the side that sends the request.
+   */
+  private transient CompletableFuture<Object> future;
 
   /**
    * Initialize this request with the specified ID, request type and parameters.
@@ -80,6 +85,21 @@ public class JMXRequest extends AbstractJMXMessage {
     this.response = response;
   }
 
+  /**
+   * @return the future completed with the result of this request.
+   */
+  CompletableFuture<Object> getFuture() {
+    return future;
+  }
+
+  /**
+   * Set the future completed with the result of this request.
+   * @param future a {@code CompletableFuture} object.
+   */
+  void setFuture(final CompletableFuture<Object> future) {
+    this.future = future;
+  }
+
   @Override
   public String toString() {
     return new StringBuilder(getClass().getSimpleName()).append('[')
@@ -51,6 +51,19 @@ public class JMXResponse extends AbstractJMXMessage {
     this.isException = isException;
   }
 
+  /**
+   * Initialize this response with the specified ID and request type.
+   * @param messageID the message id.
+   * @param messageType the type of request this is a response to.
+   * @param result the request's result.
+   * @param isException whether the result is an exception or a normal result.
+   */
+  JMXResponse(final long messageID, final byte messageType, final Object result, final boolean isException) {
+    super(messageID, messageType);
+    this.result = result;
+    this.isException = isException;
+  }
+
   /**
    * @return the request's parameters.
    */
@@ -21,13 +21,13 @@ package org.jppf.jmxremote.nio;
 import static org.jppf.utils.stats.JPPFStatisticsHelper.*;
 
 import java.nio.channels.*;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.jppf.io.IOHelper;
 import org.jppf.jmx.*;
 import org.jppf.jmxremote.message.*;
 import org.jppf.nio.*;
+import org.jppf.utils.JPPFConfiguration;
 import org.jppf.utils.concurrent.QueueHandler;
 import org.slf4j.*;
 
@@ -45,13 +45,25 @@ public class JMXContext extends AbstractNioContext {
    */
   private static final boolean debugEnabled = log.isDebugEnabled();
   /**
-   * The last read or written JMX message.
+   * The frame of JMX messages being written.
    */
-  private MessageWrapper currentMessageWrapper;
+  private MessageFrame currentFrame;
   /**
    * The queue of pending messages to send.
    */
   private final QueueHandler<MessageWrapper> pendingJmxMessages;
+  /**
+   * Maximum size of the queue of pending messages.
+   */
+  private final int maxPendingMessages;
+  /**
+   * Maximum number of messages in a frame.
+   */
+  private final int maxFrameMessages;
+  /**
+   * Size of a frame above which no more messages are added to it.
+   */
+  private final int maxFrameSize;
   /**
    * The JMX nio server to use.
    */
@@ -84,13 +96,17 @@ public class JMXContext extends AbstractNioContext {
     this.server = server;
     if (reading) {
       pendingJmxMessages = null;
+      maxFrameMessages = maxFrameSize = maxPendingMessages = 0;
     } else {
       int size = JMXEnvHelper.getInt(JPPFJMXProperties.NOTIF_QUEUE_SIZE, env, null);
       if (size <= 0) size = JPPFJMXProperties.NOTIF_QUEUE_SIZE.getDefaultValue();
+      maxPendingMessages = size;
       pendingJmxMessages = QueueHandler.<MessageWrapper>builder()
         .withCapacity(size)
         .handlingPeakSizeAs(server::updatePeakPendingMessages)
         .build();
+      maxFrameMessages = JMXEnvHelper.getInt(JPPFJMXProperties.FRAME_MAX_MESSAGES, env, JPPFConfiguration.getProperties());
+      maxFrameSize = JMXEnvHelper.getInt(JPPFJMXProperties.FRAME_MAX_SIZE, env, JPPFConfiguration.getProperties());
     }
     this.peer = false;
     this.socketChannel = socketChannel;
@@ -113,13 +129,13 @@ public class JMXContext extends AbstractNioContext {
   }
 
   /**
-   * Deserialize the specified message.
-   * @param message the message to deserialize.
-   * @return a deserialzed message.
+   * Decode the JMX messages in the specified frame.
+   * @param message the frame to decode.
+   * @return a list of decoded messages, in the order in which they were sent.
    * @throws Exception if any error occurs.
    */
-  public JMXMessage deserializeMessage(final SimpleNioMessage message) throws Exception {
-    return (message != null) ? (JMXMessage) IOHelper.unwrappedData(message.getCurrentDataLocation()) : null;
+  public List<JMXMessage> deserializeMessages(final SimpleNioMessage message) throws Exception {
+    return (message != null) ? JMXMessageCodec.decode(message.getCurrentDataLocation()) : Collections.<JMXMessage>emptyList();
   }
 
   /**
@@ -128,18 +144,41 @@ public class JMXContext extends AbstractNioContext {
    * @throws Exception if any error occurs.
    */
   public void offerJmxMessage(final JMXMessage jmxMessage) throws Exception {
-    final SimpleNioMessage msg = new SimpleNioMessage(this);
-    msg.setCurrentDataLocation(IOHelper.serializeData(jmxMessage));
-    pendingJmxMessages.put(new MessageWrapper(jmxMessage, msg));
+    pendingJmxMessages.put(new MessageWrapper(jmxMessage, JMXMessageCodec.encode(jmxMessage)));
   }
 
   /**
-   * Get the next JMX message from the pending queue.
-   * @return a {@link JMXMessage} instance.
+   * Add multiple JMX messages to the pending queue, then notify the server that there is data to write. If the queue is full before all messages
+   * are added, the server is notified so it can send the messages already queued.
+   * @param jmxMessages the JMX messages to offer.
+   * @throws Exception if any error occurs.
    */
-  public MessageWrapper pollJmxMessage() {
-    final MessageWrapper msg = pendingJmxMessages.poll();
-    return msg;
+  public void offerJmxMessages(final List<? extends JMXMessage> jmxMessages) throws Exception {
+    for (final JMXMessage jmxMessage: jmxMessages) {
+      final MessageWrapper msg = new MessageWrapper(jmxMessage, JMXMessageCodec.encode(jmxMessage));
+      if (pendingJmxMessages.size() >= maxPendingMessages) server.updateInterestOps(getSelectionKey(), SelectionKey.OP_WRITE, true);
+      pendingJmxMessages.put(msg);
+    }
+    server.updateInterestOps(getSelectionKey(), SelectionKey.OP_WRITE, true);
+  }
+
+  /**
+   * Get the next frame of JMX messages from the pending queue. The frame holds all the pending messages, up to the maximum number of messages
+   * in a frame, and until the frame size reaches its maximum. A {@code CLOSE} request is always the last message in its frame.
+   * @return a {@link MessageFrame} instance, or {@code null} if there is no pending message.
+   */
+  MessageFrame pollFrame() {
+    MessageWrapper msg = pendingJmxMessages.poll();
+    if (msg == null) return null;
+    final List<MessageWrapper> messages = new ArrayList<>();
+    messages.add(msg);
+    int size = msg.encoded.length;
+    while ((msg.jmxMessage.getMessageType() != JMXHelper.CLOSE) && (messages.size() < maxFrameMessages) && (size < maxFrameSize)) {
+      if ((msg = pendingJmxMessages.poll()) == null) break;
+      messages.add(msg);
+      size += msg.encoded.length;
+    }
+    return new MessageFrame(this, messages);
   }
 
   /**
@@ -247,18 +286,18 @@ public class JMXContext extends AbstractNioContext {
   }
 
   /**
-   * @return the last read or written JMX message.
+   * @return the frame of JMX messages being written.
    */
-  MessageWrapper getCurrentMessageWrapper() {
-    return currentMessageWrapper;
+  MessageFrame getCurrentFrame() {
+    return currentFrame;
   }
 
   /**
-   * Set the last read or written JMX message.
-   * @param currentMessageWrapper the last read or written JMX message to set.
+   * Set the frame of JMX messages being written.
+   * @param currentFrame the frame of JMX messages being written.
    */
-  void setCurrentMessageWrapper(final MessageWrapper currentMessageWrapper) {
-    this.currentMessageWrapper = currentMessageWrapper;
+  void setCurrentFrame(final MessageFrame currentFrame) {
+    this.currentFrame = currentFrame;
   }
 
   /**
@@ -91,9 +91,11 @@ class JMXMessageReader {
         final SimpleNioMessage nioMessage = (SimpleNioMessage) context.getReadMessage();
         if (debugEnabled) log.debug("read message from {}", context);
         context.setReadMessage(null);
-        final JMXMessage msg = context.deserializeMessage(nioMessage);
-        if (msg instanceof JMXNotification) queueHandler.put(new Pair<>(context, msg));
-        else executor.execute(() -> handleMessage(context, msg));
+        // the requests in a frame are executed concurrently, with no ordering guarantee, as documented in JPPFMBeanServerConnection
+        for (final JMXMessage msg: context.deserializeMessages(nioMessage)) {
+          if (msg instanceof JMXNotification) queueHandler.put(new Pair<>(context, msg));
+          else executor.execute(() -> handleMessage(context, msg));
+        }
       } else if (context.readByteCount <= 0L) break;
     }
   }
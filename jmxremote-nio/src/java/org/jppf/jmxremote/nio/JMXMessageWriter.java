@@ -18,10 +18,8 @@
 
 package org.jppf.jmxremote.nio;
 
-import org.jppf.io.IOHelper;
 import org.jppf.jmx.JMXHelper;
 import org.jppf.jmxremote.message.JMXRequest;
-import org.jppf.nio.SimpleNioMessage;
 import org.slf4j.*;
 
 /**
@@ -62,32 +60,31 @@ public class JMXMessageWriter {
   private static boolean doWrite(final JMXContext context) throws Exception {
     while (true) {
       if (context.getChannels().isClosed()) return false;
-      if (context.getCurrentMessageWrapper() == null) {
-        final MessageWrapper msg = context.pollJmxMessage();
-        if (msg == null) return false;
-        final SimpleNioMessage nioMessage =  (SimpleNioMessage) msg.nioMessage;
-        if (nioMessage.getCurrentDataLocation() == null) nioMessage.setCurrentDataLocation(IOHelper.serializeData(msg.jmxMessage));
-        if (debugEnabled) log.debug("about to send message {} from context {}", msg, context);
-        context.setCurrentMessageWrapper(msg);
-        context.setReadMessage(msg.nioMessage);
+      if (context.getCurrentFrame() == null) {
+        final MessageFrame frame = context.pollFrame();
+        if (frame == null) return false;
+        if (debugEnabled) log.debug("about to send frame {} from context {}", frame, context);
+        context.setCurrentFrame(frame);
+        context.setReadMessage(frame.nioMessage);
       }
-      final MessageWrapper msg = context.getCurrentMessageWrapper();
+      final MessageFrame frame = context.getCurrentFrame();
       try {
         if (context.writeMessage()) {
-          if (debugEnabled) log.debug("fully sent message {} from context {}", msg, context);
+          if (debugEnabled) log.debug("fully sent frame {} from context {}", frame, context);
           context.setReadMessage(null);
-          context.setCurrentMessageWrapper(null);
-          if (msg.jmxMessage.getMessageType() == JMXHelper.CLOSE) {
+          context.setCurrentFrame(null);
+          final MessageWrapper last = frame.messages.get(frame.messages.size() - 1);
+          if (last.jmxMessage.getMessageType() == JMXHelper.CLOSE) {
             if (debugEnabled) log.debug("handling CLOSE for context {}", context);
-            context.getMessageHandler().messageSent(msg.jmxMessage);
+            context.getMessageHandler().messageSent(last.jmxMessage);
             return false;
           }
         } else if (context.readByteCount <= 0L) {
           return true;
         }
       } catch (final Exception e) {
-        if (msg.jmxMessage instanceof JMXRequest) {
-          context.getMessageHandler().messageSent(msg.jmxMessage);
+        for (final MessageWrapper msg: frame.messages) {
+          if (msg.jmxMessage instanceof JMXRequest) context.getMessageHandler().messageFailed(msg.jmxMessage, e);
         }
         throw e;
       }
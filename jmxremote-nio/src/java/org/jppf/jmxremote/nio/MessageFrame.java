@@ -0,0 +1,59 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.jmxremote.nio;
+
+import java.util.*;
+
+import org.jppf.jmxremote.message.JMXMessageCodec;
+import org.jppf.nio.SimpleNioMessage;
+import org.jppf.utils.JPPFBuffer;
+
+/**
+ * A group of JMX messages sent over the network in a single frame.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+class MessageFrame {
+  /**
+   * The messages in this frame.
+   */
+  final List<MessageWrapper> messages;
+  /**
+   * The {@code NioMessage} that holds the encoded frame.
+   */
+  final SimpleNioMessage nioMessage;
+
+  /**
+   * Initialize with the specified messages.
+   * @param context the context to which the frame is written.
+   * @param messages the messages in this frame.
+   */
+  MessageFrame(final JMXContext context, final List<MessageWrapper> messages) {
+    this.messages = messages;
+    final List<JPPFBuffer> encoded = new ArrayList<>(messages.size());
+    for (final MessageWrapper msg: messages) encoded.add(msg.encoded);
+    nioMessage = new SimpleNioMessage(context);
+    nioMessage.setCurrentDataLocation(JMXMessageCodec.frame(encoded));
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[').append("messages=").append(messages).append(']').toString();
+  }
+}
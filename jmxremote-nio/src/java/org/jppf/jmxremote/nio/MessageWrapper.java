@@ -18,14 +18,13 @@
 
 package org.jppf.jmxremote.nio;
 
-import org.jppf.jmxremote.message.JMXMessage;
-import org.jppf.nio.NioMessage;
+import org.jppf.jmxremote.message.*;
+import org.jppf.utils.JPPFBuffer;
 
 /**
- * Instances of this class associate a {@link JMXMessage} to its serialized form (a {@link NioMessage}, which holds a
- * {@link org.jppf.io.DataLocation DataLocation}}). This allows the serialization to happen in a thread different from
- * the I/O thread, while keeping meaningful information on the JMX message that can be used after the message is sent
- * over the network channel.
+ * Instances of this class associate a {@link JMXMessage} to its encoded form (see {@link JMXMessageCodec}).
+ * This allows the encoding to happen in a thread different from the I/O thread, while keeping meaningful information
+ * on the JMX message that can be used after the message is sent over the network channel.
  * @author Laurent Cohen
  */
 class MessageWrapper {
@@ -34,18 +33,18 @@ class MessageWrapper {
    */
   final JMXMessage jmxMessage;
   /**
-   * The {@code NioMessage} that holds the serialized JMX message.
+   * The encoded JMX message.
    */
-  final NioMessage nioMessage;
+  final JPPFBuffer encoded;
 
   /**
    * Initialize with the specified JMX message and associated serialized form.
    * @param jmxMessage the JMX message.
-   * @param nioMessage the {@code NioMessage} that holds the serialized JMX message.
+   * @param encoded the encoded JMX message.
    */
-  MessageWrapper(final JMXMessage jmxMessage, final NioMessage nioMessage) {
+  MessageWrapper(final JMXMessage jmxMessage, final JPPFBuffer encoded) {
     this.jmxMessage = jmxMessage;
-    this.nioMessage = nioMessage;
+    this.encoded = encoded;
   }
 
   @Override
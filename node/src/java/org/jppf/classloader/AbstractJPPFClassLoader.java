@@ -137,9 +137,7 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
     if (debugEnabled) log.debug(build("looking up definition for resource [", name, "]"));
     byte[] b = null;
     final String resName = name.replace('.', '/') + ".class";
-    final Map<ResourceIdentifier, Object> map = new EnumMap<>(ResourceIdentifier.class);
-    map.put(ResourceIdentifier.NAME, resName);
-    final JPPFResourceWrapper resource = loadResource(map);
+    final JPPFResourceWrapper resource = loadClassDefinition(resName, true);
     if (resource != null) b = resource.getDefinition();
     if ((b == null) || (b.length == 0)) {
       if (debugEnabled) log.debug("definition for resource [" + name + "] not found");
@@ -154,6 +152,38 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
     return c;
   }
 
+  /**
+   * Load the definition of a class from the server. If the node already holds definitions for the same resource name, possibly
+   * downloaded by the class loader of another client, their hashes are sent along with the request, so that the server
+   * does not send the definition again when it has the same content.
+   * @param resName the name of the class resource.
+   * @param sendKnownHashes whether to send the hashes of the definitions already held by the node.
+   * @return the server response, or {@code null} if the resource could not be loaded.
+   * @throws ClassNotFoundException if the connection to the server was lost.
+   */
+  private JPPFResourceWrapper loadClassDefinition(final String resName, final boolean sendKnownHashes) throws ClassNotFoundException {
+    final ContentHashStore store = ContentHashStore.getInstance();
+    final Map<ResourceIdentifier, Object> map = new EnumMap<>(ResourceIdentifier.class);
+    map.put(ResourceIdentifier.NAME, resName);
+    final String[] knownHashes = (sendKnownHashes && store.isEnabled()) ? store.getHashes(resName) : null;
+    if (knownHashes != null) map.put(ResourceIdentifier.KNOWN_HASHES, knownHashes);
+    final JPPFResourceWrapper resource = loadResource(map);
+    if ((resource == null) || !store.isEnabled()) return resource;
+    final String hash = (String) resource.getData(ResourceIdentifier.CONTENT_HASH);
+    if (hash == null) return resource;
+    if (resource.getDefinition() != null) store.put(resName, hash, resource.getDefinition());
+    else if (knownHashes != null) {
+      final byte[] b = store.get(resName, hash);
+      if (b == null) {
+        if (debugEnabled) log.debug(build("definition with hash ", hash, " for resource [", resName, "] was evicted, requesting it again"));
+        return loadClassDefinition(resName, false);
+      }
+      if (debugEnabled) log.debug(build("found definition with hash ", hash, " for resource [", resName, "] in the content hash store"));
+      resource.setDefinition(b);
+    }
+    return resource;
+  }
+
   /**
    * Compute a value on the client-side, as the result of the execution of a {@link JPPFCallable}.
    * <p>Any {@link Throwable} raised in the callable's <code>call()</code> method will be thrown as the result of this method.
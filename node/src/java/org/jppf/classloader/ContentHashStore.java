@@ -0,0 +1,325 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.classloader;
+
+import java.io.File;
+import java.util.*;
+
+import org.jppf.management.NodeClassCacheMBean;
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * Holds the class definitions downloaded by a node, keyed by the hash of their content.
+ * <p>This store is shared by all the class loaders of the node: when a class loader for a client requests a class which another
+ * class loader already downloaded, for instance because both clients use the same library, it sends the hashes of the definitions
+ * it knows for this class name, and the driver responds with only the hash when it matches, instead of the whole definition.
+ * <p>The total size of the definitions held in memory is bounded by the {@code jppf.classloader.dedup.cache.size} configuration property,
+ * the least recently used definitions being evicted first.
+ * <p>When {@code jppf.classloader.persistent.cache.enabled = true}, the definitions are also stored on the file system,
+ * such that a restarted or newly provisioned node on the same host only needs to validate the hashes it knows with the driver,
+ * instead of downloading all the definitions again.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+public final class ContentHashStore implements NodeClassCacheMBean {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(ContentHashStore.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The singleton instance of this class.
+   */
+  private static final ContentHashStore INSTANCE = createInstance(JPPFConfiguration.getProperties());
+  /**
+   * Mapping of hashes to the corresponding entries held in memory, in access order.
+   */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  /**
+   * Mapping of resource names to the hashes of the definitions stored for them, in memory or in the persistent store.
+   */
+  private final Map<String, Set<String>> hashesByName = new HashMap<>();
+  /**
+   * Maximum total size of the definitions held in memory, in bytes.
+   */
+  private final long maxSize;
+  /**
+   * The file system store, or {@code null} if the definitions are not persisted.
+   */
+  private final PersistentClassStore persistentStore;
+  /**
+   * Current total size of the definitions held in memory, in bytes.
+   */
+  private long size;
+  /**
+   * Number of definitions that were obtained from this store instead of being downloaded.
+   */
+  private long hits;
+  /**
+   * Number of definitions that were obtained from the persistent store.
+   */
+  private long persistentHits;
+  /**
+   * Number of definitions that were downloaded.
+   */
+  private long misses;
+  /**
+   * Number of bytes that were not downloaded thanks to this store.
+   */
+  private long savedBytes;
+  /**
+   * Number of definitions evicted from memory.
+   */
+  private long evictions;
+
+  /**
+   * Create a store with the specified settings.
+   * @param maxSize the maximum total size of the definitions held in memory, in bytes.
+   * @param persistentDir the directory of the persistent store, or {@code null} if the definitions are not persisted.
+   * @param persistentMaxSize the maximum total size of the definitions in the persistent store, in bytes.
+   * @exclude
+   */
+  public ContentHashStore(final long maxSize, final File persistentDir, final long persistentMaxSize) {
+    this.maxSize = maxSize;
+    PersistentClassStore store = null;
+    if (persistentDir != null) {
+      try {
+        store = new PersistentClassStore(persistentDir, persistentMaxSize);
+        hashesByName.putAll(store.getHashesByName());
+      } catch (final Exception e) {
+        log.error("could not initialize the persistent class store in {}, class definitions will not be persisted : {}", persistentDir, ExceptionUtils.getStackTrace(e));
+      }
+    }
+    this.persistentStore = store;
+    if (debugEnabled) log.debug("created content hash store with maxSize = {}, persistentDir = {}, persistentMaxSize = {}", maxSize, persistentDir, persistentMaxSize);
+  }
+
+  /**
+   * Create the singleton instance from the specified configuration.
+   * @param config the node configuration.
+   * @return a {@link ContentHashStore} instance.
+   */
+  private static ContentHashStore createInstance(final TypedProperties config) {
+    File dir = null;
+    if (config.get(JPPFProperties.CLASSLOADER_PERSISTENT_CACHE_ENABLED)) {
+      final String path = config.get(JPPFProperties.CLASSLOADER_PERSISTENT_CACHE_DIR);
+      dir = (path == null) ? new File(FileUtils.getJPPFTempDir(), "class-store") : new File(path);
+    }
+    return new ContentHashStore(config.get(JPPFProperties.CLASSLOADER_DEDUP_CACHE_SIZE), dir, config.get(JPPFProperties.CLASSLOADER_PERSISTENT_CACHE_SIZE));
+  }
+
+  /**
+   * Get the singleton instance of this class.
+   * @return a {@link ContentHashStore} instance.
+   */
+  public static ContentHashStore getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Determine whether this store is enabled.
+   * @return {@code true} if the store is enabled, {@code false} otherwise.
+   */
+  public boolean isEnabled() {
+    return (maxSize > 0L) || (persistentStore != null);
+  }
+
+  /**
+   * Get the hashes of the definitions stored for the specified resource name.
+   * @param name the name of the resource.
+   * @return an array of hashes, or {@code null} if no definition is stored for the name.
+   */
+  public synchronized String[] getHashes(final String name) {
+    final Set<String> hashes = hashesByName.get(name);
+    if (hashes == null) return null;
+    // hashes evicted from the persistent store are removed lazily
+    if (persistentStore != null) hashes.removeIf(hash -> !entries.containsKey(hash) && !persistentStore.contains(hash));
+    if (hashes.isEmpty()) {
+      hashesByName.remove(name);
+      return null;
+    }
+    return hashes.toArray(new String[hashes.size()]);
+  }
+
+  /**
+   * Get the definition with the specified hash, and record it as a hit.
+   * @param name the name of the resource.
+   * @param hash the hash of the definition.
+   * @return the definition as an array of bytes, or {@code null} if it is no longer in the store.
+   */
+  public byte[] get(final String name, final String hash) {
+    synchronized(this) {
+      final Entry entry = entries.get(hash);
+      if (entry != null) {
+        hits++;
+        savedBytes += entry.content.length;
+        return entry.content;
+      }
+    }
+    final byte[] content = (persistentStore == null) ? null : persistentStore.read(hash);
+    if (content == null) return null;
+    synchronized(this) {
+      hits++;
+      persistentHits++;
+      savedBytes += content.length;
+      putInMemory(name, hash, content);
+    }
+    return content;
+  }
+
+  /**
+   * Store a downloaded definition for the specified resource name.
+   * @param name the name of the resource.
+   * @param hash the hash of the definition.
+   * @param content the definition.
+   */
+  public void put(final String name, final String hash, final byte[] content) {
+    if ((hash == null) || (content == null)) return;
+    synchronized(this) {
+      misses++;
+      putInMemory(name, hash, content);
+      if (persistentStore != null) {
+        Set<String> hashes = hashesByName.get(name);
+        if (hashes == null) hashesByName.put(name, hashes = new HashSet<>());
+        hashes.add(hash);
+      }
+    }
+    if (persistentStore != null) persistentStore.write(name, hash, content);
+  }
+
+  /**
+   * Store a definition in memory for the specified resource name.
+   * This method must be called while holding the lock on this store.
+   * @param name the name of the resource.
+   * @param hash the hash of the definition.
+   * @param content the definition.
+   */
+  private void putInMemory(final String name, final String hash, final byte[] content) {
+    if (content.length > maxSize) return;
+    Entry entry = entries.get(hash);
+    if (entry == null) {
+      entry = new Entry(content);
+      entries.put(hash, entry);
+      size += content.length;
+    }
+    if (entry.names.add(name)) {
+      Set<String> hashes = hashesByName.get(name);
+      if (hashes == null) hashesByName.put(name, hashes = new HashSet<>());
+      hashes.add(hash);
+    }
+    final Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+    while ((size > maxSize) && it.hasNext()) {
+      final Map.Entry<String, Entry> eldest = it.next();
+      it.remove();
+      size -= eldest.getValue().content.length;
+      evictions++;
+      if ((persistentStore != null) && persistentStore.contains(eldest.getKey())) continue;
+      for (final String n: eldest.getValue().names) {
+        final Set<String> hashes = hashesByName.get(n);
+        if ((hashes != null) && hashes.remove(eldest.getKey()) && hashes.isEmpty()) hashesByName.remove(n);
+      }
+    }
+  }
+
+  @Override
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public synchronized long getSize() {
+    return size;
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return persistentStore != null;
+  }
+
+  @Override
+  public long getPersistentMaxSize() {
+    return (persistentStore == null) ? 0L : persistentStore.getMaxSize();
+  }
+
+  @Override
+  public long getPersistentSize() {
+    return (persistentStore == null) ? 0L : persistentStore.getSize();
+  }
+
+  @Override
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  @Override
+  public synchronized long getPersistentHits() {
+    return persistentHits;
+  }
+
+  @Override
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  @Override
+  public synchronized double getHitRatio() {
+    final long total = hits + misses;
+    return (total == 0L) ? 0d : (double) hits / (double) total;
+  }
+
+  @Override
+  public synchronized long getSavedBytes() {
+    return savedBytes;
+  }
+
+  @Override
+  public long getEvictions() {
+    final long n;
+    synchronized(this) {
+      n = evictions;
+    }
+    return (persistentStore == null) ? n : n + persistentStore.getEvictions();
+  }
+
+  /**
+   * A definition held in memory, along with the names of the resources it was downloaded for.
+   */
+  private static class Entry {
+    /**
+     * The definition.
+     */
+    final byte[] content;
+    /**
+     * The names of the resources with this definition.
+     */
+    final Set<String> names = new HashSet<>(2);
+
+    /**
+     * @param content the definition.
+     */
+    Entry(final byte[] content) {
+      this.content = content;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.classloader;
+
+import javax.management.*;
+
+import org.jppf.management.NodeClassCacheMBean;
+import org.jppf.management.spi.JPPFNodeMBeanProvider;
+import org.jppf.node.Node;
+import org.slf4j.*;
+
+/**
+ * Provider for the MBean which monitors the node's cache of class definitions, discovered by JPPF via the service provider API.
+ * @author Laurent Cohen
+ * @since 6.3
+ * @exclude
+ */
+public class NodeClassCacheMBeanProvider implements JPPFNodeMBeanProvider {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(NodeClassCacheMBeanProvider.class);
+
+  @Override
+  public String getMBeanInterfaceName() {
+    return NodeClassCacheMBean.class.getName();
+  }
+
+  @Override
+  public Object createMBean(final Node node) {
+    final ContentHashStore store = ContentHashStore.getInstance();
+    if (!store.isEnabled()) return null;
+    // the store does not follow the standard MBean naming conventions
+    try {
+      return new StandardMBean(store, NodeClassCacheMBean.class);
+    } catch (final NotCompliantMBeanException e) {
+      log.error(e.getMessage(), e);
+      return null;
+    }
+  }
+
+  @Override
+  public String getMBeanName() {
+    return NodeClassCacheMBean.MBEAN_NAME;
+  }
+}
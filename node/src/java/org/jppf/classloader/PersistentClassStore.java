@@ -0,0 +1,364 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.classloader;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+import org.jppf.utils.*;
+import org.slf4j.*;
+
+/**
+ * A file system store for class definitions, keyed by the hash of their content, which survives node restarts.
+ * <p>Each definition is stored in its own file, named after its hash, under {@code <root>/blobs/<first two digits of the hash>/}.
+ * A definition file is never modified once created, and its content is checked against its hash whenever it is read,
+ * which makes it safe for multiple nodes on the same host to share the same root directory.
+ * <p>The resource names associated with each hash are recorded in an append-only index file, which is compacted when the store
+ * is loaded and whenever it grows too large compared to the number of live entries. The index is locked while it is updated.
+ * <p>The total size of the stored definitions is bounded, the least recently used definitions being deleted first.
+ * The last modification date of the definition files is used to preserve the usage order across restarts.
+ * @author Laurent Cohen
+ * @since 6.3
+ */
+class PersistentClassStore {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(PersistentClassStore.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Extension of the temporary files in which definitions are written before being moved to their final location.
+   */
+  private static final String TEMP_EXTENSION = ".tmp";
+  /**
+   * The directory where the definitions are stored.
+   */
+  private final Path blobDir;
+  /**
+   * The index file.
+   */
+  private final Path indexFile;
+  /**
+   * Maximum total size of the stored definitions, in bytes.
+   */
+  private final long maxSize;
+  /**
+   * Mapping of hashes to the stored definitions, in access order.
+   */
+  private final LinkedHashMap<String, Blob> blobs = new LinkedHashMap<>(16, 0.75f, true);
+  /**
+   * Current total size of the stored definitions, in bytes.
+   */
+  private long size;
+  /**
+   * Number of lines in the index file.
+   */
+  private int indexLines;
+  /**
+   * Number of (hash, name) associations of the stored definitions.
+   */
+  private int nbNames;
+  /**
+   * Number of definitions deleted to keep the size of the store below the maximum.
+   */
+  private long evictions;
+
+  /**
+   * Create a store in the specified directory, and load the index of the definitions it already holds.
+   * @param root the root directory of the store.
+   * @param maxSize the maximum total size of the stored definitions, in bytes.
+   * @throws IOException if the store could not be initialized.
+   */
+  PersistentClassStore(final File root, final long maxSize) throws IOException {
+    this.blobDir = root.toPath().resolve("blobs");
+    this.indexFile = root.toPath().resolve("index");
+    this.maxSize = maxSize;
+    Files.createDirectories(blobDir);
+    load();
+    if (debugEnabled) log.debug("loaded {} class definitions ({} bytes) from {}", blobs.size(), size, root);
+  }
+
+  /**
+   * Determine whether a definition with the specified hash is in this store.
+   * @param hash the hash of the definition.
+   * @return {@code true} if the definition is in the store, {@code false} otherwise.
+   */
+  synchronized boolean contains(final String hash) {
+    return blobs.containsKey(hash);
+  }
+
+  /**
+   * Get the resource names associated with each stored definition.
+   * @return a mapping of resource names to the hashes of their definitions.
+   */
+  synchronized Map<String, Set<String>> getHashesByName() {
+    final Map<String, Set<String>> result = new HashMap<>();
+    for (final Map.Entry<String, Blob> entry: blobs.entrySet()) {
+      for (final String name: entry.getValue().names) {
+        Set<String> hashes = result.get(name);
+        if (hashes == null) result.put(name, hashes = new HashSet<>());
+        hashes.add(entry.getKey());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Read the definition with the specified hash.
+   * @param hash the hash of the definition.
+   * @return the definition as an array of bytes, or {@code null} if it is not in the store or if its content does not match the hash.
+   */
+  synchronized byte[] read(final String hash) {
+    // get() rather than containsKey() updates the access order
+    if (blobs.get(hash) == null) return null;
+    final Path path = blobPath(hash);
+    try {
+      final byte[] content = Files.readAllBytes(path);
+      if (hash.equals(CryptoUtils.computeHash(content, ResourceIdentifier.CONTENT_HASH_ALGORITHM))) {
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        return content;
+      }
+      log.warn("the content of {} does not match its hash, removing it", path);
+      Files.deleteIfExists(path);
+    } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+      if (debugEnabled) log.debug("{} was removed by another process", path);
+    } catch (final IOException e) {
+      log.warn("error reading {} : {}", path, ExceptionUtils.getMessage(e));
+    }
+    remove(hash);
+    return null;
+  }
+
+  /**
+   * Store a definition for the specified resource name.
+   * @param name the name of the resource.
+   * @param hash the hash of the definition.
+   * @param content the definition.
+   */
+  synchronized void write(final String name, final String hash, final byte[] content) {
+    if (content.length > maxSize) return;
+    try {
+      Blob blob = blobs.get(hash);
+      if (blob == null) {
+        final Path path = blobPath(hash);
+        if (!Files.exists(path)) {
+          Files.createDirectories(path.getParent());
+          final Path tmp = Files.createTempFile(path.getParent(), hash, TEMP_EXTENSION);
+          Files.write(tmp, content);
+          try {
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+          } catch (@SuppressWarnings("unused") final AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+          }
+        }
+        blobs.put(hash, blob = new Blob(content.length));
+        size += content.length;
+      }
+      if (blob.names.add(name)) {
+        nbNames++;
+        appendToIndex(hash, name);
+      }
+      evict();
+      if (indexLines > 2 * nbNames + 1024) compactIndex();
+    } catch (final IOException e) {
+      log.warn("error storing definition of {} with hash {} : {}", name, hash, ExceptionUtils.getMessage(e));
+    }
+  }
+
+  /**
+   * @return the maximum total size of the stored definitions, in bytes.
+   */
+  long getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * @return the current total size of the stored definitions, in bytes.
+   */
+  synchronized long getSize() {
+    return size;
+  }
+
+  /**
+   * @return the number of stored definitions.
+   */
+  synchronized int getEntryCount() {
+    return blobs.size();
+  }
+
+  /**
+   * @return the number of definitions deleted to keep the size of the store below the maximum.
+   */
+  synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Delete the least recently used definitions until the size of the store is below the maximum.
+   * The most recently used definition is never deleted.
+   */
+  private void evict() {
+    final Iterator<Map.Entry<String, Blob>> it = blobs.entrySet().iterator();
+    while ((size > maxSize) && (blobs.size() > 1) && it.hasNext()) {
+      final Map.Entry<String, Blob> eldest = it.next();
+      it.remove();
+      size -= eldest.getValue().size;
+      nbNames -= eldest.getValue().names.size();
+      evictions++;
+      try {
+        Files.deleteIfExists(blobPath(eldest.getKey()));
+      } catch (final IOException e) {
+        log.warn("could not delete definition with hash {} : {}", eldest.getKey(), ExceptionUtils.getMessage(e));
+      }
+    }
+  }
+
+  /**
+   * Remove the definition with the specified hash from the in-memory index.
+   * @param hash the hash of the definition.
+   */
+  private void remove(final String hash) {
+    final Blob blob = blobs.remove(hash);
+    if (blob != null) {
+      size -= blob.size;
+      nbNames -= blob.names.size();
+    }
+  }
+
+  /**
+   * Get the path of the file holding the definition with the specified hash.
+   * @param hash the hash of the definition.
+   * @return the path of the definition file.
+   */
+  private Path blobPath(final String hash) {
+    return blobDir.resolve(hash.substring(0, 2)).resolve(hash);
+  }
+
+  /**
+   * Load the stored definitions, ordered by last use, then the associated resource names from the index file.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void load() throws IOException {
+    final List<Path> paths = new ArrayList<>();
+    try (final DirectoryStream<Path> dirs = Files.newDirectoryStream(blobDir)) {
+      for (final Path dir: dirs) {
+        if (!Files.isDirectory(dir)) continue;
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+          for (final Path path: files) {
+            if (path.getFileName().toString().endsWith(TEMP_EXTENSION)) Files.deleteIfExists(path);
+            else paths.add(path);
+          }
+        }
+      }
+    }
+    final Map<Path, Long> lastModified = new HashMap<>();
+    for (final Path path: paths) lastModified.put(path, Files.getLastModifiedTime(path).toMillis());
+    paths.sort((p1, p2) -> Long.compare(lastModified.get(p1), lastModified.get(p2)));
+    for (final Path path: paths) {
+      final long n = Files.size(path);
+      blobs.put(path.getFileName().toString(), new Blob(n));
+      size += n;
+    }
+    compactIndex();
+    evict();
+  }
+
+  /**
+   * Read the index file, associate the resource names it holds with the stored definitions,
+   * then rewrite it with only the entries of the definitions that still exist.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void compactIndex() throws IOException {
+    try (final FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // the lock is released when the channel is closed
+      channel.lock();
+      final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining() && (channel.read(buffer) >= 0));
+      final Set<String> lines = new LinkedHashSet<>();
+      try (final BufferedReader reader = new BufferedReader(new StringReader(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8)))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          final int idx = line.indexOf('\t');
+          if ((idx <= 0) || !lines.add(line)) continue;
+          final String hash = line.substring(0, idx);
+          final Blob blob = blobs.get(hash);
+          // keep the entries of definitions added by other processes sharing this store
+          if (blob == null) {
+            if (!Files.exists(blobPath(hash))) lines.remove(line);
+          } else if (blob.names.add(line.substring(idx + 1))) nbNames++;
+        }
+      }
+      for (final Map.Entry<String, Blob> entry: blobs.entrySet()) {
+        for (final String name: entry.getValue().names) lines.add(entry.getKey() + '\t' + name);
+      }
+      final StringBuilder sb = new StringBuilder();
+      for (final String line: lines) sb.append(line).append('\n');
+      channel.truncate(0L);
+      channel.position(0L);
+      final ByteBuffer out = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+      while (out.hasRemaining()) channel.write(out);
+      indexLines = lines.size();
+    }
+  }
+
+  /**
+   * Append an entry to the index file.
+   * @param hash the hash of the definition.
+   * @param name the name of the resource.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void appendToIndex(final String hash, final String name) throws IOException {
+    try (final FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      // the lock is released when the channel is closed
+      channel.lock();
+      final ByteBuffer out = ByteBuffer.wrap((hash + '\t' + name + '\n').getBytes(StandardCharsets.UTF_8));
+      while (out.hasRemaining()) channel.write(out);
+      indexLines++;
+    }
+  }
+
+  /**
+   * A stored definition.
+   */
+  private static class Blob {
+    /**
+     * The size of the definition.
+     */
+    final long size;
+    /**
+     * The names of the resources with this definition.
+     */
+    final Set<String> names = new HashSet<>(2);
+
+    /**
+     * @param size the size of the definition.
+     */
+    Blob(final long size) {
+      this.size = size;
+    }
+  }
+}
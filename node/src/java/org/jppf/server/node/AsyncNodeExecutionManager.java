@@ -49,6 +49,10 @@ public class AsyncNodeExecutionManager extends AbstractAsyncExecutionManager {
    * The node that uses this execution manager.
    */
   private final NodeInternal node;
+  /**
+   * Whether the result of each task is sent as soon as the task completes.
+   */
+  private final boolean resultStreamingEnabled;
 
   /**
    * Initialize this execution manager with the specified node.
@@ -57,6 +61,8 @@ public class AsyncNodeExecutionManager extends AbstractAsyncExecutionManager {
   public AsyncNodeExecutionManager(final NodeInternal node) {
     super(node.getConfiguration(), JPPFProperties.PROCESSING_THREADS);
     this.node = node;
+    final TypedProperties config = node.getConfiguration();
+    this.resultStreamingEnabled = !config.get(JPPFProperties.NODE_OFFLINE) && config.get(JPPFProperties.NODE_RESULTS_STREAMING_ENABLED);
   }
 
   @Override
@@ -80,6 +86,7 @@ public class AsyncNodeExecutionManager extends AbstractAsyncExecutionManager {
       else log.warn(msg);
     }
     jobEntry.accumulatedElapsed.set(0L);
+    jobEntry.accumulatedCpuTime.set(0L);
     final LifeCycleEventHandler handler = node.getLifeCycleEventHandler();
     if (handler != null) handler.fireJobStarting(bundle, taskClassLoader instanceof AbstractJPPFClassLoader ? (AbstractJPPFClassLoader) taskClassLoader : null,
       taskList, jobEntry.dataProvider);
@@ -93,6 +100,7 @@ public class AsyncNodeExecutionManager extends AbstractAsyncExecutionManager {
     if (debugEnabled) log.debug("cleaning up bundle {}", bundle);
     //jobEntry.bundle = null;
     bundle.setParameter(BundleParameter.NODE_BUNDLE_ELAPSED_PARAM, jobEntry.accumulatedElapsed.get());
+    bundle.setParameter(BundleParameter.NODE_BUNDLE_CPU_TIME_PARAM, jobEntry.accumulatedCpuTime.get());
     final ClassLoader cl = jobEntry.getClassLoader();
     final LifeCycleEventHandler handler = node.getLifeCycleEventHandler();
     if (handler != null) handler.fireJobEnding(bundle, cl instanceof AbstractJPPFClassLoader ? (AbstractJPPFClassLoader) cl : null, jobEntry.taskList, jobEntry.dataProvider);
@@ -106,6 +114,11 @@ public class AsyncNodeExecutionManager extends AbstractAsyncExecutionManager {
     if (debugEnabled) log.debug("cleaned up bundle {}", bundle);
   }
 
+  @Override
+  protected boolean isResultStreamingEnabled() {
+    return resultStreamingEnabled;
+  }
+
   @Override
   public void triggerConfigChanged() {
     super.triggerConfigChanged();
@@ -271,9 +271,15 @@ public abstract class JPPFNode extends AbstractCommonNode implements ClassLoader
    */
   void processResults(final BundleWithTasks bundleWithTasks) throws Exception {
     checkStopped();
-    currentBundle = null;
     final TaskBundle bundle = bundleWithTasks.getBundle();
     final List<Task<?>> taskList = bundleWithTasks.getTasks();
+    if (bundle.getParameter(BundleParameter.PARTIAL_RESULTS, false)) {
+      if (debugEnabled) log.debug("processing {} partial task results for job '{}'", taskList.size(), bundle.getName());
+      nodeIO.writeResults(bundle, taskList);
+      if (!isJmxEnabled()) setExecutedTaskCount(getExecutedTaskCount() + taskList.size());
+      return;
+    }
+    currentBundle = null;
     if (debugEnabled) log.debug("processing " + (taskList == null ? 0 : taskList.size()) + " task results for job '" + bundle.getName() + '\'');
     if (executionManager.checkConfigChanged() || bundle.isHandshake() || isOffline()) {
       if (debugEnabled) log.debug("detected configuration change or initial bundle request, sending new system information to the server, config=\n{}", configuration);
@@ -402,6 +408,26 @@ public abstract class JPPFNode extends AbstractCommonNode implements ClassLoader
     }
   }
 
+  /**
+   * Send the result of a task ahead of the completion of its bundle, with a header that only references this task.
+   * @exclude
+   */
+  @Override
+  public void taskExecuted(final TaskBundle bundle, final Task<?> task) {
+    try {
+      if (isOffline()) return;
+      if (debugEnabled) log.debug("sending result of {} ahead of job {}", task, bundle);
+      final TaskBundle header = bundle.copy();
+      header.setTaskCount(1);
+      header.setNodeExecutionTime(bundle.getNodeExecutionTime());
+      header.setParameter(BundleParameter.TASK_POSITIONS, new int[] { task.getPosition() });
+      header.setParameter(BundleParameter.PARTIAL_RESULTS, true);
+      getJobWriter().put(new BundleWithTasks(header, Collections.<Task<?>>singletonList(task)));
+    } catch (final Exception e) {
+      log.error(e.getMessage(), e);
+    }
+  }
+
   /**
    * @exclude
    */
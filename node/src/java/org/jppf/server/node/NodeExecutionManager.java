@@ -77,6 +77,7 @@ public class NodeExecutionManager extends AbstractExecutionManager {
       else log.warn(msg);
     }
     accumulatedElapsed.set(0L);
+    accumulatedCpuTime.set(0L);
     final LifeCycleEventHandler handler = node.getLifeCycleEventHandler();
     if (handler != null) handler.fireJobStarting(bundle, taskClassLoader instanceof AbstractJPPFClassLoader ? (AbstractJPPFClassLoader) taskClassLoader : null,
       taskList, dataProvider);
@@ -87,6 +88,7 @@ public class NodeExecutionManager extends AbstractExecutionManager {
   protected void cleanup() {
     if (debugEnabled) log.debug("cleaning up bundle {}", bundle);
     bundle.setParameter(BundleParameter.NODE_BUNDLE_ELAPSED_PARAM, accumulatedElapsed.get());
+    bundle.setParameter(BundleParameter.NODE_BUNDLE_CPU_TIME_PARAM, accumulatedCpuTime.get());
     final ClassLoader cl = usedClassLoader.getClassLoader();
     final LifeCycleEventHandler handler = node.getLifeCycleEventHandler();
     if (handler != null) handler.fireJobEnding(bundle, cl instanceof AbstractJPPFClassLoader ? (AbstractJPPFClassLoader) cl : null, taskList, dataProvider);
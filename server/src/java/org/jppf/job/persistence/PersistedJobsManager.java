@@ -24,7 +24,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.jppf.io.*;
 import org.jppf.job.*;
-import org.jppf.job.persistence.impl.PersistenceInfoKey;
+import org.jppf.job.persistence.impl.*;
 import org.jppf.node.protocol.TaskBundle;
 import org.jppf.server.JPPFDriver;
 import org.jppf.server.protocol.ServerTask;
@@ -188,7 +188,7 @@ public class PersistedJobsManager implements PersistedJobsManagerMBean {
     if (data == null) return null;
     DataLocation dl = data;
     if (type == PersistenceObjectType.TASK) {
-      final ServerTask task = (ServerTask) IOHelper.unwrappedData(data);
+      final ServerTask task = ServerTask.fromPersistedData(data.getInputStream());
       dl = task.getInitialTask();
     }
     final JPPFByteArrayOutputStream baos = new JPPFByteArrayOutputStream(dl.getSize());
@@ -202,4 +202,11 @@ public class PersistedJobsManager implements PersistedJobsManagerMBean {
     if (debugEnabled) log.debug("deleting load request with id={}", requestId);
     return loadRequests.remove(requestId) != null;
   }
+
+  @Override
+  public WriteBehindStatistics getWriteBehindStatistics() throws Exception {
+    JobPersistence persistence = handler.getPersistence();
+    if (persistence instanceof CacheablePersistence) persistence = ((CacheablePersistence) persistence).getDelegate();
+    return (persistence instanceof AsynchronousPersistence) ? ((AsynchronousPersistence) persistence).getWriteBehindStatistics() : null;
+  }
 }
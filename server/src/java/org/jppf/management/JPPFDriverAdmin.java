@@ -236,7 +236,7 @@ public class JPPFDriverAdmin implements JPPFDriverAdminMBean {
   public void resetStatistics() throws Exception {
     if (debugEnabled) log.debug("statistics reset requested");
     final JPPFStatistics stats = driver.getStatistics();
-    final JPPFSnapshot.LabelExcludingFilter filter = new JPPFSnapshot.LabelExcludingFilter(NODES, IDLE_NODES, CLIENTS, JOB_COUNT, TASK_QUEUE_COUNT);
+    final JPPFSnapshot.LabelExcludingFilter filter = new JPPFSnapshot.LabelExcludingFilter(NODES, IDLE_NODES, CLIENTS, JOB_COUNT, TASK_QUEUE_COUNT, CLASS_CACHE_BYTES);
     stats.reset(filter);
     for (final String s: new String[] {JOB_COUNT, TASK_QUEUE_COUNT}) {
       final JPPFSnapshot snapshot = stats.getSnapshot(s);
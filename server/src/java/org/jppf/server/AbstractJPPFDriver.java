@@ -28,7 +28,7 @@ import org.jppf.management.*;
 import org.jppf.nio.*;
 import org.jppf.nio.acceptor.AcceptorNioServer;
 import org.jppf.node.initialization.OutputRedirectHook;
-import org.jppf.serialization.ObjectSerializer;
+import org.jppf.serialization.*;
 import org.jppf.server.job.JPPFJobManager;
 import org.jppf.server.nio.classloader.client.AsyncClientClassNioServer;
 import org.jppf.server.nio.classloader.node.AsyncNodeClassNioServer;
@@ -169,6 +169,7 @@ abstract class AbstractJPPFDriver {
     new OutputRedirectHook().initializing(configuration);
     jppfDebugEnabled = configuration.get(JPPFProperties.DEBUG_ENABLED);
     statistics = createServerStatistics();
+    ZLIBDictionarySerialization.registerStatistics(statistics);
   }
 
   /**
@@ -30,6 +30,7 @@ import org.jppf.nio.*;
 import org.jppf.nio.acceptor.AcceptorNioServer;
 import org.jppf.node.protocol.JPPFDistributedJob;
 import org.jppf.process.LauncherListener;
+import org.jppf.serialization.ZLIBDictionarySerialization;
 import org.jppf.server.job.JPPFJobManager;
 import org.jppf.server.nio.classloader.client.AsyncClientClassNioServer;
 import org.jppf.server.nio.classloader.node.*;
@@ -319,6 +320,7 @@ public class JPPFDriver extends AbstractJPPFDriver {
     if (debugEnabled) log.debug("resetting statistics");
     statistics.clearListeners();
     statistics.reset();
+    ZLIBDictionarySerialization.unregisterStatistics(statistics);
     if (debugEnabled) log.debug("closing JMX server");
     initializer.stopJmxServer();
     if (debugEnabled) log.debug("shutdown complete");
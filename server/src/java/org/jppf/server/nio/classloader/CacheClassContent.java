@@ -17,22 +17,52 @@
  */
 package org.jppf.server.nio.classloader;
 
+import java.nio.ByteBuffer;
+
 /**
  * This class encapsulates the content oif a class cache entry.
+ * Identical contents are shared by all the cache entries that hold them, regardless of the uuid of the resource provider.
  * @author Domingos Creado
  */
 class CacheClassContent {
   /**
-   * The actual content of this element.
+   * The hash of the content.
+   */
+  final String hash;
+  /**
+   * The actual content of this element, when stored in the heap.
    */
   private final byte[] content;
+  /**
+   * The actual content of this element, when stored off-heap.
+   */
+  private final ByteBuffer offHeapContent;
+  /**
+   * The size of the content in bytes.
+   */
+  final int size;
+  /**
+   * The number of cache entries that share this content.
+   */
+  int refCount;
 
   /**
    * Initialize this content with the specified data.
+   * @param hash the hash of the content.
    * @param content the data as an array of bytes.
+   * @param offHeap whether to store the data outside of the heap.
    */
-  public CacheClassContent(final byte[] content) {
-    this.content = content;
+  CacheClassContent(final String hash, final byte[] content, final boolean offHeap) {
+    this.hash = hash;
+    this.size = (content == null) ? 0 : content.length;
+    if (offHeap && (content != null)) {
+      this.content = null;
+      this.offHeapContent = ByteBuffer.allocateDirect(size);
+      this.offHeapContent.put(content).flip();
+    } else {
+      this.content = content;
+      this.offHeapContent = null;
+    }
   }
 
   /**
@@ -40,6 +70,18 @@ class CacheClassContent {
    * @return the data as an array of bytes.
    */
   public byte[] getContent() {
-    return content;
+    if (offHeapContent == null) return content;
+    final byte[] bytes = new byte[size];
+    offHeapContent.duplicate().get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Determine whether this element holds the specified array of bytes, as opposed to a copy of it.
+   * @param bytes the array to check.
+   * @return {@code true} if the content of this element is the specified array, {@code false} otherwise.
+   */
+  boolean isContent(final byte[] bytes) {
+    return (content != null) && (content == bytes);
   }
 }
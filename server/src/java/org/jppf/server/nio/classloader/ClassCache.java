@@ -18,17 +18,29 @@
 
 package org.jppf.server.nio.classloader;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.*;
 
+import org.jppf.classloader.ResourceIdentifier;
+import org.jppf.management.DriverClassCacheMBean;
 import org.jppf.utils.*;
-import org.jppf.utils.collections.SoftReferenceValuesMap;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.jppf.utils.stats.*;
 import org.slf4j.*;
 
 /**
  * A cache for resources loaded by client class loaders.
+ * <p>Lookups are lock-free and only contend on the concurrent map that holds the entries. The total size of the cached content is bounded
+ * by the {@code jppf.class.cache.max.size} configuration property: when it is exceeded, entries are evicted according to the CLOCK algorithm,
+ * an approximation of LRU where each entry has a "referenced" bit set on lookup and cleared when the eviction clock passes over it.
+ * Only the insertions and evictions are serialized.
+ * <p>The content of the resources is addressed by its hash: resources with identical content, for instance the same library
+ * provided by multiple clients, share a single copy which only counts once towards the size of the cache.
+ * <p>The content of the cached resources is optionally stored outside of the heap, as specified with the {@code jppf.class.cache.offheap} property.
  * @author Laurent Cohen
  */
-public class ClassCache {
+public class ClassCache implements DriverClassCacheMBean {
   /**
    * Logger for this class.
    */
@@ -38,18 +50,82 @@ public class ClassCache {
    */
   private static boolean traceEnabled = log.isTraceEnabled();
   /**
-   * The cache of class definition, this is done to not flood the provider when it dispatch many tasks. it uses
-   * a soft map to minimize the OutOfMemory.
+   * The cache of class definition, this is done to not flood the provider when it dispatch many tasks.
    */
-  private final Map<CacheClassKey, CacheClassContent> classCache = new SoftReferenceValuesMap<>();
+  private final Map<CacheClassKey, Entry> classCache = new ConcurrentHashMap<>();
   /**
-   * Total number of cache lookups.
+   * The distinct contents held in the cache, keyed by hash. Guarded by the lock on the eviction clock.
    */
-  private long nbLookups;
+  private final Map<String, CacheClassContent> contents = new HashMap<>();
+  /**
+   * The eviction clock, which holds the entries in insertion order. It may also hold entries that were removed and not yet purged.
+   */
+  private final Deque<Entry> clock = new ArrayDeque<>();
+  /**
+   * Number of removed entries still present in the eviction clock.
+   */
+  private int nbStaleEntries;
+  /**
+   * Maximum total size of the cached content, in bytes.
+   */
+  private final long maxSize;
+  /**
+   * Whether the cached content is stored outside of the heap.
+   */
+  private final boolean offHeap;
+  /**
+   * Current total size of the cached content, in bytes.
+   */
+  private final AtomicLong size = new AtomicLong(0L);
   /**
    * Total number of positive cache lookups.
    */
-  private long nbHits;
+  private final LongAdder nbHits = new LongAdder();
+  /**
+   * Total number of negative cache lookups.
+   */
+  private final LongAdder nbMisses = new LongAdder();
+  /**
+   * Total number of evicted entries.
+   */
+  private final LongAdder nbEvictions = new LongAdder();
+  /**
+   * Total number of bytes that were not sent to the nodes because they already had the content.
+   */
+  private final LongAdder deduplicatedBytes = new LongAdder();
+  /**
+   * The statistics to update, may be {@code null}.
+   */
+  private final JPPFStatistics stats;
+
+  /**
+   * Create a cache with the default settings and no statistics.
+   */
+  public ClassCache() {
+    this(JPPFProperties.CLASS_CACHE_MAX_SIZE.getDefaultValue(), JPPFProperties.CLASS_CACHE_OFFHEAP.getDefaultValue(), null);
+  }
+
+  /**
+   * Create a cache with the settings from the specified configuration.
+   * @param config the driver configuration.
+   * @param stats the statistics to update, may be {@code null}.
+   */
+  public ClassCache(final TypedProperties config, final JPPFStatistics stats) {
+    this(config.get(JPPFProperties.CLASS_CACHE_MAX_SIZE), config.get(JPPFProperties.CLASS_CACHE_OFFHEAP), stats);
+  }
+
+  /**
+   * Create a cache with the specified settings.
+   * @param maxSize the maximum total size of the cached content, in bytes.
+   * @param offHeap whether the cached content is stored outside of the heap.
+   * @param stats the statistics to update, may be {@code null}.
+   */
+  public ClassCache(final long maxSize, final boolean offHeap, final JPPFStatistics stats) {
+    this.maxSize = maxSize;
+    this.offHeap = offHeap;
+    this.stats = stats;
+    if (log.isDebugEnabled()) log.debug("created class cache with maxSize={}, offHeap={}", maxSize, offHeap);
+  }
 
   /**
    * Add a resource content to the class cache.
@@ -59,10 +135,55 @@ public class ClassCache {
    */
   public void setCacheContent(final String uuid, final String name, final byte[] content) {
     if (traceEnabled) log.trace("adding cache entry with key=[" + uuid + ", " + name + ']');
-    final CacheClassContent cacheContent = new CacheClassContent(content);
     final CacheClassKey cacheKey = new CacheClassKey(uuid, name);
-    synchronized (classCache) {
-      classCache.put(cacheKey, cacheContent);
+    if ((content == null) || (content.length > maxSize)) {
+      if (traceEnabled) log.trace("not caching {} whose content is null or exceeds the maximum cache size", cacheKey);
+      return;
+    }
+    final String hash = computeHash(content);
+    long delta = 0L, evicted = 0L;
+    synchronized(clock) {
+      final Entry old = classCache.get(cacheKey);
+      if ((old != null) && old.content.hash.equals(hash)) return;
+      CacheClassContent cacheContent = contents.get(hash);
+      if (cacheContent == null) {
+        cacheContent = new CacheClassContent(hash, content, offHeap);
+        contents.put(hash, cacheContent);
+        delta += cacheContent.size;
+      }
+      cacheContent.refCount++;
+      final Entry entry = new Entry(cacheKey, cacheContent);
+      classCache.put(cacheKey, entry);
+      if (old != null) delta -= remove(old);
+      clock.addLast(entry);
+      long currentSize = size.addAndGet(delta);
+      while (currentSize > maxSize) {
+        final Entry e = clock.pollFirst();
+        if (e.removed) {
+          nbStaleEntries--;
+          continue;
+        }
+        if (e.referenced) {
+          e.referenced = false;
+          clock.addLast(e);
+          continue;
+        }
+        classCache.remove(e.key, e);
+        e.removed = true;
+        final long freed = release(e.content);
+        currentSize = size.addAndGet(-freed);
+        delta -= freed;
+        evicted++;
+      }
+      if (nbStaleEntries > clock.size() / 2) purgeStaleEntries();
+    }
+    if (evicted > 0L) {
+      nbEvictions.add(evicted);
+      if (traceEnabled) log.trace("evicted {} entries, cache size = {}", evicted, size.get());
+    }
+    if (stats != null) {
+      if (delta != 0L) stats.addValue(JPPFStatisticsHelper.CLASS_CACHE_BYTES, delta);
+      if (evicted > 0L) stats.addValue(JPPFStatisticsHelper.CLASS_CACHE_EVICTIONS, evicted);
     }
   }
 
@@ -73,14 +194,188 @@ public class ClassCache {
    * @return the content of the resource as an array of bytes.
    */
   public byte[] getCacheContent(final String uuid, final String name) {
+    final Entry entry = classCache.get(new CacheClassKey(uuid, name));
+    if (entry == null) nbMisses.increment();
+    else {
+      nbHits.increment();
+      if (!entry.referenced) entry.referenced = true;
+    }
+    if (stats != null) stats.addValue((entry == null) ? JPPFStatisticsHelper.CLASS_CACHE_MISSES : JPPFStatisticsHelper.CLASS_CACHE_HITS, 1);
+    if (traceEnabled) log.trace(StringUtils.build("nbHits=", nbHits, ", nbMisses=", nbMisses, ", lookup for key=[", uuid, ", ", name, "] : ", ReflectionUtils.simpleDump(entry)));
+    return (entry == null) ? null : entry.content.getContent();
+  }
+
+  /**
+   * Get the hash of the content of a resource in the cache. This does not count as a lookup.
+   * @param uuid uuid of the resource provider.
+   * @param name name of the resource.
+   * @return the hash of the content, or {@code null} if the resource is not in the cache.
+   */
+  public String getContentHash(final String uuid, final String name) {
+    final Entry entry = classCache.get(new CacheClassKey(uuid, name));
+    return (entry == null) ? null : entry.content.hash;
+  }
+
+  /**
+   * Get the hash of a resource definition about to be sent. The hash held in the cache is only used when the cache entry for the resource
+   * holds the very same array of bytes, otherwise the hash is computed from the definition, since the cached content may differ from it.
+   * This does not count as a lookup.
+   * @param uuid uuid of the resource provider.
+   * @param name name of the resource.
+   * @param definition the definition for which to get a hash.
+   * @return the hash of the definition as a string of hexadecimal digits.
+   */
+  public String getContentHash(final String uuid, final String name, final byte[] definition) {
+    final Entry entry = classCache.get(new CacheClassKey(uuid, name));
+    if ((entry != null) && entry.content.isContent(definition)) return entry.content.hash;
+    return computeHash(definition);
+  }
+
+  /**
+   * Compute the hash of the specified content, as used to deduplicate the cached resources.
+   * @param content the content for which to compute a hash.
+   * @return the hash as a string of hexadecimal digits.
+   */
+  public static String computeHash(final byte[] content) {
+    return CryptoUtils.computeHash(content, ResourceIdentifier.CONTENT_HASH_ALGORITHM);
+  }
+
+  /**
+   * Record that a resource definition was not sent to a node, because the node already had the same content.
+   * @param nbBytes the size of the definition.
+   */
+  public void addDeduplicatedBytes(final long nbBytes) {
+    deduplicatedBytes.add(nbBytes);
+  }
+
+  /**
+   * Mark the specified entry as removed and release its content. The entry will be skipped when the eviction clock reaches it.
+   * This method must be called while holding the lock on the eviction clock.
+   * @param entry the removed entry.
+   * @return the number of bytes freed.
+   */
+  private long remove(final Entry entry) {
+    if (entry.removed) return 0L;
+    entry.removed = true;
+    nbStaleEntries++;
+    return release(entry.content);
+  }
+
+  /**
+   * Release a reference to the specified content, and remove the content when it is no longer referenced.
+   * This method must be called while holding the lock on the eviction clock.
+   * @param content the content to release.
+   * @return the number of bytes freed.
+   */
+  private long release(final CacheClassContent content) {
+    if (--content.refCount > 0) return 0L;
+    contents.remove(content.hash);
+    return content.size;
+  }
+
+  /**
+   * Remove the stale entries from the eviction clock.
+   * This method must be called while holding the lock on the eviction clock.
+   */
+  private void purgeStaleEntries() {
+    clock.removeIf(entry -> entry.removed);
+    nbStaleEntries = 0;
+  }
+
+  @Override
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public long getSize() {
+    return size.get();
+  }
+
+  @Override
+  public int getEntryCount() {
+    return classCache.size();
+  }
+
+  @Override
+  public int getDistinctContentCount() {
+    synchronized(clock) {
+      return contents.size();
+    }
+  }
+
+  @Override
+  public boolean isOffHeap() {
+    return offHeap;
+  }
+
+  @Override
+  public long getHits() {
+    return nbHits.sum();
+  }
+
+  @Override
+  public long getMisses() {
+    return nbMisses.sum();
+  }
+
+  @Override
+  public long getEvictions() {
+    return nbEvictions.sum();
+  }
+
+  @Override
+  public double getHitRatio() {
+    final long hits = nbHits.sum(), total = hits + nbMisses.sum();
+    return (total == 0L) ? 0d : (double) hits / (double) total;
+  }
+
+  @Override
+  public long getDeduplicatedBytes() {
+    return deduplicatedBytes.sum();
+  }
+
+  @Override
+  public void clear() {
+    final long removed;
+    synchronized(clock) {
+      classCache.clear();
+      contents.clear();
+      clock.clear();
+      nbStaleEntries = 0;
+      removed = size.getAndSet(0L);
+    }
+    if ((stats != null) && (removed != 0L)) stats.addValue(JPPFStatisticsHelper.CLASS_CACHE_BYTES, -removed);
+  }
+
+  /**
+   * An entry in the cache, which associates a resource key with its content.
+   */
+  private static class Entry {
+    /**
+     * The key of this entry.
+     */
+    final CacheClassKey key;
+    /**
+     * The content of this entry, possibly shared with other entries.
+     */
     final CacheClassContent content;
-    final boolean contentNull;
-    synchronized (classCache) {
-      contentNull = (content = classCache.get(new CacheClassKey(uuid, name))) == null;
-      nbLookups++;
-      if (!contentNull) nbHits++;
-      if (traceEnabled) log.trace(StringUtils.build("nbLookups=", nbLookups, ", nbHits=", nbHits, ", lookup for key=[", uuid, ", ", name, "] : ", ReflectionUtils.simpleDump(content)));
+    /**
+     * Whether this entry was looked up since the eviction clock last passed over it.
+     */
+    volatile boolean referenced;
+    /**
+     * Whether this entry was removed from the cache.
+     */
+    boolean removed;
+
+    /**
+     * @param key the key of this entry.
+     * @param content the content of this entry.
+     */
+    Entry(final CacheClassKey key, final CacheClassContent content) {
+      this.key = key;
+      this.content = content;
     }
-    return contentNull ? null : content.getContent();
   }
 }
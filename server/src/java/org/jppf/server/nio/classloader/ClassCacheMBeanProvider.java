@@ -0,0 +1,64 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.server.nio.classloader;
+
+import javax.management.*;
+
+import org.jppf.management.DriverClassCacheMBean;
+import org.jppf.management.spi.JPPFDriverMBeanProvider;
+import org.jppf.server.JPPFDriver;
+import org.slf4j.*;
+
+/**
+ * Provider for the MBean which manages and monitors the driver's class cache.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class ClassCacheMBeanProvider implements JPPFDriverMBeanProvider {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(ClassCacheMBeanProvider.class);
+
+  @Override
+  public String getMBeanInterfaceName() {
+    return DriverClassCacheMBean.class.getName();
+  }
+
+  @Override
+  public String getMBeanName() {
+    return DriverClassCacheMBean.MBEAN_NAME;
+  }
+
+  @Override
+  public Object createMBean() {
+    return null;
+  }
+
+  @Override
+  public Object createMBean(final JPPFDriver driver) {
+    // the class cache does not follow the standard MBean naming conventions
+    try {
+      return new StandardMBean(driver.getInitializer().getClassCache(), DriverClassCacheMBean.class);
+    } catch (final NotCompliantMBeanException e) {
+      log.error(e.getMessage(), e);
+      return null;
+    }
+  }
+}
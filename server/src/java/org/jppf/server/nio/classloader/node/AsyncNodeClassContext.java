@@ -25,7 +25,7 @@ import java.util.concurrent.locks.*;
 import org.jppf.classloader.*;
 import org.jppf.nio.ClassLoaderNioMessage;
 import org.jppf.server.nio.classloader.*;
-import org.jppf.utils.ExceptionUtils;
+import org.jppf.utils.*;
 import org.jppf.utils.collections.*;
 import org.slf4j.*;
 
@@ -183,11 +183,41 @@ public class AsyncNodeClassContext extends AbstractAsyncClassContext implements
       setLocalResponse(response);
       AsyncNodeClassMessageWriter.handleResponseSent(this, response);
     } else {
+      deduplicate(response);
       final ClassLoaderNioMessage message = serializeResource(response);
       offerMessageToSend(message);
     }
   }
 
+  /**
+   * Attach the hash of their content to the resource definitions in the specified response, and remove the definitions
+   * whose hash is in the set of hashes the node declared it already holds for the same resource name.
+   * @param response the response to process.
+   */
+  private void deduplicate(final JPPFResourceWrapper response) {
+    final ClassCache classCache = driver.getInitializer().getClassCache();
+    for (final JPPFResourceWrapper resource: response.getResources()) {
+      final byte[] definition = resource.getDefinition();
+      if ((definition == null) || !resource.isSingleResource()) continue;
+      final TraversalList<String> uuidPath = resource.getUuidPath();
+      final String uuid = (resource.isDynamic() && (uuidPath.size() > 0)) ? uuidPath.getFirst() : driver.getUuid();
+      final String hash = classCache.getContentHash(uuid, resource.getName(), definition);
+      if (hash == null) continue;
+      resource.setData(ResourceIdentifier.CONTENT_HASH, hash);
+      final String[] knownHashes = (String[]) resource.getData(ResourceIdentifier.KNOWN_HASHES);
+      if (knownHashes == null) continue;
+      resource.setData(ResourceIdentifier.KNOWN_HASHES, null);
+      for (final String known: knownHashes) {
+        if (hash.equals(known)) {
+          if (debugEnabled) log.debug("node {} already has the definition of {} with hash {}", this, resource.getName(), hash);
+          resource.setDefinition(null);
+          classCache.addDeduplicatedBytes(definition.length);
+          break;
+        }
+      }
+    }
+  }
+
   /**
    * Get the number of pending responses.
    * @return the number of pending responses as an int.
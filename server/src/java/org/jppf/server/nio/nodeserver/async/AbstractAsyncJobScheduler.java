@@ -108,6 +108,10 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
    * 
    */
   final JobDependenciesHandler dependencyHandler; 
+  /**
+   * Indexes the idle nodes by the values of the properties referenced in the jobs' execution policies.
+   */
+  final IdleNodeMatcher matcher;
 
   /**
    * Initialize this task queue checker with the specified node server.
@@ -128,6 +132,7 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
     this.peerLoadBalanceThreshold = server.getDriver().getInitializer().getPeerConnectionPoolHandler().getLoadBalanceThreshold();
     this.localNodeBiasEnabled = server.getDriver().getConfiguration().get(JPPFProperties.LOCAL_NODE_BIAS);
     this.selectionHelper = new NodeSelectionHelper(server.getDriver());
+    this.matcher = new IdleNodeMatcher(server.getDriver().getConfiguration().get(JPPFProperties.NODE_MATCHING_INDEXED));
   }
 
   /**
@@ -176,6 +181,7 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
         final boolean added;
         synchronized(idleChannels) {
           added = idleChannels.add(channel);
+          if (added) matcher.nodeAdded(channel);
         }
         channel.getIdle().set(true);
         if (added) {
@@ -199,6 +205,7 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
     final boolean removed;
     synchronized(idleChannels) {
       removed = idleChannels.remove(channel);
+      if (removed) matcher.nodeRemoved(channel);
     }
     channel.getIdle().set(false);
     if (removed) {
@@ -234,6 +241,7 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
   void clearIdleChannels() {
     synchronized (idleChannels) {
       idleChannels.clear();
+      matcher.clear();
     }
   }
 
@@ -259,9 +267,10 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
     final Preference preferencePolicy = job.getSLA().getPreferencePolicy();
     final Set<BaseNodeContext> result = new HashSet<>();
     for (final ExecutionPolicy policy: preferencePolicy.getChildren()) {
-      preparePolicy(policy, job, stats, job.getNbChannels());
+      final CompiledPolicy compiled = PolicyUtils.compile(policy);
+      if (!compiled.isCompiled()) preparePolicy(policy, job, stats, job.getNbChannels());
       for (final BaseNodeContext node: idleChannels) {
-        if (policy.evaluate(node.getSystemInformation())) result.add(node);
+        if (compiled.evaluate(node.getSystemInformation())) result.add(node);
       }
       if (!result.isEmpty()) return result;
     }
@@ -26,7 +26,7 @@ import org.jppf.execute.ExecutorStatus;
 import org.jppf.load.balancer.*;
 import org.jppf.load.balancer.spi.JPPFBundlerFactory;
 import org.jppf.management.*;
-import org.jppf.node.policy.ExecutionPolicy;
+import org.jppf.node.policy.*;
 import org.jppf.node.protocol.*;
 import org.jppf.server.nio.nodeserver.*;
 import org.jppf.server.protocol.*;
@@ -34,7 +34,7 @@ import org.jppf.server.queue.*;
 import org.jppf.utils.*;
 import org.jppf.utils.collections.*;
 import org.jppf.utils.configuration.JPPFProperties;
-import org.jppf.utils.stats.JPPFStatistics;
+import org.jppf.utils.stats.*;
 import org.slf4j.*;
 
 /**
@@ -84,11 +84,12 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
   private boolean dispatch() {
     try {
       queue.getBroadcastManager().processPendingBroadcasts();
-      if (queue.isEmpty()) return false;
+      if (queue.isEmpty()) return dispatchSpeculative();
       BaseNodeContext channel = null;
       ServerTaskBundleNode nodeBundle = null;
       synchronized(idleChannels) {
         if (idleChannels.isEmpty()) return false;
+        matcher.refresh();
         final List<ServerJob> allJobs = queue.getAllJobsFromPriorityMap();
         if (debugEnabled) log.debug("there are {} idle channels and {} jobs in the queue", idleChannels.size(), allJobs.size());
         try {
@@ -141,6 +142,46 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
     return false;
   }
 
+  /**
+   * Send copies of the tasks still executing on a node to an idle node, for the jobs which have no more pending task and whose SLA enables speculative dispatch.
+   * The first of the two dispatches to complete provides the results, and the other is cancelled.
+   * @return {@code true} if a speculative dispatch was performed, {@code false} otherwise.
+   */
+  private boolean dispatchSpeculative() {
+    synchronized(idleChannels) {
+      if (idleChannels.isEmpty()) return false;
+      for (final ServerJob job: queue.getAllJobs()) {
+        final JobSLA sla = job.getSLA();
+        if (!sla.isSpeculativeDispatch() || (job.getTaskCount() > 0) || !checkJobState(job)) continue;
+        final ServerTaskBundleNode straggler = job.findSpeculativeDispatchCandidate();
+        if (straggler == null) continue;
+        // the cancellation of a dispatch applies to all the dispatches of the job on the same node
+        final AsyncNodeContext stragglerChannel = (AsyncNodeContext) straggler.getChannel();
+        if ((stragglerChannel == null) || (stragglerChannel.getNbBundlesForJob(job.getUuid()) > 1)) continue;
+        matcher.refresh();
+        final BaseNodeContext channel = findIdleChannelIndex(job);
+        if ((channel == null) || (channel == stragglerChannel) || (((AsyncNodeContext) channel).getNbBundlesForJob(job.getUuid()) > 0)) continue;
+        synchronized(channel.getMonitor()) {
+          if (channel.getCurrentNbJobs() >= channel.getMaxJobs()) removeIdleChannel(channel);
+          if (!channel.isEnabled()) continue;
+          final ServerTaskBundleNode nodeBundle = job.createSpeculativeDispatch(straggler);
+          if (nodeBundle == null) continue;
+          if (debugEnabled) log.debug("speculative dispatch of {} tasks of {} to {}", nodeBundle.getTaskCount(), straggler, channel);
+          try {
+            dispatchJobToChannel(channel, nodeBundle);
+            stats.addValue(JPPFStatisticsHelper.SPECULATIVE_DISPATCHES, 1);
+            return true;
+          } catch (final Exception e) {
+            log.error("error in speculative dispatch to {} of {}", channel, nodeBundle, e);
+            channel.setClosed(false);
+            channel.handleException(e);
+          }
+        }
+      }
+    }
+    return false;
+  }
+
   /**
    * Prepare the specified job for the selected channel, after applying the load balancer to the job.
    * @param channel the node channel to prepare dispatch the job to.
@@ -158,7 +199,10 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
       log.error("Error in load balancer implementation, switching to 'manual' with a bundle size of 1", e);
       size = bundlerFactory.getFallbackBundler().getBundleSize();
     }
-    return selectedJob.isCancelled() ? null : queue.nextBundle(selectedJob, size, channel);
+    if (selectedJob.isCancelled()) return null;
+    final ServerTaskBundleNode nodeBundle = queue.nextBundle(selectedJob, size, channel);
+    // the tasks of a job recovered from the persistence store are loaded here rather than by the thread which sends them to the node
+    return selectedJob.getJob().getParameter(BundleParameter.FROM_PERSISTENCE, false) ? selectedJob.loadPersistedTasks(nodeBundle) : nodeBundle;
   }
 
   /**
@@ -217,7 +261,7 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
       if (preferedChannels.isEmpty()) return null;
       nodeIterator = preferedChannels.iterator();
     }
-    else nodeIterator = idleChannels.iterator();
+    else nodeIterator = matcher.getCandidates(job, idleChannels).iterator();
     while (nodeIterator.hasNext()) {
       final AsyncNodeContext channel = (AsyncNodeContext) nodeIterator.next();
       synchronized(channel.getMonitor()) {
@@ -369,8 +413,9 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
     if (debugEnabled) log.debug("job has an execution policy: {}\n{}", job, policy.toString().trim());
       boolean b = false;
       try {
-        preparePolicy(policy, job, stats, nbJobChannels);
-        b = policy.evaluate(info);
+        final CompiledPolicy compiled = PolicyUtils.compile(policy);
+        if (!compiled.isCompiled()) preparePolicy(policy, job, stats, nbJobChannels);
+        b = compiled.evaluate(info);
       } catch(final Exception ex) {
         log.error("An error occurred while running the execution policy to determine node participation.", ex);
       }
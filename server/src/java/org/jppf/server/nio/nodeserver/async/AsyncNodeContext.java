@@ -129,6 +129,8 @@ public class AsyncNodeContext extends BaseNodeContext {
         tmpBundle.taskCompleted(exception);
       }
       if ((tmpBundle != null) && !tmpBundle.getJob().isHandshake()) {
+        // the tasks are still executing on another node as part of a speculative dispatch
+        if (tmpBundle.handOverToPeer()) return;
         final boolean applyMaxResubmit = tmpBundle.getJob().getSLA().isApplyMaxResubmitsUponNodeError();
         if (debugEnabled) log.debug("applyMaxResubmit={} for {}", applyMaxResubmit, this);
         final List<DataLocation> results = new ArrayList<>(tmpBundle.getTaskList().size());
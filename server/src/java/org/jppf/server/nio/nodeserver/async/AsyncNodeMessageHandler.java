@@ -26,6 +26,7 @@ import java.nio.channels.SocketChannel;
 import java.util.*;
 
 import org.jppf.execute.ExecutorStatus;
+import org.jppf.io.DataLocation;
 import org.jppf.job.JobReturnReason;
 import org.jppf.load.balancer.*;
 import org.jppf.load.balancer.spi.JPPFBundlerFactory;
@@ -195,9 +196,59 @@ public class AsyncNodeMessageHandler {
   public void resultsReceived(final AsyncNodeContext context, final AbstractTaskBundleMessage message)  throws Exception {
     if (debugEnabled) log.debug("node {} received {}", context, message);
     final NodeBundleResults received = context.deserializeBundle(message);
+    final TaskBundle bundle = received.bundle();
+    if (bundle.getParameter(PARTIAL_RESULTS, false)) {
+      partialResultsReceived(context, received);
+      return;
+    }
+    final int partialCount = bundle.getParameter(PARTIAL_RESULTS_COUNT, 0);
+    if (partialCount > 0) {
+      // messages are processed concurrently: the final results must wait until all partial results are processed
+      final ServerTaskBundleNode nodeBundle = context.getJobEntry(bundle.getUuid(), bundle.getBundleId());
+      if ((nodeBundle != null) && nodeBundle.deferCompletion(partialCount, () -> processDeferred(received, context))) {
+        if (debugEnabled) log.debug("deferring processing of results until {} partial results are processed for {}", partialCount, nodeBundle);
+        return;
+      }
+    }
     process(received, context);
   }
 
+  /**
+   * Called when the results of tasks are received from a node ahead of the completion of their bundle.
+   * The results are forwarded immediately, according to the job's results strategy.
+   * @param context the channel that received the response.
+   * @param received the received results.
+   * @throws Exception if any error occurs.
+   */
+  private void partialResultsReceived(final AsyncNodeContext context, final NodeBundleResults received) throws Exception {
+    final TaskBundle bundle = received.bundle();
+    final ServerTaskBundleNode nodeBundle = context.getJobEntry(bundle.getUuid(), bundle.getBundleId());
+    if (nodeBundle == null) {
+      if (debugEnabled) log.debug("no node bundle found for partial results {} from node {}", bundle, context);
+      return;
+    }
+    try {
+      final int[] positions = bundle.getParameter(TASK_POSITIONS);
+      nodeBundle.partialResultsReceived(positions, received.data());
+    } finally {
+      final Runnable completion = nodeBundle.partialResultsProcessed();
+      if (completion != null) completion.run();
+    }
+  }
+
+  /**
+   * Process final results whose processing was deferred until all partial results were processed.
+   * @param received holds the received bundle along with the tasks.
+   * @param context the channel from which the bundle was read.
+   */
+  private void processDeferred(final NodeBundleResults received, final AsyncNodeContext context) {
+    try {
+      process(received, context);
+    } catch (final Exception e) {
+      log.error("error processing results {} from node {}", received.bundle(), context, e);
+    }
+  }
+
   /**
    * Resolve the host name for the specified channel.
    * @param context the channel from which to get the host information.
@@ -364,7 +415,7 @@ public class AsyncNodeMessageHandler {
         if (count > 0) context.updateStatsUponTaskResubmit(count);
       } else if (debugEnabled) log.debug("bundle has expired: {}", nodeBundle);
       if (debugEnabled) log.debug("nodeBundle={}", nodeBundle);
-      bundler = updateBundlerAndStats(context, bundler, nodeBundle, newBundle);
+      bundler = updateBundlerAndStats(context, bundler, nodeBundle, newBundle, received.data());
       nodeBundle.resultsReceived(received.data());
       if (debugEnabled) log.debug("updated stats for {}", context);
     }
@@ -398,21 +449,57 @@ public class AsyncNodeMessageHandler {
    * @param currentBundler the current bundler for this context.
    * @param nodeBundle the bundle that was dispatched to the node.
    * @param newBundle the header of the bundle received from the node.
+   * @param results the results received from the node.
    * @return the updated bundler;
    */
-  private Bundler<?> updateBundlerAndStats(final AsyncNodeContext context, final Bundler<?> currentBundler, final ServerTaskBundleNode nodeBundle, final TaskBundle newBundle) {
+  private Bundler<?> updateBundlerAndStats(final AsyncNodeContext context, final Bundler<?> currentBundler, final ServerTaskBundleNode nodeBundle, final TaskBundle newBundle,
+    final List<DataLocation> results) {
     final long elapsed = System.nanoTime() - nodeBundle.getJob().getExecutionStartTime();
     final Bundler<?> bundler = (currentBundler == null) ? context.checkBundler(context.getServer().getBundlerFactory(), context.getServer().getJPPFContext()) : currentBundler;
-    if (bundler instanceof BundlerEx) {
+    // when results were streamed, the header only counts the tasks sent with the final results
+    final int taskCount = newBundle.getParameter(DISPATCHED_TASK_COUNT, newBundle.getTaskCount());
+    if (bundler instanceof CostAwareBundler) {
+      final long accumulatedTime = newBundle.getParameter(NODE_BUNDLE_ELAPSED_PARAM, -1L);
+      final long cpuTime = newBundle.getParameter(NODE_BUNDLE_CPU_TIME_PARAM, -1L);
+      BundlerHelper.updateBundler((CostAwareBundler<?>) bundler, taskCount, elapsed, accumulatedTime, elapsed - newBundle.getNodeExecutionTime(),
+        cpuTime, computeDataSize(nodeBundle, results));
+    } else if (bundler instanceof BundlerEx) {
       final long accumulatedTime = newBundle.getParameter(NODE_BUNDLE_ELAPSED_PARAM, -1L);
-      BundlerHelper.updateBundler((BundlerEx<?>) bundler, newBundle.getTaskCount(), elapsed, accumulatedTime, elapsed - newBundle.getNodeExecutionTime());
-    } else BundlerHelper.updateBundler(bundler, newBundle.getTaskCount(), elapsed);
+      BundlerHelper.updateBundler((BundlerEx<?>) bundler, taskCount, elapsed, accumulatedTime, elapsed - newBundle.getNodeExecutionTime());
+    } else BundlerHelper.updateBundler(bundler, taskCount, elapsed);
     if (debugEnabled) log.debug("updated bundler for {}", context);
     context.getServer().getBundlerHandler().storeBundler(context.getNodeIdentifier(), bundler, context.getBundlerAlgorithm());
-    updateStats(newBundle.getTaskCount(), elapsed / 1_000_000L, newBundle.getNodeExecutionTime() / 1_000_000L);
+    updateStats(taskCount, elapsed / 1_000_000L, newBundle.getNodeExecutionTime() / 1_000_000L);
     return bundler;
   }
 
+  /**
+   * Compute the size of the data exchanged with a node for the execution of a bundle.
+   * @param nodeBundle the bundle that was dispatched to the node.
+   * @param results the final results received from the node.
+   * @return the size in bytes of the serialized tasks, data provider and results, including the tasks whose results were streamed.
+   */
+  private static long computeDataSize(final ServerTaskBundleNode nodeBundle, final List<DataLocation> results) {
+    long size = 0L;
+    final DataLocation dataProvider = nodeBundle.getDataProvider();
+    if (dataProvider != null) size += dataProvider.getSize();
+    for (final ServerTask task: nodeBundle.getTaskList()) {
+      final DataLocation location = task.getInitialTask();
+      if (location != null) size += location.getSize();
+    }
+    // the streamed tasks are no longer in the task list, and their results are not in the final results
+    for (final ServerTask task: nodeBundle.getPartialTasks()) {
+      final DataLocation location = task.getInitialTask();
+      if (location != null) size += location.getSize();
+      final DataLocation result = task.getResult();
+      if ((result != null) && (result != location)) size += result.getSize();
+    }
+    if (results != null) {
+      for (final DataLocation location: results) size += location.getSize();
+    }
+    return size;
+  }
+
   /**
    * Update the statistcis from the received results.
    * @param nbTasks number of tasks received.
@@ -0,0 +1,270 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.server.nio.nodeserver.async;
+
+import java.util.*;
+
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.node.policy.*;
+import org.jppf.server.nio.nodeserver.BaseNodeContext;
+import org.jppf.server.protocol.ServerJob;
+import org.slf4j.*;
+
+/**
+ * Indexes the idle nodes so that the job scheduler does not have to check all of them for each job.
+ * <p>The idle nodes are bucketed by node uuid and by the values of the properties referenced in the string equality
+ * constraints of the jobs' execution policies, such that only the nodes in the smallest matching bucket need to be checked.
+ * <p>This class is not thread-safe: all its methods are expected to be called while holding the monitor on the scheduler's idle channels.
+ * @author Laurent Cohen
+ */
+class IdleNodeMatcher {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(IdleNodeMatcher.class);
+  /**
+   * Determines whether DEBUG logging level is enabled.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Whether indexing is enabled. When {@code false}, all methods of this class are no-ops.
+   */
+  private final boolean enabled;
+  /**
+   * Mapping of idle nodes to their index entry.
+   */
+  private final Map<BaseNodeContext, NodeEntry> entries = new HashMap<>();
+  /**
+   * Mapping of node uuids to the corresponding idle nodes.
+   */
+  private final Map<String, BaseNodeContext> uuidMap = new HashMap<>();
+  /**
+   * Mapping of property names to a mapping of lower-case property values to the idle nodes that have them.
+   */
+  private final Map<String, Map<String, Set<BaseNodeContext>>> buckets = new HashMap<>();
+  /**
+   * The string equality constraints computed once for each execution policy. Weak keys ensure policies of completed jobs are not retained.
+   */
+  private final Map<ExecutionPolicy, Map<String, String>> policyEqualities = new WeakHashMap<>();
+
+  /**
+   * Initialize this matcher.
+   * @param enabled whether indexing is enabled.
+   */
+  IdleNodeMatcher(final boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Called when a node becomes idle.
+   * @param node the node to add to the index.
+   */
+  void nodeAdded(final BaseNodeContext node) {
+    if (!enabled || entries.containsKey(node)) return;
+    final NodeEntry entry = new NodeEntry(node);
+    entries.put(node, entry);
+    if (node.getUuid() != null) uuidMap.put(node.getUuid(), node);
+    index(entry);
+  }
+
+  /**
+   * Called when a node is no longer idle.
+   * @param node the node to remove from the index.
+   */
+  void nodeRemoved(final BaseNodeContext node) {
+    if (!enabled) return;
+    final NodeEntry entry = entries.remove(node);
+    if (entry == null) return;
+    if (node.getUuid() != null) uuidMap.remove(node.getUuid(), node);
+    unindex(entry);
+  }
+
+  /**
+   * Remove all the nodes from the index.
+   */
+  void clear() {
+    entries.clear();
+    uuidMap.clear();
+    buckets.clear();
+  }
+
+  /**
+   * Re-index the nodes whose system information has changed since they were last indexed.
+   * This is a cheap operation, which only compares the version of each node's system information with the indexed version.
+   */
+  void refresh() {
+    if (!enabled) return;
+    for (final NodeEntry entry: entries.values()) {
+      if (!entry.isUpToDate()) {
+        if (debugEnabled) log.debug("system information changed for {}", entry.node);
+        unindex(entry);
+        entry.update();
+        index(entry);
+      }
+    }
+  }
+
+  /**
+   * Get the idle nodes that may be eligible for the specified job.
+   * @param job the job for which to find the candidate nodes.
+   * @param idleNodes all the idle nodes.
+   * @return a collection of nodes which is either {@code idleNodes} or a subset of it.
+   */
+  Collection<BaseNodeContext> getCandidates(final ServerJob job, final Collection<BaseNodeContext> idleNodes) {
+    if (!enabled) return idleNodes;
+    final String broadcastUuid = job.getBroadcastUUID();
+    if (broadcastUuid != null) {
+      final BaseNodeContext node = uuidMap.get(broadcastUuid);
+      return (node == null) ? Collections.<BaseNodeContext>emptyList() : Collections.singletonList(node);
+    }
+    final ExecutionPolicy policy = job.getSLA().getExecutionPolicy();
+    if (policy == null) return idleNodes;
+    Set<BaseNodeContext> smallest = null;
+    for (final Map.Entry<String, String> equality: getStringEqualities(policy).entrySet()) {
+      // the index is not refreshed when these properties change
+      if (JPPFSystemInformation.UNVERSIONED_PROPERTIES.contains(equality.getKey())) continue;
+      final Set<BaseNodeContext> bucket = getBucketsFor(equality.getKey()).get(equality.getValue());
+      if (bucket == null) return Collections.emptyList();
+      if ((smallest == null) || (bucket.size() < smallest.size())) smallest = bucket;
+    }
+    if (smallest == null) return idleNodes;
+    if (debugEnabled) log.debug("found {} candidate nodes out of {} for {}", smallest.size(), idleNodes.size(), job);
+    return new ArrayList<>(smallest);
+  }
+
+  /**
+   * Get the string equality constraints of the specified policy, computing them if needed.
+   * @param policy the policy for which to get the constraints.
+   * @return a mapping of property names to lower-case values.
+   */
+  private Map<String, String> getStringEqualities(final ExecutionPolicy policy) {
+    Map<String, String> equalities = policyEqualities.get(policy);
+    if (equalities == null) {
+      equalities = PolicyUtils.getStringEqualities(policy);
+      policyEqualities.put(policy, equalities);
+    }
+    return equalities;
+  }
+
+  /**
+   * Get the buckets of nodes for the specified property name, creating and populating them if needed.
+   * @param propertyName the name of the property whose values are used as bucket keys.
+   * @return a mapping of lower-case property values to sets of nodes.
+   */
+  private Map<String, Set<BaseNodeContext>> getBucketsFor(final String propertyName) {
+    Map<String, Set<BaseNodeContext>> map = buckets.get(propertyName);
+    if (map == null) {
+      if (debugEnabled) log.debug("indexing idle nodes by property '{}'", propertyName);
+      map = new HashMap<>();
+      buckets.put(propertyName, map);
+      for (final NodeEntry entry: entries.values()) addToBucket(map, entry, propertyName);
+    }
+    return map;
+  }
+
+  /**
+   * Add the specified node to the buckets of all indexed properties.
+   * @param entry the index entry for the node.
+   */
+  private void index(final NodeEntry entry) {
+    for (final Map.Entry<String, Map<String, Set<BaseNodeContext>>> mapEntry: buckets.entrySet()) addToBucket(mapEntry.getValue(), entry, mapEntry.getKey());
+  }
+
+  /**
+   * Add the specified node to the bucket matching the value of the specified property.
+   * @param map the buckets for the property.
+   * @param entry the index entry for the node.
+   * @param propertyName the name of the property.
+   */
+  private static void addToBucket(final Map<String, Set<BaseNodeContext>> map, final NodeEntry entry, final String propertyName) {
+    final String value = (entry.info == null) ? null : entry.info.getProperty(propertyName);
+    if (value == null) return;
+    final String key = value.toLowerCase();
+    entry.indexedValues.put(propertyName, key);
+    Set<BaseNodeContext> bucket = map.get(key);
+    if (bucket == null) {
+      bucket = new LinkedHashSet<>();
+      map.put(key, bucket);
+    }
+    bucket.add(entry.node);
+  }
+
+  /**
+   * Remove the specified node from all the buckets it was added to.
+   * @param entry the index entry for the node.
+   */
+  private void unindex(final NodeEntry entry) {
+    for (final Map.Entry<String, String> indexed: entry.indexedValues.entrySet()) {
+      final Map<String, Set<BaseNodeContext>> map = buckets.get(indexed.getKey());
+      if (map == null) continue;
+      final Set<BaseNodeContext> bucket = map.get(indexed.getValue());
+      if (bucket == null) continue;
+      bucket.remove(entry.node);
+      if (bucket.isEmpty()) map.remove(indexed.getValue());
+    }
+    entry.indexedValues.clear();
+  }
+
+  /**
+   * Index entry for an idle node.
+   */
+  private static class NodeEntry {
+    /**
+     * The indexed node.
+     */
+    final BaseNodeContext node;
+    /**
+     * Mapping of indexed property names to the value under which this node is indexed.
+     */
+    final Map<String, String> indexedValues = new HashMap<>();
+    /**
+     * The node's system information at the time it was last indexed.
+     */
+    JPPFSystemInformation info;
+    /**
+     * The version of the system information at the time it was last indexed.
+     */
+    long version;
+
+    /**
+     * Initialize this entry.
+     * @param node the indexed node.
+     */
+    NodeEntry(final BaseNodeContext node) {
+      this.node = node;
+      update();
+    }
+
+    /**
+     * @return whether the node's system information has not changed since it was last indexed.
+     */
+    boolean isUpToDate() {
+      final JPPFSystemInformation current = node.getSystemInformation();
+      return (current == info) && ((current == null) || (current.getVersion() == version));
+    }
+
+    /**
+     * Update the indexed version of the system information.
+     */
+    void update() {
+      info = node.getSystemInformation();
+      version = (info == null) ? 0L : info.getVersion();
+    }
+  }
+}
@@ -158,8 +158,12 @@ public class ServerJob extends AbstractServerJobBase {
     try {
       bundleTasks = (bundle == null) ? new ArrayList<>(tasks.values()) : bundle.getTaskList();
       b = isJobExpired() || isCancelled() || (bundle.isExpired() && bundle.isOffline());
+      final SpeculativeDispatch speculative = (bundle == null) ? null : bundle.getSpeculativeDispatch();
       if (b) {
-        for (final ServerTask task : bundleTasks) map.putValue(task.getBundle(), task);
+        for (final ServerTask task : bundleTasks) {
+          // the copies of a speculative dispatch are not known to the client bundles
+          if ((speculative == null) || !speculative.isCopiedTask(task)) map.putValue(task.getBundle(), task);
+        }
       } else if (results != null) {
         int nbResubmits = 0, maxPos = 0, minPos = Integer.MAX_VALUE;
         for (int i=0; i<bundleTasks.size(); i++) {
@@ -173,6 +177,8 @@ public class ServerJob extends AbstractServerJobBase {
             if (pos > maxPos) maxPos = pos;
             if (pos < minPos) minPos = pos;
           } else {
+            // the result may have already been received from the other bundle of a speculative dispatch
+            if ((speculative != null) && !speculative.resultReceived(pos)) continue;
             if (taskGraph != null) {
               dispatchedTasks.remove(pos);
               taskGraph.nodeDone(pos);
@@ -193,6 +199,152 @@ public class ServerJob extends AbstractServerJobBase {
     postResultsReceived(map, bundle, null);
   }
 
+  /**
+   * Called to notify that the results of some tasks were received ahead of the completion of the node bundle they belong to.
+   * @param bundle the executing node bundle.
+   * @param positions the positions in the job of the tasks whose results were received.
+   * @param results the results, in the same order as the positions.
+   */
+  public void partialResultsReceived(final ServerTaskBundleNode bundle, final int[] positions, final List<DataLocation> results) {
+    if (debugEnabled) log.debug("received {} partial results from {}", results.size(), bundle);
+    final CollectionMap<ServerTaskBundleClient, ServerTask> map = new SetIdentityMap<>();
+    final SpeculativeDispatch speculative = bundle.getSpeculativeDispatch();
+    lock.lock();
+    try {
+      // the tasks are removed in all cases, since the final results from the node will not include them
+      final List<ServerTask> partialTasks = bundle.removePartialTasks(positions);
+      final boolean b = isJobExpired() || isCancelled() || (bundle.isExpired() && bundle.isOffline());
+      for (int i=0; i<partialTasks.size(); i++) {
+        final ServerTask task = partialTasks.get(i);
+        if (task == null) continue;
+        if (speculative != null) {
+          // the results of the copies are kept until the copies take over the original tasks, if ever
+          if (speculative.isCopy(bundle)) {
+            task.resultReceived(results.get(i));
+            continue;
+          }
+          if (!speculative.resultReceived(task.getPosition())) continue;
+        }
+        if (!b) {
+          final int pos = task.getPosition();
+          if (taskGraph != null) {
+            dispatchedTasks.remove(pos);
+            taskGraph.nodeDone(pos);
+          }
+          task.setReturnedFromNode(true);
+          task.resultReceived(results.get(i));
+        }
+        map.putValue(task.getBundle(), task);
+      }
+    } finally {
+      lock.unlock();
+    }
+    map.forEach((clientBundle, tasks) -> {
+      clientBundle.resultReceived(tasks);
+      ((JPPFJobManager) notificationEmitter).jobResultsReceived(bundle.getChannel(), this, tasks);
+    });
+    if (getJob().getParameter(BundleParameter.FROM_PERSISTENCE, false) || submissionStatus.get() == SubmissionStatus.COMPLETE) {
+      map.forEach((clientBundle, tasks) -> {
+        if (clientBundle.getPendingTasksCount() <= 0) clientBundle.bundleEnded();
+      });
+    }
+  }
+
+  /**
+   * Load the tasks of the specified dispatch which are read from the persistence store upon first access and are not loaded yet.
+   * This is called by the job scheduler before the dispatch is sent, so the tasks are not loaded by the thread which sends them to the node.
+   * The tasks which cannot be loaded are completed with the load error and are removed from the dispatch.
+   * @param bundle the dispatch whose tasks to load.
+   * @return the dispatch to send, which is {@code bundle} itself if all its tasks were loaded, or {@code null} if no task could be loaded.
+   */
+  public ServerTaskBundleNode loadPersistedTasks(final ServerTaskBundleNode bundle) {
+    final List<ServerTask> loaded = new ArrayList<>(bundle.getTaskCount());
+    final CollectionMap<ServerTaskBundleClient, ServerTask> map = new SetIdentityMap<>();
+    for (final ServerTask task: bundle.getTaskList()) {
+      try {
+        task.loadInitialTask();
+        loaded.add(task);
+      } catch (final Exception e) {
+        log.error("could not load the task at position {} of {}", task.getPosition(), this, e);
+        task.resultReceived(e);
+        map.putValue(task.getBundle(), task);
+      }
+    }
+    if (map.isEmpty()) return bundle;
+    lock.lock();
+    try {
+      if (taskGraph != null) {
+        for (final ServerTask task: map.allValues()) {
+          dispatchedTasks.remove(task.getPosition());
+          taskGraph.nodeDone(task.getPosition());
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    map.forEach((clientBundle, tasks) -> clientBundle.resultReceived(tasks));
+    if (getJob().getParameter(BundleParameter.FROM_PERSISTENCE, false) || submissionStatus.get() == SubmissionStatus.COMPLETE) {
+      map.forEach((clientBundle, tasks) -> {
+        if (clientBundle.getPendingTasksCount() <= 0) clientBundle.bundleEnded();
+      });
+    }
+    return loaded.isEmpty() ? null : new ServerTaskBundleNode(this, bundle.getJob(), loaded);
+  }
+
+  /**
+   * Find the dispatch of this job that is the best candidate for a speculative dispatch, that is, the dispatch with the most tasks,
+   * among those that have been executing for at least the delay specified in the job SLA.
+   * @return a {@link ServerTaskBundleNode} instance, or {@code null} if no dispatch is eligible.
+   */
+  public ServerTaskBundleNode findSpeculativeDispatchCandidate() {
+    if ((taskGraph != null) || getSLA().isBroadcastJob()) return null;
+    final long maxStartTime = System.currentTimeMillis() - getSLA().getSpeculativeDispatchDelay();
+    ServerTaskBundleNode result = null;
+    int max = 0;
+    for (final ServerTaskBundleNode bundle: getDispatchSet()) {
+      if ((bundle.getSpeculativeDispatch() != null) || (bundle.getDispatchStartTime() > maxStartTime)) continue;
+      if (bundle.isCancelled() || bundle.isExpired() || bundle.isOffline() || (bundle.getChannel() == null) || (bundle.getTaskGraphInfo() != null)) continue;
+      final int n = bundle.getTaskList().size();
+      if (n > max) {
+        max = n;
+        result = bundle;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Create a dispatch with copies of the tasks of the specified dispatch, which is still executing.
+   * The first of the two dispatches to complete provides the results, and the other is cancelled.
+   * @param bundle the dispatch whose tasks are copied.
+   * @return a new {@link ServerTaskBundleNode}, or {@code null} if the dispatch has no more task or is already part of a speculative dispatch.
+   */
+  public ServerTaskBundleNode createSpeculativeDispatch(final ServerTaskBundleNode bundle) {
+    lock.lock();
+    try {
+      if (isCancelled() || (bundle.getSpeculativeDispatch() != null) || (bundle.getChannel() == null)) return null;
+      final List<ServerTask> originalTasks = new ArrayList<>();
+      for (final ServerTask task: bundle.getTaskListCopy()) {
+        if (!task.isDone()) originalTasks.add(task);
+      }
+      if (originalTasks.isEmpty()) return null;
+      final List<ServerTask> copies = new ArrayList<>(originalTasks.size());
+      for (final ServerTask task: originalTasks) copies.add(task.speculativeCopy());
+      final TaskBundle newTaskBundle = job.copy();
+      newTaskBundle.removeParameter(BundleParameter.JOB_TASK_GRAPH);
+      if (getSLA().getDependencySpec().getId() != null) newTaskBundle.setParameter(BundleParameter.JOB_GRAPH_ALREADY_HANDLED, true);
+      final ServerTaskBundleNode copy = new ServerTaskBundleNode(this, newTaskBundle, copies);
+      final SpeculativeDispatch speculative = new SpeculativeDispatch(bundle, originalTasks);
+      speculative.setCopy(copy);
+      copy.setSpeculativeDispatch(speculative);
+      bundle.setSpeculativeDispatch(speculative);
+      if (debugEnabled) log.debug("created speculative dispatch {} with {} tasks of {}", copy, copies.size(), bundle);
+      return copy;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   /**
    * Called to notify that throwable eventually raised while receiving the results.
    * @param bundle    the finished job.
@@ -202,6 +354,7 @@ public class ServerJob extends AbstractServerJobBase {
     if (bundle == null) throw new IllegalArgumentException("bundle is null");
     if (debugEnabled) log.debug("*** received exception '{}' from {}", ExceptionUtils.getMessage(throwable), bundle);
     final CollectionMap<ServerTaskBundleClient, ServerTask> map = new SetIdentityMap<>();
+    final SpeculativeDispatch speculative = bundle.getSpeculativeDispatch();
     lock.lock();
     try {
       int nbResubmits = 0, maxPos = 0, minPos = Integer.MAX_VALUE;
@@ -215,6 +368,7 @@ public class ServerJob extends AbstractServerJobBase {
           if (pos > maxPos) maxPos = pos;
           if (pos < minPos) minPos = pos;
         } else {
+          if ((speculative != null) && !speculative.resultReceived(pos)) continue;
           if (taskGraph != null) {
             dispatchedTasks.remove(pos);
             taskGraph.nodeDone(pos);
@@ -252,6 +406,13 @@ public class ServerJob extends AbstractServerJobBase {
         if (debugEnabled) log.debug("checking bundleEnded() for {}", clientBundle);
         if (clientBundle.getPendingTasksCount() <= 0) clientBundle.bundleEnded();
       });
+      // client bundles whose tasks were all received as partial results
+      if (bundle != null) {
+        for (final ServerTask task: bundle.getPartialTasks()) {
+          final ServerTaskBundleClient clientBundle = task.getBundle();
+          if (!map.containsKey(clientBundle) && (clientBundle.getPendingTasksCount() <= 0)) clientBundle.bundleEnded();
+        }
+      }
     }
   }
 
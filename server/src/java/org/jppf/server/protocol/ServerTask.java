@@ -19,9 +19,12 @@
 package org.jppf.server.protocol;
 
 import java.io.*;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
 
 import org.jppf.io.*;
 import org.jppf.node.protocol.*;
+import org.jppf.utils.streams.*;
 import org.slf4j.*;
 
 /**
@@ -42,6 +45,11 @@ public class ServerTask implements Serializable, PositionalElement<ServerTask> {
    * Determines whether trace-level logging is enabled.
    */
   private static final boolean traceEnabled = log.isTraceEnabled();
+  /**
+   * Written at the start of the persisted form of a task whose serialized data is stored as is, after the state of the task.
+   * Without this marker, the persisted form of the task is its serialized form.
+   */
+  private static final byte[] PERSISTED_MARKER = { 'J', 'P', 'P', 'F', 'S', 'T', 'K', 1 };
   /**
    * Client bundle that owns this task.
    */
@@ -69,15 +77,15 @@ public class ServerTask implements Serializable, PositionalElement<ServerTask> {
   /**
    * Number of times a dispatch of this task has expired.
    */
-  private int expirationCount;
+  private volatile int expirationCount;
   /**
    * Maximum number of times a task can be resubmitted.
    */
-  private int maxResubmits;
+  private volatile int maxResubmits;
   /**
    * Number of times a task resubmitted itself.
    */
-  private int resubmitCount;
+  private volatile int resubmitCount;
   /**
    * Whether this task has returned from the node.
    */
@@ -98,6 +106,18 @@ public class ServerTask implements Serializable, PositionalElement<ServerTask> {
     this.maxResubmits = maxResubmits;
   }
 
+  /**
+   * Initialize a task reconstituted from its persisted form.
+   * @param initialTask the initial serialized task.
+   * @param jobPosition the position of this task within the job submitted by the client.
+   * @param maxResubmits the maximum number of times a task can be resubmitted.
+   */
+  private ServerTask(final DataLocation initialTask, final int jobPosition, final int maxResubmits) {
+    this.initialTask = initialTask;
+    this.jobPosition = jobPosition;
+    this.maxResubmits = maxResubmits;
+  }
+
   /**
    * Get the client bundle that owns this task.
    * @return <code>ServerTaskBundleClient</code> instance.
@@ -122,6 +142,14 @@ public class ServerTask implements Serializable, PositionalElement<ServerTask> {
     return initialTask;
   }
 
+  /**
+   * Load the initial serialized task, if it is read from the persistence store upon first access and is not loaded yet.
+   * @throws Exception if the task could not be loaded.
+   */
+  public void loadInitialTask() throws Exception {
+    if (initialTask instanceof LazyDataLocation) ((LazyDataLocation) initialTask).load();
+  }
+
   /**
    * Get the state of this task.
    * @return a {@link TaskState} enumerated value.
@@ -277,6 +305,87 @@ public class ServerTask implements Serializable, PositionalElement<ServerTask> {
     return maxResubmits;
   }
 
+  /**
+   * Get the persisted form of this task. Unless an exception was raised for this task, the serialized task is not copied:
+   * it is referenced by the returned location, after a small header holding the state of this task.
+   * @return a {@link DataLocation} to store.
+   * @throws Exception if any error occurs.
+   */
+  public DataLocation toPersistedData() throws Exception {
+    if (throwable != null) return IOHelper.serializeData(this);
+    final JPPFByteArrayOutputStream baos = new JPPFByteArrayOutputStream(64);
+    try (final DataOutputStream out = new DataOutputStream(baos)) {
+      out.write(PERSISTED_MARKER);
+      out.writeInt(jobPosition);
+      out.writeInt(expirationCount);
+      out.writeInt(maxResubmits);
+      out.writeInt(resubmitCount);
+      out.writeUTF(state.name());
+    }
+    return new CompositeDataLocation(new MultipleBuffersLocation(baos.toByteArray()), initialTask);
+  }
+
+  /**
+   * Reconstitute a task from its persisted form, as produced by {@link #toPersistedData()} or by the serialization of the task.
+   * @param stream the stream from which to read the persisted task. It is closed by this method.
+   * @return a {@link ServerTask} instance.
+   * @throws Exception if any error occurs.
+   */
+  public static ServerTask fromPersistedData(final InputStream stream) throws Exception {
+    try (final InputStream is = stream) {
+      final byte[] marker = new byte[PERSISTED_MARKER.length];
+      int count = 0;
+      while (count < marker.length) {
+        final int n = is.read(marker, count, marker.length - count);
+        if (n < 0) break;
+        count += n;
+      }
+      if ((count < marker.length) || !Arrays.equals(marker, PERSISTED_MARKER)) {
+        final InputStream legacy = new SequenceInputStream(new ByteArrayInputStream(marker, 0, count), is);
+        return (ServerTask) IOHelper.getDefaultserializer().deserialize(legacy);
+      }
+      final DataInputStream in = new DataInputStream(is);
+      final int jobPosition = in.readInt();
+      final int expirationCount = in.readInt();
+      final int maxResubmits = in.readInt();
+      final int resubmitCount = in.readInt();
+      final TaskState state = TaskState.valueOf(in.readUTF());
+      try (final MultipleBuffersOutputStream os = new MultipleBuffersOutputStream()) {
+        StreamUtils.copyStream(in, os, false);
+        final DataLocation data = (os.size() == 0) ? new MultipleBuffersLocation(0) : new MultipleBuffersLocation(os.toBufferList(), os.size());
+        final ServerTask task = new ServerTask(data, jobPosition, maxResubmits);
+        task.expirationCount = expirationCount;
+        task.resubmitCount = resubmitCount;
+        task.state = state;
+        return task;
+      }
+    }
+  }
+
+  /**
+   * Create a task reconstituted from its persisted form, where the persisted form is only read when the serialized task is first accessed,
+   * typically when the task is dispatched to a node. Until then, the task has the specified maximum number of resubmits.
+   * @param loader provides the persisted form of the task, as produced by {@link #toPersistedData()}.
+   * @param jobPosition the position of the task within the job.
+   * @param maxResubmits the maximum number of times the task can be resubmitted, until the persisted form is read.
+   * @return a {@link ServerTask} instance.
+   */
+  public static ServerTask lazyFromPersistedData(final Callable<InputStream> loader, final int jobPosition, final int maxResubmits) {
+    final ServerTask task = new ServerTask(null, jobPosition, maxResubmits);
+    task.initialTask = new LazyDataLocation(new Callable<DataLocation>() {
+      @Override
+      public DataLocation call() throws Exception {
+        final ServerTask persisted = fromPersistedData(loader.call());
+        // the counters are volatile, since they may be read by other threads than the one which loads the task
+        task.maxResubmits = persisted.maxResubmits;
+        task.expirationCount = persisted.expirationCount;
+        task.resubmitCount = persisted.resubmitCount;
+        return persisted.initialTask;
+      }
+    });
+    return task;
+  }
+
   /**
    * Save the state of the {@code ServerTask} instance to a stream (i.e.,serialize it).
    * @param out the output stream to which to write the task.
@@ -296,6 +405,29 @@ public class ServerTask implements Serializable, PositionalElement<ServerTask> {
     }
   }
 
+  /**
+   * Create a copy of this task for a speculative dispatch. The copy shares the serialized task with this one.
+   * @return a new {@code ServerTask} instance.
+   */
+  ServerTask speculativeCopy() {
+    final ServerTask copy = new ServerTask(bundle, initialTask, jobPosition, maxResubmits);
+    copy.expirationCount = expirationCount;
+    copy.resubmitCount = resubmitCount;
+    return copy;
+  }
+
+  /**
+   * Take over the state of the specified speculative copy of this task, when the dispatch of the copy completed first.
+   * @param copy the copy of this task.
+   */
+  void takeOver(final ServerTask copy) {
+    expirationCount = copy.expirationCount;
+    resubmitCount = copy.resubmitCount;
+    returnedFromNode = copy.returnedFromNode;
+    if (copy.state == TaskState.RESUBMIT) resubmit();
+    else if (copy.state == TaskState.CANCELLED) cancel();
+  }
+
   /**
    * @return whether this task has returned from the node
    */
@@ -112,6 +112,26 @@ public class ServerTaskBundleNode {
    * Info on the dependenencies of the tasks in this bundle.
    */
   private TaskGraphInfo graphInfo;
+  /**
+   * The tasks whose results were received ahead of the completion of this bundle.
+   */
+  private transient List<ServerTask> partialTasks;
+  /**
+   * The number of partial results messages processed so far.
+   */
+  private int partialResultsCount;
+  /**
+   * The number of partial results messages expected before the final results can be processed.
+   */
+  private int expectedPartialResults;
+  /**
+   * The processing of the final results, when it is deferred until all partial results are processed.
+   */
+  private transient Runnable deferredCompletion;
+  /**
+   * Links this bundle with a copy of its tasks dispatched to another node, if any.
+   */
+  private transient volatile SpeculativeDispatch speculativeDispatch;
 
   /**
    * Initialize this task bundle and set its build number.
@@ -205,9 +225,84 @@ public class ServerTaskBundleNode {
    * @param results the list of tasks whose results have been received from the server.
    */
   public void resultsReceived(final List<DataLocation> results) {
+    final SpeculativeDispatch speculative = speculativeDispatch;
+    List<DataLocation> actualResults = results;
+    // null results come from the cancellation of this bundle
+    if ((speculative != null) && (results != null)) {
+      if (!speculative.complete(this)) return;
+      if (speculative.isCopy(this)) actualResults = takeOverOriginalTasks(speculative, results);
+    }
     taskCompleted(null);
-    job.resultsReceived(this, results);
+    job.resultsReceived(this, actualResults);
     this.channel = null;
+    if ((speculative != null) && (results != null)) cancelPeer(speculative);
+  }
+
+  /**
+   * Called to notify that the results of some tasks were received ahead of the completion of this bundle.
+   * @param positions the positions in the job of the tasks whose results were received.
+   * @param results the results, in the same order as the positions.
+   */
+  public void partialResultsReceived(final int[] positions, final List<DataLocation> results) {
+    job.partialResultsReceived(this, positions, results);
+  }
+
+  /**
+   * Remove the tasks at the specified positions from this bundle, since their results were received ahead of its completion.
+   * The node sends the final results without these tasks, so they must no longer be part of the task list.
+   * @param positions the positions in the job of the tasks to remove.
+   * @return the removed tasks, in the same order as the positions, with a {@code null} element for each position not found in this bundle.
+   */
+  synchronized List<ServerTask> removePartialTasks(final int[] positions) {
+    final Map<Integer, Integer> indexes = new HashMap<>(2 * positions.length);
+    for (int i=0; i<positions.length; i++) indexes.put(positions[i], i);
+    final ServerTask[] removed = new ServerTask[positions.length];
+    // single pass over the task list, which may be much larger than the number of positions
+    taskList.removeIf(task -> {
+      final Integer index = indexes.get(task.getPosition());
+      if (index == null) return false;
+      removed[index] = task;
+      return true;
+    });
+    if (partialTasks == null) partialTasks = new ArrayList<>();
+    for (final ServerTask task: removed) {
+      if (task != null) partialTasks.add(task);
+    }
+    return Arrays.asList(removed);
+  }
+
+  /**
+   * Get the tasks whose results were received ahead of the completion of this bundle.
+   * @return a list of {@link ServerTask} instances, possibly empty.
+   */
+  public synchronized List<ServerTask> getPartialTasks() {
+    return (partialTasks == null) ? Collections.<ServerTask>emptyList() : new ArrayList<>(partialTasks);
+  }
+
+  /**
+   * Record that a partial results message was processed.
+   * @return the processing of the final results, if it was deferred and can now proceed, or {@code null} otherwise.
+   */
+  public synchronized Runnable partialResultsProcessed() {
+    partialResultsCount++;
+    if ((deferredCompletion == null) || (partialResultsCount < expectedPartialResults)) return null;
+    final Runnable completion = deferredCompletion;
+    deferredCompletion = null;
+    return completion;
+  }
+
+  /**
+   * Defer the processing of the final results until the specified number of partial results messages are processed.
+   * This handles the case where the messages from the node are processed in a different order than they were sent.
+   * @param count the number of partial results messages sent by the node before the final results.
+   * @param completion the processing of the final results.
+   * @return {@code true} if the processing was deferred, {@code false} if all the partial results were already processed.
+   */
+  public synchronized boolean deferCompletion(final int count, final Runnable completion) {
+    if (partialResultsCount >= count) return false;
+    expectedPartialResults = count;
+    deferredCompletion = completion;
+    return true;
   }
 
   /**
@@ -215,9 +310,105 @@ public class ServerTaskBundleNode {
    * @param throwable the throwable that was raised while receiving the results.
    */
   public void resultsReceived(final Throwable throwable) {
+    final SpeculativeDispatch speculative = speculativeDispatch;
+    if (speculative != null) {
+      if (handOverToPeer()) {
+        taskCompleted(throwable);
+        this.channel = null;
+        return;
+      }
+      if (!speculative.complete(this)) return;
+      if (speculative.isCopy(this)) takeOverOriginalTasks(speculative, null);
+    }
     job.resultsReceived(this, throwable);
     taskCompleted(throwable);
     this.channel = null;
+    if (speculative != null) cancelPeer(speculative);
+  }
+
+  /**
+   * Get the link between this bundle and a copy of its tasks dispatched to another node.
+   * @return a {@link SpeculativeDispatch} instance, or {@code null} if this bundle is not part of a speculative dispatch.
+   */
+  public SpeculativeDispatch getSpeculativeDispatch() {
+    return speculativeDispatch;
+  }
+
+  /**
+   * Set the link between this bundle and a copy of its tasks dispatched to another node.
+   * @param speculativeDispatch a {@link SpeculativeDispatch} instance.
+   */
+  void setSpeculativeDispatch(final SpeculativeDispatch speculativeDispatch) {
+    this.speculativeDispatch = speculativeDispatch;
+  }
+
+  /**
+   * Hand the tasks of this bundle over to the other bundle of its speculative dispatch, when this bundle failed,
+   * for instance with a node error or a disconnection, while the other bundle is still executing.
+   * The failure of this bundle is then ignored and its tasks complete with the results of the other bundle.
+   * The caller remains responsible for calling {@link #taskCompleted(Throwable)}.
+   * @return {@code true} if the tasks were handed over, {@code false} if the failure of this bundle must be processed.
+   */
+  public boolean handOverToPeer() {
+    final SpeculativeDispatch speculative = speculativeDispatch;
+    if ((speculative == null) || !speculative.handOver(this)) return false;
+    if (!speculative.isCopy(this)) {
+      // the original tasks are still executing as part of the copy
+      synchronized(this) {
+        for (final ServerTask task: taskList) task.setReturnedFromNode(false);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Cancel the other bundle of the speculative dispatch this bundle is part of, after the results of this bundle were received first.
+   * Nothing is done if the other bundle already failed and handed its tasks over to this bundle.
+   * @param speculative the speculative dispatch.
+   */
+  private void cancelPeer(final SpeculativeDispatch speculative) {
+    final ServerTaskBundleNode peer = speculative.getPeer(this);
+    if (speculative.hasHandedOver(peer)) return;
+    peer.cancel();
+    job.cancelDispatch(peer);
+  }
+
+  /**
+   * Remove all the tasks from this bundle, when they are taken over by a copy of this bundle dispatched to another node.
+   */
+  synchronized void detachTasks() {
+    taskList.clear();
+  }
+
+  /**
+   * Called when this bundle holds the copies of a speculative dispatch and its results are received first.
+   * The copies whose results were received ahead of completion are put back in this bundle, then each copy is replaced with its original task.
+   * @param speculative the speculative dispatch this bundle is part of.
+   * @param results the final results received from the node, may be {@code null}.
+   * @return the results of all the tasks in this bundle, including the results received ahead of completion.
+   */
+  private synchronized List<DataLocation> takeOverOriginalTasks(final SpeculativeDispatch speculative, final List<DataLocation> results) {
+    List<DataLocation> allResults = results;
+    if ((partialTasks != null) && !partialTasks.isEmpty()) {
+      if (results != null) {
+        allResults = new ArrayList<>(partialTasks.size() + results.size());
+        for (final ServerTask task: partialTasks) allResults.add(task.getResult());
+        allResults.addAll(results);
+      }
+      taskList.addAll(0, partialTasks);
+      partialTasks.clear();
+    }
+    speculative.getOriginal().detachTasks();
+    taskList.replaceAll(speculative::takeOver);
+    return allResults;
+  }
+
+  /**
+   * Get a copy of the tasks in this bundle.
+   * @return a new list of {@link ServerTask} instances.
+   */
+  synchronized List<ServerTask> getTaskListCopy() {
+    return new ArrayList<>(taskList);
   }
 
   /**
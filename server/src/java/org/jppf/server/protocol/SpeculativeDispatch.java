@@ -0,0 +1,177 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.server.protocol;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.*;
+
+/**
+ * Links a node bundle that is still executing with a copy of its tasks dispatched to another node.
+ * The first of the two bundles whose results are received wins and the other is cancelled.
+ * A bundle which fails while the other one is still executing does not win: its tasks are handed over to the other bundle instead.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class SpeculativeDispatch {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(SpeculativeDispatch.class);
+  /**
+   * Determines whether debug-level logging is enabled.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The bundle whose tasks are copied.
+   */
+  private final ServerTaskBundleNode original;
+  /**
+   * The bundle which holds the copies of the tasks.
+   */
+  private ServerTaskBundleNode copy;
+  /**
+   * Mapping of the job positions to the original tasks.
+   */
+  private final Map<Integer, ServerTask> originalTasks = new HashMap<>();
+  /**
+   * The first bundle whose results were received.
+   */
+  private ServerTaskBundleNode winner;
+  /**
+   * The bundle which failed first and handed its tasks over to the other bundle, if any.
+   */
+  private ServerTaskBundleNode handedOver;
+  /**
+   * The positions of the tasks whose result was already received from either bundle.
+   */
+  private final Set<Integer> received = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Initialize this speculative dispatch with the specified original bundle.
+   * @param original the bundle whose tasks are copied.
+   * @param tasks the original tasks to copy.
+   */
+  SpeculativeDispatch(final ServerTaskBundleNode original, final List<ServerTask> tasks) {
+    this.original = original;
+    for (final ServerTask task: tasks) originalTasks.put(task.getPosition(), task);
+  }
+
+  /**
+   * Set the bundle which holds the copies of the tasks.
+   * @param copy the bundle to set.
+   */
+  void setCopy(final ServerTaskBundleNode copy) {
+    this.copy = copy;
+  }
+
+  /**
+   * Determine whether the specified bundle is the copy.
+   * @param bundle the bundle to check.
+   * @return {@code true} if the bundle holds the copies of the tasks, {@code false} otherwise.
+   */
+  boolean isCopy(final ServerTaskBundleNode bundle) {
+    return bundle == copy;
+  }
+
+  /**
+   * Get the other bundle of this speculative dispatch.
+   * @param bundle one of the two bundles.
+   * @return the other bundle.
+   */
+  ServerTaskBundleNode getPeer(final ServerTaskBundleNode bundle) {
+    return (bundle == copy) ? original : copy;
+  }
+
+  /**
+   * Determine whether the specified task is a copy of an original task.
+   * @param task the task to check.
+   * @return {@code true} if the task is a copy, {@code false} if it is an original task.
+   */
+  boolean isCopiedTask(final ServerTask task) {
+    final ServerTask original = originalTasks.get(task.getPosition());
+    return (original != null) && (original != task);
+  }
+
+  /**
+   * Record that the result of the task at the specified position was received.
+   * @param position the position of the task in the job.
+   * @return {@code true} if this is the first result received for the task, {@code false} if it was already received from the other bundle.
+   */
+  boolean resultReceived(final int position) {
+    return received.add(position);
+  }
+
+  /**
+   * Get the bundle whose tasks are copied.
+   * @return a {@link ServerTaskBundleNode} instance.
+   */
+  ServerTaskBundleNode getOriginal() {
+    return original;
+  }
+
+  /**
+   * Called when the final results of the specified bundle are received.
+   * @param bundle the bundle whose results are received.
+   * @return {@code true} if the bundle is the first to complete, {@code false} if its results must be discarded.
+   */
+  synchronized boolean complete(final ServerTaskBundleNode bundle) {
+    if (winner != null) {
+      if (debugEnabled) log.debug("discarding the results of {}, the results of {} were received first", bundle, getPeer(bundle));
+      return false;
+    }
+    winner = bundle;
+    if (debugEnabled) log.debug("results of {} received first, cancelling {}", bundle, getPeer(bundle));
+    return true;
+  }
+
+  /**
+   * Called when the specified bundle failed, to determine whether its tasks can be handed over to the other bundle.
+   * This is the case when neither bundle completed nor failed yet, since the other bundle is still executing the same tasks.
+   * @param bundle the bundle which failed.
+   * @return {@code true} if the tasks are handed over and the failure must be ignored, {@code false} if the failure must be processed.
+   */
+  synchronized boolean handOver(final ServerTaskBundleNode bundle) {
+    if ((winner != null) || (handedOver != null)) return false;
+    handedOver = bundle;
+    if (debugEnabled) log.debug("{} failed, handing its tasks over to {}", bundle, getPeer(bundle));
+    return true;
+  }
+
+  /**
+   * Determine whether the specified bundle failed and handed its tasks over to the other bundle.
+   * @param bundle the bundle to check.
+   * @return {@code true} if the bundle handed its tasks over, {@code false} otherwise.
+   */
+  synchronized boolean hasHandedOver(final ServerTaskBundleNode bundle) {
+    return handedOver == bundle;
+  }
+
+  /**
+   * Transfer the state of a copied task to its original task, unless the result of the original task was already received.
+   * @param task the copy.
+   * @return the original task.
+   */
+  ServerTask takeOver(final ServerTask task) {
+    final ServerTask result = originalTasks.get(task.getPosition());
+    if (!received.contains(task.getPosition())) result.takeOver(task);
+    return result;
+  }
+}
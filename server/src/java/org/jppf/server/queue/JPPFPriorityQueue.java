@@ -35,6 +35,7 @@ import org.jppf.server.protocol.*;
 import org.jppf.server.submission.SubmissionStatus;
 import org.jppf.utils.*;
 import org.jppf.utils.collections.LinkedListSortedMap;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.jppf.utils.stats.JPPFStatisticsHelper;
 import org.slf4j.*;
 
@@ -91,6 +92,8 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * @param jobManager the job manager.
    */
   public JPPFPriorityQueue(final JPPFDriver driver, final JPPFJobManager jobManager) {
+    super(driver.getConfiguration().get(JPPFProperties.JOB_QUEUE_CONCURRENT));
+    if (debugEnabled) log.debug("initializing job queue with concurrent = {}", concurrent);
     this.driver = driver;
     this.jobManager = jobManager;
     broadcastManager = new BroadcastManager(this);
@@ -279,6 +282,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
           scheduleManager.clearSchedules(serverJob.getUuid());
           if (serverJob.getSLA().getDependencySpec().getId() != null) dependenciesHandler.jobEnded(serverJob);
           jobManager.jobEnded(serverJob);
+          persistenceHandler.jobEnded(serverJob);
         } else if (debugEnabled) log.debug("could not remove {}", serverJob);
         final Condition cond = jobRemovalConditions.remove(uuid);
         if (cond != null) cond.signalAll();
@@ -354,6 +358,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * @return a <code>ServerJob</code> instance.
    */
   public ServerJob getJob(final String jobId) {
+    if (concurrent) return jobMap.get(jobId);
     lock.lock();
     try {
       return jobMap.get(jobId);
@@ -368,23 +373,34 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * @return a <code>ServerJob</code> instance.
    */
   public ServerJob getJobFromPriorityMap(final String jobId) {
+    if (concurrent) return findInPriorityMap(jobId);
     lock.lock();
     try {
-      for (ServerJob job: priorityMap) {
-        if (job.getUuid().equals(jobId)) return job;
-      }
-      return null;
+      return findInPriorityMap(jobId);
     } finally {
       lock.unlock();
     }
   }
 
+  /**
+   * Look up the job with the specified uuid in the priority map.
+   * @param jobId the uuid of the job.
+   * @return a <code>ServerJob</code> instance, or {@code null} if it is not in the priority map.
+   */
+  private ServerJob findInPriorityMap(final String jobId) {
+    for (ServerJob job: priorityMap) {
+      if (job.getUuid().equals(jobId)) return job;
+    }
+    return null;
+  }
+
   /**
    * Get the set of ids for all the jobs currently queued or executing.
    * @return a set of ids as strings.
    */
   @Override
   public Set<String> getAllJobIds() {
+    if (concurrent) return new HashSet<>(jobMap.keySet());
     lock.lock();
     try {
       return new HashSet<>(jobMap.keySet());
@@ -398,6 +414,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * @return a list of {@link ServerJob} instances.
    */
   public List<ServerJob> getAllJobs() {
+    if (concurrent) return new ArrayList<>(jobMap.values());
     lock.lock();
     try {
       return new ArrayList<>(jobMap.values());
@@ -411,14 +428,9 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * @return a set of ids as strings.
    */
   public Set<String> getAllJobIdsFromPriorityMap() {
-    lock.lock();
-    try {
-      final Set<String> set = new HashSet<>();
-      for (ServerJob job: priorityMap.allValues()) set.add(job.getUuid());
-      return set;
-    } finally {
-      lock.unlock();
-    }
+    final Set<String> set = new HashSet<>();
+    for (ServerJob job: getAllJobsFromPriorityMap()) set.add(job.getUuid());
+    return set;
   }
 
   /**
@@ -427,6 +439,7 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * and can be modified without affecting this queue.
    */
   public List<ServerJob> getAllJobsFromPriorityMap() {
+    if (concurrent) return priorityMap.allValues();
     lock.lock();
     try {
       return priorityMap.allValues();
@@ -499,15 +512,25 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    */
   public List<ServerJob> selectJobs(final JobSelector selector) {
     if ((selector == null) || (selector instanceof AllJobsSelector)) return getAllJobs();
-    final List<ServerJob> list = new ArrayList<>();
+    if (concurrent) return filterJobs(selector);
     lock.lock();
     try {
-      for (final ServerJob job: jobMap.values()) {
-        if (selector.accepts(job)) list.add(job);
-      }
+      return filterJobs(selector);
     } finally {
       lock.unlock();
     }
+  }
+
+  /**
+   * Get the jobs in the job map that are accepted by the specified selector.
+   * @param selector determines for which jobs to return.
+   * @return a list of {@link ServerJob} obejcts, possibly empty.
+   */
+  private List<ServerJob> filterJobs(final JobSelector selector) {
+    final List<ServerJob> list = new ArrayList<>();
+    for (final ServerJob job: jobMap.values()) {
+      if (selector.accepts(job)) list.add(job);
+    }
     return list;
   }
 
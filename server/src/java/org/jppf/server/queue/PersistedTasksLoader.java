@@ -0,0 +1,204 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.server.queue;
+
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+import org.jppf.io.DataLocation;
+import org.jppf.job.persistence.*;
+import org.jppf.node.protocol.TaskBundle;
+import org.jppf.utils.ExceptionUtils;
+import org.jppf.utils.concurrent.GlobalExecutor;
+import org.slf4j.*;
+
+/**
+ * Loads the pending tasks of a job recovered from the persistence store when they are first needed, rather than when the job is recovered.
+ * Each load also fetches the next pending tasks of the job, by position order, up to a maximum batch size, since these tasks are likely to be
+ * dispatched next. The next batch is then prefetched in the background, so that it is ready by the time it is dispatched.
+ * @author Laurent Cohen
+ */
+class PersistedTasksLoader {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(PersistedTasksLoader.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The persistence from which to load the tasks.
+   */
+  private final JobPersistence persistence;
+  /**
+   * The job header.
+   */
+  private final TaskBundle header;
+  /**
+   * The maximum number of tasks to load at once.
+   */
+  private final int batchSize;
+  /**
+   * Positions of the tasks that are neither loaded nor prefetched.
+   */
+  private final TreeSet<Integer> unloaded = new TreeSet<>();
+  /**
+   * Tasks loaded ahead of their first access, mapped to their position.
+   */
+  private final Map<Integer, DataLocation> prefetched = new HashMap<>();
+  /**
+   * Whether a background prefetch is pending.
+   */
+  private boolean prefetching;
+  /**
+   * Whether the job has ended, in which case no more task is loaded.
+   */
+  private boolean closed;
+
+  /**
+   * Initialize this loader.
+   * @param persistence the persistence from which to load the tasks.
+   * @param header the job header.
+   * @param positions the positions of the tasks to load.
+   * @param batchSize the maximum number of tasks to load at once.
+   */
+  PersistedTasksLoader(final JobPersistence persistence, final TaskBundle header, final int[] positions, final int batchSize) {
+    this.persistence = persistence;
+    this.header = header;
+    this.batchSize = Math.max(1, batchSize);
+    for (final int pos: positions) unloaded.add(pos);
+  }
+
+  /**
+   * Get a provider for the persisted form of the task at the specified position.
+   * @param position the position of the task.
+   * @return a {@link Callable} which loads the task when it is called.
+   */
+  Callable<InputStream> forPosition(final int position) {
+    return new Callable<InputStream>() {
+      @Override
+      public InputStream call() throws Exception {
+        return load(position);
+      }
+    };
+  }
+
+  /**
+   * Load the persisted form of the task at the specified position, along with the next tasks which are not yet loaded.
+   * @param position the position of the task.
+   * @return an {@link InputStream} for the persisted task.
+   * @throws Exception if any error occurs.
+   */
+  synchronized InputStream load(final int position) throws Exception {
+    if (closed) throw new JobPersistenceException(String.format("task at position %d of job uuid=%s cannot be loaded: the job has ended", position, header.getUuid()));
+    final DataLocation data = prefetched.remove(position);
+    if (data != null) {
+      if (prefetched.isEmpty()) prefetch();
+      return data.getInputStream();
+    }
+    unloaded.remove(position);
+    final List<Integer> positions = nextPositions(position);
+    if (debugEnabled) log.debug("loading {} tasks of job {}, starting at position {}", positions.size(), header.getName(), position);
+    List<InputStream> streams = persistence.load(infos(positions));
+    if ((streams == null) || (streams.size() != positions.size())) {
+      // some tasks are missing: the streams can't be matched with the positions, so only load the requested task
+      if (streams != null) {
+        for (final InputStream is: streams) is.close();
+      }
+      unloaded.addAll(positions.subList(1, positions.size()));
+      streams = persistence.load(infos(positions.subList(0, 1)));
+      if ((streams == null) || streams.isEmpty()) throw new JobPersistenceException(String.format("task at position %d of job uuid=%s could not be found", position, header.getUuid()));
+      return streams.get(0);
+    }
+    for (int i=1; i<positions.size(); i++) prefetched.put(positions.get(i), PersistenceHandler.load(streams.get(i)));
+    prefetch();
+    return streams.get(0);
+  }
+
+  /**
+   * Load the next batch of tasks which are not loaded yet, in a separate thread.
+   * Nothing is done if the job has ended, if a prefetch is already pending, or if all the tasks are already loaded.
+   */
+  synchronized void prefetch() {
+    if (closed || prefetching || unloaded.isEmpty()) return;
+    prefetching = true;
+    GlobalExecutor.getGlobalexecutor().execute(() -> {
+      synchronized(PersistedTasksLoader.this) {
+        prefetching = false;
+        if (closed || unloaded.isEmpty()) return;
+        final List<Integer> positions = nextPositions(unloaded.pollFirst());
+        try {
+          if (debugEnabled) log.debug("prefetching {} tasks of job {}, starting at position {}", positions.size(), header.getName(), positions.get(0));
+          final List<InputStream> streams = persistence.load(infos(positions));
+          if ((streams != null) && (streams.size() == positions.size())) {
+            for (int i=0; i<positions.size(); i++) prefetched.put(positions.get(i), PersistenceHandler.load(streams.get(i)));
+            return;
+          }
+          if (streams != null) {
+            for (final InputStream is: streams) is.close();
+          }
+          if (debugEnabled) log.debug("some of the prefetched tasks of job {} are missing, they will be loaded individually", header.getName());
+        } catch (final Exception e) {
+          log.warn("error prefetching the tasks of job {}, they will be loaded on demand: {}", header.getName(), ExceptionUtils.getMessage(e));
+        }
+        // any error is reported when the tasks are loaded on demand
+        unloaded.addAll(positions);
+      }
+    });
+  }
+
+  /**
+   * Release the tasks that are loaded but not yet used, and prevent any further load. This is called when the job ends.
+   */
+  synchronized void close() {
+    if (debugEnabled && !prefetched.isEmpty()) log.debug("discarding {} prefetched tasks of job {}", prefetched.size(), header.getName());
+    closed = true;
+    prefetched.clear();
+    unloaded.clear();
+  }
+
+  /**
+   * Get the positions of the next tasks to load, starting with the specified position, and remove them from the unloaded tasks.
+   * @param position the position of the first task to load.
+   * @return a list of task positions, of size at most {@link #batchSize}.
+   */
+  private List<Integer> nextPositions(final int position) {
+    final List<Integer> positions = new ArrayList<>(batchSize);
+    positions.add(position);
+    final Iterator<Integer> it = unloaded.tailSet(position, false).iterator();
+    while ((positions.size() < batchSize) && it.hasNext()) {
+      positions.add(it.next());
+      it.remove();
+    }
+    return positions;
+  }
+
+  /**
+   * Create the information on the tasks to load.
+   * @param positions the positions of the tasks.
+   * @return a list of {@link PersistenceInfo} objects.
+   */
+  private List<PersistenceInfo> infos(final List<Integer> positions) {
+    final List<PersistenceInfo> infos = new ArrayList<>(positions.size());
+    for (final int pos: positions) infos.add(new PersistenceInfoImpl(header.getUuid(), header, PersistenceObjectType.TASK, pos, null));
+    return infos;
+  }
+}
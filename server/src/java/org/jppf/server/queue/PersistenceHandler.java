@@ -20,12 +20,14 @@ package org.jppf.server.queue;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.jppf.io.*;
 import org.jppf.job.persistence.*;
 import org.jppf.node.protocol.*;
 import org.jppf.server.protocol.*;
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.jppf.utils.streams.*;
 import org.slf4j.*;
 
@@ -50,6 +52,18 @@ public class PersistenceHandler {
    * The jobs queue.
    */
   private final JPPFPriorityQueue queue;
+  /**
+   * Whether the tasks of the recovered jobs are only loaded when they are first needed.
+   */
+  private final boolean lazyLoad;
+  /**
+   * The maximum number of tasks loaded at once when {@link #lazyLoad} is {@code true}.
+   */
+  private final int lazyLoadBatchSize;
+  /**
+   * The loaders of the tasks of the recovered jobs whose tasks are loaded on demand, mapped to the job uuids.
+   */
+  private final Map<String, PersistedTasksLoader> loaders = new ConcurrentHashMap<>();
  
   /**
    * Initialize this persistence handler.
@@ -58,6 +72,8 @@ public class PersistenceHandler {
   public PersistenceHandler(final JPPFPriorityQueue queue) {
     this.queue = queue;
     persistence = JobPersistenceFactory.newInstance(queue.driver.getConfiguration()).getPersistence();
+    lazyLoad = queue.driver.getConfiguration().get(JPPFProperties.JOB_PERSISTENCE_LAZY_LOAD);
+    lazyLoadBatchSize = queue.driver.getConfiguration().get(JPPFProperties.JOB_PERSISTENCE_LAZY_LOAD_BATCH_SIZE);
   }
 
   /**
@@ -78,8 +94,7 @@ public class PersistenceHandler {
         infos.add(new PersistenceInfoImpl(job.getUuid(), job.getJob(), PersistenceObjectType.DATA_PROVIDER, -1, clientBundle.getDataProvider()));
       }
       for (final ServerTask task: taskList) {
-        final DataLocation dl = IOHelper.serializeData(task);
-        infos.add(new PersistenceInfoImpl(job.getUuid(), job.getJob(), PersistenceObjectType.TASK, task.getPosition(), dl));
+        infos.add(new PersistenceInfoImpl(job.getUuid(), job.getJob(), PersistenceObjectType.TASK, task.getPosition(), task.toPersistedData()));
       }
       persistence.store(infos);
     } catch (final Exception e) {
@@ -124,6 +139,15 @@ public class PersistenceHandler {
     }
   }
 
+  /**
+   * Called when the specified job is removed from the queue, to release the tasks loaded ahead of their dispatch, if any.
+   * @param job the job that ended.
+   */
+  void jobEnded(final ServerJob job) {
+    final PersistedTasksLoader loader = loaders.remove(job.getUuid());
+    if (loader != null) loader.close();
+  }
+
   /**
    * Remove the specified job from the persistence store.
    * @param job the job to remove.
@@ -179,6 +203,18 @@ public class PersistenceHandler {
         if (Arrays.binarySearch(resultPositions, pos) < 0) positionsToLoad[i++] = pos;
       }
       if (debugEnabled) log.debug("positions to load for jobUuid={} : {}", jobUuid, StringUtils.buildString(positionsToLoad));
+      if (lazyLoad) {
+        // only the data provider is loaded now, the tasks are loaded when they are dispatched
+        final DataLocation dataProvider = load(new PersistenceInfoImpl(jobUuid, header, PersistenceObjectType.DATA_PROVIDER, -1, null));
+        final PersistedTasksLoader loader = new PersistedTasksLoader(persistence, header, positionsToLoad, lazyLoadBatchSize);
+        final int maxResubmits = header.getSLA().getMaxTaskResubmits();
+        final List<ServerTask> pendingTasks = new ArrayList<>(positionsToLoad.length);
+        for (final int pos: positionsToLoad) pendingTasks.add(ServerTask.lazyFromPersistedData(loader.forPosition(pos), pos, maxResubmits));
+        loaders.put(jobUuid, loader);
+        // start loading the first tasks before the job is dispatched
+        loader.prefetch();
+        return new ServerTaskBundleClient(pendingTasks, header, dataProvider);
+      }
       final List<PersistenceInfo> infos = new ArrayList<>(positionsToLoad.length + 1);
       infos.add(new PersistenceInfoImpl(jobUuid, header, PersistenceObjectType.DATA_PROVIDER, -1, null));
       for (int pos: positionsToLoad) {
@@ -188,9 +224,7 @@ public class PersistenceHandler {
       final DataLocation dataProvider = load(streams.get(0)); 
       final List<ServerTask> pendingTasks = new ArrayList<>(taskPositions.length - resultPositions.length);
       for (i=1; i<streams.size(); i++) {
-        final DataLocation taskData = load(streams.get(i));
-        final ServerTask task = (ServerTask) IOHelper.unwrappedData(taskData);
-        pendingTasks.add(task);
+        pendingTasks.add(ServerTask.fromPersistedData(streams.get(i)));
       }
       return new ServerTaskBundleClient(pendingTasks, header, dataProvider);
     } catch (final Exception e) {
@@ -256,7 +290,7 @@ public class PersistenceHandler {
    * @return the job element as a {@link DataLocation} object.
    * @throws Exception if any error occurs.
    */
-  private static DataLocation load(final InputStream stream) throws Exception {
+  static DataLocation load(final InputStream stream) throws Exception {
     try (final InputStream is = stream; final MultipleBuffersOutputStream os = new MultipleBuffersOutputStream()) {
       if (is == null) return null;
       StreamUtils.copyStream(is, os, false);
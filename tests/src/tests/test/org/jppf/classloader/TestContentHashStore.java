@@ -0,0 +1,149 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.classloader;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.*;
+
+import org.jppf.classloader.*;
+import org.jppf.utils.*;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the {@link ContentHashStore} class.
+ * @author Laurent Cohen
+ */
+public class TestContentHashStore extends BaseTest {
+  /**
+   * The root directory of the persistent store.
+   */
+  private final File dir = new File("class-store");
+
+  /**
+   * Delete the persistent store.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  @After
+  public void cleanup() throws Exception {
+    FileUtils.deletePath(dir);
+  }
+
+  /**
+   * Test that the definitions held in memory are bounded in size, and that evicted hashes are no longer advertised.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testMemoryEviction() throws Exception {
+    final ContentHashStore store = new ContentHashStore(250L, null, 0L);
+    assertFalse(store.isPersistent());
+    final byte[] c1 = content(1, 100), c2 = content(2, 100), c3 = content(3, 100);
+    store.put("a", hash(c1), c1);
+    store.put("b", hash(c1), c1);
+    store.put("a", hash(c2), c2);
+    assertEquals(200L, store.getSize());
+    assertEquals(2, store.getHashes("a").length);
+    assertArrayEquals(new String[] { hash(c1) }, store.getHashes("b"));
+    assertArrayEquals(c1, store.get("b", hash(c1)));
+    // c2 is now the least recently used definition
+    store.put("c", hash(c3), c3);
+    assertEquals(200L, store.getSize());
+    assertArrayEquals(new String[] { hash(c1) }, store.getHashes("a"));
+    assertNull(store.get("a", hash(c2)));
+    assertEquals(1L, store.getHits());
+    assertEquals(4L, store.getMisses());
+    assertEquals(100L, store.getSavedBytes());
+    assertEquals(1L, store.getEvictions());
+  }
+
+  /**
+   * Test that the persisted definitions are available after a restart, and that the persistent store is bounded in size.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testPersistence() throws Exception {
+    ContentHashStore store = new ContentHashStore(1000L, dir, 250L);
+    assertTrue(store.isPersistent());
+    final byte[] c1 = content(1, 100), c2 = content(2, 100), c3 = content(3, 100);
+    store.put("a", hash(c1), c1);
+    store.put("b", hash(c1), c1);
+    store.put("a", hash(c2), c2);
+    assertEquals(200L, store.getPersistentSize());
+    // simulate a node restart
+    store = new ContentHashStore(1000L, dir, 250L);
+    assertEquals(0L, store.getSize());
+    assertEquals(200L, store.getPersistentSize());
+    assertEquals(2, store.getHashes("a").length);
+    assertArrayEquals(new String[] { hash(c1) }, store.getHashes("b"));
+    assertArrayEquals(c1, store.get("b", hash(c1)));
+    assertEquals(1L, store.getPersistentHits());
+    assertEquals(100L, store.getSize());
+    // c2 is now the least recently used persisted definition
+    store.put("c", hash(c3), c3);
+    assertEquals(200L, store.getPersistentSize());
+    assertEquals(1L, store.getEvictions());
+    store = new ContentHashStore(1000L, dir, 250L);
+    assertArrayEquals(new String[] { hash(c1) }, store.getHashes("a"));
+    assertArrayEquals(new String[] { hash(c3) }, store.getHashes("c"));
+    assertArrayEquals(c3, store.get("c", hash(c3)));
+  }
+
+  /**
+   * Test that a persisted definition whose content does not match its hash is discarded.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testCorruptedDefinition() throws Exception {
+    ContentHashStore store = new ContentHashStore(1000L, dir, 1000L);
+    final byte[] c1 = content(1, 100);
+    final String h1 = hash(c1);
+    store.put("a", h1, c1);
+    Files.write(new File(dir, "blobs/" + h1.substring(0, 2) + '/' + h1).toPath(), content(2, 100));
+    store = new ContentHashStore(1000L, dir, 1000L);
+    assertArrayEquals(new String[] { h1 }, store.getHashes("a"));
+    assertNull(store.get("a", h1));
+    assertNull(store.getHashes("a"));
+    assertEquals(0L, store.getPersistentSize());
+  }
+
+  /**
+   * Compute the hash of the specified content.
+   * @param content the content to hash.
+   * @return the hash as a string.
+   */
+  private static String hash(final byte[] content) {
+    return CryptoUtils.computeHash(content, ResourceIdentifier.CONTENT_HASH_ALGORITHM);
+  }
+
+  /**
+   * Create content which is distinct for each seed.
+   * @param seed the seed from which to generate the content.
+   * @param size the size of the content.
+   * @return the content as an array of bytes.
+   */
+  private static byte[] content(final int seed, final int size) {
+    final byte[] content = new byte[size];
+    for (int i=0; i<size; i++) content[i] = (byte) (seed * 31 + i);
+    return content;
+  }
+}
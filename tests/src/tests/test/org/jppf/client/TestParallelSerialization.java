@@ -0,0 +1,95 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.client;
+
+import static org.junit.Assert.*;
+
+import java.io.NotSerializableException;
+import java.util.*;
+
+import org.jppf.client.JPPFJob;
+import org.jppf.node.protocol.Task;
+import org.jppf.utils.*;
+import org.junit.*;
+
+import test.org.jppf.test.setup.*;
+import test.org.jppf.test.setup.common.*;
+
+/**
+ * Test that the client serializes the tasks of a job in parallel when {@code jppf.client.serialization.parallelism} is greater than 1.
+ * @author Laurent Cohen
+ */
+public class TestParallelSerialization extends AbstractNonStandardSetup {
+  /**
+   * Launch 1 driver with 1 node and start the client.
+   * @throws Exception if a process could not be started.
+   */
+  @BeforeClass
+  public static void setup() throws Exception {
+    client = BaseSetup.setup(1, 1, true, true, createConfig("client_serialization"));
+  }
+
+  /**
+   * Test that all the tasks of a job with many tasks are executed and returned in the proper order.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testManyTasks() throws Exception {
+    final int nbTasks = 200;
+    final JPPFJob job = BaseTestHelper.createJob(ReflectionUtils.getCurrentMethodName(), false, nbTasks, LifeCycleTask.class, 0L);
+    final List<Task<?>> results = client.submit(job);
+    assertNotNull(results);
+    assertEquals(nbTasks, results.size());
+    final Set<Integer> positions = new HashSet<>();
+    for (final Task<?> task: results) {
+      assertNull(task.getThrowable());
+      assertEquals(BaseTestHelper.EXECUTION_SUCCESSFUL_MESSAGE, task.getResult());
+      assertTrue(positions.add(task.getPosition()));
+    }
+  }
+
+  /**
+   * Test that a task which cannot be serialized does not prevent the other tasks in the same job from being executed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testNotSerializableTask() throws Exception {
+    final int nbTasks = 20, faultyIndex = 10;
+    final String name = ReflectionUtils.getCurrentMethodName();
+    final JPPFJob job = new JPPFJob();
+    job.setName(name);
+    for (int i=0; i<nbTasks; i++) {
+      final Task<?> task = (i == faultyIndex) ? new NotSerializableTask(true) : new LifeCycleTask(0L);
+      job.add(task).setId(name + " - task " + i);
+    }
+    final List<Task<?>> results = client.submit(job);
+    assertNotNull(results);
+    assertEquals(nbTasks, results.size());
+    for (int i=0; i<nbTasks; i++) {
+      final Task<?> task = results.get(i);
+      if (i == faultyIndex) {
+        final Throwable t = task.getThrowable();
+        assertTrue("wrong exception: " + ExceptionUtils.getStackTrace(t), t instanceof NotSerializableException);
+      } else {
+        assertNull(task.getThrowable());
+        assertEquals(BaseTestHelper.EXECUTION_SUCCESSFUL_MESSAGE, task.getResult());
+      }
+    }
+  }
+}
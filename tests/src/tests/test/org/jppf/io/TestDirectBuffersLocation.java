@@ -0,0 +1,124 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.io;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.channels.*;
+import java.util.Random;
+
+import org.jppf.io.*;
+import org.jppf.utils.pooling.DirectSlabPool;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link DirectBuffersLocation}.
+ * @author Laurent Cohen
+ */
+public class TestDirectBuffersLocation extends BaseTest {
+  /**
+   * Test the transfer of data to and from non-blocking socket channels, then reading it back with an input stream.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testSocketTransfer() throws Exception {
+    final int size = 3 * DirectSlabPool.SLAB_SIZE + 123;
+    final byte[] data = randomBytes(size);
+    final DirectSlabPool pool = new DirectSlabPool(16 * DirectSlabPool.SLAB_SIZE);
+    final DirectBuffersLocation from = DirectBuffersLocation.create(pool, size), to = DirectBuffersLocation.create(pool, size);
+    assertNotNull(from);
+    assertNotNull(to);
+    try (final OutputStream os = from.getOutputStream()) {
+      os.write(data);
+    }
+    try (final ServerSocketChannel server = ServerSocketChannel.open()) {
+      server.bind(new InetSocketAddress("127.0.0.1", 0));
+      try (final SocketChannel out = SocketChannel.open(server.getLocalAddress()); final SocketChannel in = server.accept()) {
+        out.configureBlocking(false);
+        in.configureBlocking(false);
+        final OutputDestination od = new ChannelOutputDestination(out);
+        final InputSource is = new ChannelInputSource(in);
+        int written = 0, read = 0;
+        while (read < size) {
+          if (written < size) written += Math.max(0, from.transferTo(od, false));
+          read += Math.max(0, to.transferFrom(is, false));
+        }
+        assertEquals(size, written);
+        assertEquals(size, read);
+      }
+    }
+    final byte[] result = new byte[size];
+    try (final DataInputStream dis = new DataInputStream(to.getInputStream())) {
+      dis.readFully(result);
+      assertEquals(-1, dis.read());
+    }
+    assertArrayEquals(data, result);
+  }
+
+  /**
+   * Test that the buffers are returned to the pool only when a location and all its copies are released.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCopyAndRelease() throws Exception {
+    final int size = 2 * DirectSlabPool.SLAB_SIZE;
+    final DirectSlabPool pool = new DirectSlabPool(2 * DirectSlabPool.SLAB_SIZE);
+    final DirectBuffersLocation location = DirectBuffersLocation.create(pool, size);
+    assertNotNull(location);
+    assertEquals(size, pool.getAllocatedSize());
+    assertEquals(0L, pool.getAvailableSize());
+    assertNull(DirectBuffersLocation.create(pool, 1));
+    final DirectBuffersLocation copy = (DirectBuffersLocation) location.copy();
+    location.release();
+    location.release();
+    assertEquals(0L, pool.getAvailableSize());
+    copy.release();
+    assertEquals(size, pool.getAvailableSize());
+    final DirectBuffersLocation reused = DirectBuffersLocation.create(pool, size);
+    assertNotNull(reused);
+    assertEquals(size, pool.getAllocatedSize());
+  }
+
+  /**
+   * Test that writing more data than the size of the location fails.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000, expected = EOFException.class)
+  public void testOutputStreamOverflow() throws Exception {
+    final DirectBuffersLocation location = DirectBuffersLocation.create(new DirectSlabPool(DirectSlabPool.SLAB_SIZE), 10);
+    try (final OutputStream os = location.getOutputStream()) {
+      os.write(new byte[11]);
+    }
+  }
+
+  /**
+   * Generate an array of random bytes.
+   * @param size the size of the array.
+   * @return an array of bytes.
+   */
+  private static byte[] randomBytes(final int size) {
+    final byte[] data = new byte[size];
+    new Random(42L).nextBytes(data);
+    return data;
+  }
+}
@@ -18,9 +18,16 @@
 
 package test.org.jppf.io;
 
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.channels.*;
+import java.nio.file.Files;
+import java.util.Random;
 
 import org.jppf.client.JPPFJob;
+import org.jppf.io.*;
 import org.jppf.load.balancer.LoadBalancingInformation;
 import org.jppf.management.*;
 import org.jppf.node.protocol.*;
@@ -61,6 +68,40 @@ public class TestFileDataLocation extends Setup1D1N1C {
     }
   }
 
+  /**
+   * Test the direct transfer of file-backed data to and from non-blocking socket channels.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 10000)
+  public void testZeroCopyTransfer() throws Exception {
+    final int size = 8 * 1024 * 1024 + 123;
+    final byte[] data = new byte[size];
+    new Random(42L).nextBytes(data);
+    final File src = File.createTempFile("jppf", ".src"), dest = File.createTempFile("jppf", ".dest");
+    try (final ServerSocketChannel server = ServerSocketChannel.open()) {
+      Files.write(src.toPath(), data);
+      server.bind(new InetSocketAddress("127.0.0.1", 0));
+      try (final SocketChannel out = SocketChannel.open(server.getLocalAddress()); final SocketChannel in = server.accept()) {
+        out.configureBlocking(false);
+        in.configureBlocking(false);
+        final DataLocation from = new FileDataLocation(src, size), to = new FileDataLocation(dest, size);
+        final OutputDestination od = new ChannelOutputDestination(out);
+        final InputSource is = new ChannelInputSource(in);
+        int written = 0, read = 0;
+        while (read < size) {
+          if (written < size) written += Math.max(0, from.transferTo(od, false));
+          read += Math.max(0, to.transferFrom(is, false));
+        }
+        assertEquals(size, written);
+        assertEquals(size, read);
+        assertArrayEquals(data, Files.readAllBytes(dest.toPath()));
+      }
+    } finally {
+      src.delete();
+      dest.delete();
+    }
+  }
+
   /**
    * Configure the driver's load balancing settings.
    * @throws Exception if any error occurs
@@ -0,0 +1,110 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.jmxremote;
+
+import static org.jppf.jmx.JMXHelper.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import javax.management.*;
+
+import org.jppf.io.DataLocation;
+import org.jppf.jmxremote.message.*;
+import org.jppf.management.ObjectNameCache;
+import org.jppf.utils.JPPFBuffer;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link JMXMessageCodec}.
+ * @author Laurent Cohen
+ */
+public class TestJMXMessageCodec extends BaseTest {
+  /**
+   * Test that the requests written in binary form, and the requests serialized as a whole, are decoded into the same requests.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testRequests() throws Exception {
+    final ObjectName name = ObjectNameCache.getObjectName(ConnectorTestMBean.MBEAN_NAME);
+    final Object[] params = { "string", 1, 2L, true, 3.5d, 4.5f, (short) 5, (byte) 6, 'c', name, new String[] { "a", null }, new int[] { 7, 8 }, null };
+    final List<JMXMessage> messages = Arrays.<JMXMessage>asList(
+      new JMXRequest(1L, GET_ATTRIBUTE, name, "StringParam"),
+      new JMXRequest(2L, SET_ATTRIBUTE, name, new Attribute("IntParam", 13)),
+      new JMXRequest(3L, INVOKE, name, "test1", params, new String[] { String.class.getName(), int.class.getName() }),
+      new JMXRequest(4L, IS_REGISTERED, name),
+      new JMXRequest(5L, GET_DOMAINS));
+    final List<JMXMessage> decoded = roundTrip(messages);
+    assertEquals(messages.size(), decoded.size());
+    for (int i=0; i<messages.size(); i++) {
+      final JMXRequest expected = (JMXRequest) messages.get(i), actual = (JMXRequest) decoded.get(i);
+      assertEquals(expected.getMessageID(), actual.getMessageID());
+      assertEquals(expected.getMessageType(), actual.getMessageType());
+      assertEquals(Arrays.deepToString(expected.getParams()), Arrays.deepToString(actual.getParams()));
+    }
+    final Object[] decodedParams = (Object[]) ((JMXRequest) decoded.get(2)).getParams()[2];
+    for (int i=0; i<params.length; i++) {
+      if (params[i] != null) assertEquals(params[i].getClass(), decodedParams[i].getClass());
+    }
+  }
+
+  /**
+   * Test that the responses are decoded with their result or exception.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testResponses() throws Exception {
+    final List<JMXMessage> messages = Arrays.<JMXMessage>asList(
+      new JMXResponse(new JMXRequest(1L, GET_ATTRIBUTE), "result", false),
+      new JMXResponse(new JMXRequest(2L, IS_REGISTERED), true, false),
+      new JMXResponse(new JMXRequest(3L, SET_ATTRIBUTE), null, false),
+      new JMXResponse(new JMXRequest(4L, INVOKE), new AttributeNotFoundException("not found"), true),
+      new JMXResponse(new JMXRequest(5L, GET_DOMAINS), new String[] { "org.jppf" }, false));
+    final List<JMXMessage> decoded = roundTrip(messages);
+    assertEquals(messages.size(), decoded.size());
+    assertEquals("result", ((JMXResponse) decoded.get(0)).getResult());
+    assertEquals(Boolean.TRUE, ((JMXResponse) decoded.get(1)).getResult());
+    assertNull(((JMXResponse) decoded.get(2)).getResult());
+    assertNull(((JMXResponse) decoded.get(2)).getException());
+    final JMXResponse error = (JMXResponse) decoded.get(3);
+    assertNull(error.getResult());
+    assertTrue(error.getException() instanceof AttributeNotFoundException);
+    assertEquals("not found", error.getException().getMessage());
+    assertArrayEquals(new String[] { "org.jppf" }, (String[]) ((JMXResponse) decoded.get(4)).getResult());
+    for (int i=0; i<messages.size(); i++) {
+      assertEquals(messages.get(i).getMessageID(), decoded.get(i).getMessageID());
+      assertEquals(messages.get(i).getMessageType(), decoded.get(i).getMessageType());
+    }
+  }
+
+  /**
+   * Encode the specified messages into a single frame, then decode the frame.
+   * @param messages the messages to encode.
+   * @return the decoded messages.
+   * @throws Exception if any error occurs.
+   */
+  private static List<JMXMessage> roundTrip(final List<JMXMessage> messages) throws Exception {
+    final List<JPPFBuffer> encoded = new ArrayList<>(messages.size());
+    for (final JMXMessage message: messages) encoded.add(JMXMessageCodec.encode(message));
+    final DataLocation frame = JMXMessageCodec.frame(encoded);
+    return JMXMessageCodec.decode(frame);
+  }
+}
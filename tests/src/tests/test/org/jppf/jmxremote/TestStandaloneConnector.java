@@ -22,6 +22,7 @@ import static org.junit.Assert.*;
 
 import java.lang.management.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.management.*;
@@ -102,6 +103,51 @@ public class TestStandaloneConnector extends AbstractTestStandaloneConnector {
     assertTrue(mbsc.isInstanceOf(connectorTestName, ConnectorTestMBean.class.getName()));
   }
 
+  /**
+   * Test the asynchronous requests.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testAsyncRequests() throws Exception {
+    final JPPFMBeanServerConnection mbsc = (JPPFMBeanServerConnection) clientConnector.getMBeanServerConnection();
+    print(false, true, ">>> testing async requests");
+    final CompletableFuture<Object> invokeFuture =
+      mbsc.invokeAsync(connectorTestName, "test1", new Object[] { "testing", 13 }, new String[] { String.class.getName(), int.class.getName() });
+    assertEquals("[testing - 13]", invokeFuture.get());
+    assertEquals("initial_value", mbsc.getAttributeAsync(connectorTestName, "StringParam").get());
+    mbsc.setAttributeAsync(connectorTestName, new Attribute("IntParam", 13)).get();
+    assertEquals(13, mbsc.getAttributeAsync(connectorTestName, "IntParam").get());
+    assertTrue(mbsc.isRegisteredAsync(connectorTestName).get());
+    assertFalse(mbsc.isRegisteredAsync(ObjectNameCache.getObjectName("org.jppf:name=NotRegistered,type=test")).get());
+    final CompletableFuture<Object> errorFuture = mbsc.getAttributeAsync(connectorTestName, "NoSuchAttribute");
+    try {
+      errorFuture.get();
+      fail("getting a non-existent attribute should raise an exception");
+    } catch (final ExecutionException e) {
+      assertTrue(e.getCause() instanceof AttributeNotFoundException);
+    }
+  }
+
+  /**
+   * Test sending many requests at once.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testBatchedRequests() throws Exception {
+    final JPPFMBeanServerConnection mbsc = (JPPFMBeanServerConnection) clientConnector.getMBeanServerConnection();
+    print(false, true, ">>> testing batched requests");
+    mbsc.setAttribute(connectorTestName, new Attribute("StringParam", "batched"));
+    final int nbRequests = 1000;
+    final List<ObjectName> names = new ArrayList<>(nbRequests);
+    for (int i=0; i<nbRequests; i++) names.add(connectorTestName);
+    final List<CompletableFuture<Object>> futures = mbsc.getAttributeAsync(names, "StringParam");
+    assertEquals(nbRequests, futures.size());
+    for (final CompletableFuture<Object> future: futures) assertEquals("batched", future.get());
+    final List<CompletableFuture<Object>> invokeFutures = new ArrayList<>(nbRequests);
+    for (int i=0; i<nbRequests; i++) invokeFutures.add(mbsc.invokeAsync(connectorTestName, "test2", new Object[] { "s" + i }, new String[] { String.class.getName() }));
+    for (int i=0; i<nbRequests; i++) assertEquals(mbsc.invoke(connectorTestName, "test2", new Object[] { "s" + i }, new String[] { String.class.getName() }), invokeFutures.get(i).get());
+  }
+
   /**
    * Test MBean domains.
    * @throws Exception if any error occurs.
@@ -0,0 +1,324 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.job.persistence;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jppf.io.MultipleBuffersLocation;
+import org.jppf.job.persistence.*;
+import org.jppf.job.persistence.impl.*;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the write-behind mode of {@link AsynchronousPersistence}.
+ * @author Laurent Cohen
+ */
+public class TestAsynchronousPersistenceWriteBehind extends BaseTest {
+  /**
+   * The delegate persistence of the persistence being tested.
+   */
+  private static volatile RecordingPersistence recorder;
+
+  /**
+   * Enable the write-behind mode.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  public void setupInstance() throws Exception {
+    JPPFConfiguration.set(JPPFProperties.JOB_PERSISTENCE_WRITE_BEHIND, true);
+  }
+
+  /**
+   * Reset the configuration.
+   * @throws Exception if any error occurs.
+   */
+  @After
+  public void teardownInstance() throws Exception {
+    JPPFConfiguration.remove(JPPFProperties.JOB_PERSISTENCE_WRITE_BEHIND);
+    JPPFConfiguration.remove(JPPFProperties.JOB_PERSISTENCE_WRITE_BEHIND_MAX_SIZE);
+    if (recorder != null) recorder.gate.countDown();
+  }
+
+  /**
+   * Test that the stores requested while a store is in progress are coalesced into a single store, where newer versions of an element replace older ones.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCoalescedStores() throws Exception {
+    final AsynchronousPersistence persistence = newPersistence();
+    persistence.store(infos("job1", PersistenceObjectType.JOB_HEADER, 10, -1));
+    assertTrue(recorder.storeStarted.await(5000L, TimeUnit.MILLISECONDS));
+    for (int i=0; i<10; i++) persistence.store(infos("job1", PersistenceObjectType.TASK_RESULT, 10, i));
+    persistence.store(infos("job1", PersistenceObjectType.TASK_RESULT, 20, 0, 1));
+    WriteBehindStatistics stats = persistence.getWriteBehindStatistics();
+    assertEquals(1, stats.getPendingJobs());
+    assertEquals(11, stats.getPendingElements());
+    assertEquals(2, stats.getCoalescedElements());
+    recorder.gate.countDown();
+    assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 }, sort(persistence.getTaskResultPositions("job1")));
+    assertEquals(Arrays.asList(1, 10), recorder.storeSizes);
+    assertEquals(20, recorder.elements.get(new PersistenceInfoKey("job1", PersistenceObjectType.TASK_RESULT, 1)).intValue());
+    assertEquals(10, recorder.elements.get(new PersistenceInfoKey("job1", PersistenceObjectType.TASK_RESULT, 2)).intValue());
+    stats = persistence.getWriteBehindStatistics();
+    assertEquals(0, stats.getPendingJobs());
+    assertEquals(0, stats.getPendingElements());
+    assertEquals(0L, stats.getPendingSize());
+    assertEquals(2L, stats.getBatches());
+    assertEquals(11L, stats.getStoredElements());
+    assertTrue(stats.getMaxLatency() >= stats.getMeanLatency());
+  }
+
+  /**
+   * Test that deleting a job discards its pending stores, but not the store in progress.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testDeleteDiscardsPendingStores() throws Exception {
+    final AsynchronousPersistence persistence = newPersistence();
+    persistence.store(infos("job1", PersistenceObjectType.JOB_HEADER, 10, -1));
+    assertTrue(recorder.storeStarted.await(5000L, TimeUnit.MILLISECONDS));
+    for (int i=0; i<5; i++) persistence.store(infos("job1", PersistenceObjectType.TASK_RESULT, 10, i));
+    persistence.deleteJob("job1");
+    recorder.gate.countDown();
+    assertFalse(persistence.isJobPersisted("job1"));
+    assertEquals(Arrays.asList(1), recorder.storeSizes);
+    assertTrue(recorder.elements.isEmpty());
+    final WriteBehindStatistics stats = persistence.getWriteBehindStatistics();
+    assertEquals(5L, stats.getDiscardedElements());
+    assertEquals(1L, stats.getStoredElements());
+    assertEquals(0, stats.getPendingElements());
+  }
+
+  /**
+   * Test that a store waits when the pending elements exceed the maximum size.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testBackPressure() throws Exception {
+    JPPFConfiguration.set(JPPFProperties.JOB_PERSISTENCE_WRITE_BEHIND_MAX_SIZE, 1000L);
+    final AsynchronousPersistence persistence = newPersistence();
+    persistence.store(infos("job1", PersistenceObjectType.TASK, 600, 0));
+    assertTrue(recorder.storeStarted.await(5000L, TimeUnit.MILLISECONDS));
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Future<?> future = executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          persistence.store(infos("job2", PersistenceObjectType.TASK, 600, 0));
+          return null;
+        }
+      });
+      Thread.sleep(200L);
+      assertFalse(future.isDone());
+      assertEquals(1L, persistence.getWriteBehindStatistics().getBlockedStores());
+      recorder.gate.countDown();
+      future.get(5000L, TimeUnit.MILLISECONDS);
+      assertTrue(persistence.isJobPersisted("job2"));
+      assertEquals(2L, persistence.getWriteBehindStatistics().getStoredElements());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Test that the elements of a failed store are stored by a subsequent retry.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testStoreRetry() throws Exception {
+    final AsynchronousPersistence persistence = newPersistence();
+    recorder.failures.set(2);
+    recorder.gate.countDown();
+    persistence.store(infos("job1", PersistenceObjectType.TASK, 10, 0, 1));
+    assertArrayEquals(new int[] { 0, 1 }, sort(persistence.getTaskPositions("job1")));
+    assertEquals(Arrays.asList(2), recorder.storeSizes);
+    final WriteBehindStatistics stats = persistence.getWriteBehindStatistics();
+    assertEquals(3L, stats.getBatches());
+    assertEquals(2L, stats.getStoredElements());
+    assertEquals(0L, stats.getFailedElements());
+    assertEquals(0, stats.getPendingElements());
+  }
+
+  /**
+   * Test that the elements of a store which fails after all retries are counted as failed, and that the error is thrown by the next read of the job.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testStoreFailure() throws Exception {
+    final AsynchronousPersistence persistence = newPersistence();
+    recorder.failures.set(Integer.MAX_VALUE);
+    recorder.gate.countDown();
+    persistence.store(infos("job1", PersistenceObjectType.TASK, 10, 0, 1));
+    try {
+      persistence.getTaskPositions("job1");
+      fail("the store error should have been thrown");
+    } catch (final JobPersistenceException e) {
+      assertEquals("store failure", e.getMessage());
+    }
+    assertEquals(0, persistence.getTaskPositions("job1").length);
+    final WriteBehindStatistics stats = persistence.getWriteBehindStatistics();
+    assertEquals(0L, stats.getStoredElements());
+    assertEquals(2L, stats.getFailedElements());
+    assertEquals(0, stats.getPendingElements());
+    assertEquals(0L, stats.getPendingSize());
+  }
+
+  /**
+   * Create an asynchronous persistence in write-behind mode, whose delegate is a new {@link RecordingPersistence}.
+   * @return an {@link AsynchronousPersistence} instance.
+   * @throws Exception if any error occurs.
+   */
+  private static AsynchronousPersistence newPersistence() throws Exception {
+    final AsynchronousPersistence persistence = new AsynchronousPersistence("1", RecordingPersistence.class.getName());
+    assertNotNull(recorder);
+    return persistence;
+  }
+
+  /**
+   * Create elements to store.
+   * @param uuid the job uuid.
+   * @param type the type of the elements.
+   * @param size the size of each element.
+   * @param positions the positions of the elements.
+   * @return a collection of {@link PersistenceInfo} objects.
+   */
+  private static Collection<PersistenceInfo> infos(final String uuid, final PersistenceObjectType type, final int size, final int...positions) {
+    final List<PersistenceInfo> infos = new ArrayList<>(positions.length);
+    for (final int pos: positions) infos.add(new PersistenceInfoImpl(uuid, null, type, pos, new MultipleBuffersLocation(new byte[size])));
+    return infos;
+  }
+
+  /**
+   * Sort the specified array.
+   * @param array the array to sort.
+   * @return the sorted array.
+   */
+  private static int[] sort(final int[] array) {
+    Arrays.sort(array);
+    return array;
+  }
+
+  /**
+   * A job persistence which records the size of each element it stores, and whose first store waits until the gate is opened.
+   */
+  public static class RecordingPersistence implements JobPersistence {
+    /**
+     * The size of the stored elements.
+     */
+    final Map<PersistenceInfoKey, Integer> elements = new ConcurrentHashMap<>();
+    /**
+     * The number of elements in each call to {@link #store(Collection)}.
+     */
+    final List<Integer> storeSizes = new CopyOnWriteArrayList<>();
+    /**
+     * Released when the first store starts.
+     */
+    final CountDownLatch storeStarted = new CountDownLatch(1);
+    /**
+     * Blocks the first store until it is released.
+     */
+    final CountDownLatch gate = new CountDownLatch(1);
+    /**
+     * The number of subsequent stores which fail.
+     */
+    final AtomicInteger failures = new AtomicInteger(0);
+
+    /**
+     * Register this persistence as the current delegate.
+     */
+    public RecordingPersistence() {
+      recorder = this;
+    }
+
+    @Override
+    public void store(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+      storeStarted.countDown();
+      try {
+        gate.await();
+      } catch (final InterruptedException e) {
+        throw new JobPersistenceException(e);
+      }
+      if (failures.get() > 0) {
+        failures.decrementAndGet();
+        throw new JobPersistenceException("store failure");
+      }
+      for (final PersistenceInfo info: infos) elements.put(new PersistenceInfoKey(info), info.getSize());
+      storeSizes.add(infos.size());
+    }
+
+    @Override
+    public List<InputStream> load(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+      return new ArrayList<>();
+    }
+
+    @Override
+    public List<String> getPersistedJobUuids() throws JobPersistenceException {
+      final Set<String> uuids = new HashSet<>();
+      for (final PersistenceInfoKey key: elements.keySet()) uuids.add(key.getUuid());
+      return new ArrayList<>(uuids);
+    }
+
+    @Override
+    public int[] getTaskPositions(final String jobUuid) throws JobPersistenceException {
+      return getPositions(jobUuid, PersistenceObjectType.TASK);
+    }
+
+    @Override
+    public int[] getTaskResultPositions(final String jobUuid) throws JobPersistenceException {
+      return getPositions(jobUuid, PersistenceObjectType.TASK_RESULT);
+    }
+
+    /**
+     * Get the positions of the stored elements of the specified job and type.
+     * @param uuid the job uuid.
+     * @param type the type of elements.
+     * @return an array of positions.
+     */
+    private int[] getPositions(final String uuid, final PersistenceObjectType type) {
+      final List<Integer> list = new ArrayList<>();
+      for (final PersistenceInfoKey key: elements.keySet()) {
+        if (key.getUuid().equals(uuid) && (key.getType() == type)) list.add(key.getPosition());
+      }
+      final int[] result = new int[list.size()];
+      for (int i=0; i<result.length; i++) result[i] = list.get(i);
+      return result;
+    }
+
+    @Override
+    public void deleteJob(final String jobUuid) throws JobPersistenceException {
+      for (final PersistenceInfoKey key: elements.keySet()) {
+        if (key.getUuid().equals(jobUuid)) elements.remove(key);
+      }
+    }
+
+    @Override
+    public boolean isJobPersisted(final String jobUuid) throws JobPersistenceException {
+      return getPersistedJobUuids().contains(jobUuid);
+    }
+  }
+}
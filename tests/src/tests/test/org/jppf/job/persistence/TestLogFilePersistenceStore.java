@@ -0,0 +1,223 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.job.persistence;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.io.MultipleBuffersLocation;
+import org.jppf.job.persistence.*;
+import org.jppf.job.persistence.impl.LogFilePersistence;
+import org.jppf.utils.DeleteFileVisitor;
+import org.jppf.utils.streams.StreamUtils;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the recovery and compaction of {@link LogFilePersistence}, without a driver.
+ * @author Laurent Cohen
+ */
+public class TestLogFilePersistenceStore extends BaseTest {
+  /**
+   * The root directory of the persistence.
+   */
+  private static final Path ROOT = Paths.get("persistence_log_test");
+
+  /**
+   * Delete the persistence directory.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  @After
+  public void cleanup() throws Exception {
+    if (Files.exists(ROOT)) Files.walkFileTree(ROOT, new DeleteFileVisitor());
+  }
+
+  /**
+   * Test that the job elements stored concurrently are found again after the store is reopened.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testStoreAndRecover() throws Exception {
+    final int nbTasks = 100;
+    final LogFilePersistence persistence = newPersistence();
+    persistence.store(Arrays.asList(info("job1", PersistenceObjectType.JOB_HEADER, -1, bytes(100, 1))));
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i=0; i<nbTasks; i++) {
+        final int pos = i;
+        futures.add(executor.submit(() -> {
+          persistence.store(Arrays.asList(info("job1", PersistenceObjectType.TASK, pos, bytes(10_000, pos))));
+          return null;
+        }));
+      }
+      for (final Future<?> future: futures) future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+    checkJob(persistence, "job1", nbTasks, 10_000);
+    checkJob(newPersistence(), "job1", nbTasks, 10_000);
+  }
+
+  /**
+   * Test that deleted jobs are not recovered and that the segments which only hold deleted elements are removed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testDeleteAndCompact() throws Exception {
+    final LogFilePersistence persistence = newPersistence();
+    for (final String uuid: new String[] { "job1", "job2" }) {
+      final List<PersistenceInfo> infos = new ArrayList<>();
+      infos.add(info(uuid, PersistenceObjectType.JOB_HEADER, -1, bytes(100, 1)));
+      for (int i=0; i<20; i++) infos.add(info(uuid, PersistenceObjectType.TASK, i, bytes(100_000, i)));
+      persistence.store(infos);
+    }
+    final long nbSegments = countSegments();
+    assertTrue(nbSegments > 2L);
+    persistence.deleteJob("job1");
+    assertFalse(persistence.isJobPersisted("job1"));
+    assertEquals(0, persistence.getTaskPositions("job1").length);
+    final long start = System.currentTimeMillis();
+    while ((countSegments() >= nbSegments) && (System.currentTimeMillis() - start < 5000L)) Thread.sleep(50L);
+    assertTrue(countSegments() < nbSegments);
+    checkJob(persistence, "job2", 20, 100_000);
+    final LogFilePersistence recovered = newPersistence();
+    assertEquals(Arrays.asList("job2"), recovered.getPersistedJobUuids());
+    checkJob(recovered, "job2", 20, 100_000);
+    // a job persisted again with the uuid of a deleted job must not be hidden by the deletion
+    recovered.store(Arrays.asList(info("job1", PersistenceObjectType.JOB_HEADER, -1, bytes(10, 2))));
+    assertTrue(newPersistence().isJobPersisted("job1"));
+  }
+
+  /**
+   * Test that an incomplete record at the end of the last segment, as left by a crash, is discarded upon recovery.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testIncompleteRecord() throws Exception {
+    newPersistence().store(Arrays.asList(info("job1", PersistenceObjectType.JOB_HEADER, -1, bytes(100, 1))));
+    final Path segment = lastSegment();
+    final long size = Files.size(segment);
+    try (final OutputStream out = Files.newOutputStream(segment, StandardOpenOption.APPEND)) {
+      out.write(new byte[] { 0, 0, 1, 0, 5, 5, 5 });
+    }
+    final LogFilePersistence persistence = newPersistence();
+    assertEquals(size, Files.size(segment));
+    assertTrue(persistence.isJobPersisted("job1"));
+    persistence.store(Arrays.asList(info("job1", PersistenceObjectType.TASK, 0, bytes(100, 0))));
+    checkJob(newPersistence(), "job1", 1, 100);
+  }
+
+  /**
+   * Check that the specified job has the expected header and tasks.
+   * @param persistence the persistence to check.
+   * @param uuid the uuid of the job.
+   * @param nbTasks the expected number of tasks.
+   * @param size the expected size of each task.
+   * @throws Exception if any error occurs.
+   */
+  private static void checkJob(final JobPersistence persistence, final String uuid, final int nbTasks, final int size) throws Exception {
+    assertTrue(persistence.isJobPersisted(uuid));
+    final int[] positions = persistence.getTaskPositions(uuid);
+    assertEquals(nbTasks, positions.length);
+    final List<PersistenceInfo> infos = new ArrayList<>();
+    for (int i=0; i<nbTasks; i++) {
+      assertEquals(i, positions[i]);
+      infos.add(info(uuid, PersistenceObjectType.TASK, i, null));
+    }
+    final List<InputStream> streams = persistence.load(infos);
+    assertEquals(nbTasks, streams.size());
+    for (int i=0; i<nbTasks; i++) assertArrayEquals(bytes(size, i), read(streams.get(i)));
+  }
+
+  /**
+   * @return a new persistence with 1 MB segments.
+   * @throws Exception if any error occurs.
+   */
+  private static LogFilePersistence newPersistence() throws Exception {
+    return new LogFilePersistence(ROOT.toString(), "1");
+  }
+
+  /**
+   * @return the number of segment files.
+   * @throws Exception if any error occurs.
+   */
+  private static long countSegments() throws Exception {
+    try (final DirectoryStream<Path> ds = Files.newDirectoryStream(ROOT, "segment-*.log")) {
+      long count = 0L;
+      for (@SuppressWarnings("unused") final Path path: ds) count++;
+      return count;
+    }
+  }
+
+  /**
+   * @return the path of the segment with the highest id.
+   * @throws Exception if any error occurs.
+   */
+  private static Path lastSegment() throws Exception {
+    final List<Path> paths = new ArrayList<>();
+    try (final DirectoryStream<Path> ds = Files.newDirectoryStream(ROOT, "segment-*.log")) {
+      for (final Path path: ds) paths.add(path);
+    }
+    Collections.sort(paths);
+    return paths.get(paths.size() - 1);
+  }
+
+  /**
+   * Create a persistence info for the specified job element.
+   * @param uuid the job uuid.
+   * @param type the type of element.
+   * @param position the position of the element.
+   * @param data the data of the element, may be {@code null}.
+   * @return a {@link PersistenceInfo} instance.
+   */
+  private static PersistenceInfo info(final String uuid, final PersistenceObjectType type, final int position, final byte[] data) {
+    return new PersistenceInfoImpl(uuid, null, type, position, (data == null) ? null : new MultipleBuffersLocation(data));
+  }
+
+  /**
+   * Read the content of the specified stream.
+   * @param in the stream to read.
+   * @return the content as an array of bytes.
+   * @throws Exception if any error occurs.
+   */
+  private static byte[] read(final InputStream in) throws Exception {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    StreamUtils.copyStream(in, baos, true);
+    return baos.toByteArray();
+  }
+
+  /**
+   * Generate an array of bytes with a simple pattern.
+   * @param size the size of the array.
+   * @param seed varies the pattern.
+   * @return an array of bytes.
+   */
+  private static byte[] bytes(final int size, final int seed) {
+    final byte[] data = new byte[size];
+    for (int i=0; i<size; i++) data[i] = (byte) (i * 31 + seed);
+    return data;
+  }
+}
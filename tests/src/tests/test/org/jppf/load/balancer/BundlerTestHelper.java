@@ -0,0 +1,50 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.load.balancer;
+
+import org.jppf.load.balancer.*;
+import org.jppf.load.balancer.spi.JPPFBundlerProvider;
+import org.jppf.utils.TypedProperties;
+
+/**
+ * Utility methods for the unit tests of the load-balancers.
+ * @author Laurent Cohen
+ */
+final class BundlerTestHelper {
+  /**
+   * Instantiation is not permitted.
+   */
+  private BundlerTestHelper() {
+  }
+
+  /**
+   * Create and set up a bundler the same way the bundler factory does, from the provider of its algorithm and the parameters of its profile.
+   * @param <T> the type of profile of the bundler.
+   * @param <B> the type of bundler to create.
+   * @param provider the provider of the load-balancing algorithm.
+   * @param parameters the parameters of the algorithm.
+   * @return a new bundler, ready to use.
+   */
+  @SuppressWarnings("unchecked")
+  static <T extends LoadBalancingProfile, B extends Bundler<T>> B newBundler(final JPPFBundlerProvider<T> provider, final TypedProperties parameters) {
+    final B bundler = (B) provider.createBundler(provider.createProfile(parameters));
+    bundler.setup();
+    return bundler;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.load.balancer;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.jppf.load.balancer.impl.CostModelBundler;
+import org.jppf.load.balancer.spi.CostModelBundlerProvider;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.concurrent.ConcurrentUtils;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the {@link CostModelBundler}.
+ * @author Laurent Cohen
+ */
+public class TestCostModelBundler extends BaseTest {
+  /**
+   * Test that the bundle sizes are computed such that the predicted completion times of all nodes are the same.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testEqualCompletionTimes() throws Exception {
+    final CostModelBundler fast = createBundler(), slow = createBundler();
+    try {
+      final int initialSize = fast.getBundleSize();
+      assertEquals(10, initialSize);
+      // fast node: 20 ms + 1 ms per task; slow node: 100 ms + 4 ms per task, half of which is spent transferring 1 MB per task
+      for (int n=5; n<=50; n+=5) {
+        fast.feedback(n, 1e6d * (20d + n), 0d, 0d, 1e6d * n, 0L);
+        slow.feedback(n, 1e6d * (100d + 4d * n), 0d, 0d, 2e6d * n, 1_000_000L * n);
+      }
+      assertTrue(ConcurrentUtils.awaitCondition(() -> fast.getBundleSize() > 3 * slow.getBundleSize(), 5000L, 10L, false));
+      final int max = fast.maxSize(), fastSize = fast.getBundleSize(), slowSize = slow.getBundleSize();
+      assertTrue("fastSize=" + fastSize + ", slowSize=" + slowSize, Math.abs(fastSize + slowSize - max) <= 2);
+      final double fastTime = 20d + fastSize, slowTime = 100d + 4d * slowSize;
+      assertEquals(fastTime, slowTime, 10d);
+    } finally {
+      fast.dispose();
+      slow.dispose();
+    }
+  }
+
+  /**
+   * Test that a bundler restored from the persisted state of another computes the same bundle size.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testPersistedState() throws Exception {
+    final CostModelBundler bundler = createBundler();
+    CostModelBundler restored = null;
+    try {
+      for (int n=1; n<=20; n++) bundler.feedback(n, 1e6d * (5d + 2d * n), 0d, 0d, 2e6d * n, 0L);
+      restored = createBundler();
+      // go through serialization, as the bundler persistence does
+      try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(bundler.getState())))) {
+        restored.setState(in.readObject());
+      }
+      final CostModelBundler other = restored;
+      assertTrue(ConcurrentUtils.awaitCondition(() -> other.getBundleSize() == bundler.getBundleSize(), 5000L, 10L, false));
+      // the restored state must not share anything with the state it is restored from
+      restored.setState(bundler.getState());
+      final byte[] restoredState = serialize(restored.getState());
+      for (int n=1; n<=20; n++) bundler.feedback(n, 1e6d * (50d + 20d * n), 0d, 0d, 2e6d * n, 0L);
+      assertArrayEquals(restoredState, serialize(restored.getState()));
+    } finally {
+      bundler.dispose();
+      if (restored != null) restored.dispose();
+    }
+  }
+
+  /**
+   * Serialize the specified bundler state.
+   * @param state the state to serialize.
+   * @return the serialized state.
+   * @throws Exception if any error occurs.
+   */
+  private static byte[] serialize(final Object state) throws Exception {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (final ObjectOutputStream out = new ObjectOutputStream(baos)) {
+      out.writeObject(state);
+    }
+    return baos.toByteArray();
+  }
+
+  /**
+   * Create and set up a cost model bundler.
+   * @return a new {@link CostModelBundler}.
+   */
+  private static CostModelBundler createBundler() {
+    return BundlerTestHelper.newBundler(new CostModelBundlerProvider(), new TypedProperties().setInt("initialSize", 10).setInt("minSamples", 3).setDouble("forgettingFactor", 0.95d));
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package test.org.jppf.load.balancer;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.load.balancer.impl.ProportionalBundler;
+import org.jppf.load.balancer.spi.ProportionalBundlerProvider;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.concurrent.ConcurrentUtils;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the {@link ProportionalBundler}.
+ * @author Laurent Cohen
+ */
+public class TestProportionalBundler extends BaseTest {
+  /**
+   * Test that the bundle sizes are recomputed in the background, proportionally to the performance of each node.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testProportions() throws Exception {
+    final ProportionalBundler fast = createBundler(), slow = createBundler();
+    try {
+      final int initialSize = fast.getBundleSize();
+      // 1 ms per task for the fast bundler, 9 ms per task for the slow one
+      fast.feedback(10, 10e6d);
+      slow.feedback(10, 90e6d);
+      assertTrue(ConcurrentUtils.awaitCondition(() -> fast.getBundleSize() != initialSize, 5000L, 10L, false));
+      assertTrue(ConcurrentUtils.awaitCondition(() -> fast.getBundleSize() > 5 * slow.getBundleSize(), 5000L, 10L, false));
+      assertTrue(slow.getBundleSize() >= 1);
+    } finally {
+      fast.dispose();
+      slow.dispose();
+    }
+  }
+
+  /**
+   * Test that concurrent feedbacks for many bundlers result in consistent bundle sizes.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testConcurrentFeedback() throws Exception {
+    final int nbBundlers = 16, nbFeedbacks = 1000;
+    final List<ProportionalBundler> bundlers = new ArrayList<>();
+    for (int i=0; i<nbBundlers; i++) bundlers.add(createBundler());
+    final ExecutorService executor = Executors.newFixedThreadPool(nbBundlers);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (final ProportionalBundler bundler: bundlers) {
+        futures.add(executor.submit(() -> {
+          for (int i=0; i<nbFeedbacks; i++) {
+            bundler.feedback(1, 1e6d);
+            assertTrue(bundler.getBundleSize() >= 1);
+          }
+        }));
+      }
+      for (final Future<?> future: futures) future.get();
+      // all bundlers have the same performance, hence the same proportion
+      final int max = bundlers.get(0).maxSize();
+      assertTrue(ConcurrentUtils.awaitCondition(() -> {
+        for (final ProportionalBundler bundler: bundlers) {
+          if (Math.abs(bundler.getBundleSize() - max / nbBundlers) > 1) return false;
+        }
+        return true;
+      }, 5000L, 10L, false));
+    } finally {
+      executor.shutdownNow();
+      for (final ProportionalBundler bundler: bundlers) bundler.dispose();
+    }
+  }
+
+  /**
+   * Test that the bundle size of a bundler remains the initial size until it receives a feedback, even when the proportions are recomputed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testInitialSizeUntilFeedback() throws Exception {
+    final ProportionalBundler first = createBundler(), second = createBundler();
+    try {
+      assertEquals(5, first.getBundleSize());
+      first.feedback(10, 10e6d);
+      assertTrue(ConcurrentUtils.awaitCondition(() -> first.getBundleSize() != 5, 5000L, 10L, false));
+      assertEquals(5, second.getBundleSize());
+      second.feedback(10, 10e6d);
+      assertTrue(ConcurrentUtils.awaitCondition(() -> second.getBundleSize() != 5, 5000L, 10L, false));
+    } finally {
+      first.dispose();
+      second.dispose();
+    }
+  }
+
+  /**
+   * Test that the background recomputation of the proportions stops when all the bundlers are disposed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testRefresherStopped() throws Exception {
+    final ProportionalBundler bundler = createBundler();
+    try {
+      assertTrue(ConcurrentUtils.awaitCondition(() -> isRefresherAlive(), 5000L, 10L, false));
+    } finally {
+      bundler.dispose();
+    }
+    assertTrue(ConcurrentUtils.awaitCondition(() -> !isRefresherAlive(), 5000L, 10L, false));
+  }
+
+  /**
+   * Determine whether the thread which recomputes the proportions is alive.
+   * @return {@code true} if the thread is alive, {@code false} otherwise.
+   */
+  private static boolean isRefresherAlive() {
+    for (final Thread thread: Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().startsWith("ProportionalBundlerRefresher") && thread.isAlive()) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Create and set up a proportional bundler.
+   * @return a new {@link ProportionalBundler}.
+   */
+  private static ProportionalBundler createBundler() {
+    return BundlerTestHelper.newBundler(new ProportionalBundlerProvider(), new TypedProperties().setInt("initialSize", 5).setInt("performanceCacheSize", 100));
+  }
+}
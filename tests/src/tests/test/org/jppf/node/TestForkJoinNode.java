@@ -0,0 +1,211 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.node;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jppf.client.JPPFJob;
+import org.jppf.node.protocol.*;
+import org.jppf.utils.ReflectionUtils;
+import org.junit.*;
+
+import test.org.jppf.test.setup.*;
+
+/**
+ * Test that tasks executed by a node configured with the fork/join thread manager can fork subtasks into the node's pool.
+ * @author Laurent Cohen
+ */
+public class TestForkJoinNode extends AbstractNonStandardSetup {
+  /**
+   * Launch 1 driver with 1 node and start the client.
+   * @throws Exception if a process could not be started.
+   */
+  @BeforeClass
+  public static void setup() throws Exception {
+    client = BaseSetup.setup(1, 1, true, true, createConfig("forkjoin"));
+  }
+
+  /**
+   * Test that tasks run in the fork/join pool of the node and that the subtasks they fork and join compute the expected results.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testRecursiveTasks() throws Exception {
+    final int nbTasks = 5;
+    final JPPFJob job = new JPPFJob();
+    job.setName(ReflectionUtils.getCurrentMethodName());
+    for (int i=0; i<nbTasks; i++) job.add(new SumTask(i * 100_000L, (i + 1) * 100_000L)).setId(job.getName() + " - task " + i);
+    final List<Task<?>> results = client.submit(job);
+    assertNotNull(results);
+    assertEquals(nbTasks, results.size());
+    for (int i=0; i<nbTasks; i++) {
+      final SumTask task = (SumTask) results.get(i);
+      assertNull(task.getThrowable());
+      final long lo = i * 100_000L, hi = (i + 1) * 100_000L;
+      assertEquals(Long.valueOf((hi - 1 + lo) * (hi - lo) / 2), task.getResult());
+      assertTrue(task.inForkJoinPool);
+    }
+  }
+
+  /**
+   * Test that the subtasks forked but not joined by a task are completed before the task is sent back,
+   * and that the exception raised by a subtask is set onto its parent task.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testUnjoinedSubtasks() throws Exception {
+    final int nbSubtasks = 10;
+    final JPPFJob job = new JPPFJob();
+    job.setName(ReflectionUtils.getCurrentMethodName());
+    job.add(new UnjoinedTask(nbSubtasks, false));
+    job.add(new UnjoinedTask(nbSubtasks, true));
+    final List<Task<?>> results = client.submit(job);
+    assertNotNull(results);
+    assertEquals(2, results.size());
+    final UnjoinedTask task1 = (UnjoinedTask) results.get(0), task2 = (UnjoinedTask) results.get(1);
+    assertNull(task1.getThrowable());
+    assertEquals(nbSubtasks, task1.counter.get());
+    assertNotNull(task2.getThrowable());
+    assertTrue(task2.getThrowable() instanceof IllegalStateException);
+  }
+
+  /**
+   * A task which computes the sum of a range of numbers with recursive subtasks.
+   */
+  public static class SumTask extends AbstractTask<Long> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The bounds of the range of numbers to sum.
+     */
+    private final long lo, hi;
+    /**
+     * Whether this task was executed by a fork/join pool.
+     */
+    private boolean inForkJoinPool;
+
+    /**
+     * @param lo the lower bound of the range, inclusive.
+     * @param hi the upper bound of the range, exclusive.
+     */
+    public SumTask(final long lo, final long hi) {
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    @Override
+    public void run() {
+      inForkJoinPool = ForkJoinTask.inForkJoinPool();
+      setResult(fork(new RecursiveSum(lo, hi)).join());
+    }
+  }
+
+  /**
+   * A recursive subtask which splits its range of numbers in two until it is small enough.
+   */
+  public static class RecursiveSum extends RecursiveTask<Long> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The bounds of the range of numbers to sum.
+     */
+    private final long lo, hi;
+
+    /**
+     * @param lo the lower bound of the range, inclusive.
+     * @param hi the upper bound of the range, exclusive.
+     */
+    public RecursiveSum(final long lo, final long hi) {
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    @Override
+    protected Long compute() {
+      if (hi - lo <= 1000L) {
+        long sum = 0L;
+        for (long i=lo; i<hi; i++) sum += i;
+        return sum;
+      }
+      final long mid = (lo + hi) / 2L;
+      final RecursiveSum left = new RecursiveSum(lo, mid);
+      left.fork();
+      return new RecursiveSum(mid, hi).compute() + left.join();
+    }
+  }
+
+  /**
+   * A task which forks subtasks without joining them.
+   */
+  public static class UnjoinedTask extends AbstractTask<String> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The number of subtasks to fork.
+     */
+    private final int nbSubtasks;
+    /**
+     * Whether the last subtask should raise an exception.
+     */
+    private final boolean raiseException;
+    /**
+     * Counts the completed subtasks.
+     */
+    private final AtomicInteger counter = new AtomicInteger(0);
+
+    /**
+     * @param nbSubtasks the number of subtasks to fork.
+     * @param raiseException whether the last subtask should raise an exception.
+     */
+    public UnjoinedTask(final int nbSubtasks, final boolean raiseException) {
+      this.nbSubtasks = nbSubtasks;
+      this.raiseException = raiseException;
+    }
+
+    @Override
+    public void run() {
+      for (int i=0; i<nbSubtasks; i++) {
+        final boolean fail = raiseException && (i == nbSubtasks - 1);
+        fork(new RecursiveAction() {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected void compute() {
+            try {
+              Thread.sleep(100L);
+            } catch (@SuppressWarnings("unused") final InterruptedException e) {
+            }
+            if (fail) throw new IllegalStateException("subtask failure");
+            counter.incrementAndGet();
+          }
+        });
+      }
+    }
+  }
+}
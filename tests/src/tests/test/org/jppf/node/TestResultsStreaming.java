@@ -0,0 +1,138 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.node;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jppf.client.JPPFJob;
+import org.jppf.client.event.*;
+import org.jppf.node.protocol.Task;
+import org.jppf.utils.ReflectionUtils;
+import org.junit.*;
+
+import test.org.jppf.test.setup.*;
+import test.org.jppf.test.setup.common.*;
+
+/**
+ * Test that the nodes send the result of each task as soon as it completes, when results streaming is enabled.
+ * @author Laurent Cohen
+ */
+public class TestResultsStreaming extends AbstractNonStandardSetup {
+  /**
+   * Number of tasks in each bundle sent to the node, as per the driver's load-balancing configuration.
+   */
+  private static final int BUNDLE_SIZE = 5;
+
+  /**
+   * Launch 1 driver with 1 node and start the client.
+   * @throws Exception if a process could not be started.
+   */
+  @BeforeClass
+  public static void setup() throws Exception {
+    client = BaseSetup.setup(1, 1, true, true, createConfig("results_streaming"));
+  }
+
+  /**
+   * Test that the results of the fast tasks in a bundle are received without waiting for the slow task in the same bundle.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testStreamedResults() throws Exception {
+    final int nbTasks = 2 * BUNDLE_SIZE;
+    final JPPFJob job = createJob(ReflectionUtils.getCurrentMethodName(), nbTasks, 1000L);
+    final AtomicInteger returnedCount = new AtomicInteger(0);
+    job.addJobListener(new JobListenerAdapter() {
+      @Override
+      public void jobReturned(final JobEvent event) {
+        returnedCount.incrementAndGet();
+      }
+    });
+    final List<Task<?>> results = client.submit(job);
+    checkResults(results, nbTasks);
+    // without streaming, there would be exactly one notification per bundle
+    assertTrue("returnedCount = " + returnedCount.get(), returnedCount.get() > nbTasks / BUNDLE_SIZE);
+    // the final results messages must be read entirely, so the node can still execute jobs
+    final JPPFJob job2 = createJob(ReflectionUtils.getCurrentMethodName() + "-2", nbTasks, 100L);
+    checkResults(client.submit(job2), nbTasks);
+  }
+
+  /**
+   * Test that a job is cancelled properly after some of its tasks results were streamed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testCancelAfterStreamedResults() throws Exception {
+    final int nbTasks = BUNDLE_SIZE;
+    final JPPFJob job = createJob(ReflectionUtils.getCurrentMethodName(), nbTasks, 5000L);
+    final CountDownLatch latch = new CountDownLatch(1);
+    job.addJobListener(new JobListenerAdapter() {
+      @Override
+      public void jobReturned(final JobEvent event) {
+        latch.countDown();
+      }
+    });
+    client.submitAsync(job);
+    assertTrue(latch.await(5000L, TimeUnit.MILLISECONDS));
+    assertTrue(job.cancel());
+    final List<Task<?>> results = job.awaitResults(5000L);
+    assertNotNull(results);
+    assertEquals(nbTasks, results.size());
+    int nbSuccessful = 0;
+    for (final Task<?> task: results) {
+      if (BaseTestHelper.EXECUTION_SUCCESSFUL_MESSAGE.equals(task.getResult())) nbSuccessful++;
+    }
+    assertTrue("nbSuccessful = " + nbSuccessful, nbSuccessful >= 1);
+    assertTrue("nbSuccessful = " + nbSuccessful, nbSuccessful < nbTasks);
+  }
+
+  /**
+   * Create a job where the last task of each bundle is much slower than the others.
+   * @param name the name of the job.
+   * @param nbTasks the number of tasks in the job.
+   * @param slowDuration the duration of the slow tasks.
+   * @return the created job.
+   * @throws Exception if any error occurs.
+   */
+  private static JPPFJob createJob(final String name, final int nbTasks, final long slowDuration) throws Exception {
+    final JPPFJob job = new JPPFJob();
+    job.setName(name);
+    for (int i=0; i<nbTasks; i++) job.add(new LifeCycleTask((i % BUNDLE_SIZE == BUNDLE_SIZE - 1) ? slowDuration : 1L)).setId(name + " - task " + i);
+    return job;
+  }
+
+  /**
+   * Check that all the tasks in a job executed successfully.
+   * @param results the job results.
+   * @param nbTasks the expected number of results.
+   */
+  private static void checkResults(final List<Task<?>> results, final int nbTasks) {
+    assertNotNull(results);
+    assertEquals(nbTasks, results.size());
+    final Set<Integer> positions = new HashSet<>();
+    for (final Task<?> task: results) {
+      assertNull(task.getThrowable());
+      assertEquals(BaseTestHelper.EXECUTION_SUCCESSFUL_MESSAGE, task.getResult());
+      assertTrue(positions.add(task.getPosition()));
+    }
+  }
+}
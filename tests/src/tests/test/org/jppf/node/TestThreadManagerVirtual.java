@@ -0,0 +1,229 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.node;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jppf.client.JPPFJob;
+import org.jppf.execute.*;
+import org.jppf.node.protocol.AbstractTask;
+import org.jppf.scheduling.*;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the virtual threads thread manager.
+ * @author Laurent Cohen
+ */
+public class TestThreadManagerVirtual extends BaseTest {
+  /**
+   * Handles the tasks timeouts.
+   */
+  private static JPPFScheduleHandler timeoutHandler;
+
+  /**
+   * Create the timeout handler.
+   */
+  @BeforeClass
+  public static void setup() {
+    timeoutHandler = new JPPFScheduleHandler("TestThreadManagerVirtual timeout handler");
+  }
+
+  /**
+   * Close the timeout handler.
+   */
+  @AfterClass
+  public static void teardown() {
+    timeoutHandler.clear(true);
+  }
+
+  /**
+   * Test that the default thread manager is used when the JVM does not support virtual threads.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testFallback() throws Exception {
+    // only applies to JVMs older than Java 21
+    if (ThreadManagerVirtual.isSupported()) return;
+    final TypedProperties config = createConfig(8);
+    final ThreadManager manager = ThreadManager.newInstance(config, JPPFProperties.PROCESSING_THREADS);
+    try {
+      assertTrue(manager instanceof ThreadManagerThreadPool);
+      assertEquals(ThreadManager.computePoolSize(new TypedProperties(), JPPFProperties.PROCESSING_THREADS), manager.getPoolSize());
+    } finally {
+      manager.getExecutorService().shutdownNow();
+    }
+  }
+
+  /**
+   * Test that the number of tasks executing concurrently on virtual threads does not exceed the configured limit.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testConcurrencyLimit() throws Exception {
+    if (!ThreadManagerVirtual.isSupported()) return;
+    final int concurrency = 8;
+    final TypedProperties config = createConfig(concurrency);
+    final ThreadManager manager = ThreadManager.newInstance(config, JPPFProperties.PROCESSING_THREADS);
+    try {
+      assertTrue(manager instanceof ThreadManagerVirtual);
+      assertEquals(concurrency, manager.getPoolSize());
+      assertEquals(concurrency, (int) config.get(JPPFProperties.PROCESSING_THREADS));
+      final AtomicInteger running = new AtomicInteger(0), maxRunning = new AtomicInteger(0);
+      final List<BlockingTask> tasks = new ArrayList<>();
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i=0; i<4 * concurrency; i++) {
+        final BlockingTask task = new BlockingTask(100L, running, maxRunning);
+        tasks.add(task);
+        futures.add(submit(manager, task));
+      }
+      for (final Future<?> future: futures) future.get();
+      for (final BlockingTask task: tasks) {
+        assertNull(task.getThrowable());
+        assertTrue(task.getResult());
+      }
+      assertTrue("maxRunning = " + maxRunning.get(), maxRunning.get() <= concurrency);
+      assertEquals(0L, manager.computeExecutionInfo().cpuTime);
+    } finally {
+      manager.getExecutorService().shutdownNow();
+    }
+  }
+
+  /**
+   * Test that a task blocked on a virtual thread is interrupted when it times out.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testTimeout() throws Exception {
+    if (!ThreadManagerVirtual.isSupported()) return;
+    final ThreadManager manager = ThreadManager.newInstance(createConfig(2), JPPFProperties.PROCESSING_THREADS);
+    try {
+      final BlockingTask task = new BlockingTask(5000L, new AtomicInteger(0), new AtomicInteger(0));
+      task.setTimeoutSchedule(new JPPFSchedule(200L));
+      final Future<?> future = submit(manager, task);
+      try {
+        future.get();
+        fail("the task should have been cancelled");
+      } catch (@SuppressWarnings("unused") final CancellationException e) {
+      }
+      assertTrue(task.awaitTimeout(5000L));
+      assertTrue(task.timedOut);
+      assertNull(task.getResult());
+    } finally {
+      manager.getExecutorService().shutdownNow();
+    }
+  }
+
+  /**
+   * Create a configuration for the virtual threads thread manager.
+   * @param concurrency the maximum number of concurrently executing tasks.
+   * @return a {@link TypedProperties} instance.
+   */
+  private static TypedProperties createConfig(final int concurrency) {
+    return new TypedProperties()
+      .set(JPPFProperties.THREAD_MANAGER_CLASS, "virtual")
+      .set(JPPFProperties.THREAD_MANAGER_VIRTUAL_CONCURRENCY, concurrency);
+  }
+
+  /**
+   * Submit the specified task to the specified thread manager.
+   * @param manager the thread manager to use.
+   * @param task the task to submit.
+   * @return the future of the execution.
+   */
+  private static Future<?> submit(final ThreadManager manager, final AbstractTask<?> task) {
+    task.setJob(new JPPFJob());
+    final NodeTaskWrapper wrapper = new NodeTaskWrapper(task, task.getClass().getClassLoader(), timeoutHandler);
+    return manager.getExecutorService().submit(wrapper, wrapper);
+  }
+
+  /**
+   * A task which blocks for a specified duration and records the maximum number of concurrently running tasks.
+   */
+  public static class BlockingTask extends AbstractTask<Boolean> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * How long this task blocks.
+     */
+    private final long duration;
+    /**
+     * The number of currently running tasks and its maximum value.
+     */
+    private final transient AtomicInteger running, maxRunning;
+    /**
+     * Counted down when this task times out.
+     */
+    private final transient CountDownLatch timeoutLatch = new CountDownLatch(1);
+    /**
+     * Whether this task timed out.
+     */
+    private boolean timedOut;
+
+    /**
+     * @param duration how long this task blocks.
+     * @param running the number of currently running tasks.
+     * @param maxRunning the maximum number of concurrently running tasks.
+     */
+    public BlockingTask(final long duration, final AtomicInteger running, final AtomicInteger maxRunning) {
+      this.duration = duration;
+      this.running = running;
+      this.maxRunning = maxRunning;
+    }
+
+    @Override
+    public void run() {
+      final int n = running.incrementAndGet();
+      maxRunning.accumulateAndGet(n, Math::max);
+      try {
+        Thread.sleep(duration);
+        setResult(true);
+      } catch (final InterruptedException e) {
+        setThrowable(e);
+      } finally {
+        running.decrementAndGet();
+      }
+    }
+
+    @Override
+    public void onTimeout() {
+      timedOut = true;
+      timeoutLatch.countDown();
+    }
+
+    /**
+     * Wait for this task to time out.
+     * @param timeout the maximum time to wait in milliseconds.
+     * @return whether the task timed out before the specified timeout expired.
+     * @throws InterruptedException if the current thread is interrupted.
+     */
+    public boolean awaitTimeout(final long timeout) throws InterruptedException {
+      return timeoutLatch.await(timeout, TimeUnit.MILLISECONDS);
+    }
+  }
+}
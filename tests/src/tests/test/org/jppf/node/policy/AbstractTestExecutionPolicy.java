@@ -66,6 +66,7 @@ public class AbstractTestExecutionPolicy extends BaseTest {
    */
   static void checkPolicy(final ExecutionPolicy policy, final boolean expected) throws Exception {
     assertEquals(expected, policy.accepts(systemInfo));
+    assertEquals(expected, PolicyUtils.compile(policy).evaluate(systemInfo));
     final String s1 = policy.toString();
     print(false, false, "checking policy:\n%s", s1);
     final String str = new StringBuilder("<jppf:ExecutionPolicy xmlns:jppf='http://www.jppf.org/schemas/ExecutionPolicy.xsd'>\n")
@@ -28,6 +28,7 @@ import org.jppf.management.JPPFSystemInformation;
 import org.jppf.node.policy.*;
 import org.jppf.node.policy.ExecutionPolicy.*;
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.jppf.utils.stats.*;
 import org.junit.Test;
 
@@ -447,4 +448,116 @@ public class TestExecutionPolicy extends AbstractTestExecutionPolicy {
     }
     assertTrue(exception instanceof JPPFRuntimeException);
   }
+
+  /** @throws Exception if any error occurs. */
+  @Test(timeout=5000)
+  public void testIsCacheable() throws Exception {
+    assertTrue(PolicyUtils.isCacheable(truePolicy1.and(falsePolicy2.or(new Contains("string.1", true, "ng")))));
+    assertTrue(PolicyUtils.isCacheable(new BetweenII("int.1", 0, 10).and(new RegExp("string.1", "str.*"), new OneOf("string.2", false, "a", "b"))));
+    assertFalse(PolicyUtils.isCacheable(null));
+    assertFalse(PolicyUtils.isCacheable(new ScriptedPolicy("javascript", "true")));
+    assertFalse(PolicyUtils.isCacheable(truePolicy1.and(new ScriptedPolicy("javascript", "true"))));
+    assertFalse(PolicyUtils.isCacheable(new Equal("$script{ '${string}' + 4; }$", true, "string4")));
+    assertFalse(PolicyUtils.isCacheable(new Equal("string.4a", true, "${string.4b}")));
+    assertFalse(PolicyUtils.isCacheable(new AtLeast("int.1", "${int.2}")));
+    assertFalse(PolicyUtils.isCacheable(new NodesMatching(Operator.EQUAL, 1L, truePolicy1)));
+    assertFalse(PolicyUtils.isCacheable(truePolicy1.or(new CustomPolicy() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public boolean accepts(final PropertiesCollection<String> info) {
+        return true;
+      }
+    })));
+  }
+
+  /** @throws Exception if any error occurs. */
+  @Test(timeout=5000)
+  public void testStringEqualities() throws Exception {
+    final ExecutionPolicy policy = new Equal("string.1", true, "String1").and(new Equal("string.2", false, "string2").and(truePolicy1), new Equal("string.3", false, "string3").or(truePolicy2));
+    final Map<String, String> equalities = PolicyUtils.getStringEqualities(policy);
+    assertEquals(2, equalities.size());
+    assertEquals("string1", equalities.get("string.1"));
+    assertEquals("string2", equalities.get("string.2"));
+    assertTrue(PolicyUtils.getStringEqualities(new Equal("string.1", true, "string1").not()).isEmpty());
+    assertTrue(PolicyUtils.getStringEqualities(new Equal("string.1", true, "${string.2}")).isEmpty());
+    assertTrue(PolicyUtils.getStringEqualities(null).isEmpty());
+  }
+
+  /** @throws Exception if any error occurs. */
+  @Test(timeout=5000)
+  public void testSystemInformationVersion() throws Exception {
+    final JPPFSystemInformation info = new JPPFSystemInformation(JPPFConfiguration.getProperties(), "test", true, true);
+    long version = info.getVersion();
+    assertEquals(version, info.getVersion());
+    info.getJppf().setString("some.property", "value");
+    assertTrue(info.getVersion() > version);
+    version = info.getVersion();
+    info.getJppf().remove("some.property");
+    assertTrue(info.getVersion() > version);
+    version = info.getVersion();
+    info.getJppf().remove("some.property");
+    assertEquals(version, info.getVersion());
+    info.addProperties("test", new TypedProperties());
+    assertTrue(info.getVersion() > version);
+    version = info.getVersion();
+    info.addProperties("test", new TypedProperties());
+    assertTrue(info.getVersion() > version);
+    // the node idle state does not change the version, including after deserialization
+    version = info.getVersion();
+    info.getJppf().set(JPPFProperties.NODE_IDLE, false);
+    info.getJppf().set(JPPFProperties.NODE_IDLE, true);
+    assertEquals(version, info.getVersion());
+    final JPPFSystemInformation copy = (JPPFSystemInformation) new ObjectSerializerImpl().deserialize(new ObjectSerializerImpl().serialize(info));
+    version = copy.getVersion();
+    copy.getJppf().set(JPPFProperties.NODE_IDLE, false);
+    assertEquals(version, copy.getVersion());
+    copy.getJppf().setString("some.property", "value");
+    assertTrue(copy.getVersion() > version);
+  }
+
+  /** @throws Exception if any error occurs. */
+  @Test(timeout=5000)
+  public void testCompiledPolicy() throws Exception {
+    final JPPFSystemInformation info = new JPPFSystemInformation(JPPFConfiguration.getProperties(), "test", true, true);
+    final TypedProperties test = new TypedProperties().setInt("int.1", 1).setString("string.1", "string1").setString("not.a.number", "abc");
+    info.addProperties("test", test);
+    final ExecutionPolicy[] policies = {
+      new AtLeast("int.1", 1).and(new Equal("string.1", false, "string1"), new RegExp("string.1", "str.*")),
+      new OneOf("int.1", 0, 1, 2).xor(new Contains("string.1", true, "ING"), new BetweenEI("int.1", 0, 1)),
+      new AtLeast("missing", 1).not(), new NotEqual("missing", 1), new NotEqual("not.a.number", 1), new Equal("missing", false, "string1"),
+      new NotEqual("missing", false, "string1"), new OneOf("missing", false, "a", null), new IsMasterNode().or(new IsSlaveNode()),
+      new AtLeast("not.a.number", 1).or(new LessThan("int.1", 2)), new AcceptAll(), new RejectAll(), new Preference(new RejectAll())
+    };
+    for (final ExecutionPolicy policy: policies) {
+      final CompiledPolicy compiled = PolicyUtils.compile(policy);
+      assertSame(compiled, PolicyUtils.compile(policy));
+      assertTrue(compiled.isCompiled());
+      print(false, false, "checking compiled policy:\n%s", policy);
+      assertEquals(policy.evaluate(info), compiled.evaluate(info));
+      // memoized result
+      assertEquals(policy.evaluate(info), compiled.evaluate(info));
+    }
+    // changing a property must invalidate the memoized result
+    final CompiledPolicy compiled = PolicyUtils.compile(new AtLeast("int.1", 2));
+    assertFalse(compiled.evaluate(info));
+    test.setInt("int.1", 2);
+    assertTrue(compiled.evaluate(info));
+    // the values resolved by an evaluation must not leak into the next one
+    final TypedProperties[] props = { new TypedProperties().setInt("int.1", 1), new TypedProperties().setInt("int.1", 3),
+      new TypedProperties().setString("int.1", "abc"), new TypedProperties() };
+    final boolean[] expected = { false, true, false, false };
+    for (int i=0; i<props.length; i++) {
+      final JPPFSystemInformation other = new JPPFSystemInformation(JPPFConfiguration.getProperties(), "test" + i, true, true);
+      other.addProperties("test", props[i]);
+      assertEquals(expected[i], compiled.evaluate(other));
+    }
+    // a policy on the node idle state is not memoized, since the idle state does not change the version
+    final CompiledPolicy idle = PolicyUtils.compile(new Equal(JPPFProperties.NODE_IDLE.getName(), true));
+    info.getJppf().set(JPPFProperties.NODE_IDLE, true);
+    assertTrue(idle.evaluate(info));
+    info.getJppf().set(JPPFProperties.NODE_IDLE, false);
+    assertFalse(idle.evaluate(info));
+    assertFalse(PolicyUtils.compile(new ScriptedPolicy("javascript", "true")).isCompiled());
+  }
 }
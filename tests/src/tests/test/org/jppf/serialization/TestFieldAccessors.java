@@ -0,0 +1,352 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.jppf.serialization.*;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.jppf.utils.streams.StreamUtils;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Round-trip tests of the JPPF serialization with each type of field accessor.
+ * @author Laurent Cohen
+ */
+@RunWith(Parameterized.class)
+public class TestFieldAccessors extends BaseTest {
+  /**
+   * Test timeout.
+   */
+  private static final long TEST_TIMEOUT = 10_000L;
+  /**
+   * The field accessor type to test.
+   */
+  private final String accessorType;
+
+  /**
+   * @return the field accessor types to test.
+   */
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> data() {
+    return Arrays.asList(new Object[] { "reflection" }, new Object[] { "unsafe" });
+  }
+
+  /**
+   * @param accessorType the field accessor type to test.
+   */
+  public TestFieldAccessors(final String accessorType) {
+    this.accessorType = accessorType;
+  }
+
+  /**
+   * Configure the field accessor type.
+   */
+  @Before
+  public void setupAccessorType() {
+    JPPFConfiguration.set(JPPFProperties.SERIALIZATION_FIELD_ACCESSOR, accessorType);
+    JPPFSerialization.Factory.reset();
+  }
+
+  /**
+   * Reset the field accessor type to its default.
+   */
+  @AfterClass
+  public static void resetAccessorType() {
+    JPPFConfiguration.remove(JPPFProperties.SERIALIZATION_FIELD_ACCESSOR);
+    JPPFSerialization.Factory.reset();
+  }
+
+  /**
+   * Test the round trip of primitive and final fields.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = TEST_TIMEOUT)
+  public void testPrimitiveAndFinalFields() throws Exception {
+    final Fields f1 = new Fields(-3);
+    final Fields f2 = copy(f1);
+    assertNotSame(f1, f2);
+    assertEquals(f1.b, f2.b);
+    assertEquals(f1.s, f2.s);
+    assertEquals(f1.i, f2.i);
+    assertEquals(f1.l, f2.l);
+    assertEquals(f1.f, f2.f, 0f);
+    assertEquals(f1.d, f2.d, 0d);
+    assertEquals(f1.c, f2.c);
+    assertEquals(f1.z, f2.z);
+    assertEquals(f1.finalInt, f2.finalInt);
+    assertEquals(f1.finalString, f2.finalString);
+    assertEquals(f1.str, f2.str);
+    assertNull(f2.nullRef);
+  }
+
+  /**
+   * Test the round trip of array fields, including arrays of objects that reference each other.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = TEST_TIMEOUT)
+  public void testArrayFields() throws Exception {
+    final ArrayFields a1 = new ArrayFields();
+    final ArrayFields a2 = copy(a1);
+    assertArrayEquals(a1.bytes, a2.bytes);
+    assertArrayEquals(a1.ints, a2.ints);
+    assertArrayEquals(a1.doubles, a2.doubles, 0d);
+    assertArrayEquals(a1.strings, a2.strings);
+    assertEquals(a1.objects.length, a2.objects.length);
+    for (int i=0; i<a1.objects.length; i++) assertEquals(a1.objects[i].i, a2.objects[i].i);
+    // shared references must be preserved
+    assertSame(a2.objects[0], a2.objects[2]);
+  }
+
+  /**
+   * Test the round trip of fields declared in superclasses, including fields hidden by a subclass field with the same name.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = TEST_TIMEOUT)
+  public void testInheritedFields() throws Exception {
+    final SubFields s1 = new SubFields();
+    final SubFields s2 = copy(s1);
+    assertEquals(s1.i, s2.i);
+    assertEquals(((Fields) s1).str, ((Fields) s2).str);
+    assertEquals(s1.str, s2.str);
+    assertEquals(s1.sub, s2.sub);
+    assertEquals(s1.finalInt, s2.finalInt);
+  }
+
+  /**
+   * Test that deserializing a field value into a field of an incompatible type fails, as happens when the class versions differ
+   * between the serializing and deserializing sides.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = TEST_TIMEOUT)
+  public void testTypeMismatch() throws Exception {
+    final byte[] bytes = serialize(new VersionA());
+    // load VersionB under the name of VersionA, so the "value" field is an Integer instead of a String
+    final ClassLoader cl = new RenamingClassLoader(VersionB.class, VersionA.class.getName(), getClass().getClassLoader());
+    final Thread thread = Thread.currentThread();
+    final ClassLoader oldCl = thread.getContextClassLoader();
+    try {
+      thread.setContextClassLoader(cl);
+      new DefaultJPPFSerialization().deserialize(new ByteArrayInputStream(bytes));
+      fail("deserialization should have failed");
+    } catch (final Exception e) {
+      Throwable t = e;
+      while ((t != null) && !(t instanceof IllegalArgumentException)) t = t.getCause();
+      assertNotNull("expected an IllegalArgumentException, but got " + e, t);
+    } finally {
+      thread.setContextClassLoader(oldCl);
+    }
+  }
+
+  /**
+   * Copy the specified object by serializing then deserializing it.
+   * @param <T> the type of object to copy.
+   * @param o the object to copy.
+   * @return a copy of the object.
+   * @throws Exception if any error occurs.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T copy(final T o) throws Exception {
+    // a new serialization instance each time, so that no field descriptor is reused from another accessor type
+    return (T) new DefaultJPPFSerialization().deserialize(new ByteArrayInputStream(serialize(o)));
+  }
+
+  /**
+   * Serialize the specified object.
+   * @param o the object to serialize.
+   * @return the serialized bytes.
+   * @throws Exception if any error occurs.
+   */
+  private static byte[] serialize(final Object o) throws Exception {
+    final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new DefaultJPPFSerialization().serialize(o, os);
+    return os.toByteArray();
+  }
+
+  /**
+   * A class with primitive, final and reference fields.
+   */
+  public static class Fields implements Serializable {
+    /** Explicit serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+    /** */
+    private byte b = -128;
+    /** */
+    private short s = Short.MIN_VALUE + 1;
+    /** */
+    int i;
+    /** */
+    private long l = Long.MAX_VALUE - 3L;
+    /** */
+    private float f = 3.25f;
+    /** */
+    private double d = -1.0e-300d;
+    /** */
+    private char c = '\u00e9';
+    /** */
+    private boolean z = true;
+    /** */
+    final int finalInt;
+    /** */
+    private final String finalString = new String("final value");
+    /** */
+    String str = "base";
+    /** */
+    private Object nullRef;
+
+    /**
+     * @param i the value of the int fields.
+     */
+    public Fields(final int i) {
+      this.i = i;
+      this.finalInt = 2 * i;
+    }
+  }
+
+  /**
+   * A subclass which hides one of the fields of its superclass.
+   */
+  public static class SubFields extends Fields {
+    /** Explicit serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+    /** */
+    private final String str = "sub";
+    /** */
+    private final List<String> sub = new ArrayList<>(Arrays.asList("a", "b"));
+
+    /** */
+    public SubFields() {
+      super(17);
+    }
+  }
+
+  /**
+   * A class with array fields.
+   */
+  public static class ArrayFields implements Serializable {
+    /** Explicit serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+    /** */
+    private final byte[] bytes = { 0, (byte) 0xFF, 127, -128 };
+    /** */
+    private final int[] ints = { Integer.MIN_VALUE, 0, Integer.MAX_VALUE };
+    /** */
+    private final double[] doubles = { Double.NaN, 1d, -0d };
+    /** */
+    private final String[] strings = { "a", null, "c" };
+    /** */
+    private final Fields[] objects;
+
+    /** */
+    public ArrayFields() {
+      final Fields shared = new Fields(1);
+      objects = new Fields[] { shared, new Fields(2), shared };
+    }
+  }
+
+  /**
+   * The class that is serialized in the type mismatch test.
+   */
+  public static class VersionA implements Serializable {
+    /** Explicit serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+    /** */
+    String value = "a string";
+  }
+
+  /**
+   * Another version of {@link VersionA}, where the field holding a string is declared as an integer.
+   */
+  public static class VersionB implements Serializable {
+    /** Explicit serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+    /** */
+    Integer value = 1;
+  }
+
+  /**
+   * A class loader which loads the bytecode of a class under another name of the same length.
+   */
+  private static class RenamingClassLoader extends ClassLoader {
+    /**
+     * The name to load the class under.
+     */
+    private final String targetName;
+    /**
+     * The bytecode of the class, with its name replaced.
+     */
+    private final byte[] bytecode;
+
+    /**
+     * @param source the class whose bytecode is loaded.
+     * @param targetName the name to load the class under.
+     * @param parent the parent class loader.
+     * @throws Exception if any error occurs.
+     */
+    RenamingClassLoader(final Class<?> source, final String targetName, final ClassLoader parent) throws Exception {
+      super(parent);
+      this.targetName = targetName;
+      final String sourceName = source.getName();
+      try (InputStream is = parent.getResourceAsStream(sourceName.replace('.', '/') + ".class")) {
+        bytecode = StreamUtils.getInputStreamAsByte(is);
+      }
+      replace(bytecode, internalName(sourceName), internalName(targetName));
+    }
+
+    @Override
+    protected synchronized Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+      if (!targetName.equals(name)) return super.loadClass(name, resolve);
+      Class<?> c = findLoadedClass(name);
+      if (c == null) c = defineClass(name, bytecode, 0, bytecode.length);
+      if (resolve) resolveClass(c);
+      return c;
+    }
+
+    /**
+     * @param className a binary class name.
+     * @return the class name as it is written in the bytecode.
+     */
+    private static byte[] internalName(final String className) {
+      return className.replace('.', '/').getBytes();
+    }
+
+    /**
+     * Replace all occurrences of a byte sequence with another of the same length.
+     * @param data the data to modify.
+     * @param from the sequence to replace.
+     * @param to the replacement sequence.
+     */
+    private static void replace(final byte[] data, final byte[] from, final byte[] to) {
+      for (int i=0; i<=data.length - from.length; i++) {
+        int j = 0;
+        while ((j < from.length) && (data[i + j] == from[j])) j++;
+        if (j == from.length) System.arraycopy(to, 0, data, i, to.length);
+      }
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import org.jppf.serialization.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the serialization of large primitive arrays and of byte buffers with the {@link DefaultJPPFSerialization}.
+ * @author Laurent Cohen
+ */
+public class TestJPPFSerializationBuffers extends BaseTest {
+  /**
+   * Number of elements in the arrays, chosen so that they do not fit evenly in the serializer's temporary buffer.
+   */
+  private static final int SIZE = 100_003;
+
+  /**
+   * Test the serialization and deserialization of large arrays of primitive values.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testLargePrimitiveArrays() throws Exception {
+    final Random rand = new Random(SIZE);
+    final ArraysHolder h1 = new ArraysHolder();
+    for (int i=0; i<SIZE; i++) {
+      h1.c[i] = (char) rand.nextInt();
+      h1.s[i] = (short) rand.nextInt();
+      h1.i[i] = rand.nextInt();
+      h1.l[i] = rand.nextLong();
+      h1.f[i] = rand.nextFloat();
+      h1.d[i] = rand.nextGaussian();
+    }
+    h1.f[1] = Float.NaN;
+    h1.d[2] = Double.NEGATIVE_INFINITY;
+    final ArraysHolder h2 = (ArraysHolder) copyBySerialization(h1);
+    assertTrue(Arrays.equals(h1.c, h2.c));
+    assertTrue(Arrays.equals(h1.s, h2.s));
+    assertTrue(Arrays.equals(h1.i, h2.i));
+    assertTrue(Arrays.equals(h1.l, h2.l));
+    assertTrue(Arrays.equals(h1.f, h2.f));
+    assertTrue(Arrays.equals(h1.d, h2.d));
+  }
+
+  /**
+   * Test the serialization and deserialization of heap, direct and read-only byte buffers.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testByteBuffers() throws Exception {
+    final byte[] bytes = new byte[SIZE];
+    new Random(SIZE).nextBytes(bytes);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(SIZE).put(bytes);
+    direct.flip();
+    direct.position(10);
+    final ByteBuffer[] buffers = {
+      ByteBuffer.wrap(bytes, 5, 1000).order(ByteOrder.LITTLE_ENDIAN), direct, ByteBuffer.wrap(bytes).asReadOnlyBuffer(), ByteBuffer.allocate(0)
+    };
+    final ByteBuffer[] copies = (ByteBuffer[]) copyBySerialization(buffers);
+    assertEquals(buffers.length, copies.length);
+    for (int i=0; i<buffers.length; i++) {
+      assertEquals(buffers[i], copies[i]);
+      assertEquals(0, copies[i].position());
+      assertEquals(buffers[i].order(), copies[i].order());
+      assertEquals(buffers[i].isDirect(), copies[i].isDirect());
+      assertEquals(buffers[i].isReadOnly(), copies[i].isReadOnly());
+    }
+  }
+
+  /**
+   * Perform a deep copy of the input object using the JPPF serialization.
+   * @param src the object to copy.
+   * @return a copy of the object.
+   * @throws Exception if any error occurs.
+   */
+  private static Object copyBySerialization(final Object src) throws Exception {
+    final JPPFSerialization ser = new DefaultJPPFSerialization();
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    ser.serialize(src, baos);
+    return ser.deserialize(new ByteArrayInputStream(baos.toByteArray()));
+  }
+
+  /**
+   * Holds a large array for each primitive type that is bulk-copied.
+   */
+  public static class ArraysHolder {
+    /** */
+    public char[] c = new char[SIZE];
+    /** */
+    public short[] s = new short[SIZE];
+    /** */
+    public int[] i = new int[SIZE];
+    /** */
+    public long[] l = new long[SIZE];
+    /** */
+    public float[] f = new float[SIZE];
+    /** */
+    public double[] d = new double[SIZE];
+  }
+}
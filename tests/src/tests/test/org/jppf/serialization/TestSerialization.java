@@ -400,6 +400,33 @@ public class TestSerialization extends AbstractNonStandardSetup {
     //testObject(new DateTimeException("test"));
   }
 
+  /**
+   * Test the serialization and deseralization of an object graph with many instances of the same classes, along with class objects.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = TEST_TIMEOUT)
+  public void testRepeatedClasses() throws Exception {
+    final int nbNodes = 500;
+    final List<Object> list = new ArrayList<>();
+    LinkedNode previous = null;
+    for (int i=0; i<nbNodes; i++) {
+      final LinkedNode node = new LinkedNode(i, previous, (i % 2 == 0) ? LinkedNode.class : int[].class);
+      list.add(node);
+      previous = node;
+    }
+    @SuppressWarnings("unchecked")
+    final List<Object> copy = (List<Object>) copyBySerialization(list);
+    assertEquals(list.size(), copy.size());
+    for (int i=0; i<nbNodes; i++) {
+      final LinkedNode node = (LinkedNode) copy.get(i);
+      assertEquals(i, node.value);
+      assertEquals("node " + i, node.name);
+      assertEquals((i % 2 == 0) ? LinkedNode.class : int[].class, node.type);
+      if (i > 0) assertSame(copy.get(i - 1), node.previous);
+      else assertNull(node.previous);
+    }
+  }
+
   /**
    * Test the serialization and deseralization of an object.
    * @param o1 the object to check.
@@ -475,4 +502,31 @@ public class TestSerialization extends AbstractNonStandardSetup {
     /** */
     public boolean[] z = {true, false};
   }
+
+  /**
+   * A serializable object which references another instance of the same class.
+   */
+  public static class LinkedNode implements Serializable {
+    /** */
+    public int value;
+    /** */
+    public String name;
+    /** */
+    public LinkedNode previous;
+    /** */
+    public Class<?> type;
+
+    /**
+     * Initialize this node.
+     * @param value an int value.
+     * @param previous the previous node, if any.
+     * @param type a class object.
+     */
+    public LinkedNode(final int value, final LinkedNode previous, final Class<?> type) {
+      this.value = value;
+      this.name = "node " + value;
+      this.previous = previous;
+      this.type = type;
+    }
+  }
 }
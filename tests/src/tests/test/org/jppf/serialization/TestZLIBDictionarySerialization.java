@@ -0,0 +1,194 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package test.org.jppf.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.jppf.serialization.*;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.jppf.utils.stats.*;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the {@link ZLIBDictionarySerialization} composite serialization.
+ * @author Laurent Cohen
+ */
+public class TestZLIBDictionarySerialization extends BaseTest {
+  /**
+   * The serialization to test.
+   */
+  private JPPFSerialization serialization;
+
+  /**
+   * Configure the serialization to test.
+   * @throws Exception if any error occurs.
+   */
+  @BeforeClass
+  public static void setup() throws Exception {
+    JPPFConfiguration.set(JPPFProperties.OBJECT_SERIALIZATION_CLASS, "ZLIB_DICT " + DefaultJPPFSerialization.class.getName());
+    JPPFSerialization.Factory.reset();
+  }
+
+  /**
+   * Create a new instance of the serialization to test, so that each test starts without measures from the previous tests.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    ZLIBDictionarySerialization.setDictionary(null);
+    serialization = JPPFSerialization.Factory.getSerialization();
+  }
+
+  /**
+   * Reset the serialization.
+   * @throws Exception if any error occurs.
+   */
+  @AfterClass
+  public static void cleanup() throws Exception {
+    ZLIBDictionarySerialization.setDictionary(null);
+    JPPFConfiguration.remove(JPPFProperties.OBJECT_SERIALIZATION_CLASS);
+    JPPFSerialization.Factory.reset();
+  }
+
+  /**
+   * Test that a dictionary trained from similar objects improves the compression of another similar object.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testTrainedDictionary() throws Exception {
+    assertTrue(serialization instanceof ZLIBDictionarySerialization);
+    final List<SampleObject> samples = new ArrayList<>();
+    for (int i=0; i<100; i++) samples.add(new SampleObject(i));
+    final CompressionDictionary dictionary = CompressionDictionary.train(new DefaultJPPFSerialization(), samples, 8 * 1024);
+    assertTrue(dictionary.getData().length > 0);
+    assertTrue(dictionary.getData().length <= 8 * 1024);
+    final SampleObject object = new SampleObject(1000);
+    ZLIBDictionarySerialization.setDictionary(null);
+    final byte[] withoutDictionary = serialize(object);
+    ZLIBDictionarySerialization.setDictionary(dictionary);
+    assertSame(dictionary, CompressionDictionary.get(dictionary.getId()));
+    final JPPFStatistics stats = ZLIBDictionarySerialization.getStatistics();
+    final long compressedCount = stats.getSnapshot(JPPFStatisticsHelper.COMPRESSION_RATIO).getValueCount();
+    final byte[] withDictionary = serialize(object);
+    print(false, false, "size without dictionary = %d, with dictionary = %d", withoutDictionary.length, withDictionary.length);
+    assertTrue(withDictionary.length < withoutDictionary.length);
+    assertEquals(compressedCount + 1, stats.getSnapshot(JPPFStatisticsHelper.COMPRESSION_RATIO).getValueCount());
+    final SampleObject result = (SampleObject) serialization.deserialize(new ByteArrayInputStream(withDictionary));
+    assertEquals(object, result);
+  }
+
+  /**
+   * Test that a payload which does not compress is sent as is in adaptive mode.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testIncompressiblePayload() throws Exception {
+    final byte[] data = new byte[10_000];
+    new Random(data.length).nextBytes(data);
+    final JPPFStatistics stats = ZLIBDictionarySerialization.getStatistics();
+    final double skipped = stats.getSnapshot(JPPFStatisticsHelper.COMPRESSION_SKIPPED).getTotal();
+    final byte[] serialized = serialize(data);
+    final ByteArrayOutputStream raw = new ByteArrayOutputStream();
+    new DefaultJPPFSerialization().serialize(data, raw);
+    assertEquals(raw.size() + 1, serialized.length);
+    assertEquals(skipped + 1d, stats.getSnapshot(JPPFStatisticsHelper.COMPRESSION_SKIPPED).getTotal(), 0d);
+    final byte[] result = (byte[]) serialization.deserialize(new ByteArrayInputStream(serialized));
+    assertTrue(Arrays.equals(data, result));
+  }
+
+  /**
+   * Test that registered statistics, such as those of a driver, receive the compression values until they are unregistered.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testRegisteredStatistics() throws Exception {
+    final JPPFStatistics stats = new JPPFStatistics();
+    ZLIBDictionarySerialization.registerStatistics(stats);
+    try {
+      assertNotNull(stats.getSnapshot(JPPFStatisticsHelper.COMPRESSION_IN_BYTES));
+      final byte[] serialized = serialize(new SampleObject(1));
+      serialization.deserialize(new ByteArrayInputStream(serialized));
+      assertTrue(stats.getSnapshot(JPPFStatisticsHelper.COMPRESSION_IN_BYTES).getTotal() > 0d);
+      assertEquals(serialized.length, stats.getSnapshot(JPPFStatisticsHelper.COMPRESSION_OUT_BYTES).getTotal(), 0d);
+      assertEquals(1L, stats.getSnapshot(JPPFStatisticsHelper.DECOMPRESSION_TIME).getValueCount());
+    } finally {
+      ZLIBDictionarySerialization.unregisterStatistics(stats);
+    }
+    final double total = stats.getSnapshot(JPPFStatisticsHelper.COMPRESSION_OUT_BYTES).getTotal();
+    serialize(new SampleObject(2));
+    assertEquals(total, stats.getSnapshot(JPPFStatisticsHelper.COMPRESSION_OUT_BYTES).getTotal(), 0d);
+  }
+
+  /**
+   * Serialize the specified object with the tested serialization.
+   * @param o the object to serialize.
+   * @return the serialized object as an array of bytes.
+   * @throws Exception if any error occurs.
+   */
+  private byte[] serialize(final Object o) throws Exception {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    serialization.serialize(o, baos);
+    return baos.toByteArray();
+  }
+
+  /**
+   * A serializable object whose instances only differ by a few values.
+   */
+  public static class SampleObject implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /** */
+    private final String id;
+    /** */
+    private final String description = "a task computing the price of an option with a Monte Carlo simulation";
+    /** */
+    private final String currency = "USD";
+    /** */
+    private final double[] parameters;
+
+    /**
+     * @param index the index of this object.
+     */
+    public SampleObject(final int index) {
+      this.id = "job-0001-task-" + index;
+      this.parameters = new double[] { 0.05d, 0.2d, 100d, index };
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof SampleObject)) return false;
+      final SampleObject other = (SampleObject) obj;
+      return id.equals(other.id) && description.equals(other.description) && currency.equals(other.currency) && Arrays.equals(parameters, other.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+      return id.hashCode();
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.nio.classloader;
+
+import static org.junit.Assert.*;
+
+import org.jppf.server.nio.classloader.ClassCache;
+import org.jppf.utils.stats.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the {@link ClassCache} class.
+ * @author Laurent Cohen
+ */
+public class TestClassCache extends BaseTest {
+  /**
+   * Test that the lookups and the statistics are consistent.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 5000)
+  public void testLookupsAndStatistics() throws Exception {
+    for (final boolean offHeap: new boolean[] { false, true }) {
+      final JPPFStatistics stats = JPPFStatisticsHelper.createServerStatistics();
+      final ClassCache cache = new ClassCache(1024L, offHeap, stats);
+      final byte[] content = new byte[100];
+      for (int i=0; i<content.length; i++) content[i] = (byte) i;
+      cache.setCacheContent("uuid1", "res1", content);
+      assertArrayEquals(content, cache.getCacheContent("uuid1", "res1"));
+      assertNull(cache.getCacheContent("uuid2", "res1"));
+      assertNull(cache.getCacheContent("uuid1", "res2"));
+      assertEquals(1L, cache.getHits());
+      assertEquals(2L, cache.getMisses());
+      assertEquals(1d / 3d, cache.getHitRatio(), 1e-9);
+      assertEquals(100L, cache.getSize());
+      assertEquals(1, cache.getEntryCount());
+      assertEquals(1d, stats.getSnapshot(JPPFStatisticsHelper.CLASS_CACHE_HITS).getTotal(), 0d);
+      assertEquals(2d, stats.getSnapshot(JPPFStatisticsHelper.CLASS_CACHE_MISSES).getTotal(), 0d);
+      assertEquals(100d, stats.getSnapshot(JPPFStatisticsHelper.CLASS_CACHE_BYTES).getLatest(), 0d);
+      // replacing an entry must not count its size twice
+      cache.setCacheContent("uuid1", "res1", content(1, 50));
+      assertEquals(50L, cache.getSize());
+      assertEquals(50d, stats.getSnapshot(JPPFStatisticsHelper.CLASS_CACHE_BYTES).getLatest(), 0d);
+      cache.clear();
+      assertEquals(0L, cache.getSize());
+      assertEquals(0, cache.getEntryCount());
+      assertEquals(0d, stats.getSnapshot(JPPFStatisticsHelper.CLASS_CACHE_BYTES).getLatest(), 0d);
+    }
+  }
+
+  /**
+   * Test that the size of the cache is bounded and that recently looked up entries are evicted last.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 5000)
+  public void testEviction() throws Exception {
+    final JPPFStatistics stats = JPPFStatisticsHelper.createServerStatistics();
+    final ClassCache cache = new ClassCache(1000L, false, stats);
+    for (int i=0; i<10; i++) cache.setCacheContent("uuid", "res" + i, content(i, 100));
+    assertEquals(1000L, cache.getSize());
+    assertEquals(0L, cache.getEvictions());
+    // reference res0, which should then survive the next eviction
+    assertNotNull(cache.getCacheContent("uuid", "res0"));
+    cache.setCacheContent("uuid", "res10", content(10, 100));
+    assertEquals(1000L, cache.getSize());
+    assertEquals(1L, cache.getEvictions());
+    assertNotNull(cache.getCacheContent("uuid", "res0"));
+    assertNull(cache.getCacheContent("uuid", "res1"));
+    assertNotNull(cache.getCacheContent("uuid", "res10"));
+    // a resource larger than the cache is not cached
+    cache.setCacheContent("uuid", "big", content(-1, 2000));
+    assertNull(cache.getCacheContent("uuid", "big"));
+    assertEquals(1000L, cache.getSize());
+    for (int i=11; i<100; i++) cache.setCacheContent("uuid", "res" + i, content(i, 100));
+    assertEquals(1000L, cache.getSize());
+    assertEquals(10, cache.getEntryCount());
+    assertEquals(90L, cache.getEvictions());
+    assertEquals(90d, stats.getSnapshot(JPPFStatisticsHelper.CLASS_CACHE_EVICTIONS).getTotal(), 0d);
+  }
+
+  /**
+   * Test that identical contents provided under different uuids are only stored once.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 5000)
+  public void testDeduplication() throws Exception {
+    final JPPFStatistics stats = JPPFStatisticsHelper.createServerStatistics();
+    final ClassCache cache = new ClassCache(1000L, false, stats);
+    cache.setCacheContent("uuid1", "res", content(1, 100));
+    cache.setCacheContent("uuid2", "res", content(1, 100));
+    cache.setCacheContent("uuid3", "other", content(1, 100));
+    assertEquals(3, cache.getEntryCount());
+    assertEquals(1, cache.getDistinctContentCount());
+    assertEquals(100L, cache.getSize());
+    assertEquals(100d, stats.getSnapshot(JPPFStatisticsHelper.CLASS_CACHE_BYTES).getLatest(), 0d);
+    assertEquals(cache.getContentHash("uuid1", "res"), cache.getContentHash("uuid3", "other"));
+    assertArrayEquals(content(1, 100), cache.getCacheContent("uuid2", "res"));
+    // the shared content is released only when the last entry referencing it is removed
+    cache.setCacheContent("uuid1", "res", content(2, 100));
+    cache.setCacheContent("uuid2", "res", content(2, 100));
+    assertEquals(2, cache.getDistinctContentCount());
+    assertEquals(200L, cache.getSize());
+    cache.setCacheContent("uuid3", "other", content(3, 100));
+    assertEquals(2, cache.getDistinctContentCount());
+    assertEquals(200L, cache.getSize());
+    assertEquals(200d, stats.getSnapshot(JPPFStatisticsHelper.CLASS_CACHE_BYTES).getLatest(), 0d);
+    assertNull(cache.getContentHash("uuid4", "res"));
+  }
+
+  /**
+   * Test that the hash of a definition about to be sent is that of the definition, even when the cache holds a different content for the same resource.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 5000)
+  public void testContentHashOfSentDefinition() throws Exception {
+    for (final boolean offHeap: new boolean[] { false, true }) {
+      final ClassCache cache = new ClassCache(1000L, offHeap, null);
+      cache.setCacheContent("uuid1", "res", content(1, 100));
+      final byte[] cached = cache.getCacheContent("uuid1", "res");
+      assertEquals(ClassCache.computeHash(cached), cache.getContentHash("uuid1", "res", cached));
+      final byte[] other = content(2, 100);
+      assertEquals(ClassCache.computeHash(other), cache.getContentHash("uuid1", "res", other));
+      assertEquals(ClassCache.computeHash(other), cache.getContentHash("uuid2", "res", other));
+    }
+  }
+
+  /**
+   * Create content which is distinct for each seed.
+   * @param seed the seed from which to generate the content.
+   * @param size the size of the content.
+   * @return the content as an array of bytes.
+   */
+  private static byte[] content(final int seed, final int size) {
+    final byte[] content = new byte[size];
+    for (int i=0; i<size; i++) content[i] = (byte) (seed * 31 + i);
+    return content;
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.protocol;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jppf.io.*;
+import org.jppf.node.protocol.*;
+import org.jppf.server.protocol.*;
+import org.jppf.utils.streams.StreamUtils;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the persisted form of {@link ServerTask}.
+ * @author Laurent Cohen
+ */
+public class TestServerTaskPersistence extends BaseTest {
+  /**
+   * Test that a task is reconstituted from its persisted form, and that its serialized data is referenced rather than copied.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testPersistedTask() throws Exception {
+    final byte[] data = bytes(100_000);
+    final ServerTask task = createTask(data, 7, 3);
+    final DataLocation persisted = task.toPersistedData();
+    assertTrue(persisted instanceof CompositeDataLocation);
+    assertSame(task.getInitialTask(), ((CompositeDataLocation) persisted).getParts()[1]);
+    final ServerTask result = ServerTask.fromPersistedData(persisted.getInputStream());
+    assertEquals(7, result.getPosition());
+    assertEquals(3, result.getMaxResubmits());
+    assertEquals(TaskState.PENDING, result.getState());
+    assertArrayEquals(data, read(result.getInitialTask()));
+  }
+
+  /**
+   * Test that a task persisted with its serialized form is still reconstituted.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testSerializedTask() throws Exception {
+    final byte[] data = bytes(1000);
+    final ServerTask task = createTask(data, 5, 2);
+    task.incResubmitCount();
+    final ServerTask result = ServerTask.fromPersistedData(IOHelper.serializeData(task).getInputStream());
+    assertEquals(5, result.getPosition());
+    assertEquals(2, result.getMaxResubmits());
+    assertEquals(1, result.getTaskResubmitCount());
+    assertArrayEquals(data, read(result.getInitialTask()));
+  }
+
+  /**
+   * Test that a task is reconstituted from a stream which returns a single byte per read, in both its persisted and serialized forms.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testPersistedTaskShortReads() throws Exception {
+    final byte[] data = bytes(1000);
+    final ServerTask task = createTask(data, 6, 4);
+    ServerTask result = ServerTask.fromPersistedData(new OneByteInputStream(task.toPersistedData().getInputStream()));
+    assertEquals(6, result.getPosition());
+    assertEquals(4, result.getMaxResubmits());
+    assertArrayEquals(data, read(result.getInitialTask()));
+    result = ServerTask.fromPersistedData(new OneByteInputStream(IOHelper.serializeData(task).getInputStream()));
+    assertEquals(6, result.getPosition());
+    assertEquals(4, result.getMaxResubmits());
+    assertArrayEquals(data, read(result.getInitialTask()));
+  }
+
+  /**
+   * Test that a task recovered lazily only loads its persisted form when its data is first accessed, and only once.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testLazyPersistedTask() throws Exception {
+    final byte[] data = bytes(10_000);
+    final ServerTask task = createTask(data, 4, 3);
+    task.incResubmitCount();
+    final DataLocation persisted = task.toPersistedData();
+    final AtomicInteger loadCount = new AtomicInteger(0);
+    final ServerTask result = ServerTask.lazyFromPersistedData(new Callable<InputStream>() {
+      @Override
+      public InputStream call() throws Exception {
+        loadCount.incrementAndGet();
+        return persisted.getInputStream();
+      }
+    }, 4, 5);
+    assertEquals(0, loadCount.get());
+    assertEquals(4, result.getPosition());
+    assertEquals(5, result.getMaxResubmits());
+    assertTrue(result.getInitialTask() instanceof LazyDataLocation);
+    assertFalse(((LazyDataLocation) result.getInitialTask()).isLoaded());
+    assertEquals(data.length, result.getInitialTask().getSize());
+    assertEquals(1, loadCount.get());
+    assertEquals(3, result.getMaxResubmits());
+    assertEquals(1, result.getTaskResubmitCount());
+    assertArrayEquals(data, read(result.getInitialTask()));
+    assertArrayEquals(data, read(result.getInitialTask()));
+    assertEquals(1, loadCount.get());
+  }
+
+  /**
+   * Test that an error while loading a lazily recovered task is reported as is by {@link ServerTask#loadInitialTask()}, and that the load can be retried.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testLazyPersistedTaskLoadError() throws Exception {
+    final byte[] data = bytes(1000);
+    final DataLocation persisted = createTask(data, 2, 3).toPersistedData();
+    final AtomicInteger loadCount = new AtomicInteger(0);
+    final ServerTask result = ServerTask.lazyFromPersistedData(new Callable<InputStream>() {
+      @Override
+      public InputStream call() throws Exception {
+        if (loadCount.incrementAndGet() == 1) throw new IOException("load error");
+        return persisted.getInputStream();
+      }
+    }, 2, 3);
+    try {
+      result.loadInitialTask();
+      fail("the load should have failed");
+    } catch (final IOException e) {
+      assertEquals("load error", e.getMessage());
+    }
+    assertFalse(((LazyDataLocation) result.getInitialTask()).isLoaded());
+    result.loadInitialTask();
+    assertTrue(((LazyDataLocation) result.getInitialTask()).isLoaded());
+    assertEquals(2, loadCount.get());
+    assertArrayEquals(data, read(result.getInitialTask()));
+  }
+
+  /**
+   * Test the non-blocking transfer of a composite location, which must be the concatenation of its parts.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testCompositeTransfer() throws Exception {
+    final byte[] data1 = bytes(10), data2 = bytes(50_000);
+    final DataLocation location = new CompositeDataLocation(new MultipleBuffersLocation(data1), new MultipleBuffersLocation(0), new MultipleBuffersLocation(data2));
+    assertEquals(data1.length + data2.length, location.getSize());
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final OutputDestination dest = new StreamOutputDestination(baos);
+    int count = 0;
+    while (count < location.getSize()) {
+      final int n = location.transferTo(dest, false);
+      assertTrue(n > 0);
+      count += n;
+    }
+    final byte[] expected = new byte[data1.length + data2.length];
+    System.arraycopy(data1, 0, expected, 0, data1.length);
+    System.arraycopy(data2, 0, expected, data1.length, data2.length);
+    assertArrayEquals(expected, baos.toByteArray());
+    assertArrayEquals(expected, read(location));
+  }
+
+  /**
+   * Create a task with the specified data.
+   * @param data the serialized task.
+   * @param position the position of the task in the job.
+   * @param maxResubmits the maximum number of resubmits for the task.
+   * @return a {@link ServerTask} instance.
+   */
+  private static ServerTask createTask(final byte[] data, final int position, final int maxResubmits) {
+    final TaskBundle header = new JPPFTaskBundle();
+    header.setSLA(new JobSLA());
+    header.setParameter(BundleParameter.TASK_POSITIONS, new int[] { position });
+    header.setParameter(BundleParameter.TASK_MAX_RESUBMITS, new int[] { maxResubmits });
+    final List<DataLocation> tasks = Arrays.<DataLocation>asList(new MultipleBuffersLocation(data));
+    final ServerTaskBundleClient bundle = new ServerTaskBundleClient(header, null, tasks, false);
+    return bundle.getTaskList().get(0);
+  }
+
+  /**
+   * Read the content of the specified location.
+   * @param location the location to read.
+   * @return the content as an array of bytes.
+   * @throws Exception if any error occurs.
+   */
+  private static byte[] read(final DataLocation location) throws Exception {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    StreamUtils.copyStream(location.getInputStream(), baos, true);
+    return baos.toByteArray();
+  }
+
+  /**
+   * A stream which returns at most one byte per read, like some buffered database streams may do.
+   */
+  private static class OneByteInputStream extends FilterInputStream {
+    /**
+     * @param in the stream to read from.
+     */
+    OneByteInputStream(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      return super.read(b, off, Math.min(len, 1));
+    }
+  }
+
+  /**
+   * Generate an array of bytes with a simple pattern.
+   * @param size the size of the array.
+   * @return an array of bytes.
+   */
+  private static byte[] bytes(final int size) {
+    final byte[] data = new byte[size];
+    for (int i=0; i<size; i++) data[i] = (byte) (i * 31 + 7);
+    return data;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.protocol;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.jppf.client.JPPFJob;
+import org.jppf.management.JMXDriverConnectionWrapper;
+import org.jppf.node.protocol.Task;
+import org.jppf.utils.ReflectionUtils;
+import org.jppf.utils.concurrent.ConcurrentUtils;
+import org.jppf.utils.concurrent.ConcurrentUtils.ConditionFalseOnException;
+import org.jppf.utils.stats.JPPFStatisticsHelper;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.*;
+import test.org.jppf.test.setup.common.*;
+
+/**
+ * Unit tests for the speculative dispatch of the tasks of a job, as specified in the job SLA.
+ * @author Laurent Cohen
+ */
+public class TestSpeculativeDispatch extends Setup1D2N1C {
+  /**
+   * Test that the tasks executing on a node are copied to the idle node, and that each task result is received exactly once.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testSpeculativeDispatch() throws Exception {
+    awaitIdleNodes();
+    final double initialCount = getSpeculativeDispatchCount();
+    final int nbTasks = 3;
+    final JPPFJob job = BaseTestHelper.createJob(ReflectionUtils.getCurrentMethodName(), false, nbTasks, LifeCycleTask.class, 3000L);
+    job.getSLA().setSpeculativeDispatch(true).setSpeculativeDispatchDelay(500L);
+    checkResults(client.submit(job), nbTasks);
+    assertTrue(getSpeculativeDispatchCount() > initialCount);
+  }
+
+  /**
+   * Test that no speculative dispatch occurs when it is not enabled in the job SLA.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testNoSpeculativeDispatch() throws Exception {
+    awaitIdleNodes();
+    final double initialCount = getSpeculativeDispatchCount();
+    final int nbTasks = 3;
+    final JPPFJob job = BaseTestHelper.createJob(ReflectionUtils.getCurrentMethodName(), false, nbTasks, LifeCycleTask.class, 2000L);
+    checkResults(client.submit(job), nbTasks);
+    assertEquals(initialCount, getSpeculativeDispatchCount(), 0d);
+  }
+
+  /**
+   * Check that all the tasks in a job executed successfully and that there is a single result per task.
+   * @param results the job results.
+   * @param nbTasks the expected number of results.
+   */
+  private static void checkResults(final List<Task<?>> results, final int nbTasks) {
+    assertNotNull(results);
+    assertEquals(nbTasks, results.size());
+    final Set<Integer> positions = new HashSet<>();
+    for (final Task<?> task: results) {
+      assertNull(task.getThrowable());
+      assertEquals(BaseTestHelper.EXECUTION_SUCCESSFUL_MESSAGE, task.getResult());
+      assertTrue(positions.add(task.getPosition()));
+    }
+  }
+
+  /**
+   * Wait until all the nodes are idle, so that a speculative dispatch can use any of them.
+   * @throws Exception if any error occurs.
+   */
+  private static void awaitIdleNodes() throws Exception {
+    final JMXDriverConnectionWrapper jmx = BaseSetup.getJMXConnection();
+    assertTrue(ConcurrentUtils.awaitCondition((ConditionFalseOnException) () -> jmx.nbIdleNodes() == BaseSetup.nbNodes(), 5000L, 100L, false));
+  }
+
+  /**
+   * Get the number of speculative dispatches performed by the driver.
+   * @return the number of speculative dispatches.
+   * @throws Exception if any error occurs.
+   */
+  private static double getSpeculativeDispatchCount() throws Exception {
+    final JMXDriverConnectionWrapper jmx = BaseSetup.getJMXConnection();
+    return jmx.statistics().getSnapshot(JPPFStatisticsHelper.SPECULATIVE_DISPATCHES).getTotal();
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.*;
+
+import org.jppf.utils.collections.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the <code>ConcurrentLinkedListSortedMap</code> class.
+ * @author Laurent Cohen
+ */
+public class TestConcurrentLinkedListSortedMap extends BaseTest {
+  /**
+   * Test that the values are ordered by descending key, then by insertion order, as with a {@link LinkedListSortedMap}.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 5000)
+  public void testOrdering() throws Exception {
+    final LinkedListSortedMap<Integer, String> expected = new LinkedListSortedMap<>(new DescendingIntegerComparator());
+    final LinkedListSortedMap<Integer, String> actual = new ConcurrentLinkedListSortedMap<>(new DescendingIntegerComparator());
+    for (final LinkedListSortedMap<Integer, String> map: Arrays.asList(expected, actual)) {
+      map.putValue(0, "a");
+      map.putValue(5, "b");
+      map.putValue(0, "c");
+      map.putValue(-3, "d");
+      map.putValue(5, "e");
+      map.moveToEndOfList(5, "b");
+      assertTrue(map.removeValue(-3, "d"));
+      assertFalse(map.removeValue(-3, "d"));
+    }
+    assertEquals(Arrays.asList("e", "b", "a", "c"), actual.allValues());
+    assertEquals(expected.allValues(), actual.allValues());
+    assertEquals(expected.size(), actual.size());
+    assertFalse(actual.containsKey(-3));
+    final List<String> iterated = new ArrayList<>();
+    for (final String s: actual) iterated.add(s);
+    assertEquals(expected.allValues(), iterated);
+    assertEquals(5, (int) actual.firstKey());
+    assertEquals(0, (int) actual.lastKey());
+  }
+
+  /**
+   * Test that iterating without a lock skips a collection which was emptied but whose key is not yet removed from the map,
+   * as happens transiently during {@link ConcurrentLinkedListSortedMap#removeValue(Object, Object)}.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 5000)
+  public void testIterationSkipsEmptyCollections() throws Exception {
+    final LinkedListSortedMap<Integer, String> map = new ConcurrentLinkedListSortedMap<>(new DescendingIntegerComparator());
+    map.putValue(9, "a");
+    map.putValue(5, "b");
+    map.putValue(0, "c");
+    map.putValue(-3, "d");
+    map.getValues(9).clear();
+    map.getValues(0).clear();
+    map.getValues(-3).clear();
+    final Iterator<String> it = map.iterator();
+    assertTrue(it.hasNext());
+    assertEquals("b", it.next());
+    assertFalse(it.hasNext());
+    try {
+      it.next();
+      fail("next() should throw a NoSuchElementException");
+    } catch (@SuppressWarnings("unused") final NoSuchElementException ignore) {
+    }
+    map.getValues(5).clear();
+    assertFalse(map.iterator().hasNext());
+  }
+
+  /**
+   * Test that reads without a lock remain consistent while another thread modifies the map under a lock.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 15000)
+  public void testLockFreeReads() throws Exception {
+    final LinkedListSortedMap<Integer, Integer> map = new ConcurrentLinkedListSortedMap<>(new DescendingIntegerComparator());
+    final Lock lock = new ReentrantLock();
+    final int nbValues = 10_000, nbReaders = 4;
+    final AtomicBoolean done = new AtomicBoolean(false);
+    final ExecutorService executor = Executors.newFixedThreadPool(nbReaders);
+    try {
+      final List<Future<Integer>> futures = new ArrayList<>();
+      for (int i=0; i<nbReaders; i++) {
+        futures.add(executor.submit(() -> {
+          int nbReads = 0;
+          while (!done.get()) {
+            final List<Integer> values = map.allValues();
+            Integer previousKey = null;
+            for (final Integer value: values) {
+              final int key = value % 10;
+              assertTrue((previousKey == null) || (key <= previousKey));
+              previousKey = key;
+            }
+            for (final Integer value: map) assertNotNull(value);
+            map.isEmpty();
+            nbReads++;
+          }
+          return nbReads;
+        }));
+      }
+      for (int i=0; i<nbValues; i++) {
+        lock.lock();
+        try {
+          map.putValue(i % 10, i);
+          if ((i % 3) == 0) map.removeValue((i / 2) % 10, i / 2);
+        } finally {
+          lock.unlock();
+        }
+      }
+      done.set(true);
+      for (final Future<Integer> future: futures) assertTrue(future.get() > 0);
+    } finally {
+      executor.shutdownNow();
+    }
+    int count = 0;
+    for (int i=0; i<nbValues; i++) {
+      if (map.containsValue(i % 10, i)) count++;
+    }
+    assertEquals(count, map.size());
+    assertEquals(count, map.allValues().size());
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+
+import org.jppf.utils.JPPFBuffer;
+import org.jppf.utils.streams.MultipleBuffersInputStream;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the <code>MultipleBuffersInputStream</code> class.
+ * @author Laurent Cohen
+ */
+public class TestMultipleBuffersInputStream extends BaseTest {
+  /**
+   * Test that <code>read()</code> returns unsigned byte values and crosses buffer boundaries, including empty buffers.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 5000)
+  public void testReadSingleBytes() throws Exception {
+    final byte[] expected = { 0, 1, (byte) 0x7F, (byte) 0x80, (byte) 0xFF, -2 };
+    final JPPFBuffer[] buffers = { new JPPFBuffer(new byte[] { 0, 1 }), new JPPFBuffer(new byte[0]), new JPPFBuffer(new byte[] { (byte) 0x7F, (byte) 0x80, (byte) 0xFF }),
+      new JPPFBuffer(new byte[] { -2, 55 }, 1) };
+    try (final MultipleBuffersInputStream is = new MultipleBuffersInputStream(buffers)) {
+      for (final byte b: expected) assertEquals(b & 0xFF, is.read());
+      assertEquals(-1, is.read());
+      assertEquals(-1, is.read());
+    }
+  }
+
+  /**
+   * Test that <code>read(byte[], int, int)</code> reads across buffers and returns -1 only at the end of the stream.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 5000)
+  public void testReadByteArray() throws Exception {
+    final byte[] data = new byte[1000];
+    for (int i=0; i<data.length; i++) data[i] = (byte) (i * 7);
+    final JPPFBuffer[] buffers = new JPPFBuffer[4];
+    for (int i=0; i<buffers.length; i++) {
+      final byte[] bytes = new byte[250];
+      System.arraycopy(data, 250 * i, bytes, 0, 250);
+      buffers[i] = new JPPFBuffer(bytes);
+    }
+    try (final MultipleBuffersInputStream is = new MultipleBuffersInputStream(buffers)) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] tmp = new byte[97];
+      int n;
+      while ((n = is.read(tmp, 0, tmp.length)) >= 0) {
+        assertTrue(n > 0);
+        out.write(tmp, 0, n);
+      }
+      assertArrayEquals(data, out.toByteArray());
+      assertEquals(-1, is.read(tmp, 0, tmp.length));
+      assertEquals(-1, is.read());
+    }
+  }
+
+  /**
+   * Test that reading from a stream with no data returns -1 right away.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 5000)
+  public void testEmptyStream() throws Exception {
+    try (final MultipleBuffersInputStream is = new MultipleBuffersInputStream(new JPPFBuffer[] { new JPPFBuffer(new byte[0]) })) {
+      assertEquals(-1, is.read(new byte[10], 0, 10));
+    }
+    try (final MultipleBuffersInputStream is = new MultipleBuffersInputStream(new JPPFBuffer[0])) {
+      assertEquals(-1, is.read());
+    }
+  }
+}
@@ -455,6 +455,49 @@ public class TestTypedProperties extends BaseTest {
     assertEquals(Integer.valueOf(11112), props.removeProperty(portProp, "driver2"));
   }
 
+  /**
+   * Test that the modification count is incremented by all the mutators which change the properties, and only by them.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout=5000L)
+  public void testModificationCount() throws Exception {
+    final TypedProperties props = new TypedProperties();
+    long count = props.getModificationCount();
+    props.setString("a", "1");
+    assertTrue(props.getModificationCount() > count);
+    count = props.getModificationCount();
+    assertEquals("1", props.putIfAbsent("a", "2"));
+    assertNull(props.replace("b", "2"));
+    assertFalse(props.replace("a", "2", "3"));
+    assertFalse(props.remove("a", "2"));
+    assertNull(props.remove("b"));
+    assertEquals("1", props.computeIfAbsent("a", k -> "2"));
+    assertNull(props.computeIfPresent("b", (k, v) -> "2"));
+    assertEquals(count, props.getModificationCount());
+    assertNull(props.putIfAbsent("b", "2"));
+    assertEquals(++count, props.getModificationCount());
+    assertEquals("2", props.replace("b", "3"));
+    assertEquals(++count, props.getModificationCount());
+    assertTrue(props.replace("b", "3", "4"));
+    assertEquals(++count, props.getModificationCount());
+    assertEquals("5", props.computeIfPresent("b", (k, v) -> "5"));
+    assertEquals(++count, props.getModificationCount());
+    assertEquals("6", props.compute("b", (k, v) -> "6"));
+    assertEquals(++count, props.getModificationCount());
+    assertEquals("67", props.merge("b", "7", (v1, v2) -> (String) v1 + v2));
+    assertEquals(++count, props.getModificationCount());
+    assertEquals("8", props.computeIfAbsent("c", k -> "8"));
+    assertEquals(++count, props.getModificationCount());
+    props.replaceAll((k, v) -> v + "!");
+    assertEquals(++count, props.getModificationCount());
+    assertTrue(props.remove("c", "8!"));
+    assertEquals(++count, props.getModificationCount());
+    assertEquals("67!", props.remove("b"));
+    assertEquals(++count, props.getModificationCount());
+    props.clear();
+    assertEquals(++count, props.getModificationCount());
+  }
+
   /**
    * Test that the property with the specified key exists in the {@code TypedProperties} container and has the specified value.
    * @param props the {@link TypedProperties} containing the property to check.